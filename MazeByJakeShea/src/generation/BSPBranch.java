@@ -3,6 +3,9 @@
  */
 package generation;
 
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
+
 import org.w3c.dom.Document;
 import org.w3c.dom.Element;
 
@@ -84,6 +87,29 @@ public class BSPBranch extends BSPNode {
 		setLowerBoundY(Math.min(left.getLowerBoundY(), right.getLowerBoundY()));
 		setUpperBoundY(Math.max(left.getUpperBoundY(), right.getUpperBoundY()));
 	}
+	/**
+	 * Constructor for subclasses that provide the left and right branches
+	 * on demand by overriding {@link #getLeftBranch()} and {@link #getRightBranch()}.
+	 * Bounds are given as their values are needed before the branches are.
+	 * @param px x coordinate
+	 * @param py y coordinate
+	 * @param pdx x direction
+	 * @param pdy y direction
+	 * @param lowX is the lower bound for x
+	 * @param lowY is the lower bound for y
+	 * @param highX is the upper bound for x
+	 * @param highY is the upper bound for y
+	 */
+	protected BSPBranch(int px, int py, int pdx, int pdy, int lowX, int lowY, int highX, int highY) {
+		x = px; 
+		y = py;
+		dx = pdx; 
+		dy = pdy;
+		setLowerBoundX(lowX);
+		setUpperBoundX(highX);
+		setLowerBoundY(lowY);
+		setUpperBoundY(highY);
+	}
 	/**
 	 * @return tells if object is a leaf node
 	 */
@@ -122,6 +148,8 @@ public class BSPBranch extends BSPNode {
 		MazeFileWriter.appendChild(doc, mazeXML, "dxBSPNode_" + number, getDx()) ;
 		MazeFileWriter.appendChild(doc, mazeXML, "dyBSPNode_" + number, getDy()) ;
 		// recursively store left and right branches
+		BSPNode lbranch = getLeftBranch();
+		BSPNode rbranch = getRightBranch();
 		if (lbranch == null)
 		{
 			// this is likely to be dead code as BSPBranches seem to have always 2 children
@@ -153,6 +181,28 @@ public class BSPBranch extends BSPNode {
 		return number ; // return the last number that was used
 	}
 
+	/**
+	 * Write the content of a branch node, in particular its left and right children,
+	 * to the given XML stream, same elements and numbering as for {@link #store(Document, Element, int)}.
+	 * Branches of the BSPBuilder always have two children, so there are no
+	 * special cases for missing children.
+	 * @param writer stream to write data to
+	 * @param number is an index number for this node in the XML format
+	 * @return the highest used index number
+	 * @throws XMLStreamException if writing to the stream fails
+	 */
+	@Override
+	public int store(XMLStreamWriter writer, int number) throws XMLStreamException {
+		super.store(writer, number) ; //leaves number unchanged
+		MazeFileWriter.writeElement(writer, "xBSPNode_" + number, getX()) ;
+		MazeFileWriter.writeElement(writer, "yBSPNode_" + number, getY()) ;
+		MazeFileWriter.writeElement(writer, "dxBSPNode_" + number, getDx()) ;
+		MazeFileWriter.writeElement(writer, "dyBSPNode_" + number, getDy()) ;
+		// recursion on the left branch updates the number such that the right branch gets new unique numbers
+		number = getLeftBranch().store(writer, number + 1) ;
+		return getRightBranch().store(writer, number + 1) ;
+	}
+
 	/**
 	 * @return the x
 	 */
@@ -1,8 +1,15 @@
 package generation;
 
-import java.util.ArrayList;
-import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
+import generation.Progress.Phase;
 import gui.Constants;
 
 /**
@@ -14,6 +21,20 @@ import gui.Constants;
  * Paul Falstad granted permission to modify and use code for teaching purposes.
  * Refactored by Peter Kemper
  *
+ * For large lists of walls, the tree is built with the fork-join framework:
+ * subtrees for the left and right side of a splitter are independent of each other
+ * and are built in parallel, so are the grades of splitter candidates.
+ * The resulting tree is the same as the one built sequentially.
+ * The thread that calls generateBSPNodes waits for the result,
+ * passes the progress on to the order and recognizes if it is interrupted.
+ * Progress is counted in walls that end up in leaves, every wall of the maze
+ * ends up in a leaf, possibly split into parts.
+ *
+ * Walls are kept in a WallTable and a list of walls is a range of rows in the table,
+ * so splitting a list of walls does not allocate new lists or walls.
+ * The walls of a leaf are copied into a second table for leaves
+ * such that rows for a subtree can be reused once the subtree is complete.
+ * A task that builds a subtree in parallel gets tables of its own.
  */
 public class BSPBuilder {
 	private final int width ; 				// width of maze
@@ -22,10 +43,15 @@ public class BSPBuilder {
 	private final Floorplan floorplan ;		// floorplan with maze layout
 	private final int colchange ;			// comes from a random number, purpose unclear, 
 	// colchange: reason for randomization unclear, used to determine color of wall 
-	private final int expectedPartiters ; 	// comes from Constants partct array, entry chosen according to skill level
-	// only usage is in updateProgressBar to estimate progress made in the BSP tree construction
-	int partiters = 0 ; // relocated from MazeBuilder attribute partiters here. 
+	final Progress progress ; 		// counts cells scanned for walls and walls in leaves, updated by parallel tasks
 	private final Order order ; 		// current order
+
+	static final int PARALLEL_THRESHOLD = 256 ; // minimum number of walls for parallel computation
+	static final long PROGRESS_INTERVAL = 50 ; // time between progress updates in parallel computation, unit is millisecond
+	static final int SPLIT_SHARE = 6 ; // walls that are split add about a sixth to the walls in leaves
+	int parallelThreshold = PARALLEL_THRESHOLD ; // lists with fewer walls are handled sequentially
+	private boolean parallel ; // true if tasks build the tree in parallel, set before tasks start
+	private volatile boolean cancelled ; // set if the thread waiting for parallel tasks is interrupted
 	/**
 	 * Constructor
 	 * @param order provides the spec for the maze to be generated, will receive the result
@@ -34,18 +60,79 @@ public class BSPBuilder {
 	 * @param width the width of the maze
 	 * @param height the height of the maze
 	 * @param colchange
-	 * @param expectedPartiters the expected number of partition iterations
+	 * @param progress counts the work done, null for a counter of its own
 	 */
-	public BSPBuilder(Order order, Distance dists, Floorplan floorplan, int width, int height, int colchange, int expectedPartiters) {
+	public BSPBuilder(Order order, Distance dists, Floorplan floorplan, int width, int height, int colchange, Progress progress) {
 		this.order = order ;
 		this.dists = dists ;
 		this.floorplan = floorplan ;
 		this.width = width ;
 		this.height = height ;
 		this.colchange = colchange ;
-		this.expectedPartiters = expectedPartiters ;
+		this.progress = (null != progress) ? progress : new Progress() ;
+	}
+
+	/**
+	 * Task that builds the subtree for a list of walls, see genNodes.
+	 */
+	private class GenNodesTask extends RecursiveTask<BSPNode> {
+		private static final long serialVersionUID = 1L;
+		private final transient WallTable table;
+		private final transient WallTable leaves;
+		private final int from;
+		private final int to;
+
+		GenNodesTask(WallTable table, WallTable leaves, int from, int to) {
+			this.table = table;
+			this.leaves = leaves;
+			this.from = from;
+			this.to = to;
+		}
+		@Override
+		protected BSPNode compute() {
+			try {
+				return genNodes(table, leaves, from, to);
+			}
+			catch (InterruptedException e) {
+				throw new CancellationException("BSP tree construction cancelled");
+			}
+		}
+	}
+
+	/**
+	 * Task that calculates the grades for a range of splitter candidates, see findSplitter.
+	 */
+	private static class GradeTask extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+		private static final int MIN_CANDIDATES = 4; // range size below which grades are calculated directly
+		private final transient WallTable table;
+		private final int wallsFrom; // range of rows with walls to split
+		private final int wallsTo;
+		private final int[] candidates; // rows of candidate walls
+		private final int[] grades;
+		private final int from; // range of candidates for this task
+		private final int to;
 
-		partiters = 0 ; // counter for keeping track of progress made in BSP calculation, starts at 0
+		GradeTask(WallTable table, int wallsFrom, int wallsTo, int[] candidates, int[] grades, int from, int to) {
+			this.table = table;
+			this.wallsFrom = wallsFrom;
+			this.wallsTo = wallsTo;
+			this.candidates = candidates;
+			this.grades = grades;
+			this.from = from;
+			this.to = to;
+		}
+		@Override
+		protected void compute() {
+			if (to - from <= MIN_CANDIDATES) {
+				for (int i = from; i < to; i++)
+					grades[i] = table.calculateGrade(candidates[i], wallsFrom, wallsTo);
+				return;
+			}
+			int mid = (from + to) >>> 1;
+			invokeAll(new GradeTask(table, wallsFrom, wallsTo, candidates, grades, from, mid),
+					new GradeTask(table, wallsFrom, wallsTo, candidates, grades, mid, to));
+		}
 	}
 
 	/**
@@ -65,128 +152,170 @@ public class BSPBuilder {
 	 * The code selects the wall that has the minimum grade value as the one 
 	 * for partitioning.
 	 * If all the walls in one node are partitioned, it will stop to split.
-	 * @param walls the list of walls (polygons) to partition
+	 * The list of walls is the range of rows {@code [from, to)} in the given table.
+	 * Left walls stay in place and right walls are appended to the table,
+	 * see {@link WallTable#splitWalls(int, int, int)}.
+	 * Rows that are appended for the subtree are released when the subtree is complete.
+	 * When running in parallel, the left subtree of a large list of walls
+	 * is built by a task of its own on a copy of the left walls. Subtrees do not share walls,
+	 * so the order of computation has no effect on the result.
+	 * @param table the table of walls (polygons)
+	 * @param leaves the table that receives the walls of leaf nodes
+	 * @param from the first row of the walls to partition
+	 * @param to the row after the last row of the walls to partition
 	 * @return root node for BSP tree
 	 * @throws InterruptedException if its executing thread is interrupted
 	 */
-	private BSPNode genNodes(List<Wall> walls) throws InterruptedException {
+	private BSPNode genNodes(WallTable table, WallTable leaves, int from, int to) throws InterruptedException {
+		// tasks check the flag, the thread that builds the tree sequentially checks its own state
+		if (cancelled || (!parallel && Thread.interrupted()))
+			throw new InterruptedException();
 		// Recursion anchor:
 		// if there is no wall with a partition bit set to false, 
 		// there is nothing else to do and we are at a leaf node
-		if (countNonPartitions(walls) == 0)
-			return new BSPLeaf(walls);
+		if (table.countNonPartitions(from, to) == 0)
+			return createLeaf(table, leaves, from, to);
 		// Step: pick the wall that is used to partition all others into left and right
 		// Criterion: from the ones that have a partition bit set to false, 
 		// pick a candidate with a low grade
 		// Note: the splitter remains an element of the walls list but is marked as partitioned
-		Wall splitter = findSplitter(walls);
-		splitter.setPartition(true);
+		int splitter = findSplitter(table, from, to);
+		table.setPartition(splitter, true);
+		// the row of the splitter is overwritten by the split, keep its position
+		final int x = table.getStartPositionX(splitter);
+		final int y = table.getStartPositionY(splitter);
+		final int dx = table.getExtensionX(splitter);
+		final int dy = table.getExtensionY(splitter);
 		
 		// Step: split all walls into two lists
-		// left the resulting list of walls for the left side of the subtree
-		// right the resulting list of walls for the right side of the subtree
-		final ArrayList<Wall> left = new ArrayList<>();
-		final ArrayList<Wall> right = new ArrayList<>();
-		splitter.splitWalls(walls, left, right, colchange);
+		// left the resulting rows [from, leftTo) for the left side of the subtree
+		// right the resulting rows [rightFrom, rightTo) for the right side of the subtree
+		final int rightFrom = table.size();
+		final int leftTo = table.splitWalls(splitter, from, to);
+		final int rightTo = table.size();
 		
 		// Recursion anchor
 		// Case: from the current node, the tree has only 1 branch.
 		// Note: the splitter is in one of the 2 lists, so if one list is empty,
 		// The current node is a leaf and 
 		// we just terminate the recursion with the non-empty list.
-		if (left.isEmpty())
-			return new BSPLeaf(right);
-		if (right.isEmpty())
-			return new BSPLeaf(left);
-		
-		// Case: two sided recursion, need to create a node
-		// and recursively calculate subtrees for both sides.
-		return new BSPBranch(splitter.getStartPositionX(), splitter.getStartPositionY(), 
-				splitter.getExtensionX(), splitter.getExtensionY(), 
-				genNodes(left), genNodes(right)); 
+		BSPNode result;
+		if (leftTo == from)
+			result = createLeaf(table, leaves, rightFrom, rightTo);
+		else if (rightTo == rightFrom)
+			result = createLeaf(table, leaves, from, leftTo);
+		else {
+			// Case: two sided recursion, need to create a node
+			// and recursively calculate subtrees for both sides.
+			BSPNode leftNode;
+			BSPNode rightNode;
+			if (parallel && to - from >= parallelThreshold) {
+				// tables are not shared between tasks, the left task gets a copy of its walls
+				final int n = leftTo - from;
+				WallTable leftTable = new WallTable(n);
+				leftTable.addAll(table, from, leftTo);
+				GenNodesTask leftTask = new GenNodesTask(leftTable, new WallTable(n), 0, n);
+				leftTask.fork();
+				rightNode = genNodes(table, leaves, rightFrom, rightTo);
+				leftNode = leftTask.join();
+			}
+			else {
+				leftNode = genNodes(table, leaves, from, leftTo);
+				rightNode = genNodes(table, leaves, rightFrom, rightTo);
+			}
+			result = new BSPBranch(x, y, dx, dy, leftNode, rightNode);
+		}
+		// the rows of the right side are no longer needed
+		table.truncate(rightFrom);
+		return result;
 	}
-	
 
-    /**
-	 * Counts how many elements in the wall vector have their partition bit set to false
-	 * @param walls all walls
-	 * @return number of walls where the partition flag is not set
+	/**
+	 * Creates a leaf node for the given walls, the walls are copied to the table for leaves
+	 * and are counted as progress
+	 * @param table the table of walls
+	 * @param leaves the table that receives the walls
+	 * @param from the first row of the walls for the leaf
+	 * @param to the row after the last row of the walls for the leaf
+	 * @return the leaf node
 	 */
-	private static int countNonPartitions(List<Wall> walls) {
-		int result = 0 ;
-		for (Wall wall: walls) {
-			if (!wall.isPartition())
-				result++;
-		}
-		return result;
+	private BSPLeaf createLeaf(WallTable table, WallTable leaves, int from, int to) {
+		progress.worked(Phase.BSP, to - from);
+		int start = leaves.addAll(table, from, to);
+		return new BSPLeaf(leaves, start, start + to - from);
 	}
 
 	/**
 	 * It finds the wall which has the minimum grade value.
-	 * @param walls list of walls, remains unchanged
-	 * @return wall that is best candidate according to grade partition (smallest grade)
-	 * @throws InterruptedException if its executing thread is interrupted
+	 * If there are several, it is the first one in the list.
+	 * Grades are calculated in parallel for large lists of walls.
+	 * @param table the table of walls, remains unchanged
+	 * @param from the first row of the list of walls
+	 * @param to the row after the last row of the list of walls
+	 * @return row of the wall that is best candidate according to grade partition (smallest grade)
 	 */
-	private Wall findSplitter(List<Wall> walls) throws InterruptedException {
-		Wall result = null ;
+	private int findSplitter(WallTable table, int from, int to) {
+		int result = -1 ;
 		int bestgrade = 5000; // used to compute the minimum of all observed grade values, set to some high initial value
 		final int maxtries = 50; // constant, only used to determine skip
 		// consider a subset of walls proportional to the number of tries, here 50, seems to randomize the access a bit
-		int skip = (walls.size() / maxtries);
+		int skip = ((to - from) / maxtries);
 		if (skip == 0)
 			skip = 1;
 		assert 0 < skip : "Increment for loop must be positive";
-		for (int i = 0; i < walls.size(); i += skip) {
-			Wall wall = walls.get(i);
+		if (parallel && to - from >= parallelThreshold)
+			return findSplitterInParallel(table, from, to, skip);
+		for (int i = from; i < to; i += skip) {
 			// skip walls where the partition flag was set
-			if (wall.isPartition())
+			if (table.isPartition(i))
 				continue;
-			// provide feedback for progress bar every 32 iterations
-			partiters++;
-			if ((partiters & 31) == 0) {
-				updateProgressBar(partiters); // side effect: update progress bar
-			}
 			// check grade and keep track of minimum
-			int grade = wall.calculateGrade(walls);
+			int grade = table.calculateGrade(i, from, to);
 			if (grade < bestgrade) {
 				bestgrade = grade;
-				result = wall; // determine wall with smallest grade
+				result = i; // determine wall with smallest grade
 			}
 		}
 		return result;
 	}
 
 	/**
-	 * Push information on progress into maze such that UI can update progress bar
-	 * @param partiters counting partition iterations (precise semantics obscure)
-	 * @throws InterruptedException if executing thread is interrupted
+	 * Finds the splitter like findSplitter but calculates the grades in parallel
+	 * @param table the table of walls, remains unchanged
+	 * @param from the first row of the list of walls
+	 * @param to the row after the last row of the list of walls
+	 * @param skip is the increment to select candidates from the list of walls
+	 * @return row of the wall that is best candidate according to grade partition (smallest grade)
 	 */
-	private void updateProgressBar(int partiters) throws InterruptedException {
-		// During maze generation, the most time consuming part needs to occasionally update the current screen
-		// 
-		if (null != order) {
-			int percentage = partiters*100/expectedPartiters ;
-			order.updateProgress(percentage) ;
-			if (percentage < 100) {
-				// give main thread a chance to process keyboard events
-				Thread.sleep(10);
+	private int findSplitterInParallel(WallTable table, int from, int to, int skip) {
+		final int[] candidates = new int[(to - from + skip - 1) / skip];
+		int count = 0;
+		for (int i = from; i < to; i += skip) {
+			if (!table.isPartition(i))
+				candidates[count++] = i;
+		}
+		final int[] grades = new int[count];
+		new GradeTask(table, from, to, candidates, grades, 0, count).invoke();
+		// same selection as in the sequential case: first wall with the smallest grade
+		int result = -1;
+		int bestgrade = 5000;
+		for (int i = 0; i < count; i++) {
+			if (grades[i] < bestgrade) {
+				bestgrade = grades[i];
+				result = candidates[i];
 			}
 		}
+		return result;
 	}
 
 	/**
 	 * Set the partition bit to true for walls on the border and where the direction is 0
-	 * @param walls the list of walls to consider
+	 * @param walls the table of walls to consider
 	 */
-	private void setPartitionBitForCertainWalls(List<Wall> walls) {
-	    for (Wall wall : walls) {
-			wall.updatePartitionIfBorderCase(width*Constants.MAP_UNIT, height*Constants.MAP_UNIT);
-		}
+	private void setPartitionBitForCertainWalls(WallTable walls) {
+		walls.updatePartitionIfBorderCase(0, walls.size(), width*Constants.MAP_UNIT, height*Constants.MAP_UNIT);
 	}
 
-
-
-
 	/**
 	 * Generate tree of BSP nodes for a given maze.
 	 * We use the binary space partitioning algorithm to compute a BSP tree.
@@ -202,7 +331,12 @@ public class BSPBuilder {
 		// We need to determine walls, i.e. wallboards over multiple cells in
 		// a vertical or horizontal direction.
 		ListOfWallsBuilder builder = new ListOfWallsBuilder(width, height, floorplan, dists, colchange);
-		List<Wall> walls = builder.generateWalls(); 
+		WallTable walls = builder.generateWalls(progress); 
+		progress.complete(Phase.WALLS);
+		// now the work for the BSP tree is known
+		progress.expect(Phase.BSP, walls.size() + walls.size() / SPLIT_SHARE);
+		if (null != order)
+			order.updateProgress(progress.getPercentage());
 
 		// The size and balance of the resulting BSP tree depends on 
 		// which polygons are selected for the partitioning.
@@ -218,7 +352,48 @@ public class BSPBuilder {
 		
 		// Start the recursive BSP calculation for the list of polygons
 		// and return the root node of the tree
-		return genNodes(walls); 
+		if (walls.size() < parallelThreshold)
+			return genNodes(walls, new WallTable(walls.size()), 0, walls.size()); 
+		return genNodesInParallel(walls);
+	}
+
+	/**
+	 * Builds the BSP tree with tasks in the common fork-join pool.
+	 * The calling thread waits for the result and passes the progress on to the order meanwhile.
+	 * If the calling thread is interrupted, all tasks are cancelled.
+	 * @param walls the table of walls (polygons) to partition
+	 * @return root node for BSP tree
+	 * @throws InterruptedException if the calling thread is interrupted
+	 */
+	private BSPNode genNodesInParallel(WallTable walls) throws InterruptedException {
+		parallel = true;
+		cancelled = false;
+		ForkJoinTask<BSPNode> task = ForkJoinPool.commonPool().submit(
+				new GenNodesTask(walls, new WallTable(walls.size()), 0, walls.size()));
+		try {
+			while (true) {
+				try {
+					return task.get(PROGRESS_INTERVAL, TimeUnit.MILLISECONDS);
+				}
+				catch (TimeoutException e) {
+					if (null != order)
+						order.updateProgress(progress.getPercentage());
+				}
+			}
+		}
+		catch (InterruptedException e) {
+			// tasks check this flag and stop
+			cancelled = true;
+			task.cancel(false);
+			throw e;
+		}
+		catch (ExecutionException e) {
+			if (e.getCause() instanceof RuntimeException)
+				throw (RuntimeException) e.getCause();
+			if (e.getCause() instanceof Error)
+				throw (Error) e.getCause();
+			throw new RuntimeException(e.getCause());
+		}
 	}
 
 	/**
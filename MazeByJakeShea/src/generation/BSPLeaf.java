@@ -3,8 +3,12 @@
  */
 package generation;
 
+import java.util.ArrayList;
 import java.util.List;
 
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
+
 import org.w3c.dom.Document;
 import org.w3c.dom.Element;
 
@@ -12,6 +16,8 @@ import gui.MazeFileWriter;
 
 /**
  * A leaf node for a tree of BSPNodes. It carries a list of walls. 
+ * The BSPBuilder and the readers for maze files create leaves over a range of rows in a WallTable,
+ * such leaves create their Wall objects when the list of walls is needed first.
  * 
  * This code is refactored code from Maze.java by Paul Falstad, www.falstad.com, Copyright (C) 1998, all rights reserved
  * Paul Falstad granted permission to modify and use code for teaching purposes.
@@ -19,7 +25,10 @@ import gui.MazeFileWriter;
  */
 public class BSPLeaf extends BSPNode {
 
-	private List<Wall> allWalls; // list of walls
+	private List<Wall> allWalls; // list of walls, null till created from table
+	private WallTable table; // table with walls in rows [from, to), null if walls are given as a list
+	private int from;
+	private int to;
 
 	/**
 	 * Constructor
@@ -35,6 +44,45 @@ public class BSPLeaf extends BSPNode {
 		updateBounds();
 	}
 
+	/**
+	 * Constructor
+	 * stores reference to the given table and updates bounds,
+	 * Wall objects are created on the first call to getAllWalls
+	 * @param table holds the walls of this leaf
+	 * @param from is the row of the first wall
+	 * @param to is the row after the last wall, {@code from < to}
+	 */
+	public BSPLeaf(WallTable table, int from, int to) {
+		assert (from < to) : "BSPLeaf needs walls, range is empty!" ;
+		this.table = table;
+		this.from = from;
+		this.to = to;
+		setLowerBoundX(Integer.MAX_VALUE); 
+		setUpperBoundX(Integer.MIN_VALUE);
+		setLowerBoundY(Integer.MAX_VALUE); 
+		setUpperBoundY(Integer.MIN_VALUE); 
+		for (int i = from; i < to; i++) {
+			updateBounds(table.getStartPositionX(i), table.getStartPositionY(i));
+			updateBounds(table.getEndPositionX(i), table.getEndPositionY(i));
+		}
+	}
+
+	/**
+	 * Constructor for subclasses that provide the list of walls
+	 * on demand by overriding {@link #getAllWalls()}.
+	 * Bounds are given as their values are needed before the walls are.
+	 * @param lowX is the lower bound for x
+	 * @param lowY is the lower bound for y
+	 * @param highX is the upper bound for x
+	 * @param highY is the upper bound for y
+	 */
+	protected BSPLeaf(int lowX, int lowY, int highX, int highY) {
+		setLowerBoundX(lowX); 
+		setUpperBoundX(highX);
+		setLowerBoundY(lowY); 
+		setUpperBoundY(highY); 
+	}
+
 	/**
 	 * Update bounds based on min and max values seen in start and end positions
 	 * in the internal list of walls
@@ -49,6 +97,7 @@ public class BSPLeaf extends BSPNode {
             updateBounds(wall.getEndPositionX(), wall.getEndPositionY());
         }
 	}
+
 	/**
 	 * @return tells if object is a leaf node
 	 */
@@ -70,9 +119,10 @@ public class BSPLeaf extends BSPNode {
 		if (!isIsleaf())
 			System.out.println("WARNING: isleaf flag and class are inconsistent!");
 		// store list of walls, store total number of elements first
-		MazeFileWriter.appendChild(doc, mazeXML, "numSeg_" + number, allWalls.size()) ;
+		List<Wall> walls = getAllWalls();
+		MazeFileWriter.appendChild(doc, mazeXML, "numSeg_" + number, walls.size()) ;
 		int i = 0 ;
-		for (Wall wall : allWalls)
+		for (Wall wall : walls)
 		{
 			wall.storeWall(doc, mazeXML, number, i);
 			i++ ;
@@ -80,10 +130,39 @@ public class BSPLeaf extends BSPNode {
 		return number ;
 	}
 
+	/**
+	 * Write the content of a leaf node, in particular its list of walls, to the given XML stream,
+	 * same elements as for {@link #store(Document, Element, int)}.
+	 * @param writer stream to write data to
+	 * @param number is an index number for this node in the XML format
+	 * @return the highest used index number, in this case the given number
+	 * @throws XMLStreamException if writing to the stream fails
+	 */
+	@Override
+	public int store(XMLStreamWriter writer, int number) throws XMLStreamException {
+		super.store(writer, number) ; //leaves number unchanged
+		List<Wall> walls = getAllWalls();
+		MazeFileWriter.writeElement(writer, "numSeg_" + number, walls.size()) ;
+		int i = 0 ;
+		for (Wall wall : walls)
+		{
+			wall.storeWall(writer, number, i);
+			i++ ;
+		}
+		return number ;
+	}
+
 	/**
 	 * @return the list of walls 
 	 */
 	public List<Wall> getAllWalls() {
+		if (null == allWalls) {
+			List<Wall> walls = new ArrayList<>(to - from);
+			for (int i = from; i < to; i++)
+				walls.add(table.toWall(i));
+			allWalls = walls;
+			table = null;
+		}
 		return allWalls;
 	}
 
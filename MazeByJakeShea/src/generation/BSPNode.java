@@ -3,6 +3,9 @@
  */
 package generation;
 
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
+
 import org.w3c.dom.Document;
 import org.w3c.dom.Element;
 
@@ -51,6 +54,24 @@ public class BSPNode {
 		return number ; // unchanged
 	}
 
+	/**
+	 * Write the content of a BSPNode including data of branches and leaves as special cases
+	 * to the given XML stream, same elements as for {@link #store(Document, Element, int)}.
+	 * @param writer stream to write data to
+	 * @param number is an index number for this node in the XML format
+	 * @return the highest used index number, in this case the given number
+	 * @throws XMLStreamException if writing to the stream fails
+	 */
+	public int store(XMLStreamWriter writer, int number) throws XMLStreamException {
+		MazeFileWriter.writeElement(writer, "xlBSPNode_" + number, lowX) ;
+		MazeFileWriter.writeElement(writer, "ylBSPNode_" + number, lowY) ;
+		MazeFileWriter.writeElement(writer, "xuBSPNode_" + number, highX) ;
+		MazeFileWriter.writeElement(writer, "yuBSPNode_" + number, highY) ;
+		MazeFileWriter.writeElement(writer, "isleafBSPNode_" + number, isIsleaf()) ;
+
+		return number ; // unchanged
+	}
+
 	/**
 	 * @return tells if object is a leaf node
 	 */
@@ -23,7 +23,17 @@ package generation;
  *
  */
 public enum CardinalDirection {
-	North, East, South, West ;
+	North(0,-1), East(1,0), South(0,1), West(-1,0) ;
+	
+	// (dx,dy) pair for this direction, same mapping as delivered by getDirection()
+	// kept as fields such that frequent callers need not allocate an array
+	private final int dx;
+	private final int dy;
+	
+	private CardinalDirection(int dx, int dy) {
+		this.dx = dx;
+		this.dy = dy;
+	}
 	/** 
 	 * Gives the direction that results from a 90 degree clockwise rotation
 	 * applied to the current direction. 
@@ -67,7 +77,15 @@ public enum CardinalDirection {
 	 * @return a random direction, distribution is uniform
 	 */
 	public CardinalDirection randomDirection() {
-		int i = SingleRandom.getRandom().nextIntWithinInterval(0, 3) ;
+		return randomDirection(SingleRandom.getRandom());
+	}
+	/**
+	 * Gives a random direction. Values are picked with equal probabilities.
+	 * @param random is the random number generator to use
+	 * @return a random direction, distribution is uniform
+	 */
+	public CardinalDirection randomDirection(SingleRandom random) {
+		int i = random.nextIntWithinInterval(0, 3) ;
 		switch(i) {
 		case 0 : 
 			return CardinalDirection.North ;
@@ -145,4 +163,20 @@ public enum CardinalDirection {
 		}
 		return result ;
 	}
+	/**
+	 * Gives the x part of the (dx,dy) pair for the current direction,
+	 * same as getDirection()[0] but without allocating an array.
+	 * @return dx in {-1,0,1}
+	 */
+	public int getDX() {
+		return dx;
+	}
+	/**
+	 * Gives the y part of the (dx,dy) pair for the current direction,
+	 * same as getDirection()[1] but without allocating an array.
+	 * @return dy in {-1,0,1}
+	 */
+	public int getDY() {
+		return dy;
+	}
 }
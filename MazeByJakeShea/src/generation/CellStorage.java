@@ -0,0 +1,63 @@
+package generation;
+
+/**
+ * This interface describes how the Floorplan stores the integer
+ * encoding of its cells. The Floorplan owns the meaning of the
+ * individual bits (the CW_ constants), a storage only needs to
+ * keep them for each (x,y) position of a width x height grid.
+ *
+ * Separating the storage from the Floorplan allows for different
+ * trade-offs between memory and speed:
+ * {@link FlatCellStorage} keeps a full integer per cell in a single
+ * row-major array, {@link PackedCellStorage} only keeps the bits
+ * the Floorplan actually uses and needs little more than a byte per cell.
+ *
+ * All methods assume that given (x,y) coordinates are
+ * within the legal range {@code [0,width-1],[0,height-1]}
+ * such that no additional parameter checks are performed.
+ *
+ * @author Jake Shea
+ */
+public interface CellStorage {
+	/**
+	 * Gets the width of the grid
+	 * @return the width, {@code 0 <= width}
+	 */
+	int getWidth();
+	/**
+	 * Gets the height of the grid
+	 * @return the height, {@code 0 <= height}
+	 */
+	int getHeight();
+	/**
+	 * Gets the value of the cell at the given position
+	 * @param x coordinate of cell, {@code 0 <= x < width}
+	 * @param y coordinate of cell, {@code 0 <= y < height}
+	 * @return value with internal encoding of wallboards and other attributes
+	 */
+	int get(int x, int y);
+	/**
+	 * Sets all bits of the given bitmask to one for the cell at the given position
+	 * @param x coordinate of cell, {@code 0 <= x < width}
+	 * @param y coordinate of cell, {@code 0 <= y < height}
+	 * @param bitmask is the bitmask to use for adding 1's
+	 */
+	void setBits(int x, int y, int bitmask);
+	/**
+	 * Sets all bits of the given bitmask to zero for the cell at the given position
+	 * @param x coordinate of cell, {@code 0 <= x < width}
+	 * @param y coordinate of cell, {@code 0 <= y < height}
+	 * @param bitmask is the bitmask to use for adding 0's
+	 */
+	void clearBits(int x, int y, int bitmask);
+	/**
+	 * Provides an independent copy of this storage with the same content
+	 * @return the copy
+	 */
+	CellStorage copy();
+	/**
+	 * Estimates the memory needed to keep the cell values of this storage
+	 * @return the number of bytes used for cell values
+	 */
+	long getMemoryFootprint();
+}
@@ -0,0 +1,306 @@
+package generation;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+
+/**
+ * A maze factory that works on many orders at the same time.
+ * Unlike the MazeFactory, which takes at most one order at a time,
+ * this factory hands orders over to an executor, for example a fixed
+ * thread pool or, on a recent Java version, a virtual thread per task executor.
+ *
+ * The number of orders that are accepted but not completed yet,
+ * i.e. running or waiting in the queue of the executor, is bounded by
+ * a given capacity. An order that would exceed the capacity is refused
+ * such that a client can back off instead of piling up work.
+ *
+ * A maze is delivered by the deliver method of its order as usual
+ * and in addition by a CompletableFuture, see {@link #orderAsync(Order)}.
+ * Each order can be cancelled on its own with {@link #cancel(Order)}.
+ *
+ * Each builder has a random number generator of its own, so
+ * a maze only depends on its order and not on other orders
+ * built at the same time.
+ *
+ * @author Jake Shea
+ */
+public class ConcurrentMazeFactory implements Factory, AutoCloseable {
+
+	/**
+	 * Book keeping for an order that is accepted but not completed yet
+	 */
+	private class Job implements Runnable, Order {
+		private final Order order;
+		private final CompletableFuture<Maze> future = new CompletableFuture<>();
+		private Thread thread;      // thread that builds the maze, null if not running, guarded by this
+		private boolean cancelled;  // guarded by this
+		private boolean finished;   // guarded by this
+
+		Job(Order order) {
+			this.order = order;
+		}
+
+		@Override
+		public void run() {
+			synchronized (this) {
+				if (cancelled)
+					return;
+				thread = Thread.currentThread();
+			}
+			try {
+				MazeBuilder builder = MazeFactory.createBuilder(order.getBuilder());
+				if (null != builder) {
+					// the job acts as the order for the builder to learn about the delivery
+					builder.buildOrder(this);
+					builder.run();
+				}
+				if (!future.isDone()) {
+					// builder was interrupted or had no implementation
+					finish();
+					future.cancel(false);
+				}
+			}
+			catch (RuntimeException e) {
+				finish();
+				future.completeExceptionally(e);
+			}
+			finally {
+				synchronized (this) {
+					thread = null;
+				}
+				// clear an interrupt from cancel such that it does not hit the next task on this thread
+				Thread.interrupted();
+				finish();
+			}
+		}
+
+		/**
+		 * Stops the job, if it is running its thread is interrupted.
+		 */
+		void cancel() {
+			synchronized (this) {
+				cancelled = true;
+				if (null != thread)
+					thread.interrupt();
+			}
+			finish();
+			future.cancel(false);
+		}
+
+		/**
+		 * Removes the job from the factory and frees its slot, only the first call has an effect.
+		 * Called before the future completes such that clients waiting for the future
+		 * see the slot as free.
+		 */
+		private void finish() {
+			synchronized (this) {
+				if (finished)
+					return;
+				finished = true;
+			}
+			jobs.remove(order, this);
+			slots.release();
+		}
+
+		/////////////////// Order interface, forwards to the original order /////////////////
+		@Override
+		public int getSkillLevel() {
+			return order.getSkillLevel();
+		}
+		@Override
+		public Builder getBuilder() {
+			return order.getBuilder();
+		}
+		@Override
+		public boolean isPerfect() {
+			return order.isPerfect();
+		}
+		@Override
+		public int getSeed() {
+			return order.getSeed();
+		}
+		@Override
+		public void deliver(Maze mazeConfig) {
+			synchronized (this) {
+				// builder may not notice an interrupt that comes in late
+				if (cancelled)
+					return;
+			}
+			order.deliver(mazeConfig);
+			finish();
+			future.complete(mazeConfig);
+		}
+		@Override
+		public void updateProgress(int percentage) {
+			order.updateProgress(percentage);
+		}
+		@Override
+		public Progress getProgress() {
+			return order.getProgress();
+		}
+	}
+
+	private final Executor executor;
+	private final ExecutorService ownExecutor; // executor created by this factory, null if given by client
+	private final int capacity;
+	private final Semaphore slots; // one permit for each order that can still be accepted
+	private final ConcurrentHashMap<Order, Job> jobs = new ConcurrentHashMap<>();
+
+	/**
+	 * Constructor for a factory with a fixed thread pool of its own
+	 * @param threads is the number of mazes built at the same time, {@code 0 < threads}
+	 * @param capacity is the maximum number of accepted orders that are not completed yet, {@code 0 < capacity}
+	 */
+	public ConcurrentMazeFactory(int threads, int capacity) {
+		this(Executors.newFixedThreadPool(threads), capacity, true);
+	}
+
+	/**
+	 * Constructor for a factory that uses the given executor.
+	 * The executor is not shut down by this factory.
+	 * @param executor runs the maze builders, can not be null
+	 * @param capacity is the maximum number of accepted orders that are not completed yet, {@code 0 < capacity}
+	 */
+	public ConcurrentMazeFactory(Executor executor, int capacity) {
+		this(executor, capacity, false);
+	}
+
+	private ConcurrentMazeFactory(Executor executor, int capacity, boolean owned) {
+		if (capacity <= 0)
+			throw new IllegalArgumentException("ConcurrentMazeFactory: capacity must be positive but is " + capacity);
+		this.executor = executor;
+		this.ownExecutor = owned ? (ExecutorService) executor : null;
+		this.capacity = capacity;
+		slots = new Semaphore(capacity);
+	}
+
+	//////////////////////// Factory interface //////////////////////////////////
+	/**
+	 * {@inheritDoc}
+	 * Refuses the order if the factory is at capacity or if the same
+	 * order is accepted already and not completed yet.
+	 */
+	@Override
+	public boolean order(Order order) {
+		return null != submit(order);
+	}
+
+	/**
+	 * Cancels all orders that are not completed yet.
+	 */
+	@Override
+	public void cancel() {
+		System.out.println("ConcurrentMazeFactory.cancel: cancelling " + jobs.size() + " orders");
+		for (Job job : jobs.values())
+			job.cancel();
+	}
+
+	/**
+	 * Waits till all orders that are accepted so far are completed or cancelled.
+	 */
+	@Override
+	public void waitTillDelivered() {
+		for (Job job : jobs.values()) {
+			try {
+				job.future.join();
+			}
+			catch (CancellationException | CompletionException e) {
+				// order is done either way
+			}
+		}
+	}
+
+	//////////////////////// additional functionality ///////////////////////////
+	/**
+	 * Takes or rejects an order like {@link #order(Order)} and provides
+	 * the maze as a future in addition to the deliver method of the order.
+	 * @param order specifies what kind of maze is wanted
+	 * @return a future that completes with the maze, it is cancelled if
+	 * the order is cancelled and it completes exceptionally with a
+	 * RejectedExecutionException if the order is refused
+	 */
+	public CompletableFuture<Maze> orderAsync(Order order) {
+		Job job = submit(order);
+		if (null == job)
+			return CompletableFuture.failedFuture(
+					new RejectedExecutionException("ConcurrentMazeFactory: order refused"));
+		return job.future;
+	}
+
+	/**
+	 * Cancels the given order if it is not completed yet.
+	 * An order that waits in the queue is not started, an order
+	 * that is running is interrupted and does not get delivered.
+	 * @param order is the order to cancel
+	 * @return true if the order was cancelled, false if it was not found, e.g. as it is completed already
+	 */
+	public boolean cancel(Order order) {
+		Job job = jobs.get(order);
+		if (null == job)
+			return false;
+		job.cancel();
+		return true;
+	}
+
+	/**
+	 * Gets the number of orders that are accepted but not completed yet
+	 * @return the number of pending orders
+	 */
+	public int getPendingCount() {
+		return capacity - slots.availablePermits();
+	}
+
+	/**
+	 * Gets the maximum number of orders that can be pending at the same time
+	 * @return the capacity
+	 */
+	public int getCapacity() {
+		return capacity;
+	}
+
+	/**
+	 * Cancels all pending orders and shuts down the thread pool
+	 * if it was created by this factory.
+	 */
+	@Override
+	public void close() {
+		cancel();
+		if (null != ownExecutor)
+			ownExecutor.shutdown();
+	}
+
+	///////////////////////// private methods ///////////////////////////////////
+	/**
+	 * Accepts the order if there is capacity left and hands it over to the executor
+	 * @param order is the order
+	 * @return the job for the order, null if the order is refused
+	 */
+	private Job submit(Order order) {
+		if (!slots.tryAcquire()) {
+			System.out.println("ConcurrentMazeFactory.order: refusing to take order, at capacity of " + capacity + " orders");
+			return null;
+		}
+		Job job = new Job(order);
+		if (null != jobs.putIfAbsent(order, job)) {
+			System.out.println("ConcurrentMazeFactory.order: refusing to take order, same order is pending");
+			slots.release();
+			return null;
+		}
+		try {
+			executor.execute(job);
+		}
+		catch (RejectedExecutionException e) {
+			System.out.println("ConcurrentMazeFactory.order: refusing to take order, executor does not accept it");
+			job.cancel();
+			return null;
+		}
+		return job;
+	}
+}
@@ -0,0 +1,101 @@
+package generation;
+
+/**
+ * A disjoint-set forest (union-find) over the elements {@code 0..size-1}.
+ * Maze builders use it to keep track of which cells are already connected,
+ * a cell at position (x,y) is usually represented by the element {@code y*width+x}.
+ *
+ * The forest is kept in flat integer arrays. Find operations
+ * compress paths and unions attach the tree of lower rank to the one of
+ * higher rank such that all operations take nearly constant amortized time.
+ *
+ * @author Jake Shea
+ */
+public class DisjointSets {
+	private final int[] parent; // parent[i] == i for a representative
+	private final byte[] rank;  // upper bound on the height of a tree, only valid for representatives
+	private int count;          // current number of sets
+
+	/**
+	 * Constructor, every element starts in a set of its own
+	 * @param size is the number of elements, {@code 0 <= size}
+	 */
+	public DisjointSets(int size) {
+		parent = new int[size];
+		rank = new byte[size];
+		for (int i = 0; i < size; i++)
+			parent[i] = i;
+		count = size;
+	}
+	/**
+	 * Puts every element back into a set of its own
+	 * such that the same object can be reused.
+	 */
+	public void reset() {
+		for (int i = 0; i < parent.length; i++) {
+			parent[i] = i;
+			rank[i] = 0;
+		}
+		count = parent.length;
+	}
+	/**
+	 * Finds the representative of the set that contains the given element.
+	 * Compresses the path such that all elements on it point to the
+	 * representative afterwards.
+	 * @param i is the element, {@code 0 <= i < size}
+	 * @return the representative
+	 */
+	public int find(int i) {
+		int root = i;
+		while (parent[root] != root)
+			root = parent[root];
+		// second pass: compress path
+		while (parent[i] != root) {
+			int next = parent[i];
+			parent[i] = root;
+			i = next;
+		}
+		return root;
+	}
+	/**
+	 * Merges the sets that contain the given elements.
+	 * @param i is an element, {@code 0 <= i < size}
+	 * @param j is an element, {@code 0 <= j < size}
+	 * @return true if two different sets were merged, false if both elements were in the same set already
+	 */
+	public boolean union(int i, int j) {
+		int a = find(i);
+		int b = find(j);
+		if (a == b)
+			return false;
+		// union by rank: attach the lower tree below the higher tree
+		if (rank[a] < rank[b]) {
+			parent[a] = b;
+		}
+		else if (rank[a] > rank[b]) {
+			parent[b] = a;
+		}
+		else {
+			parent[b] = a;
+			rank[a]++;
+		}
+		count--;
+		return true;
+	}
+	/**
+	 * Tells if the given elements are in the same set
+	 * @param i is an element, {@code 0 <= i < size}
+	 * @param j is an element, {@code 0 <= j < size}
+	 * @return true if both are in the same set, false otherwise
+	 */
+	public boolean connected(int i, int j) {
+		return find(i) == find(j);
+	}
+	/**
+	 * Gets the current number of sets
+	 * @return the number of sets
+	 */
+	public int getCount() {
+		return count;
+	}
+}
@@ -32,11 +32,11 @@ public class Distance {
 	/**
 	 * The width of the distance matrix, same as width of maze and cells
 	 */
-	private int width;
+	protected int width;
 	/**
 	 * The height of the distance matrix, same as height of maze and cells
 	 */
-	private int height; 
+	protected int height; 
 	/**
 	 * A matrix of dimension (width x height) with 
 	 * distance values to the exit of a maze.
@@ -79,6 +79,15 @@ public class Distance {
 		// exitPosition and startPosition
 		setAllDistanceValues(new int[w][h]);
 	}
+	/**
+	 * Constructor for subclasses that keep distance values elsewhere
+	 * and override {@link #getDistanceValue(int, int)}, see MappedDistance.
+	 * No matrix is allocated, so subclasses need to set width and height
+	 * and override all public methods that access the matrix.
+	 */
+	protected Distance() {
+		// width, height and dists are set by the subclass
+	}
 	/**
 	 * Constructor that directly uses the given reference.
 	 * Warning: the given parameter is shared, not copied. 
@@ -271,10 +280,11 @@ public class Distance {
 	 * @return the new maximum distance after the comparison
 	 */
 	private int keepMaxDistance(int x, int y, int d, int[] result) {
-		if (dists[x][y] > d) {
+		int value = getDistanceValue(x, y);
+		if (value > d) {
 			result[0] = x;
 			result[1] = y;
-			d = dists[x][y];
+			d = value;
 		}
 		return d;
 	}
@@ -289,10 +299,11 @@ public class Distance {
 		int[] result = new int[2] ;
 		for (int x = 0; x != width; x++)
 			for (int y = 0; y != height; y++) {
-				if (dists[x][y] < d) {
+				int value = getDistanceValue(x, y);
+				if (value < d) {
 					result[0] = x;
 					result[1] = y;
-					d = dists[x][y];
+					d = value;
 				}
 			}
 		return result ;
@@ -305,14 +316,94 @@ public class Distance {
 	 */
 	static final int INFINITY = Integer.MAX_VALUE; 
 
+	/**
+	 * Work queue for the breadth-first search in {@link #computeDists(Floorplan, int, int)}.
+	 * Holds flat cell indices {@code x*height+y}, consistent with the
+	 * column-major layout of dists. Each cell enters the queue at most once
+	 * per search, so a capacity of width*height is sufficient.
+	 * Allocated on first use and reused for subsequent computations.
+	 */
+	private int[] queue;
+	
 	/**
 	 * Computes distances to the given position (ax,ay) for all cells in array dists.
+	 * Performs a single breadth-first search starting at (ax,ay).
+	 * Since all steps have the same cost of 1, cells are dequeued
+	 * in order of increasing distance and each cell receives its final,
+	 * minimal distance value the first time it is reached.
+	 * This makes the computation linear in the number of cells.
 	 * @param cells with information on wallboards for a maze, can not be null
 	 * @param ax, position, x coordinate
 	 * @param ay, position, y coordinate
 	 */
 	private void computeDists(Floorplan cells, int ax, int ay) {
-		//int x, y;
+		// initialize the distance array with a value for infinity 
+		setAllDistanceValues(INFINITY) ;
+		final int size = width * height;
+		if (null == queue || queue.length < size)
+			queue = new int[size];
+		// head is the next entry to read, tail the next free slot
+		// as every cell is enqueued at most once, tail never exceeds size
+		int head = 0;
+		int tail = 0;
+		// set the final distance at the exit position
+		dists[ax][ay] = 1;
+		queue[tail++] = ax * height + ay;
+		int x, y, nextDistance;
+		while (head < tail) {
+			x = queue[head] / height;
+			y = queue[head] % height;
+			head++;
+			nextDistance = dists[x][y] + 1;
+			// check all four directions, neighbors that are reachable 
+			// and not reached before get their final value and are enqueued
+			if (x+1 < width && dists[x+1][y] == INFINITY && cells.hasNoWall(x, y, CardinalDirection.East)) {
+				dists[x+1][y] = nextDistance;
+				queue[tail++] = (x+1) * height + y;
+			}
+			if (y+1 < height && dists[x][y+1] == INFINITY && cells.hasNoWall(x, y, CardinalDirection.South)) {
+				dists[x][y+1] = nextDistance;
+				queue[tail++] = x * height + y + 1;
+			}
+			if (0 < x && dists[x-1][y] == INFINITY && cells.hasNoWall(x, y, CardinalDirection.West)) {
+				dists[x-1][y] = nextDistance;
+				queue[tail++] = (x-1) * height + y;
+			}
+			if (0 < y && dists[x][y-1] == INFINITY && cells.hasNoWall(x, y, CardinalDirection.North)) {
+				dists[x][y-1] = nextDistance;
+				queue[tail++] = x * height + y - 1;
+			}
+		}
+		// all cells are reached iff every cell went through the queue once
+		assert (size == tail) : 
+			"All positions should have a finite distance to the exit";
+	}
+	
+	/**
+	 * Compute distances for given cells object of a maze
+	 * with the original iterative algorithm that repeatedly sweeps
+	 * the whole matrix until no more progress is made. 
+	 * Results are the same as for {@link #computeDistances(Floorplan) computeDistances}
+	 * which should be used instead. This method is kept as a reference 
+	 * for testing and benchmarking the breadth-first search.
+	 * @param cells with information on wallboards for a maze, can not be null, read only
+	 * @return exit position somewhere on the  border
+	 */
+	int[] computeDistancesByFixpointIteration(Floorplan cells) {
+		computeDistsByFixpointIteration(cells, width/2, height/2);
+		exitPosition = getPositionWithMaxDistanceOnBorder();
+		computeDistsByFixpointIteration(cells, exitPosition[0], exitPosition[1]);
+		return exitPosition ;
+	}
+	
+	/**
+	 * Computes distances to the given position (ax,ay) for all cells in array dists
+	 * by repeated sweeps over the matrix and a final fixpoint iteration.
+	 * @param cells with information on wallboards for a maze, can not be null
+	 * @param ax, position, x coordinate
+	 * @param ay, position, y coordinate
+	 */
+	private void computeDistsByFixpointIteration(Floorplan cells, int ax, int ay) {
 		// initialize the distance array with a value for infinity 
 		setAllDistanceValues(INFINITY) ;
 		// set the final distance at the exit position
@@ -322,12 +413,6 @@ public class Distance {
 		int toDoCounter = countInfinity();
 		int progress; // used to recognize fixpoint, no progress, then stop
 		// go over this array as long as we can find something to do
-		// MEMO: there are likely to be much smarter ways to distribute distances in a breadth first manner...
-		// why not push identified cells with infinite distance on a "work to do" heap
-		// TODO: limit iterations to upperbound which is #cells == width * height
-		// in each iteration at least one cell should benefit from neighbor
-		// in each iteration at least one cell should receive its final value
-		// TODO: do a final checkup for enclosed areas left over with Max Int
 		do {
 			// check all entries in the distance array
 			for (int x = 0; x != width; x++) {
@@ -345,8 +430,6 @@ public class Distance {
 			progress = toDoCounter - countInfinity();
 			toDoCounter -= progress; // update to current value
 		} while (0 < progress);
-		//if (0 < countInfinity())
-		//	System.out.println("Distance: ERROR: All positions should have a finite distance to the exit, counted: " + countInfinity() );
 		assert (0 == countInfinity()) : 
 			"All positions should have a finite distance to the exit";
 		// the computation is not good enough to have truly minimum values
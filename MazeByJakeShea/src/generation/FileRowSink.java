@@ -0,0 +1,116 @@
+package generation;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Writes rows of a maze to a file as they arrive.
+ * The file starts with a header of two integers, width and height,
+ * followed by the rows from top to bottom. Each row takes
+ * {@code (width+1)/2} bytes, two cells per byte, the cell with the
+ * even x coordinate in the low nibble.
+ * The height in the header is updated on close such that the
+ * number of rows does not need to be known in advance.
+ *
+ * Only a buffer of limited size is kept in memory, so mazes of
+ * any height can be written. Use {@link PagedCellStorage} to read
+ * the file back in.
+ *
+ * @author Jake Shea
+ */
+public class FileRowSink implements RowSink, Closeable {
+	static final int HEADER_SIZE = 8;
+	private static final int BUFFER_SIZE = 1 << 16;
+
+	private final FileChannel channel;
+	private final int width;
+	private final ByteBuffer buffer;
+	private int rows; // number of rows accepted so far
+
+	/**
+	 * Constructor, creates or truncates the given file and writes the header.
+	 * @param file is the file to write to
+	 * @param width is the number of cells per row, {@code 0 < width}
+	 * @throws IOException if the file can not be opened or written
+	 */
+	public FileRowSink(Path file, int width) throws IOException {
+		this.width = width;
+		channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+				StandardOpenOption.TRUNCATE_EXISTING);
+		buffer = ByteBuffer.allocate(Math.max(BUFFER_SIZE, HEADER_SIZE + getRowSize(width)));
+		buffer.putInt(width).putInt(0);
+	}
+
+	/**
+	 * Gets the number of bytes a row takes in the file
+	 * @param width is the number of cells per row
+	 * @return the size of a row in bytes
+	 */
+	static int getRowSize(int width) {
+		return (width + 1) / 2;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * @throws UncheckedIOException if the row can not be written
+	 */
+	@Override
+	public void acceptRow(int y, byte[] walls) {
+		if (y != rows)
+			throw new IllegalArgumentException("FileRowSink: expected row " + rows + " but got row " + y);
+		if (buffer.remaining() < getRowSize(width))
+			flush();
+		for (int x = 0; x < width; x += 2) {
+			int value = walls[x] & Floorplan.CW_ALL;
+			if (x + 1 < width)
+				value |= (walls[x+1] & Floorplan.CW_ALL) << 4;
+			buffer.put((byte) value);
+		}
+		rows++;
+	}
+
+	/**
+	 * Gets the number of rows written so far
+	 * @return the number of rows
+	 */
+	public int getRowCount() {
+		return rows;
+	}
+
+	/**
+	 * Writes the buffer to the file
+	 * @throws UncheckedIOException if the buffer can not be written
+	 */
+	private void flush() {
+		buffer.flip();
+		try {
+			while (buffer.hasRemaining())
+				channel.write(buffer);
+		}
+		catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		buffer.clear();
+	}
+
+	/**
+	 * Writes remaining rows, updates the height in the header and closes the file.
+	 */
+	@Override
+	public void close() throws IOException {
+		try {
+			flush();
+			ByteBuffer height = ByteBuffer.allocate(4).putInt(rows);
+			height.flip();
+			channel.write(height, 4);
+		}
+		finally {
+			channel.close();
+		}
+	}
+}
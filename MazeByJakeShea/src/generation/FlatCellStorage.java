@@ -0,0 +1,82 @@
+package generation;
+
+/**
+ * Stores the cells of a floorplan as a single integer array
+ * in row-major order, i.e. position (x,y) is located at index
+ * {@code y*width+x}. Compared to a 2 dimensional array there is
+ * no second indirection per access and neighbors along the x axis
+ * are adjacent in memory.
+ *
+ * Any integer value can be stored for a cell, so this storage
+ * is the default for the Floorplan.
+ *
+ * @author Jake Shea
+ */
+public class FlatCellStorage implements CellStorage {
+	private final int width;
+	private final int height;
+	private final int[] cells; // width*height values, row-major
+
+	/**
+	 * Constructor for a storage with all values set to 0
+	 * @param w width, {@code 0 <= w}
+	 * @param h height, {@code 0 <= h}
+	 */
+	public FlatCellStorage(int w, int h) {
+		width = w;
+		height = h;
+		cells = new int[w*h];
+	}
+	/**
+	 * Constructor that copies values from the given matrix,
+	 * input[x][y] is the value at position (x,y).
+	 * @param input provides input data to copy cell content from
+	 * precondition input != null
+	 */
+	public FlatCellStorage(int[][] input) {
+		this(input.length, input[0].length);
+		for (int x = 0; x < width; x++) {
+			for (int y = 0; y < height; y++) {
+				cells[y*width+x] = input[x][y];
+			}
+		}
+	}
+	/**
+	 * Copy constructor
+	 * @param other is the storage to copy
+	 */
+	private FlatCellStorage(FlatCellStorage other) {
+		width = other.width;
+		height = other.height;
+		cells = other.cells.clone();
+	}
+
+	@Override
+	public int getWidth() {
+		return width;
+	}
+	@Override
+	public int getHeight() {
+		return height;
+	}
+	@Override
+	public int get(int x, int y) {
+		return cells[y*width+x];
+	}
+	@Override
+	public void setBits(int x, int y, int bitmask) {
+		cells[y*width+x] |= bitmask;
+	}
+	@Override
+	public void clearBits(int x, int y, int bitmask) {
+		cells[y*width+x] &= ~bitmask;
+	}
+	@Override
+	public CellStorage copy() {
+		return new FlatCellStorage(this);
+	}
+	@Override
+	public long getMemoryFootprint() {
+		return 4L * cells.length;
+	}
+}
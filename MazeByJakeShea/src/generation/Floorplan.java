@@ -90,15 +90,14 @@ public class Floorplan {
 	
 	private int width;
 	private int height ;
-	private int[][] cells; // width x height array of cells, cells[width][height]
+	private final CellStorage cells; // width x height grid of cells
 	// each cell contains an integer which encodes presence/absence of wallboards
-	// cells[i][j] can be read as (i,j) coordinates much like (x,y) coordinates
+	// cells.get(i,j) can be read as (i,j) coordinates much like (x,y) coordinates
 	// where the first dimension x grows towards the right and 
 	// the second dimension y grows towards the bottom
 	// as if the (0,0) position is in the top-left corner.
-	// cells[i][j] is not intuitive in terms of rows and column indices in matrix notation 
-	// as position (i,j) would be column i and row j which is opposite to the normal  
-	// use of rows and columns indices for matrices.
+	// How the values are laid out in memory is up to the storage,
+	// see FlatCellStorage (default) and PackedCellStorage.
 	
 	/**
 	 * Constructor
@@ -106,9 +105,20 @@ public class Floorplan {
 	 * @param h height, {@code 0 < h}
 	 */
 	public Floorplan(int w, int h) {
-		width = w ;
-		height = h ;
-		cells = new int[w][h];
+		this(new FlatCellStorage(w, h));
+	}
+	
+	/**
+	 * Constructor that operates on the given storage for its cells.
+	 * Warning: the given storage is shared, not copied.
+	 * Use this constructor to pick a storage other than the default,
+	 * for example a PackedCellStorage for very large mazes.
+	 * @param storage holds the cell values, can not be null
+	 */
+	public Floorplan(CellStorage storage) {
+		width = storage.getWidth() ;
+		height = storage.getHeight() ;
+		cells = storage;
 	}
 
 	/**
@@ -118,20 +128,7 @@ public class Floorplan {
 	 * precondition input != null
 	 */
 	public Floorplan(int[][] input){
-		// Alternative, 2d array is a 1d array with arrays as elements
-		width = input.length ;
-		height = input[0].length ;
-		cells = new int[width][];
-		for(int i = 0; i < width; i++)
-		    cells[i] = input[i].clone(); // clone row
-		/* Basic version
-		this(input.length, input[0].length);
-		for (int i = 0; i < width; i++) {
-			for (int j = 0; j < height; j++) {
-				cells[i][j] = input[i][j];
-			}
-		}
-		*/
+		this(new FlatCellStorage(input));
 	}
 	
 	/**
@@ -143,8 +140,9 @@ public class Floorplan {
 	public void initialize() {
 		int x, y;
 		// Step 1: erect wallboards everywhere, reset visited flag
-		for (x = 0; x < width; x++) {
-			for (y = 0; y < height; y++) {
+		// row by row to match the memory layout of the storage
+		for (y = 0; y < height; y++) {
+			for (x = 0; x < width; x++) {
 				setBitToOne(x, y, (CW_VISITED | CW_ALL));
 			}
 		} 
@@ -164,6 +162,8 @@ public class Floorplan {
 	
 	/**
 	 * Equals method that checks if the other object matches in dimensions and content.
+	 * Content is compared cell by cell such that floorplans with 
+	 * different kinds of storage can be equal.
 	 * @param other provides fully functional floorplan object to compare its content
 	 */
 	@Override
@@ -181,7 +181,7 @@ public class Floorplan {
 			return false ;
 		for (int i = 0; i < width; i++) {
 			for (int j = 0; j < height; j++) {
-				if (cells[i][j] != o.cells[i][j])
+				if (cells.get(i, j) != o.cells.get(i, j))
 					return false ;
 			}
 		}
@@ -206,7 +206,7 @@ public class Floorplan {
 	 */
 	public int getValueOfCell( int x, int y )
 	{
-		return cells[x][y] ;
+		return cells.get(x, y) ;
 	}
 	
 	/**
@@ -220,9 +220,9 @@ public class Floorplan {
 	public boolean canTearDown(Wallboard wallboard) {
 		int x = wallboard.getX();
 		int y = wallboard.getY();
-		int[] d = wallboard.getDirection().getDirection() ;
-		int dx = d[0];
-		int dy = d[1];
+		CardinalDirection cd = wallboard.getDirection() ;
+		int dx = cd.getDX();
+		int dy = cd.getDY();
 		// borders limit rooms (but for potential doors) and the outside limit of the maze
 		if (hasBorder(x, y, dx, dy))
 			return false;
@@ -241,9 +241,9 @@ public class Floorplan {
 	public boolean isPartOfBorder(Wallboard wallboard) {
 		int x = wallboard.getX();
 		int y = wallboard.getY();
-		int[] d = wallboard.getDirection().getDirection() ;
-		int dx = d[0];
-		int dy = d[1];
+		CardinalDirection cd = wallboard.getDirection() ;
+		int dx = cd.getDX();
+		int dy = cd.getDY();
 		// borders limit rooms (but for potential doors) 
 		// and the outside limit of the maze
 		return hasBorder(x, y, dx, dy);
@@ -424,6 +424,20 @@ public class Floorplan {
 	 * @param ryl 2nd corner, y coordinate
 	 */
 	public void markAreaAsRoom(int rw, int rh, int rx, int ry, int rxl, int ryl) {
+		markAreaAsRoom(rw, rh, rx, ry, rxl, ryl, SingleRandom.getRandom());
+	}
+	/**
+	 * Marks a given area as a room on the maze and positions up to five doors randomly
+	 * with the given random number generator, see markAreaAsRoom above.
+	 * @param rw room width
+	 * @param rh room height
+	 * @param rx 1st corner, x coordinate
+	 * @param ry 1st corner, y coordinate
+	 * @param rxl 2nd corner, x coordinate
+	 * @param ryl 2nd corner, y coordinate
+	 * @param random is the random number generator to pick doors with
+	 */
+	public void markAreaAsRoom(int rw, int rh, int rx, int ry, int rxl, int ryl, SingleRandom random) {
 		// Step 1: 
 		// clear all cells in area of room from all wallboards and borders
 		// mark all cells in area as being inside the room
@@ -446,7 +460,6 @@ public class Floorplan {
 		// so a maze generation algorithm can identify
 		// these wallboards and delete them to get into the room
 		int numBoards = (rw+rh)*2; // counter for the total number of wallboards
-		SingleRandom random = SingleRandom.getRandom() ;
 		// pick at most 5 wallboards
 		for (int ct = 0; ct != 5; ct++) { 
 			int door = random.nextIntWithinInterval(0, numBoards-1); // pick a random wallboard
@@ -583,12 +596,14 @@ public class Floorplan {
 	public void addWallboard(Wallboard wallboard, boolean internalWall) {
 		int x = wallboard.getX();
 		int y = wallboard.getY();
-		int[] d = wallboard.getDirection().getDirection() ;
+		CardinalDirection cd = wallboard.getDirection() ;
+		int dx = cd.getDX();
+		int dy = cd.getDY();
 		// add wallboard on (x,y)
-		setWallToOne(x, y, d[0], d[1]);
+		setWallToOne(x, y, dx, dy);
 		// add same wallboard but for adjacent cell
 		if (internalWall)
-			setWallToOne(x+d[0], y+d[1], -d[0], -d[1]);
+			setWallToOne(x+dx, y+dy, -dx, -dy);
 	}
 
 	/**
@@ -603,9 +618,9 @@ public class Floorplan {
 	public void deleteWallboard(Wallboard wallboard) {
 		int x = wallboard.getX();
 		int y = wallboard.getY();
-		int[] d = wallboard.getDirection().getDirection() ;
-		int dx = d[0];
-		int dy = d[1];
+		CardinalDirection cd = wallboard.getDirection() ;
+		int dx = cd.getDX();
+		int dy = cd.getDY();
 		// delete wallboard on (x,y)
 		setWallToZero(x, y, dx, dy);
 		// delete same wallboard but for adjacent cell
@@ -907,7 +922,7 @@ public class Floorplan {
 	 * @param cw_bit like CW_LEFT, CW_RIGHT, CW_TOP, CW_BOTTOM
 	 */
 	private void setBitToZero(int x, int y, int cw_bit) {
-		cells[x][y] &= ~cw_bit;
+		cells.clearBits(x, y, cw_bit);
 	}
 	/**
 	 * Sets all wallboard bits to zero for a given cell
@@ -924,10 +939,10 @@ public class Floorplan {
 	// better to directly change client classes
 	//
 	protected boolean hasMaskedBitsTrue(int x, int y, int bitmask) {
-		return (cells[x][y] & bitmask) != 0;
+		return (cells.get(x, y) & bitmask) != 0;
 	}
 	protected boolean hasMaskedBitsFalse(int x, int y, int bitmask) {
-		return (cells[x][y] & bitmask) == 0;
+		return (cells.get(x, y) & bitmask) == 0;
 	}
 
 	/**
@@ -959,7 +974,7 @@ public class Floorplan {
 	 * @param bitmask is the bitmask to use for adding 1's
 	 */
 	private void setBitToOne(int x, int y, int bitmask) {
-		cells[x][y] |= bitmask ;
+		cells.setBits(x, y, bitmask) ;
 	}
 
 	///////////////// code for debugging ///////////////////////////////////////
@@ -977,7 +992,7 @@ public class Floorplan {
 		{
 			prefix = " i:" + i + " j:";
 			for (int j = 0 ; j < height ; j++)
-				s += prefix + j + "=" + cells[i][j] ;
+				s += prefix + j + "=" + cells.get(i, j) ;
 			s += "\n" ;
 		}
 		return s ;
@@ -1,13 +1,13 @@
 package generation;
 
-import java.util.ArrayList;
 import java.util.Iterator;
-import java.util.List;
+
+import generation.Progress.Phase;
 
 import gui.Constants;
 
 /**
- * This class creates a list of walls for a floorplan.
+ * This class creates a list of walls for a floorplan, kept in a WallTable.
  * The BSP tree operates on walls (polygons) while the floorplan
  * merely works with wallboards. The code in this class
  * helps bridging this gap for the BSPBuilder.
@@ -42,22 +42,32 @@ public class ListOfWallsBuilder {
 		this.colchange = colchange;
 	}
 	/**
-	 * Identifies continuous sequences of wallboards on the maze and fills the wall list 
-	 * @return vector of walls
+	 * Identifies continuous sequences of wallboards on the maze and fills the wall table 
+	 * @return table of walls
+	 */
+	public WallTable generateWalls() {
+		return generateWalls(new Progress());
+	}
+	/**
+	 * Identifies continuous sequences of wallboards on the maze and fills the wall table,
+	 * counts the cells scanned for walls, each cell is scanned twice
+	 * @param progress is the counter for the cells scanned
+	 * @return table of walls
 	 */
-	public List<Wall> generateWalls() {
-		ArrayList<Wall> result = new ArrayList<>();
-		generateWallsForHorizontalWallboards(result); 
-		generateWallsForVerticalWallboards(result);
+	public WallTable generateWalls(Progress progress) {
+		WallTable result = new WallTable();
+		generateWallsForHorizontalWallboards(result, progress); 
+		generateWallsForVerticalWallboards(result, progress);
 		// starting positions for walls seem to be chosen such that walls represent top or left wallboards
 		return result ;
 	}
 
 	/**
      * Identify continuous sequences of wallboards in a vertical direction
-     * @param sl the list of walls that carries the result of the computation
+     * @param sl the table of walls that carries the result of the computation
+     * @param progress counts the cells scanned
      */
-	   private void generateWallsForVerticalWallboards(ArrayList<Wall> sl) {
+	   private void generateWallsForVerticalWallboards(WallTable sl, Progress progress) {
 	        int x;
 	        int y;
 	        Iterator<int[]> it;
@@ -71,8 +81,8 @@ public class ListOfWallsBuilder {
 	                y = cur[1];
 	                // create wall with (x,starty) being the actual start position of the wall, 
                     // y-starty being the positive length
-                    sl.add(new Wall(x*Constants.MAP_UNIT, starty*Constants.MAP_UNIT,
-                            0, (y-starty)*Constants.MAP_UNIT, dists.getDistanceValue(x, starty), colchange));
+                    sl.add(x*Constants.MAP_UNIT, starty*Constants.MAP_UNIT,
+                            0, (y-starty)*Constants.MAP_UNIT, dists.getDistanceValue(x, starty), colchange);
 	            }
 	            
 	            it = floorplan.iterator(x, 0, CardinalDirection.East);
@@ -83,16 +93,18 @@ public class ListOfWallsBuilder {
                     // create wall with (x+1,y) being being one off in both directions from the last cell in this wall, starty-y being the negative length
                     // since we are looking at right wallboards, one off in the right direction (x+1) are then cells that have this wall on its left hand side
                     // for some reason the end position is used as a starting position and therefore the length & direction is inverse 
-                    sl.add(new Wall((x+1)*Constants.MAP_UNIT, y*Constants.MAP_UNIT,
-                            0, (starty-y)*Constants.MAP_UNIT, dists.getDistanceValue(x, starty), colchange));
+                    sl.add((x+1)*Constants.MAP_UNIT, y*Constants.MAP_UNIT,
+                            0, (starty-y)*Constants.MAP_UNIT, dists.getDistanceValue(x, starty), colchange);
                 }
+                progress.worked(Phase.WALLS, height);
 	        }
 	    }
 	/**
      * Identify continuous sequences of wallboards in a horizontal direction
-     * @param sl  the list of walls that carries the result of the computation
+     * @param sl  the table of walls that carries the result of the computation
+     * @param progress counts the cells scanned
      */
-    private void generateWallsForHorizontalWallboards(ArrayList<Wall> sl) {
+    private void generateWallsForHorizontalWallboards(WallTable sl, Progress progress) {
         int x;
         int y;
         Iterator<int[]> it;
@@ -107,8 +119,8 @@ public class ListOfWallsBuilder {
                 x = cur[1];
                 // create wall with (x,y) being the end positions, startx-x being the negative length
                 // note the (x,y) is not part of the wall
-                sl.add(new Wall(x*Constants.MAP_UNIT, y*Constants.MAP_UNIT,
-                        (startx-x)*Constants.MAP_UNIT, 0, dists.getDistanceValue(startx, y), colchange));
+                sl.add(x*Constants.MAP_UNIT, y*Constants.MAP_UNIT,
+                        (startx-x)*Constants.MAP_UNIT, 0, dists.getDistanceValue(startx, y), colchange);
             }
             // second round through rows, same for bottom wallboards
             it = floorplan.iterator(0,y, CardinalDirection.South);
@@ -118,9 +130,10 @@ public class ListOfWallsBuilder {
                 x = cur[1];
                 // create wall with (startx,y+1) being one below the start position, x-startx being the positive length
                 // so this may represent a wallboard at the bottom of the wall as the top wallboard one below
-                sl.add(new Wall(startx*Constants.MAP_UNIT, (y+1)*Constants.MAP_UNIT,
-                        (x-startx)*Constants.MAP_UNIT, 0, dists.getDistanceValue(startx, y), colchange));
+                sl.add(startx*Constants.MAP_UNIT, (y+1)*Constants.MAP_UNIT,
+                        (x-startx)*Constants.MAP_UNIT, 0, dists.getDistanceValue(startx, y), colchange);
             }
+            progress.worked(Phase.WALLS, width);
         }
     }
 }
@@ -0,0 +1,245 @@
+package generation;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Provides a BSP tree as a read-only view on buffers, typically parts of a file
+ * that is mapped into memory, and writes a BSP tree in the matching layout.
+ *
+ * Nodes are records of fixed size in preorder such that the left child
+ * of a branch follows its parent directly:
+ * <ul>
+ * <li>a branch is: 0, lower x, lower y, upper x, upper y, x, y, dx, dy of its splitter,
+ * index of its right child,</li>
+ * <li>a leaf is: 1, lower x, lower y, upper x, upper y,
+ * index of its first wall, number of walls, 0, 0, 0.</li>
+ * </ul>
+ * Walls are records of fixed size as well: x, y, dx, dy, distance, color
+ * and flags for partition and seen. All numbers are 4 byte big endian integers.
+ *
+ * The view decodes a node when its parent is asked for it
+ * and the walls of a leaf when the leaf is asked for them, such that
+ * parts of the tree that are never visited are never decoded.
+ * Walls are Wall objects once decoded, as the first person view
+ * marks walls it has seen.
+ *
+ * @author Jake Shea
+ */
+public final class MappedBSPTree {
+	/**
+	 * Number of bytes of a node
+	 */
+	public static final int NODE_SIZE = 40;
+	/**
+	 * Number of bytes of a wall
+	 */
+	public static final int WALL_SIZE = 28;
+
+	private static final int TAG_BRANCH = 0;
+	private static final int TAG_LEAF = 1;
+	private static final int WALL_PARTITION = 1;
+	private static final int WALL_SEEN = 2;
+
+	private final ByteBuffer nodes;
+	private final ByteBuffer walls;
+
+	private MappedBSPTree(ByteBuffer nodes, ByteBuffer walls) {
+		this.nodes = nodes;
+		this.walls = walls;
+	}
+
+	/**
+	 * Provides the root of a tree that reads its nodes and walls
+	 * from the given buffers on demand. The buffers must not be modified.
+	 * @param nodes holds the nodes from its current position on
+	 * @param walls holds the walls from its current position on
+	 * @return the root node
+	 */
+	public static BSPNode getRoot(ByteBuffer nodes, ByteBuffer walls) {
+		return new MappedBSPTree(nodes.slice(), walls.slice()).getNode(0);
+	}
+
+	/**
+	 * Counts the nodes of the given tree
+	 * @param node is the root of the tree
+	 * @return the number of nodes
+	 */
+	public static int countNodes(BSPNode node) {
+		if (node.isIsleaf())
+			return 1;
+		BSPBranch branch = (BSPBranch) node;
+		return 1 + countNodes(branch.getLeftBranch()) + countNodes(branch.getRightBranch());
+	}
+
+	/**
+	 * Counts the walls in the leaves of the given tree
+	 * @param node is the root of the tree
+	 * @return the number of walls
+	 */
+	public static int countWalls(BSPNode node) {
+		if (node.isIsleaf())
+			return ((BSPLeaf) node).getAllWalls().size();
+		BSPBranch branch = (BSPBranch) node;
+		return countWalls(branch.getLeftBranch()) + countWalls(branch.getRightBranch());
+	}
+
+	/**
+	 * Writes the given tree in the layout above, starting at the current positions
+	 * of the buffers, which need to be big endian.
+	 * @param root is the root of the tree
+	 * @param nodes receives {@code NODE_SIZE * countNodes(root)} bytes
+	 * @param walls receives {@code WALL_SIZE * countWalls(root)} bytes
+	 */
+	public static void write(BSPNode root, ByteBuffer nodes, ByteBuffer walls) {
+		writeNode(root, nodes, nodes.position(), walls, walls.position());
+	}
+
+	/**
+	 * Writes a node and its subtrees in preorder
+	 * @return the index of the next node
+	 */
+	private static int writeNode(BSPNode node, ByteBuffer nodes, int nodesStart, ByteBuffer walls, int wallsStart) {
+		int index = (nodes.position() - nodesStart) / NODE_SIZE;
+		int start = nodes.position();
+		if (node.isIsleaf()) {
+			List<Wall> list = ((BSPLeaf) node).getAllWalls();
+			putBounds(nodes, TAG_LEAF, node);
+			nodes.putInt((walls.position() - wallsStart) / WALL_SIZE);
+			nodes.putInt(list.size());
+			nodes.position(start + NODE_SIZE); // rest is 0
+			for (Wall wall : list) {
+				walls.putInt(wall.getStartPositionX());
+				walls.putInt(wall.getStartPositionY());
+				walls.putInt(wall.getExtensionX());
+				walls.putInt(wall.getExtensionY());
+				walls.putInt(wall.getDistance());
+				walls.putInt(wall.getColor());
+				walls.putInt((wall.isPartition() ? WALL_PARTITION : 0) | (wall.isSeen() ? WALL_SEEN : 0));
+			}
+			return index + 1;
+		}
+		BSPBranch branch = (BSPBranch) node;
+		putBounds(nodes, TAG_BRANCH, node);
+		nodes.putInt(branch.getX());
+		nodes.putInt(branch.getY());
+		nodes.putInt(branch.getDx());
+		nodes.putInt(branch.getDy());
+		nodes.putInt(0); // index of right child, known after the left subtree is written
+		int right = writeNode(branch.getLeftBranch(), nodes, nodesStart, walls, wallsStart);
+		nodes.putInt(start + NODE_SIZE - 4, right);
+		return writeNode(branch.getRightBranch(), nodes, nodesStart, walls, wallsStart);
+	}
+
+	private static void putBounds(ByteBuffer nodes, int tag, BSPNode node) {
+		nodes.putInt(tag);
+		nodes.putInt(node.getLowerBoundX());
+		nodes.putInt(node.getLowerBoundY());
+		nodes.putInt(node.getUpperBoundX());
+		nodes.putInt(node.getUpperBoundY());
+	}
+
+	/**
+	 * Decodes the node with the given index
+	 * @param index is the index of the node in preorder
+	 * @return the node
+	 * @throws IllegalStateException if the node has an unknown type
+	 */
+	private BSPNode getNode(int index) {
+		int p = index * NODE_SIZE;
+		int tag = nodes.getInt(p);
+		int lowX = nodes.getInt(p + 4);
+		int lowY = nodes.getInt(p + 8);
+		int highX = nodes.getInt(p + 12);
+		int highY = nodes.getInt(p + 16);
+		switch (tag) {
+		case TAG_BRANCH:
+			return new Branch(this, index, nodes.getInt(p + 20), nodes.getInt(p + 24), nodes.getInt(p + 28),
+					nodes.getInt(p + 32), lowX, lowY, highX, highY, nodes.getInt(p + 36));
+		case TAG_LEAF:
+			return new Leaf(this, nodes.getInt(p + 20), nodes.getInt(p + 24), lowX, lowY, highX, highY);
+		default:
+			throw new IllegalStateException("MappedBSPTree: unknown node type " + tag + " for node " + index);
+		}
+	}
+
+	/**
+	 * Decodes walls
+	 * @param first is the index of the first wall
+	 * @param count is the number of walls
+	 * @return the list of walls
+	 */
+	private List<Wall> getWalls(int first, int count) {
+		List<Wall> result = new ArrayList<>(count);
+		for (int i = first; i < first + count; i++) {
+			int p = i * WALL_SIZE;
+			// color is explicitly set below
+			Wall wall = new Wall(walls.getInt(p), walls.getInt(p + 4), walls.getInt(p + 8),
+					walls.getInt(p + 12), walls.getInt(p + 16), 0);
+			wall.setColor(walls.getInt(p + 20));
+			int flags = walls.getInt(p + 24);
+			wall.setPartition((flags & WALL_PARTITION) != 0);
+			wall.setSeen((flags & WALL_SEEN) != 0);
+			result.add(wall);
+		}
+		return result;
+	}
+
+	/**
+	 * A branch that decodes its children on first access
+	 */
+	private static class Branch extends BSPBranch {
+		private final MappedBSPTree tree;
+		private final int index;
+		private final int rightIndex;
+		private BSPNode left;
+		private BSPNode right;
+
+		Branch(MappedBSPTree tree, int index, int px, int py, int pdx, int pdy,
+				int lowX, int lowY, int highX, int highY, int rightIndex) {
+			super(px, py, pdx, pdy, lowX, lowY, highX, highY);
+			this.tree = tree;
+			this.index = index;
+			this.rightIndex = rightIndex;
+		}
+
+		@Override
+		public synchronized BSPNode getLeftBranch() {
+			if (null == left)
+				left = tree.getNode(index + 1);
+			return left;
+		}
+
+		@Override
+		public synchronized BSPNode getRightBranch() {
+			if (null == right)
+				right = tree.getNode(rightIndex);
+			return right;
+		}
+	}
+
+	/**
+	 * A leaf that decodes its walls on first access
+	 */
+	private static class Leaf extends BSPLeaf {
+		private final MappedBSPTree tree;
+		private final int first;
+		private final int count;
+		private List<Wall> walls;
+
+		Leaf(MappedBSPTree tree, int first, int count, int lowX, int lowY, int highX, int highY) {
+			super(lowX, lowY, highX, highY);
+			this.tree = tree;
+			this.first = first;
+			this.count = count;
+		}
+
+		@Override
+		public synchronized List<Wall> getAllWalls() {
+			if (null == walls)
+				walls = tree.getWalls(first, count);
+			return walls;
+		}
+	}
+}
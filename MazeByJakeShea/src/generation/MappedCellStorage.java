@@ -0,0 +1,130 @@
+package generation;
+
+import java.nio.ByteBuffer;
+
+/**
+ * A read-only storage for the cells of a floorplan that works directly
+ * on a buffer, typically a file that is mapped into memory.
+ * Cell values are decoded on each access, nothing is copied onto the heap.
+ * If the buffer is a read-only mapping of a file, processes that open
+ * the same file share its pages in the page cache of the operating system.
+ *
+ * The layout is the one of the {@link PackedCellStorage} with 4 cells
+ * per flag byte instead of 32 cells per long:
+ * <ul>
+ * <li>one byte per cell with the wallboard bits in the low nibble and
+ * the border bits in the high nibble,</li>
+ * <li>followed by two bits per cell for the CW_VISITED and CW_IN_ROOM flags,
+ * four cells to a byte, lowest bits first.</li>
+ * </ul>
+ * Cells are in row-major order, i.e. position (x,y) has index {@code y*width+x}.
+ * Operations that change cells are not supported.
+ *
+ * @author Jake Shea
+ */
+public class MappedCellStorage implements CellStorage {
+
+	private final int width;
+	private final int height;
+	private final ByteBuffer buffer; // cell bytes at 0, flag bytes at flagsOffset
+
+	/**
+	 * Constructor, the storage uses the content of the buffer from its current position on
+	 * @param buffer holds the cells in the layout above, at least {@link #getSize(int, int)} bytes remaining
+	 * @param w width, {@code 0 <= w}
+	 * @param h height, {@code 0 <= h}
+	 * @throws IllegalArgumentException if the buffer is too small
+	 */
+	public MappedCellStorage(ByteBuffer buffer, int w, int h) {
+		if (buffer.remaining() < getSize(w, h))
+			throw new IllegalArgumentException("MappedCellStorage: buffer too small for " + w + " x " + h + " cells");
+		width = w;
+		height = h;
+		this.buffer = buffer.slice();
+	}
+
+	/**
+	 * Gets the number of bytes for a grid of the given size in the layout of this storage
+	 * @param w width, {@code 0 <= w}
+	 * @param h height, {@code 0 <= h}
+	 * @return the number of bytes
+	 */
+	public static int getSize(int w, int h) {
+		return w*h + ((w*h+3) >>> 2);
+	}
+
+	/**
+	 * Writes the cells of the given floorplan in the layout of this storage
+	 * to the buffer, starting at its current position
+	 * @param cells is the floorplan to write
+	 * @param w width of the floorplan
+	 * @param h height of the floorplan
+	 * @param buffer receives {@link #getSize(int, int)} bytes
+	 * @throws IllegalArgumentException if a value uses bits outside of {@link PackedCellStorage#SUPPORTED_BITS}
+	 */
+	public static void write(Floorplan cells, int w, int h, ByteBuffer buffer) {
+		final int flagsOffset = buffer.position() + w*h;
+		for (int y = 0; y < h; y++) {
+			for (int x = 0; x < w; x++) {
+				int value = cells.getValueOfCell(x, y);
+				if ((value & ~PackedCellStorage.SUPPORTED_BITS) != 0)
+					throw new IllegalArgumentException("MappedCellStorage: unsupported value " + value + " for cell (" + x + "," + y + ")");
+				int i = y*w+x;
+				buffer.put((byte)((value & 0x0F) | ((value >> 1) & 0xF0)));
+				int f = ((value >> 4) & 1) | ((value >> 8) & 2);
+				int b = (i & 3) == 0 ? 0 : buffer.get(flagsOffset + (i >>> 2));
+				buffer.put(flagsOffset + (i >>> 2), (byte)(b | (f << ((i & 3) << 1))));
+			}
+		}
+		buffer.position(flagsOffset + ((w*h+3) >>> 2));
+	}
+
+	@Override
+	public int getWidth() {
+		return width;
+	}
+	@Override
+	public int getHeight() {
+		return height;
+	}
+	@Override
+	public int get(int x, int y) {
+		final int i = y*width+x;
+		final int b = buffer.get(i);
+		final int f = buffer.get(width*height + (i >>> 2)) >> ((i & 3) << 1);
+		// same decoding as in PackedCellStorage
+		return (b & 0x0F) | ((b & 0xF0) << 1) | ((f & 1) << 4) | ((f & 2) << 8);
+	}
+	/**
+	 * Not supported, the storage is read-only
+	 * @throws UnsupportedOperationException always
+	 */
+	@Override
+	public void setBits(int x, int y, int bitmask) {
+		throw new UnsupportedOperationException("MappedCellStorage is read-only");
+	}
+	/**
+	 * Not supported, the storage is read-only
+	 * @throws UnsupportedOperationException always
+	 */
+	@Override
+	public void clearBits(int x, int y, int bitmask) {
+		throw new UnsupportedOperationException("MappedCellStorage is read-only");
+	}
+	/**
+	 * Provides a storage that reads from the same buffer.
+	 * As both are read-only, they are independent of each other.
+	 */
+	@Override
+	public CellStorage copy() {
+		return new MappedCellStorage(buffer.duplicate(), width, height);
+	}
+	/**
+	 * {@inheritDoc}
+	 * Counts the bytes of the buffer, these are not on the heap if the buffer is mapped.
+	 */
+	@Override
+	public long getMemoryFootprint() {
+		return getSize(width, height);
+	}
+}
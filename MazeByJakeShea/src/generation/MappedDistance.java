@@ -0,0 +1,97 @@
+package generation;
+
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+
+/**
+ * Read-only distances that work directly on a buffer,
+ * typically a file that is mapped into memory, instead of a matrix.
+ * Values are 4 byte big endian integers in column-major order like the matrix
+ * of the Distance class, i.e. the value for position (x,y)
+ * has index {@code x*height+y}.
+ *
+ * Distances can not be computed or set. A matrix with the values
+ * is only created if {@link #getAllDistanceValues()} is called.
+ *
+ * @author Jake Shea
+ */
+public class MappedDistance extends Distance {
+
+	private final IntBuffer values;
+	private int[][] matrix; // copy of values, null till requested
+
+	/**
+	 * Constructor, the distances are the content of the buffer from its current position on
+	 * @param buffer holds {@code w*h} integers
+	 * @param w is the width of the maze in the horizontal direction
+	 * @param h is the height of the maze in the vertical direction
+	 * @throws IllegalArgumentException if the buffer is too small
+	 */
+	public MappedDistance(ByteBuffer buffer, int w, int h) {
+		if (buffer.remaining() < getSize(w, h))
+			throw new IllegalArgumentException("MappedDistance: buffer too small for " + w + " x " + h + " distances");
+		width = w;
+		height = h;
+		ByteBuffer slice = buffer.slice(); // big endian
+		slice.limit(getSize(w, h));
+		values = slice.asIntBuffer();
+	}
+
+	/**
+	 * Gets the number of bytes for distances of a maze of the given size
+	 * @param w width, {@code 0 <= w}
+	 * @param h height, {@code 0 <= h}
+	 * @return the number of bytes
+	 */
+	public static int getSize(int w, int h) {
+		return 4*w*h;
+	}
+
+	/**
+	 * Writes the given distances to the buffer, starting at its current position
+	 * @param dists are the distances, a width x height matrix
+	 * @param buffer receives {@link #getSize(int, int)} bytes, needs to be big endian
+	 */
+	public static void write(int[][] dists, ByteBuffer buffer) {
+		for (int[] column : dists) {
+			for (int value : column)
+				buffer.putInt(value);
+		}
+	}
+
+	@Override
+	public int getDistanceValue(int x, int y) {
+		return values.get(x*height+y);
+	}
+	/**
+	 * Provides a width x height matrix with a copy of the distances.
+	 * The matrix is created on the first call, do not modify its entries.
+	 * @return array with distance values
+	 */
+	@Override
+	public synchronized int[][] getAllDistanceValues() {
+		if (null == matrix) {
+			int[][] result = new int[width][height];
+			for (int x = 0; x < result.length; x++)
+				values.get(x*height, result[x]);
+			matrix = result;
+		}
+		return matrix;
+	}
+	/**
+	 * Not supported, distances are read-only
+	 * @throws UnsupportedOperationException always
+	 */
+	@Override
+	public void setAllDistanceValues(int[][] distances) {
+		throw new UnsupportedOperationException("MappedDistance is read-only");
+	}
+	/**
+	 * Not supported, distances are read-only
+	 * @throws UnsupportedOperationException always
+	 */
+	@Override
+	public int[] computeDistances(Floorplan cells) {
+		throw new UnsupportedOperationException("MappedDistance is read-only");
+	}
+}
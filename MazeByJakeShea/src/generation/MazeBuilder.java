@@ -1,5 +1,6 @@
 package generation;
 
+import generation.Progress.Phase;
 import gui.Constants;
 
 /**
@@ -16,7 +17,6 @@ public class MazeBuilder implements Runnable {
 	// Given input information: 
 	protected int width, height ; 	// width and height of maze, 
 	private int rooms; 		// requested number of rooms in maze, a room is an area with no walls and larger than a single cell
-	private int expectedPartiters; 	// user given limit for partiters
 	
 	// Produced output information to create the new maze
 	// root, cells, dists, startx, starty
@@ -32,12 +32,19 @@ public class MazeBuilder implements Runnable {
 	// class internal local variables
 	protected SingleRandom random ; // random number stream, used to make randomized decisions, e.g for direction to go
 	Order order; // describes what is wanted, e.g. a perfect maze or not
+	Progress progress = new Progress(); // counts work done, polled by the client of the order
 	
 	// constants
-	static final long SLEEP_INTERVAL = 100 ; //constant used for brief breaks to recognize interrupted signal, unit is millisecond
 	static final int MAX_TRIES = 250 ; // room generation: max number of tries to find a random location for a room
 	static final int MIN_ROOM_DIMENSION = 3; // room generation: min dimension
 	static final int MAX_ROOM_DIMENSION = 8; // room generation: max dimension
+	// progress: weights of the phases per room, per cell, and per cell and level of the BSP tree, see expectWork
+	// about a tenth of a microsecond each
+	static final long ROOM_WEIGHT = 10;
+	static final long PATHWAY_WEIGHT = 5;
+	static final long DISTANCE_WEIGHT = 2;
+	static final long WALL_WEIGHT = 2;
+	static final long BSP_WEIGHT = 3;
 
 	/**
 	 * Constructor for a randomized maze generation
@@ -51,9 +58,9 @@ public class MazeBuilder implements Runnable {
 	 */
 	public void buildOrder(Order order) {
 		this.order = order;
-		// configure and obtain the random number generator
-		SingleRandom.setSeed(order.getSeed());
-		random = SingleRandom.getRandom();
+		// configure a random number generator of its own such that builders
+		// on different threads do not interfere with each other
+		random = new SingleRandom(order.getSeed());
 		// derive parameters 
 		int skill = order.getSkillLevel() ;
 		width = Constants.SKILL_X[skill];
@@ -61,10 +68,32 @@ public class MazeBuilder implements Runnable {
 		// only algorithm without rooms guarantees a perfect maze
 		// rooms can result in loops, so for a perfect maze, set room number to 0
 		rooms = order.isPerfect() ? 0 : Constants.SKILL_ROOMS[skill];
-		expectedPartiters = Constants.SKILL_PARTCT[skill];
 		// instantiate data structures
 		floorplan = new Floorplan(width,height) ;
 		dists = new Distance(width,height) ;
+		// use the counter of the client if it polls, a counter of our own otherwise
+		progress = (null != order.getProgress()) ? order.getProgress() : new Progress();
+		expectWork(progress, width, height, rooms);
+	}
+	/**
+	 * Sets the expected work units and the weights of all phases for a maze of the given size.
+	 * Units are rooms, cells connected by pathways, cells with a distance, cells scanned for walls
+	 * and walls that end up in leaves of the BSP tree. The weights give the share of the overall time
+	 * spent in each phase as measured for mazes of skill levels 9 to 15.
+	 * @param progress is the counter for the progress
+	 * @param width is the width of the maze
+	 * @param height is the height of the maze
+	 * @param rooms is the number of rooms to place
+	 */
+	static void expectWork(Progress progress, int width, int height, int rooms) {
+		final long cells = (long) width * height;
+		// the BSP tree has about one wall per cell and is about log2(cells) levels deep
+		final long levels = 64 - Long.numberOfLeadingZeros(cells);
+		progress.expect(Phase.ROOMS, rooms, ROOM_WEIGHT * rooms);
+		progress.expect(Phase.PATHWAYS, cells, PATHWAY_WEIGHT * cells);
+		progress.expect(Phase.DISTANCES, cells, DISTANCE_WEIGHT * cells);
+		progress.expect(Phase.WALLS, 2 * cells, WALL_WEIGHT * cells);
+		progress.expect(Phase.BSP, cells, BSP_WEIGHT * cells * levels);
 	}
 	/**
 	 * Main method to run construction of a new maze in a thread of its own.
@@ -78,21 +107,18 @@ public class MazeBuilder implements Runnable {
 			// place rooms in maze as needed
 			if (rooms > 0)
 				generateRooms();
-			
-			Thread.sleep(SLEEP_INTERVAL) ; // test if thread has been interrupted, i.e. notified to stop
+			completed(Phase.ROOMS); // also tests if thread has been interrupted, i.e. notified to stop
 
 			// put pathways into the maze, determine its starting and end position and calculate distances
 			generate();
-
-			Thread.sleep(SLEEP_INTERVAL) ; // test if thread has been interrupted, i.e. notified to stop
+			completed(Phase.DISTANCES);
 
 			final int colchange = random.nextIntWithinInterval(0, 255); // used in the constructor for Segments  class Seg
-			final BSPBuilder b = new BSPBuilder(order, dists, floorplan, width, height, colchange, expectedPartiters) ;
-			BSPNode root = b.generateBSPNodes(); // takes a long time, updates progressbar, 
+			final BSPBuilder b = new BSPBuilder(order, dists, floorplan, width, height, colchange, progress) ;
+			BSPNode root = b.generateBSPNodes(); // takes a long time, counts progress, 
 			// it also internally checks for cancel requests
 			// and throws an interrupted exception if that happens
-
-			Thread.sleep(SLEEP_INTERVAL) ; // test if thread has been interrupted, i.e. notified to stop
+			completed(Phase.BSP);
 
 			// communicate results back to Controller
 			order.updateProgress(100); // Order interface promises to communicate 100% upon delivery
@@ -111,6 +137,18 @@ public class MazeBuilder implements Runnable {
 		}
 	}
 	
+	/**
+	 * Marks a phase as done and tells the order about the progress made
+	 * @param phase is the phase that is done
+	 * @throws InterruptedException if the thread has been interrupted, i.e. notified to stop
+	 */
+	private void completed(Phase phase) throws InterruptedException {
+		progress.complete(phase);
+		if (Thread.interrupted())
+			throw new InterruptedException();
+		order.updateProgress(progress.getPercentage());
+	}
+	
 	/**
 	 * Reset all fields to initial values
 	 */
@@ -118,7 +156,6 @@ public class MazeBuilder implements Runnable {
 		width = 0 ;
 		height = 0 ;
 		rooms = 0 ;
-		expectedPartiters = 0 ;
 		startx = 0 ;
 		starty = 0 ;
 		floorplan = null ;
@@ -141,8 +178,10 @@ public class MazeBuilder implements Runnable {
 		int tries = 0 ;
 		int result = 0 ;
 		while (tries < MAX_TRIES && result < rooms) {
-			if (placeRoom())
+			if (placeRoom()) {
 				result++ ;
+				progress.worked(Phase.ROOMS, 1);
+			}
 			else
 				tries++ ;
 		}
@@ -181,7 +220,7 @@ public class MazeBuilder implements Runnable {
 			return false ;
 		// since the area is available, mark it for this room and remove all wallboards
 		// from this on it is clear that we can place the room on the maze
-		floorplan.markAreaAsRoom(rw, rh, rx, ry, rxl, ryl); 
+		floorplan.markAreaAsRoom(rw, rh, rx, ry, rxl, ryl, random); 
 		return true;
 	}
 
@@ -194,8 +233,10 @@ public class MazeBuilder implements Runnable {
 		// i.e. between any two cells in the maze there is a path to get from one to the other
 		// the search algorithms starts at some random point
 		generatePathways(); 
+		progress.complete(Phase.PATHWAYS);
 		
 		final int[] remote = dists.computeDistances(floorplan) ;
+		progress.worked(Phase.DISTANCES, (long) width * height);
 
 		// identify cell with the greatest distance
 		final int[] pos = dists.getStartPosition();
@@ -238,7 +279,7 @@ public class MazeBuilder implements Runnable {
 					if (null == origcds[x][y]) {
 						// Happens at starting position
 						assert (x == firstx && y == firsty) : "catching null elsewhere than starting position" ;
-						cd = cd.randomDirection() ;
+						cd = cd.randomDirection(random) ;
 					}
 					else
 						cd = origcds[x][y] ;
@@ -247,12 +288,13 @@ public class MazeBuilder implements Runnable {
 				}
 			} else {
 				floorplan.deleteWallboard(wallboard);
+				progress.worked(Phase.PATHWAYS, 1);
 				int[] dxy = cd.getDirection();
 				x += dxy[0];
 				y += dxy[1];
 				floorplan.setCellAsVisited(x, y);
 				origcds[x][y] = cd;
-				cd = cd.randomDirection();
+				cd = cd.randomDirection(random);
 				origcd = cd;
 			}
 		}
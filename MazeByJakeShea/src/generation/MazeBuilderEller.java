@@ -0,0 +1,333 @@
+package generation;
+
+import java.util.Arrays;
+
+import generation.Progress.Phase;
+
+/**
+ * This class has the responsibility to create a maze of given dimensions (width, height)
+ * together with a solution based on a distance matrix.
+ * The MazeBuilder implements Runnable such that it can be run a separate thread.
+ * The MazeFactory has a MazeBuilder and handles the thread management.
+ *
+ * The maze is built with Eller's algorithm which works row by row, top to bottom.
+ * It only keeps track of which cells of the current row are connected
+ * with each other (through the rows processed so far) by assigning a set label to each cell.
+ * For each row, it randomly joins adjacent cells of different sets and then randomly
+ * extends sets into the next row such that each set reaches the next row at least once.
+ * The last row joins all remaining sets.
+ * Memory needed in addition to the floorplan is linear in the width of the maze.
+ *
+ * Rooms need special attention as their walls are borders that can not be taken down,
+ * except for a few door candidates. All door candidates are opened when reached.
+ * A set is only considered to reach the next row through a room if the room has a door
+ * further down that lets it leave the room again. Otherwise the set needs to reach
+ * the next row outside of the room, so no set can get trapped in a room.
+ * Algorithm leaves wallboards in tact that carry the border flag.
+ *
+ * @author Jake Shea
+ */
+public class MazeBuilderEller extends MazeBuilder implements Runnable {
+
+	private static final int NONE = -1;
+
+	// state for the current row, all arrays have length width
+	private int[] labels;           // set label for each cell of the current row
+	private int[] nextLabels;       // set label for each cell of the next row, NONE if not reached
+	private boolean[] inUse;        // labels used in the next row
+	private boolean[] reachesNext;  // per representative: set has a valid connection to the next row
+	private int[] candidate;        // per representative: randomly chosen cell to connect down if needed
+	private int[] candidateCount;   // per representative: number of candidates seen so far
+	private DisjointSets sets;      // merges labels of the current row
+	private Wallboard wallboard;
+
+	public MazeBuilderEller() {
+		super();
+		System.out.println("MazeBuilderEller uses Eller's algorithm to generate maze.");
+	}
+
+	/**
+	 * This method generates pathways into the maze by using Eller's algorithm,
+	 * one row at a time from top to bottom.
+	 */
+	@Override
+	protected void generatePathways() {
+		labels = new int[width];
+		nextLabels = new int[width];
+		inUse = new boolean[width];
+		reachesNext = new boolean[width];
+		candidate = new int[width];
+		candidateCount = new int[width];
+		sets = new DisjointSets(width);
+		wallboard = new Wallboard(0, 0, CardinalDirection.East);
+
+		Arrays.fill(nextLabels, NONE);
+		for (int y = 0; y < height; y++) {
+			assignLabels();
+			joinHorizontally(y);
+			if (y < height - 1) {
+				extendVertically(y);
+				ensureEachSetReachesNextRow(y);
+			}
+			rowCompleted(y);
+			progress.worked(Phase.PATHWAYS, width);
+		}
+		// release row state
+		labels = null;
+		nextLabels = null;
+		inUse = null;
+		reachesNext = null;
+		candidate = null;
+		candidateCount = null;
+		sets = null;
+		wallboard = null;
+	}
+
+	/**
+	 * Takes over labels of cells that were reached from the row above
+	 * and gives a fresh label to all other cells.
+	 * Labels are elements of the disjoint sets, so they are within [0,width-1].
+	 */
+	private void assignLabels() {
+		sets.reset();
+		int fresh = 0;
+		for (int x = 0; x < width; x++) {
+			if (nextLabels[x] != NONE)
+				continue;
+			// there are at most width labels in use, so a free one exists
+			while (inUse[fresh])
+				fresh++;
+			nextLabels[x] = fresh;
+			inUse[fresh] = true;
+		}
+		System.arraycopy(nextLabels, 0, labels, 0, width);
+		Arrays.fill(nextLabels, NONE);
+		Arrays.fill(inUse, false);
+	}
+
+	/**
+	 * Joins adjacent cells of the given row. Cells that are not separated by a wallboard,
+	 * e.g. inside a room, are in the same set anyway. Door candidates are always opened.
+	 * Other cells of different sets are joined randomly, in the last row always.
+	 * @param y is the current row
+	 */
+	private void joinHorizontally(int y) {
+		final boolean lastRow = (y == height - 1);
+		for (int x = 0; x < width - 1; x++) {
+			if (hasNoWall(x, y, CardinalDirection.East)) {
+				sets.union(labels[x], labels[x+1]);
+				continue;
+			}
+			wallboard.setLocationDirection(x, y, CardinalDirection.East);
+			if (isPartOfBorder(wallboard))
+				continue;
+			if (isInRoom(x, y) || isInRoom(x+1, y)) {
+				// door candidate
+				deleteWallboard(wallboard);
+				sets.union(labels[x], labels[x+1]);
+			}
+			else if (!sets.connected(labels[x], labels[x+1])
+					&& (lastRow || 0 == random.nextIntWithinInterval(0, 1))) {
+				deleteWallboard(wallboard);
+				sets.union(labels[x], labels[x+1]);
+			}
+		}
+	}
+
+	/**
+	 * Connects cells of the given row with cells of the next row.
+	 * Cells in a room are connected anyway, door candidates are always opened,
+	 * other cells are connected randomly.
+	 * Also records for each set if it reaches the next row in a way that
+	 * it can continue from there and picks a random candidate cell
+	 * to use if it does not.
+	 * @param y is the current row, {@code y < height-1}
+	 */
+	private void extendVertically(int y) {
+		Arrays.fill(reachesNext, false);
+		Arrays.fill(candidate, NONE);
+		Arrays.fill(candidateCount, 0);
+		for (int x = 0; x < width; x++) {
+			int root = sets.find(labels[x]);
+			if (hasNoWall(x, y, CardinalDirection.South)) {
+				connectDown(x, y, root);
+				continue;
+			}
+			wallboard.setLocationDirection(x, y, CardinalDirection.South);
+			if (isPartOfBorder(wallboard))
+				continue;
+			if (isInRoom(x, y) || isInRoom(x, y+1)) {
+				// door candidate
+				deleteWallboard(wallboard);
+				connectDown(x, y, root);
+			}
+			else if (0 == random.nextIntWithinInterval(0, 1)) {
+				deleteWallboard(wallboard);
+				connectDown(x, y, root);
+			}
+			else {
+				// reservoir sampling: each candidate of a set is picked with equal probability
+				candidateCount[root]++;
+				if (0 == random.nextIntWithinInterval(0, candidateCount[root] - 1))
+					candidate[root] = x;
+			}
+		}
+	}
+
+	/**
+	 * Makes sure that every set of the current row reaches the next row
+	 * such that no part of the maze gets disconnected.
+	 * First uses the candidate cell of a set, if there is none, joins
+	 * the set with an adjacent set until it reaches the next row.
+	 * @param y is the current row, {@code y < height-1}
+	 */
+	private void ensureEachSetReachesNextRow(int y) {
+		for (int x = 0; x < width; x++) {
+			int root = sets.find(labels[x]);
+			if (!reachesNext[root] && candidate[root] != NONE) {
+				wallboard.setLocationDirection(candidate[root], y, CardinalDirection.South);
+				deleteWallboard(wallboard);
+				connectDown(candidate[root], y, root);
+			}
+		}
+		// remaining sets are blocked by borders, e.g. on top of a room without a door
+		boolean progress = true;
+		while (progress) {
+			progress = false;
+			for (int x = 0; x < width - 1; x++) {
+				int a = sets.find(labels[x]);
+				int b = sets.find(labels[x+1]);
+				if (a == b || (reachesNext[a] && reachesNext[b]))
+					continue;
+				wallboard.setLocationDirection(x, y, CardinalDirection.East);
+				if (isPartOfBorder(wallboard))
+					continue;
+				deleteWallboard(wallboard);
+				boolean reaches = reachesNext[a] || reachesNext[b];
+				sets.union(a, b);
+				reachesNext[sets.find(a)] = reaches;
+				progress = true;
+			}
+		}
+		// carry labels of connected cells over to the next row
+		for (int x = 0; x < width; x++) {
+			if (nextLabels[x] != NONE) {
+				nextLabels[x] = sets.find(nextLabels[x]);
+				inUse[nextLabels[x]] = true;
+			}
+			else if (!reachesNext[sets.find(labels[x])]) {
+				dbg("MazeBuilderEller: set of cell " + x + ", " + y + " does not reach the next row");
+			}
+		}
+	}
+
+	/**
+	 * Records that cell (x,y) is connected with cell (x,y+1).
+	 * @param x is the x coordinate
+	 * @param y is the current row
+	 * @param root is the representative of the set of (x,y)
+	 */
+	private void connectDown(int x, int y, int root) {
+		nextLabels[x] = labels[x];
+		if (!isInRoom(x, y+1) || roomHasDoorBelow(x, y+1))
+			reachesNext[root] = true;
+	}
+
+	/**
+	 * Tells if the room that contains the given cell has a door candidate
+	 * on its left or right side in this or a later row or on its bottom side.
+	 * If so, a set that enters the room at this cell can leave it further down.
+	 * @param x is the x coordinate of a cell in a room
+	 * @param y is the y coordinate of a cell in a room
+	 * @return true if there is a door candidate further down, false otherwise
+	 */
+	private boolean roomHasDoorBelow(int x, int y) {
+		// find the extent of the room, rooms are rectangles
+		int left = x;
+		while (left > 0 && isInRoom(left - 1, y))
+			left--;
+		int right = x;
+		while (right < width - 1 && isInRoom(right + 1, y))
+			right++;
+		int bottom = y;
+		while (bottom < height - 1 && isInRoom(x, bottom + 1))
+			bottom++;
+		for (int row = y; row <= bottom; row++) {
+			if (isDoor(left, row, CardinalDirection.West) || isDoor(right, row, CardinalDirection.East))
+				return true;
+		}
+		for (int col = left; col <= right; col++) {
+			if (isDoor(col, bottom, CardinalDirection.South))
+				return true;
+		}
+		return false;
+	}
+
+	/**
+	 * Tells if there is a wallboard at the given position and direction that
+	 * can be torn down and that does not lead to the outside of the maze.
+	 * @param x is the x coordinate
+	 * @param y is the y coordinate
+	 * @param cd is the direction
+	 * @return true if the wallboard is a door candidate, false otherwise
+	 */
+	private boolean isDoor(int x, int y, CardinalDirection cd) {
+		Wallboard door = new Wallboard(x, y, cd);
+		return !hasNoWall(x, y, cd) && !isPartOfBorder(door)
+				&& 0 <= door.getNeighborX() && door.getNeighborX() < width
+				&& 0 <= door.getNeighborY() && door.getNeighborY() < height;
+	}
+
+	/////////////////////// access to the maze layout ///////////////////////
+	// Eller's algorithm only looks at the current and the next row.
+	// All access goes through the following methods such that a subclass
+	// can keep the layout elsewhere, see MazeBuilderEllerStreaming.
+
+	/**
+	 * Tells if there is no wallboard at the given position and direction.
+	 * @param x is the x coordinate
+	 * @param y is the y coordinate, the current row
+	 * @param cd is the direction
+	 * @return true if there is no wallboard, false otherwise
+	 */
+	protected boolean hasNoWall(int x, int y, CardinalDirection cd) {
+		return floorplan.hasNoWall(x, y, cd);
+	}
+
+	/**
+	 * Tells if the given wallboard is a border that must stay in place.
+	 * @param wallboard is the wallboard to check
+	 * @return true if it is a border, false otherwise
+	 */
+	protected boolean isPartOfBorder(Wallboard wallboard) {
+		return floorplan.isPartOfBorder(wallboard);
+	}
+
+	/**
+	 * Tells if the given cell is in a room.
+	 * @param x is the x coordinate
+	 * @param y is the y coordinate
+	 * @return true if the cell is in a room, false otherwise
+	 */
+	protected boolean isInRoom(int x, int y) {
+		return floorplan.isInRoom(x, y);
+	}
+
+	/**
+	 * Tears down the given wallboard on both of its sides.
+	 * @param wallboard is the wallboard, it is either in the current row
+	 * or on the south side of the current row
+	 */
+	protected void deleteWallboard(Wallboard wallboard) {
+		floorplan.deleteWallboard(wallboard);
+	}
+
+	/**
+	 * Called once a row is final, no wallboard of the given row will change after this call.
+	 * The floorplan holds all rows anyway, so there is nothing to do here.
+	 * @param y is the row that is final
+	 */
+	protected void rowCompleted(int y) {
+		// nothing to do
+	}
+}
@@ -0,0 +1,143 @@
+package generation;
+
+import java.util.Arrays;
+
+import gui.Constants;
+
+/**
+ * This class generates a perfect maze with Eller's algorithm without
+ * keeping the maze in memory. Eller's algorithm finalizes one row at a time,
+ * so each row is handed over to a {@link RowSink} as soon as it is final
+ * and only the current and the next row are kept.
+ * Memory needed is linear in the width and constant in the height of the maze,
+ * which allows for mazes that are too large for a Floorplan.
+ *
+ * The maze is perfect, i.e. it has no rooms, and it comes without
+ * a starting position, exit, distance matrix or BSP tree.
+ * The result can be read back in with a {@link PagedCellStorage}
+ * if it was written with a {@link FileRowSink}.
+ *
+ * @author Jake Shea
+ */
+public class MazeBuilderEllerStreaming extends MazeBuilderEller {
+
+	private final RowSink sink;
+	private byte[] row;     // wallboard bits of the current row
+	private byte[] nextRow; // wallboard bits of the row below the current row
+
+	/**
+	 * Constructor
+	 * @param sink receives the rows as they are finalized, can not be null
+	 */
+	public MazeBuilderEllerStreaming(RowSink sink) {
+		super();
+		this.sink = sink;
+	}
+
+	/**
+	 * Sets the dimensions of the maze and the seed for the random number generator.
+	 * Dimensions are not limited to the ones available for a skill level.
+	 * @param w is the width, {@code 0 < w}
+	 * @param h is the height, {@code 0 < h}
+	 * @param seed is the seed for the random number generator
+	 */
+	public void buildOrder(int w, int h, int seed) {
+		random = new SingleRandom(seed);
+		width = w;
+		height = h;
+	}
+
+	/**
+	 * Sets internal fields according to given order.
+	 * Rooms are not supported, so the maze is always perfect.
+	 * No floorplan is allocated.
+	 * @param order provides the skill level and the seed
+	 */
+	@Override
+	public void buildOrder(Order order) {
+		this.order = order;
+		int skill = order.getSkillLevel();
+		buildOrder(Constants.SKILL_X[skill], Constants.SKILL_Y[skill], order.getSeed());
+	}
+
+	/**
+	 * Generates the maze and streams its rows to the sink.
+	 * Unlike the other builders, nothing is delivered to an order.
+	 */
+	@Override
+	public void run() {
+		generatePathways();
+	}
+
+	@Override
+	protected void generatePathways() {
+		row = new byte[width];
+		nextRow = new byte[width];
+		Arrays.fill(row, (byte) Floorplan.CW_ALL);
+		Arrays.fill(nextRow, (byte) Floorplan.CW_ALL);
+		super.generatePathways();
+		row = null;
+		nextRow = null;
+	}
+
+	@Override
+	protected boolean hasNoWall(int x, int y, CardinalDirection cd) {
+		return (row[x] & getBit(cd)) == 0;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * Without rooms, only the outside of the maze is a border.
+	 */
+	@Override
+	protected boolean isPartOfBorder(Wallboard wallboard) {
+		int nx = wallboard.getNeighborX();
+		int ny = wallboard.getNeighborY();
+		return nx < 0 || nx >= width || ny < 0 || ny >= height;
+	}
+
+	@Override
+	protected boolean isInRoom(int x, int y) {
+		return false;
+	}
+
+	@Override
+	protected void deleteWallboard(Wallboard wallboard) {
+		CardinalDirection cd = wallboard.getDirection();
+		int x = wallboard.getX();
+		row[x] &= ~getBit(cd);
+		// neighbor is in the same row or in the next row
+		byte[] neighborRow = (wallboard.getNeighborY() == wallboard.getY()) ? row : nextRow;
+		neighborRow[wallboard.getNeighborX()] &= ~getBit(cd.oppositeDirection());
+	}
+
+	/**
+	 * Hands the finished row over to the sink and moves on to the next row.
+	 */
+	@Override
+	protected void rowCompleted(int y) {
+		sink.acceptRow(y, row);
+		byte[] tmp = row;
+		row = nextRow;
+		nextRow = tmp;
+		Arrays.fill(nextRow, (byte) Floorplan.CW_ALL);
+	}
+
+	/**
+	 * Gets the wallboard bit for the given direction
+	 * @param cd is the direction
+	 * @return one of CW_TOP, CW_BOT, CW_LEFT, CW_RIGHT
+	 */
+	private static int getBit(CardinalDirection cd) {
+		switch (cd) {
+		case North:
+			return Floorplan.CW_TOP;
+		case South:
+			return Floorplan.CW_BOT;
+		case West:
+			return Floorplan.CW_LEFT;
+		default:
+			return Floorplan.CW_RIGHT;
+		}
+	}
+}
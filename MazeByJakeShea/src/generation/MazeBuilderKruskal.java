@@ -0,0 +1,85 @@
+package generation;
+
+import generation.Progress.Phase;
+
+/**
+ * This class has the responsibility to create a maze of given dimensions (width, height)
+ * together with a solution based on a distance matrix.
+ * The MazeBuilder implements Runnable such that it can be run a separate thread.
+ * The MazeFactory has a MazeBuilder and handles the thread management.
+ *
+ * The maze is built with a randomized version of Kruskal's algorithm.
+ * All internal wallboards that are not borders are considered once in random order
+ * and a wallboard is torn down if the cells on either side are not connected yet.
+ * Connected components of cells are kept in a disjoint-set forest
+ * such that the algorithm runs in nearly linear time in the number of cells.
+ * Algorithm leaves wallboards in tact that carry the border flag.
+ *
+ * @author Jake Shea
+ */
+public class MazeBuilderKruskal extends MazeBuilder implements Runnable {
+
+	public MazeBuilderKruskal() {
+		super();
+		System.out.println("MazeBuilderKruskal uses Kruskal's algorithm to generate maze.");
+	}
+
+	/**
+	 * This method generates pathways into the maze by using Kruskal's algorithm to generate a spanning tree for an undirected graph.
+	 * The cells are the nodes of the graph, the cell at (x,y) is represented by y*width+x.
+	 * A wallboard is encoded as 2*cell for the east side of a cell and 2*cell+1 for its south side,
+	 * which covers each internal wallboard exactly once.
+	 */
+	@Override
+	protected void generatePathways() {
+		final int size = width * height;
+		DisjointSets components = new DisjointSets(size);
+
+		// collect candidate wallboards, cells within a room are connected already
+		int[] candidates = new int[2 * size];
+		int count = 0;
+		Wallboard wallboard = new Wallboard(0, 0, CardinalDirection.East);
+		for (int y = 0; y < height; y++) {
+			for (int x = 0; x < width; x++) {
+				int cell = y * width + x;
+				if (x + 1 < width) {
+					if (floorplan.hasNoWall(x, y, CardinalDirection.East))
+						components.union(cell, cell + 1);
+					else {
+						wallboard.setLocationDirection(x, y, CardinalDirection.East);
+						if (!floorplan.isPartOfBorder(wallboard))
+							candidates[count++] = 2 * cell;
+					}
+				}
+				if (y + 1 < height) {
+					if (floorplan.hasNoWall(x, y, CardinalDirection.South))
+						components.union(cell, cell + width);
+					else {
+						wallboard.setLocationDirection(x, y, CardinalDirection.South);
+						if (!floorplan.isPartOfBorder(wallboard))
+							candidates[count++] = 2 * cell + 1;
+					}
+				}
+			}
+		}
+
+		// consider candidates in random order: pick a random one among the remaining
+		// and move it to the end, a Fisher-Yates shuffle done on the fly
+		for (int remaining = count; remaining > 0 && components.getCount() > 1; remaining--) {
+			int pick = random.nextIntWithinInterval(0, remaining - 1);
+			int edge = candidates[pick];
+			candidates[pick] = candidates[remaining - 1];
+			candidates[remaining - 1] = edge;
+
+			int cell = edge >> 1;
+			int neighbor = ((edge & 1) == 0) ? cell + 1 : cell + width;
+			// tear down wallboard if it separates two components
+			if (components.union(cell, neighbor)) {
+				wallboard.setLocationDirection(cell % width, cell / width,
+						((edge & 1) == 0) ? CardinalDirection.East : CardinalDirection.South);
+				floorplan.deleteWallboard(wallboard);
+				progress.worked(Phase.PATHWAYS, 1);
+			}
+		}
+	}
+}
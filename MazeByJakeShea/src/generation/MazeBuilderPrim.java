@@ -2,6 +2,8 @@ package generation;
 
 import java.util.ArrayList;
 
+import generation.Progress.Phase;
+
 /**
   * This class has the responsibility to create a maze of given dimensions (width, height) 
  * together with a solution based on a distance matrix.
@@ -56,6 +58,7 @@ public class MazeBuilderPrim extends MazeBuilder implements Runnable {
 			{
 				// delete wallboard from maze, note that this takes place from both directions
 				floorplan.deleteWallboard(curWallboard);
+				progress.worked(Phase.PATHWAYS, 1);
 				// update current position
 				x = curWallboard.getNeighborX();
 				y = curWallboard.getNeighborY();
@@ -38,23 +38,10 @@ public class MazeFactory implements Factory {
 		// idle, so accept order
 		currentOrder = order;
 		// set builder according to order
-		switch (order.getBuilder()) {
-		case DFS :
-			builder = new MazeBuilder();
-			buildOrder();
-			break;
-		case Prim:
-			builder = new MazeBuilderPrim();
-			buildOrder();
-			break;
-		case Boruvka:
-			builder = new MazeBuilderBoruvka();
-			buildOrder();
-			break;
-		default:
-			System.out.println("MazeFactory.order: missing implementation for requested algorithm: " + order.getBuilder());
+		builder = createBuilder(order.getBuilder());
+		if (null == builder)
 			return false;
-		}
+		buildOrder();
 		return true ;
 	}
 	@Override
@@ -86,6 +73,29 @@ public class MazeFactory implements Factory {
 		builder = null;
 		currentOrder = null;
 	}
+	///////////////////////// package private methods /////////////////////////
+	/**
+	 * Creates a builder for the given algorithm
+	 * @param algorithm is the requested algorithm
+	 * @return a new builder, null if there is no implementation for the algorithm
+	 */
+	static MazeBuilder createBuilder(Order.Builder algorithm) {
+		switch (algorithm) {
+		case DFS :
+			return new MazeBuilder();
+		case Prim:
+			return new MazeBuilderPrim();
+		case Boruvka:
+			return new MazeBuilderBoruvka();
+		case Kruskal:
+			return new MazeBuilderKruskal();
+		case Eller:
+			return new MazeBuilderEller();
+		default:
+			System.out.println("MazeFactory.order: missing implementation for requested algorithm: " + algorithm);
+			return null;
+		}
+	}
 	///////////////////////// private methods ///////////////////////////////////
 	/**
 	 * Provide the builder with necessary input and start its execution
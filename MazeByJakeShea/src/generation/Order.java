@@ -58,4 +58,14 @@ public interface Order {
 	 * @param percentage of job completion
 	 */
 	void updateProgress(int percentage) ;
+	/**
+	 * Provides a counter that the builder updates while it works
+	 * such that the client can poll the progress instead of waiting
+	 * for calls of {@link #updateProgress(int)}.
+	 * The builder calls updateProgress only once per phase and upon delivery.
+	 * @return the counter for the progress of this order, null if the client does not poll
+	 */
+	default Progress getProgress() {
+		return null;
+	}
 }
@@ -0,0 +1,132 @@
+package generation;
+
+/**
+ * Stores the cells of a floorplan in a compact bit-packed form.
+ * Only the bits that the Floorplan actually uses are kept:
+ * <ul>
+ * <li>one byte per cell for the four wallboard bits (CW_TOP, CW_BOT, CW_LEFT, CW_RIGHT)
+ * and the four matching border bits (shifted by CW_BOUND_SHIFT),</li>
+ * <li>two bits per cell for the CW_VISITED and CW_IN_ROOM flags,
+ * packed 32 cells to a long.</li>
+ * </ul>
+ * This sums up to 1.25 bytes per cell compared to 4 bytes for an
+ * integer per cell. Cells are in row-major order, i.e. position (x,y)
+ * has index {@code y*width+x}.
+ *
+ * As a consequence, values outside of the range of bits used by the
+ * Floorplan can not be stored, see {@link #SUPPORTED_BITS}.
+ *
+ * @author Jake Shea
+ */
+public class PackedCellStorage implements CellStorage {
+	/**
+	 * Bitmask with all bits that this storage can represent,
+	 * i.e. wallboards, visited flag, borders and in room flag.
+	 */
+	public static final int SUPPORTED_BITS = Floorplan.CW_ALL | Floorplan.CW_VISITED
+			| (Floorplan.CW_ALL << Floorplan.CW_BOUND_SHIFT) | Floorplan.CW_IN_ROOM;
+
+	// encoding in flags: 2 bits per cell
+	private static final int FLAG_VISITED = 1;
+	private static final int FLAG_IN_ROOM = 2;
+
+	private final int width;
+	private final int height;
+	private final byte[] walls; // wallboard bits in low nibble, border bits in high nibble
+	private final long[] flags; // visited and in room flags, 32 cells per long
+
+	/**
+	 * Constructor for a storage with all values set to 0
+	 * @param w width, {@code 0 <= w}
+	 * @param h height, {@code 0 <= h}
+	 */
+	public PackedCellStorage(int w, int h) {
+		width = w;
+		height = h;
+		walls = new byte[w*h];
+		flags = new long[(w*h+31) >>> 5];
+	}
+	/**
+	 * Constructor that copies values from the given matrix,
+	 * input[x][y] is the value at position (x,y).
+	 * @param input provides input data to copy cell content from
+	 * precondition input != null
+	 * @throws IllegalArgumentException if a value uses bits outside of {@link #SUPPORTED_BITS}
+	 */
+	public PackedCellStorage(int[][] input) {
+		this(input.length, input[0].length);
+		for (int x = 0; x < width; x++) {
+			for (int y = 0; y < height; y++) {
+				setBits(x, y, input[x][y]);
+			}
+		}
+	}
+	/**
+	 * Copy constructor
+	 * @param other is the storage to copy
+	 */
+	private PackedCellStorage(PackedCellStorage other) {
+		width = other.width;
+		height = other.height;
+		walls = other.walls.clone();
+		flags = other.flags.clone();
+	}
+
+	@Override
+	public int getWidth() {
+		return width;
+	}
+	@Override
+	public int getHeight() {
+		return height;
+	}
+	@Override
+	public int get(int x, int y) {
+		final int i = y*width+x;
+		final int b = walls[i];
+		final int f = (int)(flags[i >>> 5] >>> ((i & 31) << 1));
+		// undo the shift of border bits, put flags back to their positions
+		return (b & 0x0F) | ((b & 0xF0) << 1)
+				| ((f & FLAG_VISITED) << 4) | ((f & FLAG_IN_ROOM) << 8);
+	}
+	@Override
+	public void setBits(int x, int y, int bitmask) {
+		if ((bitmask & ~SUPPORTED_BITS) != 0)
+			throw new IllegalArgumentException("Unsupported bits for packed storage: " + bitmask);
+		final int i = y*width+x;
+		walls[i] |= toWallByte(bitmask);
+		flags[i >>> 5] |= toFlags(bitmask) << ((i & 31) << 1);
+	}
+	@Override
+	public void clearBits(int x, int y, int bitmask) {
+		final int i = y*width+x;
+		walls[i] &= ~toWallByte(bitmask);
+		flags[i >>> 5] &= ~(toFlags(bitmask) << ((i & 31) << 1));
+	}
+	@Override
+	public CellStorage copy() {
+		return new PackedCellStorage(this);
+	}
+	@Override
+	public long getMemoryFootprint() {
+		return walls.length + 8L * flags.length;
+	}
+
+	/**
+	 * Selects wallboard and border bits of the given bitmask
+	 * and moves border bits next to the wallboard bits into a single byte.
+	 * @param bitmask with CW_ bits
+	 * @return wallboard bits in the low nibble, border bits in the high nibble
+	 */
+	private static byte toWallByte(int bitmask) {
+		return (byte)((bitmask & 0x0F) | ((bitmask >> 1) & 0xF0));
+	}
+	/**
+	 * Selects the visited and in room bits of the given bitmask
+	 * @param bitmask with CW_ bits
+	 * @return 2 bit encoding of flags
+	 */
+	private static long toFlags(int bitmask) {
+		return ((bitmask >> 4) & FLAG_VISITED) | ((bitmask >> 8) & FLAG_IN_ROOM);
+	}
+}
@@ -0,0 +1,208 @@
+package generation;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A read-only storage for the cells of a maze that was written to a file
+ * by a {@link FileRowSink}. Rows are read in pages of consecutive rows
+ * on demand and only a limited number of pages is kept in memory,
+ * the least recently used page is dropped first.
+ * This way, a Floorplan can answer hasWall queries for a maze
+ * that does not fit into memory as a whole:
+ * {@code new Floorplan(new PagedCellStorage(file))}.
+ *
+ * The file only holds wallboards, border bits for the outside of the maze
+ * are added when a cell is read. Cells are never visited and never in a room.
+ * Operations that change cells are not supported.
+ *
+ * @author Jake Shea
+ */
+public class PagedCellStorage implements CellStorage, Closeable {
+	static final int DEFAULT_ROWS_PER_PAGE = 256;
+	static final int DEFAULT_MAX_PAGES = 16;
+
+	private final Path file;
+	private final FileChannel channel;
+	private final int width;
+	private final int height;
+	private final int rowSize;     // bytes per row in file
+	private final int rowsPerPage;
+	private final int maxPages;
+	private final LinkedHashMap<Integer, byte[]> pages; // page number to content, in access order
+	// most recently used page, saves the map lookup for consecutive reads of the same page
+	private int lastPageNumber = -1;
+	private byte[] lastPage;
+
+	/**
+	 * Constructor with default page size and number of pages
+	 * @param file is a file written by a FileRowSink
+	 * @throws IOException if the file can not be opened or has no valid header
+	 */
+	public PagedCellStorage(Path file) throws IOException {
+		this(file, DEFAULT_ROWS_PER_PAGE, DEFAULT_MAX_PAGES);
+	}
+
+	/**
+	 * Constructor
+	 * @param file is a file written by a FileRowSink
+	 * @param rowsPerPage is the number of rows that are read at once, {@code 0 < rowsPerPage}
+	 * @param maxPages is the number of pages kept in memory, {@code 0 < maxPages}
+	 * @throws IOException if the file can not be opened or has no valid header
+	 */
+	public PagedCellStorage(Path file, int rowsPerPage, int maxPages) throws IOException {
+		this.file = file;
+		this.rowsPerPage = rowsPerPage;
+		this.maxPages = maxPages;
+		channel = FileChannel.open(file, StandardOpenOption.READ);
+		ByteBuffer header = ByteBuffer.allocate(FileRowSink.HEADER_SIZE);
+		readFully(header, 0);
+		header.flip();
+		width = header.getInt();
+		height = header.getInt();
+		rowSize = FileRowSink.getRowSize(width);
+		if (width <= 0 || height < 0
+				|| channel.size() < FileRowSink.HEADER_SIZE + (long) rowSize * height) {
+			channel.close();
+			throw new IOException("PagedCellStorage: " + file + " is not a complete maze file");
+		}
+		pages = new LinkedHashMap<Integer, byte[]>(2 * maxPages, 0.75f, true) {
+			private static final long serialVersionUID = 1L;
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<Integer, byte[]> eldest) {
+				return size() > PagedCellStorage.this.maxPages;
+			}
+		};
+	}
+
+	@Override
+	public int getWidth() {
+		return width;
+	}
+	@Override
+	public int getHeight() {
+		return height;
+	}
+	/**
+	 * {@inheritDoc}
+	 * Reads the page with the given row from file if it is not in memory.
+	 * @throws UncheckedIOException if the file can not be read
+	 */
+	@Override
+	public int get(int x, int y) {
+		int pageNumber = y / rowsPerPage;
+		byte[] page = (pageNumber == lastPageNumber) ? lastPage : getPage(pageNumber);
+		int b = page[(y % rowsPerPage) * rowSize + (x >> 1)];
+		int value = ((x & 1) == 0) ? (b & Floorplan.CW_ALL) : ((b >> 4) & Floorplan.CW_ALL);
+		// outside of the maze is a border
+		if (y == 0)
+			value |= Floorplan.CW_TOP << Floorplan.CW_BOUND_SHIFT;
+		if (y == height - 1)
+			value |= Floorplan.CW_BOT << Floorplan.CW_BOUND_SHIFT;
+		if (x == 0)
+			value |= Floorplan.CW_LEFT << Floorplan.CW_BOUND_SHIFT;
+		if (x == width - 1)
+			value |= Floorplan.CW_RIGHT << Floorplan.CW_BOUND_SHIFT;
+		return value;
+	}
+	/**
+	 * Not supported, the storage is read-only
+	 * @throws UnsupportedOperationException always
+	 */
+	@Override
+	public void setBits(int x, int y, int bitmask) {
+		throw new UnsupportedOperationException("PagedCellStorage is read-only");
+	}
+	/**
+	 * Not supported, the storage is read-only
+	 * @throws UnsupportedOperationException always
+	 */
+	@Override
+	public void clearBits(int x, int y, int bitmask) {
+		throw new UnsupportedOperationException("PagedCellStorage is read-only");
+	}
+	/**
+	 * Provides a storage that reads from the same file with pages of its own.
+	 * As both are read-only, they are independent of each other.
+	 * @throws UncheckedIOException if the file can not be opened
+	 */
+	@Override
+	public CellStorage copy() {
+		try {
+			return new PagedCellStorage(file, rowsPerPage, maxPages);
+		}
+		catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+	/**
+	 * {@inheritDoc}
+	 * Only counts pages that are currently in memory.
+	 */
+	@Override
+	public long getMemoryFootprint() {
+		return (long) pages.size() * rowsPerPage * rowSize;
+	}
+
+	/**
+	 * Gets the number of pages currently kept in memory
+	 * @return the number of pages
+	 */
+	int getPageCount() {
+		return pages.size();
+	}
+
+	@Override
+	public void close() throws IOException {
+		pages.clear();
+		lastPage = null;
+		lastPageNumber = -1;
+		channel.close();
+	}
+
+	/**
+	 * Gets the page with the given number, reads it from file if necessary.
+	 * @param pageNumber is the page number
+	 * @return the content of the page, rows in increasing order
+	 */
+	private byte[] getPage(int pageNumber) {
+		byte[] page = pages.get(pageNumber);
+		if (page == null) {
+			int rows = Math.min(rowsPerPage, height - pageNumber * rowsPerPage);
+			page = new byte[rowsPerPage * rowSize];
+			ByteBuffer buffer = ByteBuffer.wrap(page, 0, rows * rowSize);
+			try {
+				readFully(buffer, FileRowSink.HEADER_SIZE + (long) pageNumber * rowsPerPage * rowSize);
+			}
+			catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+			pages.put(pageNumber, page);
+		}
+		lastPageNumber = pageNumber;
+		lastPage = page;
+		return page;
+	}
+
+	/**
+	 * Fills the given buffer with bytes from the file
+	 * @param buffer is the buffer to fill
+	 * @param position is the position in the file to start reading from
+	 * @throws IOException if the file ends before the buffer is full
+	 */
+	private void readFully(ByteBuffer buffer, long position) throws IOException {
+		while (buffer.hasRemaining()) {
+			int n = channel.read(buffer, position);
+			if (n < 0)
+				throw new IOException("PagedCellStorage: unexpected end of " + file);
+			position += n;
+		}
+	}
+}
@@ -0,0 +1,109 @@
+package generation;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A counter for the progress made while a maze is built.
+ * The builder splits its work into phases and counts the work units
+ * it completes in each phase, e.g. the wallboards it tears down or the walls
+ * that end up in leaves of the BSP tree. A client such as the screen
+ * with the progress bar polls the counter for a percentage whenever it wants to.
+ *
+ * Each phase has an expected number of work units and a weight that gives its
+ * share of the overall work. The weights are set before the build starts
+ * such that the percentage does not jump when a later phase learns its expected
+ * number of units, e.g. the BSP phase once the walls are known.
+ *
+ * The counter is lock-free: the builder thread and tasks building the BSP tree
+ * in parallel add units without blocking, a client reads the counts at any time
+ * from another thread.
+ */
+public class Progress {
+	/**
+	 * Phases of building a maze in the order they take place
+	 */
+	public enum Phase { ROOMS, PATHWAYS, DISTANCES, WALLS, BSP }
+
+	private static final int PHASES = Phase.values().length;
+
+	private final AtomicLongArray worked = new AtomicLongArray(PHASES); // units done per phase
+	private final AtomicLongArray expected = new AtomicLongArray(PHASES); // units expected per phase
+	private final AtomicLongArray weights = new AtomicLongArray(PHASES); // share of each phase
+
+	/**
+	 * Sets the expected number of work units and the weight of a phase,
+	 * units worked for this phase so far are discarded
+	 * @param phase is the phase
+	 * @param units is the expected number of work units, {@code 0 < units}
+	 * @param weight is the share of the phase relative to the other phases, {@code 0 <= weight}
+	 */
+	public void expect(Phase phase, long units, long weight) {
+		worked.set(phase.ordinal(), 0);
+		expected.set(phase.ordinal(), Math.max(1, units));
+		weights.set(phase.ordinal(), weight);
+	}
+
+	/**
+	 * Updates the expected number of work units of a phase once it is known more precisely,
+	 * the weight of the phase stays the same
+	 * @param phase is the phase
+	 * @param units is the expected number of work units, {@code 0 < units}
+	 */
+	public void expect(Phase phase, long units) {
+		expected.set(phase.ordinal(), Math.max(1, units));
+	}
+
+	/**
+	 * Counts work units that are done
+	 * @param phase is the current phase
+	 * @param units is the number of units done since the last call
+	 */
+	public void worked(Phase phase, long units) {
+		worked.addAndGet(phase.ordinal(), units);
+	}
+
+	/**
+	 * Marks a phase as done, whatever the number of units counted for it
+	 * @param phase is the phase
+	 */
+	public void complete(Phase phase) {
+		worked.set(phase.ordinal(), expected.get(phase.ordinal()));
+	}
+
+	/**
+	 * @param phase is the phase
+	 * @return the number of work units counted for the phase
+	 */
+	public long getWorked(Phase phase) {
+		return worked.get(phase.ordinal());
+	}
+
+	/**
+	 * Gives the overall progress. Each phase contributes its weight times
+	 * the fraction of its expected units that are done, a phase that does more work
+	 * than expected contributes its weight.
+	 * @return the percentage of work done on a range [0,100]
+	 */
+	public int getPercentage() {
+		double done = 0;
+		long total = 0;
+		for (int i = 0; i < PHASES; i++) {
+			long weight = weights.get(i);
+			if (0 == weight)
+				continue;
+			done += weight * Math.min(1.0, (double) worked.get(i) / expected.get(i));
+			total += weight;
+		}
+		return (0 == total) ? 0 : (int) (done * 100 / total);
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder s = new StringBuilder("Progress: ").append(getPercentage()).append('%');
+		for (Phase phase : Phase.values()) {
+			s.append(", ").append(phase).append(' ').append(worked.get(phase.ordinal()))
+				.append('/').append(expected.get(phase.ordinal()));
+		}
+		return s.toString();
+	}
+}
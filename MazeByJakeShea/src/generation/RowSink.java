@@ -0,0 +1,25 @@
+package generation;
+
+/**
+ * Receives the rows of a maze one at a time, top to bottom,
+ * as a streaming maze builder finalizes them.
+ * A row is handed over as one byte per cell that holds the
+ * wallboard bits of the cell (CW_TOP, CW_BOT, CW_LEFT, CW_RIGHT).
+ *
+ * This is a functional interface such that a consumer callback
+ * can be given as a lambda expression, see {@link FileRowSink}
+ * for a sink that writes rows to a file.
+ *
+ * @author Jake Shea
+ */
+@FunctionalInterface
+public interface RowSink {
+	/**
+	 * Accepts the next row of the maze.
+	 * Warning: the given array is reused for later rows,
+	 * a sink that needs to keep the values must copy them.
+	 * @param y is the row, rows are delivered in increasing order starting with 0
+	 * @param walls holds the wallboard bits of cell (x,y) at index x
+	 */
+	void acceptRow(int y, byte[] walls);
+}
@@ -8,6 +8,14 @@ import java.util.Random;
  * This happens when getRandom is called for the first time. Any subsequent call to setSeed resets the seed of the existing generator.
  * Design implements Singleton pattern.
  * 
+ * In addition, a generator of its own can be created for a given seed.
+ * Maze builders use one each such that builders on different threads
+ * neither compete for nor reseed a shared generator and produce the same
+ * maze for the same seed regardless of what else is running.
+ * A generator of its own delivers the same sequence as the single instance
+ * does after setSeed with the same seed.
+ * Use split to derive further independent generators in a deterministic way.
+ * 
  * @author Kemper
  *
  */
@@ -28,6 +36,13 @@ public final class SingleRandom {
 	private SingleRandom() {
 		generator = validSeed ? new Random(theSeed) : new Random();
 	}
+	/**
+	 * Constructor for a generator of its own that is independent of the single instance.
+	 * @param seed is the seed value for the random number generator
+	 */
+	public SingleRandom(final long seed) {
+		generator = new Random(seed);
+	}
 
 	/**
 	 * Delivers an instance of a random number generator.
@@ -66,6 +81,16 @@ public final class SingleRandom {
 		return lowerBound + generator.nextInt(upperBound - lowerBound + 1) ;
 	}
 
+	/**
+	 * Derives a new generator of its own from this one.
+	 * The new generator is seeded with the next random number of this one,
+	 * so the same sequence of calls gives the same generators.
+	 * @return a new generator that is independent of this one
+	 */
+	public SingleRandom split() {
+		return new SingleRandom(generator.nextLong());
+	}
+
 	/**
 	 * Prepares the generator to start with a particular seed value.
 	 * @param seed is the seed value for the random number generator
@@ -1,12 +1,12 @@
 package generation;
 
-import java.util.List;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
 
 import org.w3c.dom.Document;
 import org.w3c.dom.Element;
 
 import gui.MazeFileWriter;
-import gui.P5PanelF21;
 
 /**
  * A wall is a continuous sequence of wallboards in the maze.
@@ -108,10 +108,45 @@ public class Wall {
         partition = false;
         seen = false;
         // determine color
-        setColor(P5PanelF21.getWallColor(distance, cc, extensionX));
+        setColor(computeColor(distance, cc, extensionX));
         // all fields initialized
     }
 
+    /**
+     * Determines the color for a wall as an rgb value with an opaque alpha channel.
+     * The value is the one of a java.awt.Color with the same components, it is computed
+     * without AWT such that mazes can be generated without a display.
+     * @param distance is the distance to the exit
+     * @param cc is an obscure parameter used for color determination
+     * @param extensionX is the wall's length and direction (sign), horizontal dimension
+     * @return the rgb value for the color of the wall
+     */
+    public static int computeColor(final int distance, final int cc, final int extensionX) {
+        final int d = distance / 4;
+        final int add = (extensionX != 0) ? 1 : 0;
+        final int rgbValue = (((distance & 7) + 2 + add) * 70) / 8 + 80;
+        switch (((d >> 3) ^ cc) % 6) {
+        case 0:
+            return rgb(rgbValue, 20, 20);
+        case 1:
+            return rgb(20, 60, 20);
+        case 2:
+            return rgb(20, 20, rgbValue);
+        case 3:
+            return rgb(rgbValue, 60, 20);
+        case 4:
+            return rgb(20, 60, rgbValue);
+        case 5:
+            return rgb(rgbValue, 20, rgbValue);
+        default:
+            return rgb(20, 20, 20);
+        }
+    }
+
+    private static int rgb(final int r, final int g, final int b) {
+        return 0xFF000000 | (r << 16) | (g << 8) | b;
+    }
+
     /**
      * @param pdx
      *            direction and length of wall in x coordinate
@@ -202,6 +237,35 @@ public class Wall {
                 getColor());
     }
 
+    /**
+     * writes fields to the given XML stream with the help of MazeFileWriter,
+     * same elements as for {@link #storeWall(Document, Element, int, int)}.
+     *
+     * @param writer
+     *            stream to write data to
+     * @param number
+     *            number for this element
+     * @param i
+     *            id for this element
+     * @throws XMLStreamException
+     *            if writing to the stream fails
+     */
+    public void storeWall(final XMLStreamWriter writer, final int number,
+            final int i) throws XMLStreamException {
+        final String suffix = "_" + number + "_" + i;
+        MazeFileWriter.writeElement(writer, "distSeg" + suffix, dist);
+        MazeFileWriter.writeElement(writer, "dxSeg" + suffix, getExtensionX());
+        MazeFileWriter.writeElement(writer, "dySeg" + suffix, getExtensionY());
+        MazeFileWriter.writeElement(writer, "partitionSeg" + suffix,
+                isPartition());
+        MazeFileWriter.writeElement(writer, "seenSeg" + suffix, isSeen());
+        MazeFileWriter.writeElement(writer, "xSeg" + suffix,
+                getStartPositionX());
+        MazeFileWriter.writeElement(writer, "ySeg" + suffix,
+                getStartPositionY());
+        MazeFileWriter.writeElement(writer, "colSeg" + suffix, getColor());
+    }
+
     /**
      * Equals method that checks if the other object matches in dimensions and
      * content.
@@ -373,202 +437,4 @@ public class Wall {
     public int getLength() {
         return Math.abs(getExtensionX() + getExtensionY());
     }
-
-    /**
-     * Method called in BSPBuilder.genNodes to determine the minimum of all such grades. 
-     * The method does not update internal attributes and just calculates the returned value.
-     * @param walls vector of walls
-     * @return undocumented
-     */
-    public int calculateGrade(List<Wall> walls) {
-        
-        final int inc = (walls.size() >= 100) ? walls.size() / 50 : 1 ; // increment for iteration below
-        // define some local counter
-        int lcount = 0;
-        int rcount = 0;
-        int splits = 0;
-        // check all walls, loop calculates lcount, rcount and splits
-        for (int i = 0; i < walls.size(); i += inc) {
-            Wall wall = walls.get(i);
-            // extract information from wall
-             // difference between beginning of wall and x
-             // difference between beginning of wall and y
-             // difference between end of wall and x
-             // difference between end of wall and y
-            int dotStart = calculateDot(wall.getStartPositionX() - x, wall.getStartPositionY() - y);
-            int dotEnd = calculateDot(wall.getEndPositionX() - x, wall.getEndPositionY() - y);
-            // update splits if necessary
-            if (getSign(dotStart) != getSign(dotEnd)) {
-                if (dotStart == 0)
-                    dotStart = dotEnd;
-                else if (dotEnd != 0) {
-                    splits++;
-                    continue;
-                }
-            }
-            // update lcount, rcount values
-            if (dotStart > 0 ||
-                    (dotStart == 0 && hasSameDirection(wall))) {
-                rcount++;
-            } else if (dotStart < 0 ||
-                    (dotStart == 0 && hasOppositeDirection(wall))) {
-                lcount++;
-            } else {
-                BSPBuilder.dbg("grade_partition problem: dot1 = "+dotStart+", dot2 = "+dotEnd);
-            }
-        }
-        return Math.abs(lcount-rcount) + splits * 3;
-    }
-
-    /**
-     * Helper method for calculateGrade, resulted from refactoring
-     * @param df1x
-     * @param df1y
-     * @return 
-     */
-    private int calculateDot(int df1x, int df1y) {
-        return df1x * dy + df1y * (-dx);
-    }
-    /**
-     * Calculate a partitioning of this wall into 2.
-     * The starting position of the first wall matches with this wall.
-     * The end position of the second wall matches with this wall.
-     * The splitting coordinates are derived from the given splitter.
-     * The length of this wall matches with the sum of the lengths
-     * of the returned walls. 
-     * Used for the BSBbuilder.
-     * @param splitter is the wall that crosses this one
-     * @param colchange is a color attribute
-     * @return array with 2 walls that together describe this one
-     */
-    private Wall[] calculatePartitioning(Wall splitter, int colchange) {
-    	// calculate coordinates for the splitting point (spx, spy)
-    	// if the splitter is vertical, we need to cut the current wall on the x-axis
-    	// if the splitter is horizontal, cut on the y-axis
-    	int spx = getStartPositionX();
-    	int spy = getStartPositionY();
-    	if (splitter.getExtensionX() == 0) // case of a vertical splitting wall
-    		spx = splitter.getStartPositionX();
-    	else // case of a horizontal splitting wall
-    		spy = splitter.getStartPositionY();
-    	
-    	Wall[] result = new Wall[2];
-    	// the left wall starts at the original position, extends to (spx, spy)
-    	// its extension in one direction is 0
-    	// its extension in the other direction is the difference between the splitter position and its own
-    	// so it goes from the original starting position to the starting position of the splitter
-    	result[0] = new Wall(getStartPositionX(), getStartPositionY(), 
-    			spx-getStartPositionX(), spy-getStartPositionY(), 
-    			getDistance(), colchange);
-    	// the right wall starts where the left wall ended
-    	// e.g. for x: getStartPositionX() + spx-getStartPositionX() = spx
-    	// and it extends to the original end position
-    	// e.g. for x: spx + getEndPositionX()-spx = getEndPositionX()
-    	result[1] = new Wall(spx, spy, 
-    			getEndPositionX()-spx, getEndPositionY()-spy, 
-    			getDistance(), colchange);
-    	result[0].setPartition(isPartition());
-    	result[1].setPartition(isPartition());
-    	// trace output to check the result
-    	/*
-    	System.out.println("Wall.calculatePartitioning: (x1,y1,x2,y2) to (x3,y3,x4,y4) and (x5,y5,x6,y6)");
-    	System.out.print("("+getStartPositionX()+","+getStartPositionY()+","+getEndPositionX()+","+getEndPositionY()+")");
-    	System.out.print(" to ");
-    	System.out.print("("+result[0].getStartPositionX()+","+result[0].getStartPositionY()+","+result[0].getEndPositionX()+","+result[0].getEndPositionY()+")");
-    	System.out.print(" and ");
-    	System.out.println("("+result[1].getStartPositionX()+","+result[1].getStartPositionY()+","+result[1].getEndPositionX()+","+result[1].getEndPositionY()+")");
-    	 */
-    	return result;
-    }
-    
-    //////////////// new part to make split a list of walls for the BSP Builder /////////
-    
-	/**
-	 * Partitions the given list of walls into left and right walls.
-	 * This object serves as the splitter.
-	 * @param walls the list of walls to split
-	 * @param left the resulting list of walls for the left side of the subtree
-	 * @param right the resulting list of walls for the right side of the subtree
-	 */
-	public void splitWalls(List<Wall> walls, final List<Wall> left, final List<Wall> right, int colchange) {
-		// MEMO: code very similar to Walls.calculateGrade method
-		for (Wall wall: walls) {
-			int dotStart = calculateDot(wall.getStartPositionX() - x, wall.getStartPositionY() - y);
-			int dotEnd = calculateDot(wall.getEndPositionX() - x, wall.getEndPositionY() - y);
-			// switch in perspective, this object is the splitter, we call on the wall to split
-			wall.assignOrSplitWall(this, left, right, dotStart, dotEnd, colchange);
-		}
-	}
-
-	/**
-	 * This wall needs to either go as is into the right or left list of walls
-	 * or it needs to be split into two walls such that one part goes into the left
-	 * and the other into the right list of walls.
-	 * @param splitter the wall used as a criterion for splitting
-	 * @param left the list of walls to the left
-	 * @param right the list of walls to the right
-	 * @param dotStart
-	 * @param dotEnd
-	 */
-	private void assignOrSplitWall(Wall splitter, final List<Wall> left, final List<Wall> right,
-			int dotStart, int dotEnd, int colchange) {
-		// Case 1: current wall intersects with splitter wall 
-		// if this is the case, split current wall into two walls
-		// add one new part each to the left and right list
-		if (getSign(dotStart) != getSign(dotEnd)) {
-			if (dotStart == 0)
-				dotStart = dotEnd; // reduces cases for case 2, 3 below to checking dotStart
-			else if (dotEnd != 0) {
-				// dotStart != 0 AND dotEnd != 0 AND their signs differ
-				// we need to split this wall into 2
-				splitWallUpIntoLeftAndRight(splitter, left, right, dotStart, colchange);
-				return;
-			}
-		}
-		// dotStart and dotEnd may have same sign
-		// or one of them is equal to 0, in this case dotStart carries the non-zero
-		// or both of them are equal to 0
-		//
-		// Case 2 and 3: add the wall to the right or left list
-		// decide where to add current wall
-		if (dotStart > 0 || (dotStart == 0 && hasSameDirection(splitter))) {
-			right.add(this);
-			if (dotStart == 0)
-				setPartition(true);
-		} else if (dotStart < 0 || (dotStart == 0 && hasOppositeDirection(splitter))) { 
-			left.add(this);
-			if (dotStart == 0)
-				setPartition(true);
-		} else {
-			System.out.println("error xx 1 "+dotStart);
-		}
-	}
-
-	/**
-	 * Splits the given wall into a left and a right wall and adds the pieces to the corresponding lists of walls.
-	 * @param left the list of walls on the left side
-	 * @param right the list of walls on the right side
-	 * @param splitter the criterion used to split the wall
-	 * @param dot criterion to decide which part goes into left, which one goes into the right list
-	 */
-	private void splitWallUpIntoLeftAndRight(Wall splitter, final List<Wall> left, final List<Wall> right,
-			 int dot, int colchange) {
-		Wall[] splitWalls = calculatePartitioning(splitter, colchange);
-		if (dot > 0) {
-			right.add(splitWalls[0]);
-			left.add(splitWalls[1]);
-		} else {
-			right.add(splitWalls[1]);
-			left.add(splitWalls[0]);
-		}
-	}
-	
-	/**
-	 * Provides the sign of a given integer number
-	 * @param num the number to compute the sign information for
-	 * @return {@code -1 if num < 0, 0 if num == 0, 1 if num > 0}
-	 */
-	static int getSign(int num) {
-		return (num < 0) ? -1 : (num > 0) ? 1 : 0;
-	}
 }
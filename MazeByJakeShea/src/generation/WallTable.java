@@ -0,0 +1,434 @@
+package generation;
+
+import java.util.Arrays;
+
+/**
+ * A table of walls for the BSPBuilder. The fields of a wall are kept in
+ * parallel integer arrays with one row per wall instead of one Wall object
+ * per wall, a list of walls is a range of consecutive rows {@code [from, to)}.
+ *
+ * Partitioning a range of walls by a splitter keeps the walls on the left
+ * side in place and appends the walls on the right side to the end of the table.
+ * A wall that crosses the splitter is cut into two pieces, one for each side.
+ * This way, building a BSP tree does not allocate lists or wall objects
+ * for each split, the table only grows now and then. Once a subtree
+ * is complete, its rows can be released with {@link #truncate(int)}.
+ *
+ * Wall objects are only created for walls that end up in a BSPLeaf,
+ * see {@link #toWall(int)}. The readers for maze files use a table as well,
+ * such that a leaf of a loaded tree creates its walls when they are needed first.
+ *
+ * @author Jake Shea
+ */
+public class WallTable {
+	private static final int INITIAL_CAPACITY = 256;
+
+	// columns of the table, see the fields of Wall for their meaning
+	private int[] x;
+	private int[] y;
+	private int[] dx;
+	private int[] dy;
+	private int[] dist;
+	private int[] col;
+	private boolean[] partition;
+	private boolean[] seen;
+	private int size; // number of rows in use
+
+	/**
+	 * Constructor for an empty table
+	 */
+	public WallTable() {
+		this(INITIAL_CAPACITY);
+	}
+
+	/**
+	 * Constructor for an empty table with room for the given number of walls
+	 * @param capacity is the number of walls the table holds before it needs to grow, {@code 0 <= capacity}
+	 */
+	public WallTable(int capacity) {
+		x = new int[capacity];
+		y = new int[capacity];
+		dx = new int[capacity];
+		dy = new int[capacity];
+		dist = new int[capacity];
+		col = new int[capacity];
+		partition = new boolean[capacity];
+		seen = new boolean[capacity];
+	}
+
+	/**
+	 * Adds a wall with its partition bit set to false.
+	 * Parameters are the same as for the constructor of Wall.
+	 * @param startX x coordinate of starting position of wall
+	 * @param startY y coordinate of starting position of wall
+	 * @param extensionX direction and length of wall in x coordinate
+	 * @param extensionY direction and length of wall in y coordinate
+	 * @param distance of starting position of this wall to exit position of maze
+	 * @param cc used to decide which color is assigned to wall
+	 * @return the row of the new wall
+	 */
+	public int add(int startX, int startY, int extensionX, int extensionY, int distance, int cc) {
+		assert (extensionX != 0 && extensionY == 0) || (extensionX == 0 && extensionY != 0)
+			: "Wall needs to extend into exactly one direction";
+		ensureCapacity(size + 1);
+		return addRow(startX, startY, extensionX, extensionY, distance,
+				Wall.computeColor(distance, cc, extensionX), false, false);
+	}
+
+	/**
+	 * Adds a wall with the given color and flags, e.g. a wall as it is read from a file.
+	 * @param startX x coordinate of starting position of wall
+	 * @param startY y coordinate of starting position of wall
+	 * @param extensionX direction and length of wall in x coordinate
+	 * @param extensionY direction and length of wall in y coordinate
+	 * @param distance of starting position of this wall to exit position of maze
+	 * @param color is the color of the wall
+	 * @param partition is the partition bit
+	 * @param seen tells if the wall has been seen in the first person view
+	 * @return the row of the new wall
+	 */
+	public int addWall(int startX, int startY, int extensionX, int extensionY, int distance,
+			int color, boolean partition, boolean seen) {
+		ensureCapacity(size + 1);
+		return addRow(startX, startY, extensionX, extensionY, distance, color, partition, seen);
+	}
+
+	/**
+	 * Copies the given rows of another table to the end of this table
+	 * @param source is the table to copy from, may be this table
+	 * @param from is the first row to copy
+	 * @param to is the row after the last row to copy
+	 * @return the row of the first copy
+	 */
+	public int addAll(WallTable source, int from, int to) {
+		final int n = to - from;
+		ensureCapacity(size + n);
+		System.arraycopy(source.x, from, x, size, n);
+		System.arraycopy(source.y, from, y, size, n);
+		System.arraycopy(source.dx, from, dx, size, n);
+		System.arraycopy(source.dy, from, dy, size, n);
+		System.arraycopy(source.dist, from, dist, size, n);
+		System.arraycopy(source.col, from, col, size, n);
+		System.arraycopy(source.partition, from, partition, size, n);
+		System.arraycopy(source.seen, from, seen, size, n);
+		int result = size;
+		size += n;
+		return result;
+	}
+
+	/**
+	 * Removes all rows starting at the given row
+	 * @param newSize is the number of rows to keep, {@code 0 <= newSize <= size()}
+	 */
+	public void truncate(int newSize) {
+		assert 0 <= newSize && newSize <= size : "Invalid size " + newSize;
+		size = newSize;
+	}
+
+	/**
+	 * @return the number of walls in the table
+	 */
+	public int size() {
+		return size;
+	}
+	/**
+	 * @param i is the row
+	 * @return the x coordinate of the starting position
+	 */
+	public int getStartPositionX(int i) {
+		return x[i];
+	}
+	/**
+	 * @param i is the row
+	 * @return the y coordinate of the starting position
+	 */
+	public int getStartPositionY(int i) {
+		return y[i];
+	}
+	/**
+	 * @param i is the row
+	 * @return the value for length and direction (sign), horizontal
+	 */
+	public int getExtensionX(int i) {
+		return dx[i];
+	}
+	/**
+	 * @param i is the row
+	 * @return the value for length and direction (sign), vertical
+	 */
+	public int getExtensionY(int i) {
+		return dy[i];
+	}
+	/**
+	 * @param i is the row
+	 * @return the x coordinate of the end position
+	 */
+	public int getEndPositionX(int i) {
+		return x[i] + dx[i];
+	}
+	/**
+	 * @param i is the row
+	 * @return the y coordinate of the end position
+	 */
+	public int getEndPositionY(int i) {
+		return y[i] + dy[i];
+	}
+	/**
+	 * @param i is the row
+	 * @return the distance to the exit
+	 */
+	public int getDistance(int i) {
+		return dist[i];
+	}
+	/**
+	 * @param i is the row
+	 * @return the color
+	 */
+	public int getColor(int i) {
+		return col[i];
+	}
+	/**
+	 * @param i is the row
+	 * @return the partition bit
+	 */
+	public boolean isPartition(int i) {
+		return partition[i];
+	}
+	/**
+	 * @param i is the row
+	 * @param value is the new value of the partition bit
+	 */
+	public void setPartition(int i, boolean value) {
+		partition[i] = value;
+	}
+	/**
+	 * @param i is the row
+	 * @return true if the wall has been seen
+	 */
+	public boolean isSeen(int i) {
+		return seen[i];
+	}
+
+	/**
+	 * Creates a Wall object with the content of the given row
+	 * @param i is the row
+	 * @return a new wall
+	 */
+	public Wall toWall(int i) {
+		Wall wall = new Wall(x[i], y[i], dx[i], dy[i], dist[i], 0);
+		wall.setColor(col[i]);
+		wall.setPartition(partition[i]);
+		wall.setSeen(seen[i]);
+		return wall;
+	}
+
+	/**
+	 * Sets partition bit to true for walls in the given rows that touch
+	 * the border of the maze and have an extension of 0,
+	 * see {@link Wall#updatePartitionIfBorderCase(int, int)}.
+	 * @param from is the first row
+	 * @param to is the row after the last row
+	 * @param width width of maze * Constants.MAP_UNIT
+	 * @param height height of maze * Constants.MAP_UNIT
+	 */
+	public void updatePartitionIfBorderCase(int from, int to, int width, int height) {
+		for (int i = from; i < to; i++) {
+			if (((x[i] == 0 || x[i] == width) && dx[i] == 0)
+					|| ((y[i] == 0 || y[i] == height) && dy[i] == 0)) {
+				partition[i] = true;
+			}
+		}
+	}
+
+	/**
+	 * Counts the walls in the given rows that have their partition bit set to false
+	 * @param from is the first row
+	 * @param to is the row after the last row
+	 * @return number of walls where the partition flag is not set
+	 */
+	public int countNonPartitions(int from, int to) {
+		int result = 0;
+		for (int i = from; i < to; i++) {
+			if (!partition[i])
+				result++;
+		}
+		return result;
+	}
+
+	/**
+	 * Calculates how well the given wall splits the walls in the given rows,
+	 * the lower the grade the better. For large ranges only a sample of walls
+	 * is considered. Used by the BSPBuilder to determine the minimum of all such grades.
+	 * @param splitter is the row of the candidate wall
+	 * @param from is the first row
+	 * @param to is the row after the last row
+	 * @return difference between number of walls on the left and right side plus 3 per split wall
+	 */
+	public int calculateGrade(int splitter, int from, int to) {
+		final int n = to - from;
+		final int inc = (n >= 100) ? n / 50 : 1; // increment for iteration below
+		final int sx = x[splitter];
+		final int sy = y[splitter];
+		final int sdx = dx[splitter];
+		final int sdy = dy[splitter];
+		final int sdir = getDir(sdx, sdy);
+		int lcount = 0;
+		int rcount = 0;
+		int splits = 0;
+		// check all walls, loop calculates lcount, rcount and splits
+		for (int i = from; i < to; i += inc) {
+			int dotStart = (x[i] - sx) * sdy - (y[i] - sy) * sdx;
+			int dotEnd = (x[i] + dx[i] - sx) * sdy - (y[i] + dy[i] - sy) * sdx;
+			// update splits if necessary
+			if (getSign(dotStart) != getSign(dotEnd)) {
+				if (dotStart == 0)
+					dotStart = dotEnd;
+				else if (dotEnd != 0) {
+					splits++;
+					continue;
+				}
+			}
+			// update lcount, rcount values
+			int dir = getDir(dx[i], dy[i]);
+			if (dotStart > 0 || (dotStart == 0 && sdir == dir)) {
+				rcount++;
+			} else if (dotStart < 0 || (dotStart == 0 && sdir == -dir)) {
+				lcount++;
+			} else {
+				BSPBuilder.dbg("grade_partition problem: dot1 = "+dotStart+", dot2 = "+dotEnd);
+			}
+		}
+		return Math.abs(lcount-rcount) + splits * 3;
+	}
+
+	/**
+	 * Partitions the walls in the given rows into left and right walls.
+	 * Walls on the left side stay in place, in the same order, starting at row from.
+	 * Walls on the right side are appended to the table in the same order.
+	 * A wall that crosses the splitter is cut into two walls, one for each side,
+	 * walls that lie on the splitter get their partition bit set.
+	 * The rows after the left walls up to row to are no longer in use afterwards.
+	 * @param splitter is the row of the wall used as a criterion for splitting, in the given range
+	 * @param from is the first row
+	 * @param to is the row after the last row
+	 * @return the row after the last wall on the left side, the walls on the
+	 * right side start at the size of the table before the call
+	 * @throws IllegalStateException if a wall can be put on neither side, which does not happen for walls of a maze
+	 */
+	public int splitWalls(int splitter, int from, int to) {
+		// the splitter row may get overwritten, keep its values
+		final int sx = x[splitter];
+		final int sy = y[splitter];
+		final int sdx = dx[splitter];
+		final int sdy = dy[splitter];
+		final int sdir = getDir(sdx, sdy);
+		// each wall contributes at most one row to the right side
+		ensureCapacity(size + to - from);
+		int left = from;
+		for (int i = from; i < to; i++) {
+			final int wx = x[i];
+			final int wy = y[i];
+			final int wdx = dx[i];
+			final int wdy = dy[i];
+			int dotStart = (wx - sx) * sdy - (wy - sy) * sdx;
+			final int dotEnd = (wx + wdx - sx) * sdy - (wy + wdy - sy) * sdx;
+			// Case 1: wall intersects with splitter, split it into two walls
+			if (getSign(dotStart) != getSign(dotEnd)) {
+				if (dotStart == 0)
+					dotStart = dotEnd; // reduces cases for case 2, 3 below to checking dotStart
+				else if (dotEnd != 0) {
+					// the first piece goes from the start of the wall to the splitter,
+					// the second piece from the splitter to the end of the wall
+					final int spx = (sdx == 0) ? sx : wx; // vertical splitter cuts on the x-axis
+					final int spy = (sdx == 0) ? wy : sy; // horizontal splitter cuts on the y-axis
+					final int d = dist[i];
+					final int c = col[i]; // pieces have the same distance and direction, so the same color
+					final boolean p = partition[i];
+					final boolean s = seen[i];
+					if (dotStart > 0) {
+						addRow(wx, wy, spx-wx, spy-wy, d, c, p, s);
+						setRow(left++, spx, spy, wx+wdx-spx, wy+wdy-spy, d, c, p, s);
+					} else {
+						addRow(spx, spy, wx+wdx-spx, wy+wdy-spy, d, c, p, s);
+						setRow(left++, wx, wy, spx-wx, spy-wy, d, c, p, s);
+					}
+					continue;
+				}
+			}
+			// Case 2 and 3: add the wall to the right or left side
+			final int dir = getDir(wdx, wdy);
+			if (dotStart > 0 || (dotStart == 0 && sdir == dir)) {
+				addRow(wx, wy, wdx, wdy, dist[i], col[i], partition[i] || dotStart == 0, seen[i]);
+			} else if (dotStart < 0 || (dotStart == 0 && sdir == -dir)) {
+				setRow(left++, wx, wy, wdx, wdy, dist[i], col[i], partition[i] || dotStart == 0, seen[i]);
+			} else {
+				// dotStart == 0 implies dotEnd == 0 here, such a wall lies on the splitter and is parallel to it
+				throw new IllegalStateException("WallTable: can not split wall " + i + " with dotStart " + dotStart);
+			}
+		}
+		return left;
+	}
+
+	/**
+	 * Computes specific integer values for the X,Y directions as in Wall.
+	 * @param extensionX direction and length of wall in x coordinate
+	 * @param extensionY direction and length of wall in y coordinate
+	 * @return calculated direction as one of {-2,-1,1,2}
+	 */
+	private static int getDir(int extensionX, int extensionY) {
+		if (extensionX != 0) {
+			return (extensionX < 0) ? 1 : -1;
+		}
+		return (extensionY < 0) ? 2 : -2;
+	}
+
+	/**
+	 * Provides the sign of a given integer number
+	 * @param num the number to compute the sign information for
+	 * @return {@code -1 if num < 0, 0 if num == 0, 1 if num > 0}
+	 */
+	private static int getSign(int num) {
+		return (num < 0) ? -1 : (num > 0) ? 1 : 0;
+	}
+
+	/**
+	 * Appends a row, the capacity must be sufficient
+	 * @return the new row
+	 */
+	private int addRow(int wx, int wy, int wdx, int wdy, int d, int c, boolean p, boolean s) {
+		setRow(size, wx, wy, wdx, wdy, d, c, p, s);
+		return size++;
+	}
+
+	/**
+	 * Overwrites the given row
+	 */
+	private void setRow(int i, int wx, int wy, int wdx, int wdy, int d, int c, boolean p, boolean s) {
+		x[i] = wx;
+		y[i] = wy;
+		dx[i] = wdx;
+		dy[i] = wdy;
+		dist[i] = d;
+		col[i] = c;
+		partition[i] = p;
+		seen[i] = s;
+	}
+
+	/**
+	 * Grows the columns if they hold less than the given number of rows
+	 * @param capacity is the number of rows needed
+	 */
+	private void ensureCapacity(int capacity) {
+		if (capacity <= x.length)
+			return;
+		int n = Math.max(capacity, 2 * x.length);
+		x = Arrays.copyOf(x, n);
+		y = Arrays.copyOf(y, n);
+		dx = Arrays.copyOf(dx, n);
+		dy = Arrays.copyOf(dy, n);
+		dist = Arrays.copyOf(dist, n);
+		col = Arrays.copyOf(col, n);
+		partition = Arrays.copyOf(partition, n);
+		seen = Arrays.copyOf(seen, n);
+	}
+}
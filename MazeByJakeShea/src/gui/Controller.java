@@ -109,14 +109,27 @@ public class Controller {
     final float energyCapacity = 3500;
     
     public Controller() {
-    	states = new State[5];
-        states[0] = new StateTitle();
-        states[1] = new StateGenerating();
-        states[2] = new StatePlaying();
-        states[3] = new StateWinning();
-        states[4] = new StateDriver();
-        currentState = states[0];
-        panel = new MazePanel(); 
+        this(true);
+    }
+    
+    /**
+     * Constructor for a controller with or without graphics.
+     * A controller without graphics has neither states nor a panel,
+     * it serves subclasses that operate the robot on a maze on their own,
+     * e.g. the simulation of the {@link RobotSimulator}.
+     * @param graphics is true for the states and the panel, false otherwise
+     */
+    Controller(boolean graphics) {
+        if (graphics) {
+        	states = new State[5];
+            states[0] = new StateTitle();
+            states[1] = new StateGenerating();
+            states[2] = new StatePlaying();
+            states[3] = new StateWinning();
+            states[4] = new StateDriver();
+            currentState = states[0];
+            panel = new MazePanel(); 
+        }
         fileName = null;
         builder = Order.Builder.DFS; // default
         perfect = false; // default
@@ -181,7 +194,8 @@ public class Controller {
     /**
      * Switches the controller to the generating screen and
      * loads maze from file.
-     * @param filename gives file to load maze from
+     * @param filename gives file to load maze from, or a maze
+     * in an archive as archive#key, see MazeArchive
      */
     public void switchFromTitleToGenerating(String filename) {
         currentState = states[1];
@@ -38,7 +38,7 @@ public class FirstPersonView {
 	// map scale may be adjusted by user input, controlled in StatePlaying
 	// colors for background
 	
-	private MazePanel panel;
+	private P5PanelF21 panel;
 	
 	/**
 	 * A data structure to store which wallboards have been visible during
@@ -65,6 +65,12 @@ public class FirstPersonView {
 	 * An initial value of 0 matches East.
 	 */
 	private int angle;  
+	/**
+	 * The viewing direction for the current angle, scaled by ViewTransform.ONE,
+	 * looked up once per frame in the draw method.
+	 */
+	private int viewDX;
+	private int viewDY;
 	
 	
 	/**
@@ -98,6 +104,7 @@ public class FirstPersonView {
 	 * The rset allows us to omit walls that are not needed.
 	 */
 	private RangeSet rSet; 
+	private final int[] intersect = new int[2]; // receives intersections with rSet, reused for each call
 	
 	// debug stuff
 	private boolean deepDebug = false;
@@ -107,7 +114,10 @@ public class FirstPersonView {
 	private int drawRectCounter;
 	private int drawRectLateCounter;
 	private int drawRectWallCounter;
+	private int clipCounter;
 	private int nesting = 0;
+	// receives the counters and draw time of each frame
+	private final FrameMetrics metrics = FrameMetrics.getInstance();
 	
 	/**
 	 * Constructor
@@ -130,7 +140,8 @@ public class FirstPersonView {
 		angle = 0; // angle for initial setting of direction is 0 == East, hidden constraint across classes
 		scaleZ = viewHeight/2;
 		// initialize fields
-		rSet = new RangeSet();
+		// any two intervals in rSet are at least one column apart
+		rSet = new RangeSet((viewWidth + 1) / 2);
 	}
 	/**
 	 * Draws the first person view on the screen during the game
@@ -142,7 +153,8 @@ public class FirstPersonView {
 	 * @param walkStep, only used to set viewX and viewY
 	 * 
 	 */
-	public void draw(MazePanel panelParam, int x, int y, int walkStep, int ang, float percentToExit) {
+	public void draw(P5PanelF21 panelParam, int x, int y, int walkStep, int ang, float percentToExit) {
+		final long start = System.nanoTime();
 		this.panel = panelParam;
         // viewers draw on the buffer graphics
         if (!this.panel.isOperational()) {
@@ -152,6 +164,8 @@ public class FirstPersonView {
         
         // update fields angle, viewx, viewy for current position and viewing angle
         angle = ang ;
+        viewDX = ViewTransform.getViewDX(angle);
+        viewDY = ViewTransform.getViewDY(angle);
         setView(x, y, walkStep);
         
         // update graphics
@@ -166,22 +180,24 @@ public class FirstPersonView {
         
         // debug: reset counters
         traverseNodeCounter = traverseWallSectorCounter =
-        		drawRectCounter = drawRectLateCounter = drawRectWallCounter = 0;
+        		drawRectCounter = drawRectLateCounter = drawRectWallCounter = clipCounter = 0;
         //
         drawAllVisibleSectors(bspRoot);
+        metrics.count(traverseNodeCounter, traverseWallSectorCounter, drawRectCounter,
+        		clipCounter, drawRectWallCounter);
+        metrics.record(FrameMetrics.Timer.FIRST_PERSON_VIEW, System.nanoTime() - start);
+	}
+	
+	/**
+	 * Replaces the set of ranges, e.g. with one that records
+	 * the calls of each frame for the GuiBenchmark
+	 * @param rangeSet is the set of ranges to use from the next frame on
+	 */
+	void setRangeSet(RangeSet rangeSet) {
+		rSet = rangeSet;
 	}
-
 
 	////////////////////////////// internal, private methods ///////////////////////////////
-	private int getViewDX(int angle) {
-		return (int) (Math.cos(radify(angle))*(1<<16));
-	}
-	private int getViewDY(int angle) {
-		return (int) (Math.sin(radify(angle))*(1<<16));
-	}
-	final double radify(int x) {
-        return x*Math.PI/180;
-    }
 	/**
 	 * Updates viewX and viewY based on current angle and for current position.
 	 * @param x coordinate of current position
@@ -191,8 +207,8 @@ public class FirstPersonView {
 	private void setView(int x, int y, int walkStep) {
 		// Notes: only used in draw method
 		final int factor = stepSize*walkStep-Constants.VIEW_OFFSET;
-		viewX = (x*mapUnit+mapUnit/2) + unscaleViewD(getViewDX(angle)*factor);
-        viewY = (y*mapUnit+mapUnit/2) + unscaleViewD(getViewDY(angle)*factor);
+		viewX = (x*mapUnit+mapUnit/2) + ViewTransform.unscale(viewDX*factor);
+        viewY = (y*mapUnit+mapUnit/2) + ViewTransform.unscale(viewDY*factor);
 	}
 
 	/**
@@ -316,7 +332,7 @@ public class FirstPersonView {
 		// if interval [x1,x2] intersects with any of the intervals on 
 		// the x-axis that have not been covered with a wall (a polygon)
 		// yet, then this node might be needed.
-		return (null != rSet.getIntersection(x1, x2));
+		return rSet.getIntersection(x1, x2, intersect);
 	}
 	/**
 	 * Instantiates a new RangePair for the given parameters.
@@ -328,13 +344,10 @@ public class FirstPersonView {
 	 * @return new RangePair for adjusted parameters
 	 */
 	private RangePair getNewRangePair(int p1x, int p2x, int p1y, int p2y) {
-		int viewDX = getViewDX(angle) ;
-        int viewDY = getViewDY(angle) ;
-		
-        int x1 = -unscaleViewD(viewDY*p1x - viewDX*p1y);
-		int z1 = -unscaleViewD(viewDX*p1x + viewDY*p1y);
-		int x2 = -unscaleViewD(viewDY*p2x - viewDX*p2y);
-		int z2 = -unscaleViewD(viewDX*p2x + viewDY*p2y);
+		int x1 = ViewTransform.toViewX(viewDX, viewDY, p1x, p1y);
+		int z1 = ViewTransform.toViewZ(viewDX, viewDY, p1x, p1y);
+		int x2 = ViewTransform.toViewX(viewDX, viewDY, p2x, p2y);
+		int z2 = ViewTransform.toViewZ(viewDX, viewDY, p2x, p2y);
 		
 		return new RangePair(x1, z1, x2, z2);
 	}
@@ -404,8 +417,10 @@ public class FirstPersonView {
 		final int y2  = wall.getEndPositionY()   - viewY;
 		
 		RangePair rp = getNewRangePair(ox1, ox2, y1, y2);
-		if (!rp.clip3d())
+		if (!rp.clip3d()) {
+			clipCounter++; // debug, counter
 			return;
+		}
 		// note: viewZ == 50 is a constant
 		// note: scaleZ == view_height/2 is constant
 		final int y11 = viewZ *scaleZ/rp.z1        +(viewHeight/2); 
@@ -465,7 +480,6 @@ public class FirstPersonView {
 		// Loop variable is x1i, starts at x1, upper limit x2 is fixed
 		int x1i = x1; // init loop variable
 		int x2i;      // initialized inside loop
-		int[] intersect;
 		while (x1i <= x2) {
 			// check if there is an intersection, 
 			// if there is none, done, exit the loop, 
@@ -473,8 +487,7 @@ public class FirstPersonView {
 			// rset represents the to-do list of intervals on the x-axis
 			// that are not covered by a polygon yet
 			// get one intersection for our interval[x1i,x2] with rset
-			intersect = rSet.getIntersection(x1i, x2);
-			if (null == intersect)
+			if (!rSet.getIntersection(x1i, x2, intersect))
 				break; // exit point for loop
 			x1i = intersect[0]; // progress: can not be less than previous x1i
 			x2i = intersect[1]; // x1i <= x2i 
@@ -491,18 +504,14 @@ public class FirstPersonView {
 			// constant xd == x2-x1, yd1 = y21-y11, and yd2 = y22-y12
 			// the additive term for the y coordinate depends on the point's x coordinate
 			// polygon covers interval [x1i, x2i] on the x-axis
-			int[] xps = { x1i, x1i, x2i+1, x2i+1 };
+			// the polygon is a trapezoid with points 
+			// (x1i,top left), (x1i,bottom left), (x2i+1,bottom right), (x2i+1,top right)
 			// (x1i-x1)/xd is the percentage of what's left of [x1i,x2i] in [x1,x2]
 			// (x2i-x2)/xd is the percentage of what's right of [x1i,x2i] in [x1,x2]
 			// memo: warning for refactoring: this is integer division
-			int[] yps = { y11+(x1i-x1)*yd1/xd,
-					y12+(x1i-x1)*yd2/xd+1,
-					y22+(x2i-x2)*yd2/xd+1,
-					y21+(x2i-x2)*yd1/xd };
-			// debug
-			//System.out.println("polygon-x: " + xps[0] + ", " + xps[1] + ", " + xps[2] + ", " + xps[3]) ;
-			//System.out.println("polygon-y: " + yps[0] + ", " + yps[1] + ", " + yps[2] + ", " + yps[3]) ;
-			panel.addFilledPolygon(xps, yps, 4);
+			panel.addFilledTrapezoid(x1i, x2i+1, 
+					y11+(x1i-x1)*yd1/xd, y12+(x1i-x1)*yd2/xd+1,
+					y21+(x2i-x2)*yd1/xd, y22+(x2i-x2)*yd2/xd+1);
 			// for debugging purposes, code will draw a red line around polygon
 			// this makes individual walls visible
 			/*
@@ -521,19 +530,6 @@ public class FirstPersonView {
 	}
 	
 	////////////////////////////// static methods that do not rely on instance fields //////
-	/**
-	 * Unscale given value
-	 * @param x input value
-	 * @return unscaled input
-	 */
-	final int unscaleViewD(int x) {
-		// >> is the signed right shift operator
-		// shifts input x in its binary representation
-		// 16 times to the right
-		// same as divide by 2^16 and discard remainder
-		// preserves sign
-		return x >> 16;
-	}
 	/**
 	 * Helper method for debugging 
 	 * @param str is the message
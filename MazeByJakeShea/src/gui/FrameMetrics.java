@@ -0,0 +1,330 @@
+package gui;
+
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+/**
+ * Metrics of the frames drawn in the playing state to find frames
+ * that take much longer than others, e.g. in big mazes.
+ *
+ * For each frame, the first person view reports how many nodes of the BSP tree
+ * it visited, the leaves whose walls it drew, the walls it clipped and
+ * the polygons it emitted. The draw times of the first person view, the map and
+ * the commit of the frame to the screen go into a histogram each. A frame ends
+ * with its commit, the most recent {@value #FRAMES} frames are kept.
+ *
+ * The metrics can be queried with a JMX client, see {@link FrameMetricsMXBean},
+ * or dumped to files in CSV format. If the system property {@value #FRAMES_PROPERTY}
+ * gives a file name, the frames are dumped to that file when the application ends.
+ *
+ * Frames are drawn by a single thread, a JMX client reads the metrics
+ * from another thread, so all methods synchronize on the metrics.
+ *
+ * @author Jake Shea
+ */
+public class FrameMetrics implements FrameMetricsMXBean {
+	/**
+	 * Name of the metrics on the platform MBean server
+	 */
+	public static final String OBJECT_NAME = "gui:type=FrameMetrics";
+	/**
+	 * System property with the name of a file for the frames at the end of the application
+	 */
+	public static final String FRAMES_PROPERTY = "gui.frames";
+
+	/**
+	 * Draw operations with a histogram of their times
+	 */
+	public enum Timer { FIRST_PERSON_VIEW, MAP, COMMIT }
+
+	// bucket i counts times below 2^i microseconds, the last bucket counts the rest
+	static final int BUCKETS = 22;
+	// number of frames kept for a dump
+	static final int FRAMES = 4096;
+
+	// columns of a frame
+	private static final int FIRST_PERSON_VIEW = 0; // nanoseconds, same order as Timer
+	private static final int MAP = 1;
+	private static final int COMMIT = 2;
+	private static final int NODES = 3;
+	private static final int LEAVES = 4;
+	private static final int WALLS = 5;
+	private static final int CLIPPED = 6;
+	private static final int POLYGONS = 7;
+	private static final int COLUMNS = 8;
+	private static final String HEADER = "frame,first person view us,map us,commit us,nodes,leaves,walls,clipped,polygons";
+
+	private static FrameMetrics instance;
+
+	private final long[] histograms = new long[Timer.values().length * BUCKETS];
+	private final long[] maxima = new long[Timer.values().length]; // longest time of each timer
+	private final long[] current = new long[COLUMNS]; // frame in progress
+	private boolean drawn; // tells if a view was drawn in the frame in progress
+	private final long[] frames = new long[FRAMES * COLUMNS]; // ring of the most recent frames
+	private long frameCount;
+	private long maxFrame; // longest frame in nanoseconds
+
+	/**
+	 * Gives the metrics that the views of the playing state report to,
+	 * registers them on the platform MBean server on first use
+	 * @return the metrics
+	 */
+	public static synchronized FrameMetrics getInstance() {
+		if (null == instance) {
+			instance = new FrameMetrics();
+			try {
+				ManagementFactory.getPlatformMBeanServer().registerMBean(instance, new ObjectName(OBJECT_NAME));
+			} catch (JMException e) {
+				System.out.println("FrameMetrics: registration failed, metrics only available in a dump: " + e);
+			}
+			String filename = System.getProperty(FRAMES_PROPERTY);
+			if (null != filename) {
+				FrameMetrics metrics = instance;
+				Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+					try {
+						metrics.dumpFrames(filename);
+					} catch (IOException e) {
+						System.out.println("FrameMetrics: can't write frames to " + filename + ": " + e);
+					}
+				}));
+			}
+		}
+		return instance;
+	}
+
+	/**
+	 * Records the time of a draw operation of the frame in progress
+	 * @param timer is the draw operation
+	 * @param nanos is the time it took in nanoseconds
+	 */
+	public synchronized void record(Timer timer, long nanos) {
+		histograms[timer.ordinal() * BUCKETS + getBucket(nanos)]++;
+		maxima[timer.ordinal()] = Math.max(maxima[timer.ordinal()], nanos);
+		current[FIRST_PERSON_VIEW + timer.ordinal()] += nanos;
+		if (Timer.COMMIT != timer)
+			drawn = true;
+	}
+
+	/**
+	 * Records the counters of the first person view for the frame in progress
+	 * @param nodes is the number of nodes of the BSP tree visited
+	 * @param leaves is the number of leaves whose walls were drawn
+	 * @param walls is the number of walls considered for drawing
+	 * @param clipped is the number of walls clipped as they lie behind the viewer
+	 * @param polygons is the number of polygons emitted
+	 */
+	public synchronized void count(int nodes, int leaves, int walls, int clipped, int polygons) {
+		current[NODES] += nodes;
+		current[LEAVES] += leaves;
+		current[WALLS] += walls;
+		current[CLIPPED] += clipped;
+		current[POLYGONS] += polygons;
+	}
+
+	/**
+	 * Ends the frame in progress with its commit to the screen.
+	 * Commits of screens without a view, e.g. the title screen,
+	 * only go into the histogram of the commit.
+	 * @param nanos is the time of the commit in nanoseconds
+	 */
+	public synchronized void endFrame(long nanos) {
+		record(Timer.COMMIT, nanos);
+		if (drawn) {
+			int offset = (int) (frameCount % FRAMES) * COLUMNS;
+			System.arraycopy(current, 0, frames, offset, COLUMNS);
+			maxFrame = Math.max(maxFrame, current[FIRST_PERSON_VIEW] + current[MAP] + current[COMMIT]);
+			frameCount++;
+		}
+		Arrays.fill(current, 0);
+		drawn = false;
+	}
+
+	/**
+	 * Gives the bucket for a time, the smallest i such that the time is below 2^i microseconds
+	 * @param nanos is the time in nanoseconds
+	 * @return the bucket
+	 */
+	static int getBucket(long nanos) {
+		long micros = Math.max(0, nanos / 1000);
+		return Math.min(BUCKETS - 1, 64 - Long.numberOfLeadingZeros(micros));
+	}
+
+	/**
+	 * Estimates a percentile of the times of a draw operation from its histogram
+	 * @param timer is the draw operation
+	 * @param percentile is the percentile, {@code 0 < percentile <= 100}
+	 * @return the upper bound of the bucket that holds the percentile in milliseconds,
+	 * at most the longest time, 0 if there is no time yet
+	 */
+	public synchronized double getPercentileMillis(Timer timer, double percentile) {
+		long total = 0;
+		for (int i = 0; i < BUCKETS; i++)
+			total += histograms[timer.ordinal() * BUCKETS + i];
+		long rank = (long) Math.ceil(percentile / 100 * total);
+		long count = 0;
+		for (int i = 0; i < BUCKETS - 1 && 0 < total; i++) {
+			count += histograms[timer.ordinal() * BUCKETS + i];
+			if (count >= rank)
+				return Math.min(1000L << i, maxima[timer.ordinal()]) / 1e6;
+		}
+		return maxima[timer.ordinal()] / 1e6;
+	}
+
+	/**
+	 * Gives the histogram of a draw operation
+	 * @param timer is the draw operation
+	 * @return the number of times in each bucket
+	 */
+	public synchronized long[] getHistogram(Timer timer) {
+		long[] result = new long[BUCKETS];
+		System.arraycopy(histograms, timer.ordinal() * BUCKETS, result, 0, BUCKETS);
+		return result;
+	}
+
+	/**
+	 * Gives the value of a column of the last frame
+	 * @param column is the column
+	 * @return the value, 0 if there is no frame yet
+	 */
+	private synchronized int getLast(int column) {
+		if (0 == frameCount)
+			return 0;
+		return (int) frames[(int) ((frameCount - 1) % FRAMES) * COLUMNS + column];
+	}
+
+	/**
+	 * Writes the most recent frames in CSV format, oldest first,
+	 * times are in microseconds
+	 * @param writer receives the frames
+	 */
+	public synchronized void writeFrames(Writer writer) {
+		PrintWriter out = new PrintWriter(writer);
+		out.println(HEADER);
+		for (long frame = Math.max(0, frameCount - FRAMES); frame < frameCount; frame++) {
+			int offset = (int) (frame % FRAMES) * COLUMNS;
+			out.print(frame);
+			for (int column = 0; column < COLUMNS; column++)
+				out.print("," + (column <= COMMIT ? frames[offset + column] / 1000 : frames[offset + column]));
+			out.println();
+		}
+		out.flush();
+	}
+
+	/**
+	 * Writes the histograms in CSV format, one line per bucket
+	 * @param writer receives the histograms
+	 */
+	public synchronized void writeHistograms(Writer writer) {
+		PrintWriter out = new PrintWriter(writer);
+		out.println("below us,first person view,map,commit");
+		long[] bounds = getBucketBoundsMicros();
+		for (int i = 0; i < BUCKETS; i++) {
+			out.print(i < BUCKETS - 1 ? String.valueOf(bounds[i]) : "");
+			for (Timer timer : Timer.values())
+				out.print("," + histograms[timer.ordinal() * BUCKETS + i]);
+			out.println();
+		}
+		out.flush();
+	}
+
+	/////////////////////// methods of the management interface ///////////////////////
+
+	@Override
+	public synchronized long getFrameCount() {
+		return frameCount;
+	}
+
+	@Override
+	public int getNodesVisited() {
+		return getLast(NODES);
+	}
+
+	@Override
+	public int getLeavesDrawn() {
+		return getLast(LEAVES);
+	}
+
+	@Override
+	public int getWallsClipped() {
+		return getLast(CLIPPED);
+	}
+
+	@Override
+	public int getPolygonsEmitted() {
+		return getLast(POLYGONS);
+	}
+
+	@Override
+	public synchronized double getMaxFrameMillis() {
+		return maxFrame / 1e6;
+	}
+
+	@Override
+	public double getFirstPersonViewP99Millis() {
+		return getPercentileMillis(Timer.FIRST_PERSON_VIEW, 99);
+	}
+
+	@Override
+	public double getMapP99Millis() {
+		return getPercentileMillis(Timer.MAP, 99);
+	}
+
+	@Override
+	public double getCommitP99Millis() {
+		return getPercentileMillis(Timer.COMMIT, 99);
+	}
+
+	@Override
+	public long[] getBucketBoundsMicros() {
+		long[] bounds = new long[BUCKETS - 1];
+		for (int i = 0; i < bounds.length; i++)
+			bounds[i] = 1L << i;
+		return bounds;
+	}
+
+	@Override
+	public long[] getFirstPersonViewHistogram() {
+		return getHistogram(Timer.FIRST_PERSON_VIEW);
+	}
+
+	@Override
+	public long[] getMapHistogram() {
+		return getHistogram(Timer.MAP);
+	}
+
+	@Override
+	public long[] getCommitHistogram() {
+		return getHistogram(Timer.COMMIT);
+	}
+
+	@Override
+	public synchronized void reset() {
+		Arrays.fill(histograms, 0);
+		Arrays.fill(maxima, 0);
+		Arrays.fill(current, 0);
+		drawn = false;
+		frameCount = 0;
+		maxFrame = 0;
+	}
+
+	@Override
+	public void dumpFrames(String filename) throws IOException {
+		try (Writer writer = new FileWriter(filename)) {
+			writeFrames(writer);
+		}
+	}
+
+	@Override
+	public void dumpHistograms(String filename) throws IOException {
+		try (Writer writer = new FileWriter(filename)) {
+			writeHistograms(writer);
+		}
+	}
+}
@@ -0,0 +1,100 @@
+package gui;
+
+import java.io.IOException;
+
+/**
+ * Management interface of the FrameMetrics such that the metrics
+ * of the frames drawn in the playing state can be queried with a JMX client,
+ * e.g. jconsole, under the name {@value FrameMetrics#OBJECT_NAME}.
+ *
+ * Times are in milliseconds, histograms count draw times in buckets
+ * whose upper bounds are given by {@link #getBucketBoundsMicros()}.
+ *
+ * @author Jake Shea
+ */
+public interface FrameMetricsMXBean {
+	/**
+	 * @return the number of frames drawn so far
+	 */
+	long getFrameCount();
+
+	/**
+	 * @return the number of nodes of the BSP tree visited in the last frame
+	 */
+	int getNodesVisited();
+
+	/**
+	 * @return the number of leaves of the BSP tree whose walls were drawn in the last frame
+	 */
+	int getLeavesDrawn();
+
+	/**
+	 * @return the number of walls that were clipped as they lie behind the viewer in the last frame
+	 */
+	int getWallsClipped();
+
+	/**
+	 * @return the number of polygons emitted in the last frame
+	 */
+	int getPolygonsEmitted();
+
+	/**
+	 * @return the longest time of a frame so far, for all of its draw operations and the commit
+	 */
+	double getMaxFrameMillis();
+
+	/**
+	 * @return the 99th percentile of the draw time of the first person view
+	 */
+	double getFirstPersonViewP99Millis();
+
+	/**
+	 * @return the 99th percentile of the draw time of the map
+	 */
+	double getMapP99Millis();
+
+	/**
+	 * @return the 99th percentile of the time to commit a frame to the screen
+	 */
+	double getCommitP99Millis();
+
+	/**
+	 * @return the upper bounds of the buckets of the histograms in microseconds,
+	 * the last bucket has no bound
+	 */
+	long[] getBucketBoundsMicros();
+
+	/**
+	 * @return the number of draws of the first person view for each bucket
+	 */
+	long[] getFirstPersonViewHistogram();
+
+	/**
+	 * @return the number of draws of the map for each bucket
+	 */
+	long[] getMapHistogram();
+
+	/**
+	 * @return the number of commits for each bucket
+	 */
+	long[] getCommitHistogram();
+
+	/**
+	 * Discards all frames and histograms
+	 */
+	void reset();
+
+	/**
+	 * Writes the most recent frames to a file in CSV format, one line per frame
+	 * @param filename is the name of the file
+	 * @throws IOException if the file cannot be written
+	 */
+	void dumpFrames(String filename) throws IOException;
+
+	/**
+	 * Writes the histograms to a file in CSV format, one line per bucket
+	 * @param filename is the name of the file
+	 * @throws IOException if the file cannot be written
+	 */
+	void dumpHistograms(String filename) throws IOException;
+}
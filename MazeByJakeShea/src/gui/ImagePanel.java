@@ -0,0 +1,595 @@
+package gui;
+
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.font.GlyphVector;
+import java.awt.geom.Rectangle2D;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+
+import javax.imageio.ImageIO;
+
+/**
+ * Draws into an image in memory, without a component on the screen.
+ * The MazePanel shows the image of an ImagePanel on the screen, with an
+ * ImagePanel on its own the first person view and the map draw in a headless
+ * Java runtime, e.g. for tests that compare images, benchmarks and
+ * thumbnails of mazes on a server without a display.
+ *
+ * The image is of type TYPE_INT_RGB and exists from the start, so an ImagePanel
+ * is always operational. Drawing uses the same rendering hints as the MazePanel
+ * did for its buffer image, a MazePanel and an ImagePanel of the same size
+ * give the same picture.
+ *
+ * @author Jake Shea
+ *
+ */
+public class ImagePanel implements P5PanelF21 {
+	private final int width;
+	private final int height;
+	private final BufferedImage image;
+	private final Graphics2D graphics; // obtained from image, kept for all drawing
+
+	// Font object for the compass rose
+	private final Font markerFont;
+	// Track current color
+	private int currentColor;
+	// tells if the current color is not set on the graphics object yet,
+	// it is set when it is needed such that filling columns
+	// does not create a Color object for each wall
+	private boolean colorPending;
+	// points of a trapezoid for the graphics object, reused for each trapezoid
+	private final int[] xPoints = new int[4];
+	private final int[] yPoints = new int[4];
+	// pixels of the image to fill columns of trapezoids directly,
+	// null unless the framebuffer rasterizer is selected
+	private int[] pixels;
+	// first row and the row after the last of each column of a trapezoid, reused for each trapezoid
+	private final int[] tops;
+	private final int[] bottoms;
+
+	/**
+	 * Constructor
+	 * @param width is the width of the image in pixels
+	 * @param height is the height of the image in pixels
+	 */
+	public ImagePanel(int width, int height) {
+		this.width = width;
+		this.height = height;
+		image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+		tops = new int[width];
+		bottoms = new int[width];
+		graphics = image.createGraphics();
+		// For drawing in FirstPersonDrawer, setting rendering hint
+		// became necessary when lines of polygons 
+		// that were not horizontal or vertical looked ragged
+		graphics.setRenderingHint(RenderingHints.KEY_ANTIALIASING,
+				RenderingHints.VALUE_ANTIALIAS_ON);
+		graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION,
+				RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+
+		markerFont = Font.decode(("Serif-PLAIN-16"));
+	}
+
+	/**
+	 * Gives the image that holds the drawing
+	 * @return the image
+	 */
+	public BufferedImage getImage() {
+		return image;
+	}
+
+	/**
+	 * Gives the graphics object of the image, e.g. for screens
+	 * that draw text with AWT directly
+	 * @return the graphics object
+	 */
+	public Graphics2D getGraphics() {
+		applyColor();
+		return graphics;
+	}
+
+	/**
+	 * Writes the image to a file in PNG format
+	 * @param filename is the name of the file
+	 * @throws IOException if the file cannot be written
+	 */
+	public void write(String filename) throws IOException {
+		ImageIO.write(image, "png", new File(filename));
+	}
+
+	///////////////////////////////////////////////////////////////////////////
+	///////////////////////////INTERFACE METHODS///////////////////////////////
+	///////////////////////////////////////////////////////////////////////////
+
+	/**
+	 * The image is complete when it is committed, there is nothing to show.
+	 */
+	@Override
+	public void commit() {
+		// nothing to show, clients take the image
+	}
+
+	/**
+	 * Tells if instance is able to draw, which is always the case
+	 * as the image exists from the start.
+	 * @return true
+	 */
+	@Override
+	public boolean isOperational() {
+		return true;
+	}
+
+	/**
+	 * Sets the color for future drawing requests. The color setting
+	 * will remain in effect until this method is called again and
+	 * with a different color.
+	 * @param rgb gives the red, green, and blue encoded value of the color
+	 */
+	@Override
+	public void setColor(int rgb) {
+		currentColor = rgb;
+		colorPending = true;
+	}
+
+	/**
+     * Returns the RGB value for the current color setting. 
+     * @return integer RGB value
+     */
+	@Override
+	public int getColor() {
+		return currentColor;
+	}
+
+	/**
+	 * Draws two solid rectangles to provide a background.
+	 * Note that this also erases any previous drawings.
+	 * The color setting adjusts to the distance to the exit to 
+	 * provide an additional clue for the user.
+	 * Colors transition from black to gold and from grey to green.
+	 * @param percentToExit gives the distance to exit
+	 */
+	@Override
+	public void addBackground(float percentToExit) {
+		Color top = getBackgroundColor(percentToExit, true);
+		Color bottom = getBackgroundColor(percentToExit, false);
+		if (null != pixels) {
+			Arrays.fill(pixels, 0, width*(height/2), top.getRGB());
+			Arrays.fill(pixels, width*(height/2), width*height, bottom.getRGB());
+		}
+		else {
+			graphics.setColor(top);
+			graphics.fillRect(0, 0, width, height/2);
+			
+			graphics.setColor(bottom);
+			graphics.fillRect(0, height/2, width, height - height/2);
+		}
+		// the graphics object is left with the background color as if it was set for drawing
+		graphics.setColor(bottom);
+		colorPending = false;
+	}
+
+	/**
+     * Adds a filled rectangle. 
+     * The rectangle is specified with the {@code (x,y)} coordinates
+     * of the upper left corner and then its width for the 
+     * x-axis and the height for the y-axis.
+     * @param x is the x-coordinate of the top left corner
+     * @param y is the y-coordinate of the top left corner
+     * @param width is the width of the rectangle
+     * @param height is the height of the rectangle
+     */
+	@Override
+	public void addFilledRectangle(int x, int y, int width, int height) {
+		applyColor();
+		graphics.fillRect(x, y, width, height);
+	}
+	
+	/**
+     * Adds a filled polygon. 
+     * The polygon is specified with {@code (x,y)} coordinates
+     * for the n points it consists of. All x-coordinates
+     * are given in a single array, all y-coordinates are
+     * given in a separate array. Both arrays must have 
+     * same length n. The order of points in the arrays
+     * matter as lines will be drawn from one point to the next
+     * as given by the order in the array.
+     * @param xPoints are the x-coordinates of points for the polygon
+     * @param yPoints are the y-coordinates of points for the polygon
+     * @param nPoints is the number of points, the length of the arrays
+     */
+	@Override
+	public void addFilledPolygon(int[] xPoints, int[] yPoints, int nPoints) {
+		applyColor();
+		graphics.fillPolygon(xPoints, yPoints, nPoints);
+	}
+
+	/**
+	 * Adds a filled trapezoid with two vertical sides.
+	 * With the framebuffer rasterizer, it is filled in the pixels of the image
+	 * with the top and bottom edge sampled at the center of each column, 
+	 * otherwise it is drawn as a polygon.
+	 * @param xLeft is the x-coordinate of the left side
+	 * @param xRight is the x-coordinate of the right side, {@code xLeft < xRight}
+	 * @param topLeft is the y-coordinate of the top of the left side
+	 * @param bottomLeft is the y-coordinate of the bottom of the left side
+	 * @param topRight is the y-coordinate of the top of the right side
+	 * @param bottomRight is the y-coordinate of the bottom of the right side
+	 */
+	@Override
+	public void addFilledTrapezoid(int xLeft, int xRight, int topLeft, int bottomLeft, 
+			int topRight, int bottomRight) {
+		if (null == pixels) {
+			xPoints[0] = xPoints[1] = xLeft;
+			xPoints[2] = xPoints[3] = xRight;
+			yPoints[0] = topLeft;
+			yPoints[1] = bottomLeft;
+			yPoints[2] = bottomRight;
+			yPoints[3] = topRight;
+			addFilledPolygon(xPoints, yPoints, 4);
+			return;
+		}
+		final int xStart = Math.max(xLeft, 0);
+		final int n = Math.min(xRight, width) - xStart; // number of columns in the image
+		if (n <= 0)
+			return;
+		// first row and the row after the last for each column,
+		// edges are sampled at x+0.5, so the offset of column x is (2(x-xLeft)+1)/(2 xd),
+		// a pixel is filled if its center lies on or below the top edge and above the bottom edge,
+		// the first such row is ceil(y-0.5) for an edge at y. This is the same as with Java2D
+		// without antialiasing except for pixel centers that lie exactly on a slanted edge
+		final long xd2 = 2L*(xRight - xLeft);
+		final long topD = topRight - topLeft;
+		final long bottomD = bottomRight - bottomLeft;
+		for (int i = 0; i < n; i++) {
+			final long offset = 2L*(xStart + i - xLeft) + 1;
+			tops[i] = Math.min(height, Math.max(0, getFirstRow(topLeft, topD, offset, xd2)));
+			bottoms[i] = Math.min(height, Math.max(0, getFirstRow(bottomLeft, bottomD, offset, xd2)));
+		}
+		// fill row by row as consecutive pixels are faster to write than columns.
+		// Both edges are lines, so the bounds are monotonic in x and the columns that
+		// cover a row are an interval that grows or shrinks at one end from row to row:
+		// top <= row for columns [0,topEnd) if the top edge goes down to the right, 
+		// [topStart,n) otherwise, row < bottom for columns [bottomStart,n) if the bottom
+		// edge goes down to the right, [0,bottomEnd) otherwise
+		final boolean topDown = topD >= 0;
+		final boolean bottomDown = bottomD >= 0;
+		int topStart = n, topEnd = 0, bottomStart = 0, bottomEnd = n;
+		final int rowStart = Math.min(tops[0], tops[n-1]);
+		final int rowEnd = Math.max(bottoms[0], bottoms[n-1]);
+		for (int row = rowStart; row < rowEnd; row++) {
+			if (topDown)
+				while (topEnd < n && tops[topEnd] <= row)
+					topEnd++;
+			else
+				while (topStart > 0 && tops[topStart-1] <= row)
+					topStart--;
+			if (bottomDown)
+				while (bottomStart < n && bottoms[bottomStart] <= row)
+					bottomStart++;
+			else
+				while (bottomEnd > 0 && bottoms[bottomEnd-1] <= row)
+					bottomEnd--;
+			final int from = Math.max(topDown ? 0 : topStart, bottomDown ? bottomStart : 0);
+			final int to = Math.min(topDown ? topEnd : n, bottomDown ? n : bottomEnd);
+			if (from < to)
+				Arrays.fill(pixels, row*width + xStart + from, row*width + xStart + to, currentColor);
+		}
+	}
+
+	/**
+     * Adds a polygon.
+     * The polygon is not filled. 
+     * The polygon is specified with {@code (x,y)} coordinates
+     * for the n points it consists of. All x-coordinates
+     * are given in a single array, all y-coordinates are
+     * given in a separate array. Both arrays must have 
+     * same length n. The order of points in the arrays
+     * matter as lines will be drawn from one point to the next
+     * as given by the order in the array.
+     * @param xPoints are the x-coordinates of points for the polygon
+     * @param yPoints are the y-coordinates of points for the polygon
+     * @param nPoints is the number of points, the length of the arrays
+     */
+	@Override
+	public void addPolygon(int[] xPoints, int[] yPoints, int nPoints) {
+		applyColor();
+		graphics.drawPolygon(xPoints, yPoints, nPoints);
+	}
+
+	/**
+     * Adds a line. 
+     * A line is described by {@code (x,y)} coordinates for its 
+     * starting point and its end point. 
+     * Substitute for Graphics.drawLine method
+     * @param startX is the x-coordinate of the starting point
+     * @param startY is the y-coordinate of the starting point
+     * @param endX is the x-coordinate of the end point
+     * @param endY is the y-coordinate of the end point
+     */
+	@Override
+	public void addLine(int startX, int startY, int endX, int endY) {
+		applyColor();
+		graphics.drawLine(startX, startY, endX, endY);
+	}
+
+	/**
+     * Adds a filled oval.
+     * The oval is specified with the {@code (x,y)} coordinates
+     * of the upper left corner and then its width for the 
+     * x-axis and the height for the y-axis. An oval is
+     * described like a rectangle. 
+     * @param x is the x-coordinate of the top left corner
+     * @param y is the y-coordinate of the top left corner
+     * @param width is the width of the oval
+     * @param height is the height of the oval
+     */
+	@Override
+	public void addFilledOval(int x, int y, int width, int height) {
+		applyColor();
+		graphics.fillOval(x, y, width, height);
+	}
+
+	/**
+     * Adds the outline of a circular or elliptical arc covering the specified rectangle.
+     * The resulting arc begins at startAngle and extends for arcAngle degrees, 
+     * using the current color. Angles are interpreted such that 0 degrees 
+     * is at the 3 o'clock position. A positive value indicates a counter-clockwise 
+     * rotation while a negative value indicates a clockwise rotation.
+     * The center of the arc is the center of the rectangle whose origin is 
+     * (x, y) and whose size is specified by the width and height arguments.
+     * The resulting arc covers an area width + 1 pixels wide 
+     * by height + 1 pixels tall.
+     * The angles are specified relative to the non-square extents of 
+     * the bounding rectangle such that 45 degrees always falls on the 
+     * line from the center of the ellipse to the upper right corner of 
+     * the bounding rectangle. As a result, if the bounding rectangle is 
+     * noticeably longer in one axis than the other, the angles to the start 
+     * and end of the arc segment will be skewed farther along the longer 
+     * axis of the bounds.
+     * @param x the x coordinate of the upper-left corner of the arc to be drawn.
+     * @param y the y coordinate of the upper-left corner of the arc to be drawn.
+     * @param width the width of the arc to be drawn.
+     * @param height the height of the arc to be drawn.
+     * @param startAngle the beginning angle.
+     * @param arcAngle the angular extent of the arc, relative to the start angle.
+     */
+	@Override
+	public void addArc(int x, int y, int width, int height, int startAngle, int arcAngle) {
+		applyColor();
+		graphics.drawArc(x, y, width, height, startAngle, arcAngle);
+	}
+
+	/**
+     * Adds a string at the given position.
+     * @param x the x coordinate
+     * @param y the y coordinate
+     * @param str the string
+     */
+	@Override
+	public void addMarker(float x, float y, String str) {
+		GlyphVector gv = markerFont.createGlyphVector(graphics.getFontRenderContext(), str);
+        Rectangle2D rect = gv.getVisualBounds();
+        // need to update x, y by half of rectangle width, height
+        // to serve as x, y coordinates for drawing a GlyphVector
+        x -= rect.getWidth() / 2;
+        y += rect.getHeight() / 2;
+        
+        applyColor();
+        graphics.drawGlyphVector(gv, x, y);
+	}
+
+	/**
+     * Sets the value of a single preference for the rendering algorithms.
+     * It internally maps given parameter values into corresponding java.awt.RenderingHints
+     * and assigns that to the internal graphics object. 
+     * Hint categories include controls for rendering quality
+     * and overall time/quality trade-off in the rendering process.
+     * Refer to the awt RenderingHints class for definitions of some common keys and values.
+     * @param hintKey the key of the hint to be set.
+     * @param hintValue the value indicating preferences for the specified hint category.
+     */
+	@Override
+	public void setRenderingHint(P5RenderingHints hintKey, P5RenderingHints hintValue) {
+		switch(hintKey)
+		{
+			case KEY_RENDERING:
+			{
+				setHintForRendering(hintValue);
+				break;
+			}
+			case KEY_ANTIALIASING:
+			{
+				setHintForAliasing(hintValue);
+				break;
+			}
+			case KEY_INTERPOLATION:
+			{
+				setHintForInterpolation(hintValue);
+				break;
+			}
+			case KEY_RASTERIZER:
+			{
+				// access to the pixels makes the image unmanaged for 
+				// accelerated drawing on the screen, so obtain it only if needed
+				if (P5RenderingHints.VALUE_RASTERIZER_FRAMEBUFFER == hintValue)
+					pixels = ((DataBufferInt) image.getRaster().getDataBuffer()).getData();
+				else
+					pixels = null;
+				break;
+			}
+			default:
+				break;
+		}
+	}
+
+	///////////////////////////////////////////////////////////////////////////
+	/////////////////////////////PRIVATE METHODS///////////////////////////////
+	///////////////////////////////////////////////////////////////////////////
+	
+	/**
+	 * Computes the first row whose pixel center is not above an edge at a column,
+	 * ceil(y-0.5) for the edge at {@code y = start + delta*offset/xd2}
+	 * @param start is the y-coordinate of the edge at the left side
+	 * @param delta is the difference of the y-coordinates of the edge between right and left side
+	 * @param offset is twice the distance of the column to the left side plus one
+	 * @param xd2 is twice the width of the trapezoid
+	 * @return the row
+	 */
+	private static int getFirstRow(long start, long delta, long offset, long xd2) {
+		// ceil(a/b) = -floor(-a/b) for a/b = y-0.5 = (2*start*xd2 + 2*delta*offset - xd2)/(2*xd2)
+		return (int) -Math.floorDiv(-(2*start*xd2 + 2*delta*offset - xd2), 2*xd2);
+	}
+	
+	/**
+	 * Sets the current color on the graphics object if it is not set yet
+	 */
+	private void applyColor() {
+		if (colorPending) {
+			graphics.setColor(new Color(currentColor));
+			colorPending = false;
+		}
+	}
+	
+	/**
+	 * Determine the background color for the top and bottom
+	 * rectangle as a blend between starting color settings
+	 * of yellowWM and lightGray towards goldWM and greenWM as final
+	 * color settings close to the exit
+	 * @param percentToExit describes how far it is to the exit as a percentage value
+	 * @param top is true for the top rectangle, false for the bottom
+	 * @return the color to use for the background rectangle
+	 */
+	private Color getBackgroundColor(float percentToExit, boolean top)
+	{
+		// Uses wmGreen, wmGold, and wmYellow to blend into the background as originally given by FirstPersonView
+		return top? blend(yellowWM, goldWM, percentToExit) : 
+			blend(Color.lightGray, greenWM, percentToExit);
+	}
+	
+	/**
+	 * Calculates the weighted average of the two given colors.
+	 * The weight for the first color is expected to be between
+	 * 0 and 1. The weight for the other color is then 1-weight0.
+	 * The result is the weighted average of the red, green, and
+	 * blue components of the colors. The resulting alpha value
+	 * for transparency is the max of the alpha values of both colors.
+	 * @param fstColor is the first color
+	 * @param sndColor is the second color
+	 * @param weightFstColor is the weight of fstColor, {@code 0.0 <= weightFstColor <= 1.0}
+	 * @return blend of both colors as weighted average of their rgb values
+	 */
+	private Color blend(Color fstColor, Color sndColor, double weightFstColor) {
+		if (weightFstColor < 0.1)
+			return sndColor;
+		if (weightFstColor > 0.95)
+			return fstColor;
+	    double r = weightFstColor * fstColor.getRed() + (1-weightFstColor) * sndColor.getRed();
+	    double g = weightFstColor * fstColor.getGreen() + (1-weightFstColor) * sndColor.getGreen();
+	    double b = weightFstColor * fstColor.getBlue() + (1-weightFstColor) * sndColor.getBlue();
+	    double a = Math.max(fstColor.getAlpha(), sndColor.getAlpha());
+
+	    return new Color((int) r, (int) g, (int) b, (int) a);
+	}
+	
+	/**
+	 * A private method for setting up the graphic's
+	 * rendering hints.
+	 * 
+	 * @param hint Hint value to be set
+	 */
+	private void setHintForRendering(P5RenderingHints hint)
+	{
+		// Switches through possible values
+		switch(hint)
+		{
+			// Checks each possible value
+			case VALUE_RENDER_QUALITY:
+			{
+				graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+				break;
+			}
+			case VALUE_ANTIALIAS_ON:
+			{
+				graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_ANTIALIAS_ON);
+				break;
+			}
+			case VALUE_INTERPOLATION_BILINEAR:
+			{
+				graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+				break;
+			}
+			default:
+				break;
+		}
+	}
+	
+	/**
+	 * A private method for setting up the graphic's
+	 * rendering hints.
+	 * 
+	 * @param hint Hint value to be set
+	 */
+	private void setHintForAliasing(P5RenderingHints hint)
+	{
+		// Switches through possible values
+		switch(hint)
+		{
+			// Checks each possible value
+			case VALUE_RENDER_QUALITY:
+			{
+				graphics.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_RENDER_QUALITY);
+				break;
+			}
+			case VALUE_ANTIALIAS_ON:
+			{
+				graphics.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+				break;
+			}
+			case VALUE_INTERPOLATION_BILINEAR:
+			{
+				graphics.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+				break;
+			}
+			default:
+				break;
+		}
+	}
+	
+	/**
+	 * A private method for setting up the graphic's
+	 * rendering hints.
+	 * 
+	 * @param hint Hint value to be set
+	 */
+	private void setHintForInterpolation(P5RenderingHints hint)
+	{
+		// Switches through possible values
+		switch(hint)
+		{
+			// Checks each possible value
+			case VALUE_RENDER_QUALITY:
+			{
+				graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_RENDER_QUALITY);
+				break;
+			}
+			case VALUE_ANTIALIAS_ON:
+			{
+				graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_ANTIALIAS_ON);
+				break;
+			}
+			case VALUE_INTERPOLATION_BILINEAR:
+			{
+				graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+				break;
+			}
+			default:
+				break;
+		}
+	}
+}
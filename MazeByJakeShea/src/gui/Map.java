@@ -125,38 +125,21 @@ public class Map {
 	 * @param showSolution if true shows a path to the exit as a yellow line,
 	 * otherwise path is not shown.
 	 */
-	public void draw(MazePanel panel, int x, int y, int angle, int walkStep,
+	public void draw(P5PanelF21 panel, int x, int y, int angle, int walkStep,
 			boolean showMaze, boolean showSolution) {
         // viewers draw on the buffer graphics
         if (!panel.isOperational()) {
             System.out.println("MapDrawer.draw: can't get graphics object to draw on, skipping draw operation") ;
             return;
         }
-        final int viewDX = getViewDX(angle); 
-        final int viewDY = getViewDY(angle);
+        final long start = System.nanoTime();
+        final int viewDX = ViewTransform.getViewDX(angle); 
+        final int viewDY = ViewTransform.getViewDY(angle);
         drawMap(panel, x, y, walkStep, viewDX, viewDY, showMaze, showSolution) ;
         drawCurrentLocation(panel, viewDX, viewDY) ;
+        FrameMetrics.getInstance().record(FrameMetrics.Timer.MAP, System.nanoTime() - start);
 	}
 	//////////////////////////////// private, internal methods //////////////////////////////
-	/**
-	 * Computes the x coordinate for the viewing direction for the given angle
-	 * @param angle is a viewing angle
-	 * @return the corresponding viewing direction, x coordinate
-	 */
-	private int getViewDX(int angle) {
-		return (int) (Math.cos(radify(angle))*(1<<16));
-	}
-	/**
-	 * Computes the y coordinate for the viewing direction for the given angle
-	 * @param angle is a viewing angle
-	 * @return the corresponding viewing direction, y coordinate
-	 */
-	private int getViewDY(int angle) {
-		return (int) (Math.sin(radify(angle))*(1<<16));
-	}
-	final double radify(int x) {
-        return x*Math.PI/180;
-    }
 	/**
 	 * Helper method for draw, called if map_mode is true, i.e. the users wants to see the overall map.
 	 * The map is drawn only on a small rectangle inside the maze area such that only a part of the map is actually shown.
@@ -173,7 +156,7 @@ public class Map {
 	 * @param showMaze is the flag to show the walls
 	 * @param showSolution  is the flag to show the solution, the yellow line to the exit
 	 */
-	private void drawMap(MazePanel panel, int px, int py, int walkStep, 
+	private void drawMap(P5PanelF21 panel, int px, int py, int walkStep, 
 			int viewDX, int viewDY, boolean showMaze, boolean showSolution) {
 		// dimensions of the maze in terms of cell ids
 		final int mazeWidth = maze.getWidth() ;
@@ -224,7 +207,7 @@ public class Map {
 	 * @param startX the x coordinate for drawing
 	 * @param startY the y coordinate for drawing
 	 */
-	private void drawVerticalLine(MazePanel panel, boolean showMaze, int x, int y, int startX, int startY) {
+	private void drawVerticalLine(P5PanelF21 panel, boolean showMaze, int x, int y, int startX, int startY) {
 		if (hasAVerticalWall(x, y) && 
 				(seenWalls.hasWall(x, y, CardinalDirection.West) || showMaze)) {
 			panel.setColor(seenWalls.hasWall(x, y, CardinalDirection.West) ? P5PanelF21.white.getRGB() : P5PanelF21.gray.getRGB());
@@ -253,7 +236,7 @@ public class Map {
 	 * @param startX the x coordinate for drawing
 	 * @param startY the y coordinate for drawing
 	 */
-	private void drawHorizontalLine(MazePanel panel, boolean showMaze, int x, int y, int startX,
+	private void drawHorizontalLine(P5PanelF21 panel, boolean showMaze, int x, int y, int startX,
 			int startY) {
 		if (hasAHorizontalWall(x, y) && (seenWalls.hasWall(x,y, CardinalDirection.North) || showMaze) ) {
 			panel.setColor(seenWalls.hasWall(x,y, CardinalDirection.North) ? P5PanelF21.white.getRGB() : P5PanelF21.gray.getRGB());
@@ -341,34 +324,8 @@ public class Map {
 	 * @return offset is the offset
 	 */
 	private int mapToOffset(final int length, final int direction) {
-		// Signed bit shift to the right performs a division by 2^16
-		// preserves the sign
-		// discards the remainder as the result is int
-		return (length * direction) >> 16;
-	}
-	/**
-	 * Unscale value
-	 * @param x the input value
-	 * @return the input value after a right shift by 16
-	 */
-	final int unscaleViewD(int x) {
-		// >> is the signed right shift operator
-		// shifts input x in its binary representation
-		// 16 times to the right
-		// same as divide by 2^16 and discard remainder
-		// preserves sign
-		// essentially used here for the following mapping
-		// (based on debug output observations)
-		// dbg("right shift: " + x + " gives " + (x >> 16));
-		// -2097152 gives -32
-		// -4194304 gives -64
-		// -6291456 gives -96
-		// -8388608 gives -128
-		// 2097152 gives 32
-		// 4194304 gives 64
-		// 6291456 gives 96
-		// 8388608 gives 128
-		return x >> 16;
+		// direction is scaled by 2^16, see ViewTransform
+		return ViewTransform.unscale(length * direction);
 	}
 	/**
 	 * Draws a red circle at the center of the screen and
@@ -383,7 +340,7 @@ public class Map {
 	 * @param viewDX is the current viewing direction, x coordinate
 	 * @param viewDY is the current viewing direction, y coordinate
 	 */
-	private void drawCurrentLocation(MazePanel panel, int viewDX, int viewDY) {
+	private void drawCurrentLocation(P5PanelF21 panel, int viewDX, int viewDY) {
 		panel.setColor(P5PanelF21.red.getRGB());
 		// draw oval of appropriate size at the center of the screen
 		int centerX = viewWidth/2; // center x
@@ -406,7 +363,7 @@ public class Map {
 	 * @param startX is the x coordinate of the starting point
 	 * @param startY is the y coordinate of the starting point
 	 */
-	private void drawArrow(MazePanel panel, int viewDX, int viewDY, 
+	private void drawArrow(P5PanelF21 panel, int viewDX, int viewDY, 
 			final int startX, final int startY) {
 		// calculate length and coordinates for main line
 		final int arrowLength = mapScale*7/16; // arrow length, about 1/2 map_scale
@@ -447,7 +404,7 @@ public class Map {
 	 * @param px is the current position, an index x for a cell
 	 * @param py is the current position, an index y for a cell
 	 */
-	private void drawSolution(MazePanel panel, int offsetX, int offsetY, int px, int py) {
+	private void drawSolution(P5PanelF21 panel, int offsetX, int offsetY, int px, int py) {
 
 		if (!maze.isValidPosition(px, py)) {
 			dbg(" Parameter error: position out of bounds: (" + px + "," + 
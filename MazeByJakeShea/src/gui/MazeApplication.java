@@ -90,13 +90,13 @@ public class MazeApplication extends JFrame {
 	    // Case 3 a and b: Eller, Kruskal, Boruvka or some other generation algorithm
 	    else if ("Kruskal".equalsIgnoreCase(argGen))
 	    {
-	    	// TODO: for P2 assignment, please add code to set the builder accordingly
-	        throw new RuntimeException("Don't know anybody named Kruskal ...");
+	        msg = "MazeApplication: generating random maze with Kruskal's algorithm";
+	        result.setBuilder(Order.Builder.Kruskal);
 	    }
 	    else if ("Eller".equalsIgnoreCase(argGen))
 	    {
-	    	// TODO: for P2 assignment, please add code to set the builder accordingly
-	        throw new RuntimeException("Don't know anybody named Eller ...");
+	        msg = "MazeApplication: generating random maze with Eller's algorithm";
+	        result.setBuilder(Order.Builder.Eller);
 	    }
 	    else if ("Boruvka".equalsIgnoreCase(argGen))
 	    {
@@ -106,7 +106,8 @@ public class MazeApplication extends JFrame {
 	    }
 	    // Case 4: a file
 	    else {
-	        File f = new File(argGen) ;
+	        // a maze in an archive is given as archive#key, check the archive
+	        File f = new File(MazeArchive.isReference(argGen) ? MazeArchive.getArchiveName(argGen) : argGen) ;
 	        if (f.exists() && f.canRead())
 	        {
 	            msg = "MazeApplication: loading maze from file: " + argGen;
@@ -224,11 +225,16 @@ public class MazeApplication extends JFrame {
 	 * The application can be operated in three ways. 
 	 * 1) The intended normal operation is to provide no parameters
 	 * and the maze will be generated by a randomized DFS algorithm (default). 
-	 * 2) If a filename is given that contains a maze stored in xml format. 
+	 * 2) If a filename is given that contains a maze stored in xml format
+	 * or in a binary format for files ending in .maze or .mazemap. 
 	 * The maze will be loaded from that file. 
+	 * A maze in an archive of many mazes is given as archive#key,
+	 * e.g. mazes.mazes#3_DFS_false_13. 
 	 * This option is useful during development to test with a particular maze.
 	 * 3) A predefined constant string is given to select a maze
 	 * generation algorithm, currently supported is "Prim".
+	 * To generate mazes in a batch without a user interface, use {@link MazeBatch} instead,
+	 * to evaluate robot drivers without a user interface, use {@link RobotSimulator}.
 	 * @param args is optional, first string can be a fixed constant like Prim or
 	 * the name of a file that stores a maze in XML format
 	 */
@@ -0,0 +1,514 @@
+package gui;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.Closeable;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
+
+import generation.Maze;
+import generation.Order;
+import generation.Order.Builder;
+
+/**
+ * Stores many mazes in a single file, each one identified by the skill level,
+ * builder, perfect flag and seed of the order it was generated for.
+ * A maze is stored in the binary format of the MazeBinaryWriter or
+ * in the XML format of the MazeFileWriter, compressed with gzip.
+ * The MazeFileReader loads a single maze from an archive for a reference
+ * of the form archive#key, e.g. mazes.mazes#3_DFS_false_13, see {@link #getKey}.
+ *
+ * The file starts with a magic number, the format version and the offset of the trailer,
+ * mazes follow one after the other.
+ * A hash table of fixed size slots after the mazes serves as the index,
+ * followed by a trailer with the offset of the index, the number of slots,
+ * the number of mazes, the format version and the magic number.
+ * A slot holds the key, the format, and offset and length of the maze.
+ * Looking up a maze reads the header, the trailer and typically a single slot,
+ * it does not depend on the number of mazes in the archive.
+ * The builder is stored by its position in the Order.Builder enum type.
+ *
+ * An archive that is opened for appending writes new mazes at the end of the file,
+ * after the index, and writes a new index and trailer after them when it is closed.
+ * Only then the header is changed to the offset of the new trailer.
+ * Nothing that the header refers to is ever overwritten, so if adding a maze fails
+ * or the application ends before the archive is closed, the mazes of the last
+ * session that was closed can still be read. The old index stays in the file unused.
+ * A maze that is added with a key that is in the archive already replaces the old one for lookups.
+ *
+ * @author Jake Shea
+ */
+public class MazeArchive implements Closeable {
+	/**
+	 * File name extension for archives
+	 */
+	public static final String EXTENSION = ".mazes";
+	/**
+	 * Separates the name of an archive from the key of a maze in a reference
+	 */
+	public static final char SEPARATOR = '#';
+
+	/**
+	 * Formats for a maze in an archive
+	 */
+	public enum Format { BINARY, XML }
+
+	static final int MAGIC = 0x4D5A4152; // "MZAR"
+	static final int VERSION = 2;
+	static final int HEADER_SIZE = 16;
+	static final int TRAILER_SIZE = 24;
+	static final int SLOT_SIZE = 32;
+	private static final int MIN_CAPACITY = 16;
+	private static final int BUFFER_SIZE = 1 << 16;
+
+	/**
+	 * Position of a maze in the archive with its key
+	 */
+	static final class Entry {
+		final int skill;
+		final Builder builder;
+		final boolean perfect;
+		final int seed;
+		final Format format;
+		final long offset;
+		final long length;
+
+		Entry(int skill, Builder builder, boolean perfect, int seed, Format format, long offset, long length) {
+			this.skill = skill;
+			this.builder = builder;
+			this.perfect = perfect;
+			this.seed = seed;
+			this.format = format;
+			this.offset = offset;
+			this.length = length;
+		}
+
+		Format getFormat() {
+			return format;
+		}
+
+		boolean hasKey(int skill, Builder builder, boolean perfect, int seed) {
+			return this.skill == skill && this.builder == builder && this.perfect == perfect && this.seed == seed;
+		}
+	}
+
+	private final String filename;
+	private final FileChannel channel;
+	private final boolean append;
+	private long indexOffset; // start of the index that the header refers to
+	private long end; // position for the next maze if opened for appending
+	private int capacity; // number of slots of the index
+	private int count; // number of mazes
+	private Entry[] slots; // index in memory if opened for appending, null otherwise
+	private boolean modified;
+
+	/**
+	 * Constructor opens an archive
+	 * @param filename is the name of the archive
+	 * @param append tells to open the archive for adding mazes, it is created if it does not exist,
+	 * otherwise the archive is opened for reading only
+	 * @throws IOException if the file can not be opened or is not an archive
+	 */
+	public MazeArchive(String filename, boolean append) throws IOException {
+		this.filename = filename;
+		this.append = append;
+		Path path = Paths.get(filename);
+		if (append && (!Files.exists(path) || Files.size(path) == 0)) {
+			channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE, StandardOpenOption.CREATE);
+			try {
+				// the trailer offset is set by writing the empty index
+				ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).putInt(MAGIC).putInt(VERSION).putLong(0).flip();
+				writeFully(header, 0);
+				end = HEADER_SIZE;
+				capacity = MIN_CAPACITY;
+				slots = new Entry[capacity];
+				writeIndex();
+			}
+			catch (IOException e) {
+				channel.close();
+				throw e;
+			}
+			return;
+		}
+		channel = append ? FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE)
+				: FileChannel.open(path, StandardOpenOption.READ);
+		try {
+			readTrailer();
+			if (append) {
+				readIndex();
+				// keep the index and whatever a failed session left behind
+				end = channel.size();
+			}
+		}
+		catch (IOException e) {
+			channel.close();
+			throw e;
+		}
+	}
+
+	/**
+	 * Provides the key of a maze in an archive
+	 * @param skill is the skill level
+	 * @param builder is the builder algorithm
+	 * @param perfect tells if the maze is perfect
+	 * @param seed is the seed for the random number generator
+	 * @return the key, e.g. 3_DFS_false_13
+	 */
+	public static String getKey(int skill, Builder builder, boolean perfect, int seed) {
+		return skill + "_" + builder + "_" + perfect + "_" + seed;
+	}
+
+	/**
+	 * Provides the reference to a maze in an archive as the MazeFileReader accepts it
+	 * @param filename is the name of the archive
+	 * @param key is the key of the maze, see {@link #getKey}
+	 * @return the reference
+	 */
+	public static String getReference(String filename, String key) {
+		return filename + SEPARATOR + key;
+	}
+
+	/**
+	 * Tells if the given name refers to a maze in an archive
+	 * @param reference is the name of a file or a reference archive#key
+	 * @return true if the part before the last separator ends with the extension for archives
+	 */
+	public static boolean isReference(String reference) {
+		int sep = reference.lastIndexOf(SEPARATOR);
+		return sep > 0 && reference.substring(0, sep).endsWith(EXTENSION);
+	}
+
+	/**
+	 * Provides the name of the archive in a reference
+	 * @param reference is of the form archive#key
+	 * @return the name of the archive
+	 */
+	public static String getArchiveName(String reference) {
+		return reference.substring(0, reference.lastIndexOf(SEPARATOR));
+	}
+
+	/**
+	 * Provides the key in a reference
+	 * @param reference is of the form archive#key
+	 * @return the key of the maze
+	 */
+	public static String getKey(String reference) {
+		return reference.substring(reference.lastIndexOf(SEPARATOR) + 1);
+	}
+
+	/**
+	 * Gives the number of mazes in the archive
+	 * @return the number of mazes
+	 */
+	public synchronized int size() {
+		return count;
+	}
+
+	/**
+	 * Tells if the archive has a maze for the given key
+	 * @param key is the key of the maze, see {@link #getKey}
+	 * @return true if there is a maze for the key
+	 * @throws IOException if the key is malformed or the index can not be read
+	 */
+	public synchronized boolean contains(String key) throws IOException {
+		return null != find(key);
+	}
+
+	/**
+	 * Adds the given maze with the key of the given order.
+	 * Number of rooms and expected partition iterations are
+	 * set as the MazeBuilder does for the order.
+	 * @param order is the order the maze was generated for
+	 * @param maze is the maze to store
+	 * @param format selects the format to store the maze in
+	 * @throws IOException if the maze can not be written
+	 * @throws IllegalStateException if the archive is not opened for appending
+	 */
+	public synchronized void add(Order order, Maze maze, Format format) throws IOException {
+		if (!append)
+			throw new IllegalStateException("MazeArchive: " + filename + " is not opened for appending");
+		int skill = order.getSkillLevel();
+		int rooms = order.isPerfect() ? 0 : Constants.SKILL_ROOMS[skill];
+		int partiters = Constants.SKILL_PARTCT[skill];
+		int[] start = maze.getStartingPosition();
+		int[][] dists = maze.getMazedists().getAllDistanceValues();
+		// the index is written anew when the archive is closed, also if writing the maze fails
+		modified = true;
+		channel.position(end);
+		if (format == Format.BINARY) {
+			MazeBinaryWriter.write(channel, maze.getWidth(), maze.getHeight(), rooms, partiters,
+					maze.getRootnode(), maze.getFloorplan(), dists, start[0], start[1]);
+		}
+		else {
+			// closing the gzip stream releases its native memory, the channel needs to stay open
+			OutputStream out = new FilterOutputStream(Channels.newOutputStream(channel)) {
+				@Override
+				public void write(byte[] b, int off, int len) throws IOException {
+					this.out.write(b, off, len);
+				}
+				@Override
+				public void close() throws IOException {
+					flush();
+				}
+			};
+			try (GZIPOutputStream gzip = new GZIPOutputStream(new BufferedOutputStream(out, BUFFER_SIZE), BUFFER_SIZE)) {
+				XMLStreamWriter writer = XMLOutputFactory.newInstance().createXMLStreamWriter(gzip, "UTF-8");
+				writer.writeStartDocument("UTF-8", "1.0");
+				MazeFileWriter.storeMaze(maze.getWidth(), maze.getHeight(), rooms, partiters,
+						maze.getRootnode(), maze.getFloorplan(), dists, start[0], start[1], writer);
+				writer.writeEndDocument();
+				writer.close();
+			}
+			catch (XMLStreamException e) {
+				throw new IOException("MazeArchive: can not write maze to " + filename, e);
+			}
+		}
+		long stop = channel.position();
+		put(new Entry(skill, order.getBuilder(), order.isPerfect(), order.getSeed(), format, end, stop - end));
+		end = stop;
+	}
+
+	/**
+	 * Writes the index if mazes were added and closes the file
+	 */
+	@Override
+	public synchronized void close() throws IOException {
+		try {
+			if (modified)
+				writeIndex();
+		}
+		finally {
+			channel.close();
+		}
+	}
+
+	/**
+	 * Finds the entry for the given key
+	 * @param key is the key of the maze, see {@link #getKey}
+	 * @return the entry or null if there is no maze for the key
+	 * @throws IOException if the key is malformed or the index can not be read
+	 */
+	synchronized Entry find(String key) throws IOException {
+		String[] parts = key.split("_");
+		if (parts.length != 4 || !("true".equals(parts[2]) || "false".equals(parts[2])))
+			throw new IOException("MazeArchive: malformed key " + key);
+		int skill;
+		int seed;
+		Builder builder;
+		try {
+			skill = Integer.parseInt(parts[0]);
+			builder = Builder.valueOf(parts[1]);
+			seed = Integer.parseInt(parts[3]);
+		}
+		catch (IllegalArgumentException e) {
+			throw new IOException("MazeArchive: malformed key " + key, e);
+		}
+		boolean perfect = Boolean.parseBoolean(parts[2]);
+		for (int i = hash(skill, builder, perfect, seed) & (capacity - 1); ; i = (i + 1) & (capacity - 1)) {
+			Entry entry = getSlot(i);
+			if (null == entry || entry.hasKey(skill, builder, perfect, seed))
+				return entry;
+		}
+	}
+
+	/**
+	 * Reads a maze in the binary format
+	 * @param entry gives the position of the maze
+	 * @return the reader with the maze data
+	 * @throws IOException if the maze can not be read
+	 */
+	synchronized MazeBinaryReader readBinary(Entry entry) throws IOException {
+		channel.position(entry.offset);
+		return new MazeBinaryReader(channel, describe(entry));
+	}
+
+	/**
+	 * Reads a maze in the compressed XML format
+	 * @param entry gives the position of the maze
+	 * @return the reader with the maze data
+	 * @throws IOException if the maze can not be read
+	 */
+	synchronized MazeXmlStreamReader readXml(Entry entry) throws IOException {
+		if (entry.length > Integer.MAX_VALUE)
+			throw new IOException("MazeArchive: maze too large in " + describe(entry));
+		ByteBuffer data = ByteBuffer.allocate((int) entry.length);
+		readFully(data, entry.offset);
+		try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(data.array()), BUFFER_SIZE)) {
+			return new MazeXmlStreamReader(in, describe(entry));
+		}
+	}
+
+	private String describe(Entry entry) {
+		return getReference(filename, getKey(entry.skill, entry.builder, entry.perfect, entry.seed));
+	}
+
+	private static int hash(int skill, Builder builder, boolean perfect, int seed) {
+		int h = ((skill * 31 + builder.ordinal()) * 2 + (perfect ? 1 : 0)) * 31 + seed;
+		h ^= h >>> 16;
+		h *= 0x45d9f3b;
+		return h ^ (h >>> 16);
+	}
+
+	/**
+	 * Puts an entry into the index in memory, replaces an entry with the same key,
+	 * doubles the number of slots if more than half of them are in use
+	 */
+	private void put(Entry entry) {
+		if (2 * (count + 1) > capacity) {
+			Entry[] old = slots;
+			capacity *= 2;
+			slots = new Entry[capacity];
+			for (Entry e : old) {
+				if (null != e)
+					slots[findSlot(e)] = e;
+			}
+		}
+		int i = findSlot(entry);
+		if (null == slots[i])
+			count++;
+		slots[i] = entry;
+	}
+
+	/**
+	 * Finds the slot with the key of the given entry or the free slot for it
+	 */
+	private int findSlot(Entry entry) {
+		int i = hash(entry.skill, entry.builder, entry.perfect, entry.seed) & (capacity - 1);
+		while (null != slots[i] && !slots[i].hasKey(entry.skill, entry.builder, entry.perfect, entry.seed))
+			i = (i + 1) & (capacity - 1);
+		return i;
+	}
+
+	/**
+	 * Provides the entry in the given slot, from memory or the file
+	 */
+	private Entry getSlot(int i) throws IOException {
+		if (null != slots)
+			return slots[i];
+		ByteBuffer slot = ByteBuffer.allocate(SLOT_SIZE);
+		readFully(slot, indexOffset + (long) i * SLOT_SIZE);
+		slot.flip();
+		return decodeSlot(slot);
+	}
+
+	/**
+	 * Slot layout: used, format, builder, perfect as bytes, skill, seed,
+	 * 4 bytes unused, offset and length as longs, empty slots are 0
+	 */
+	private Entry decodeSlot(ByteBuffer slot) throws IOException {
+		int start = slot.position();
+		slot.position(start + SLOT_SIZE);
+		if (slot.get(start) == 0)
+			return null;
+		int format = slot.get(start + 1);
+		int builder = slot.get(start + 2);
+		long offset = slot.getLong(start + 16);
+		long length = slot.getLong(start + 24);
+		if (format < 0 || format >= Format.values().length || builder < 0 || builder >= Builder.values().length
+				|| offset < HEADER_SIZE || length <= 0 || offset + length > indexOffset)
+			throw new IOException("MazeArchive: corrupt index in " + filename);
+		return new Entry(slot.getInt(start + 4), Builder.values()[builder], slot.get(start + 3) != 0,
+				slot.getInt(start + 8), Format.values()[format], offset, length);
+	}
+
+	private void readTrailer() throws IOException {
+		long size = channel.size();
+		if (size < HEADER_SIZE + TRAILER_SIZE)
+			throw new IOException("MazeArchive: " + filename + " is not a maze archive");
+		ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+		readFully(header, 0);
+		if (header.getInt(0) != MAGIC)
+			throw new IOException("MazeArchive: " + filename + " is not a maze archive");
+		int version = header.getInt(4);
+		if (version != VERSION)
+			throw new IOException("MazeArchive: unsupported version " + version + " of " + filename);
+		long trailerOffset = header.getLong(8);
+		if (trailerOffset < HEADER_SIZE || trailerOffset + TRAILER_SIZE > size)
+			throw new IOException("MazeArchive: corrupt index in " + filename);
+		ByteBuffer trailer = ByteBuffer.allocate(TRAILER_SIZE);
+		readFully(trailer, trailerOffset);
+		if (trailer.getInt(20) != MAGIC || trailer.getInt(16) != VERSION)
+			throw new IOException("MazeArchive: corrupt index in " + filename);
+		indexOffset = trailer.getLong(0);
+		capacity = trailer.getInt(8);
+		count = trailer.getInt(12);
+		if (capacity < MIN_CAPACITY || Integer.bitCount(capacity) != 1 || count < 0 || 2 * count > capacity
+				|| indexOffset < HEADER_SIZE || indexOffset + (long) capacity * SLOT_SIZE != trailerOffset)
+			throw new IOException("MazeArchive: corrupt index in " + filename);
+	}
+
+	private void readIndex() throws IOException {
+		ByteBuffer index = ByteBuffer.allocate(capacity * SLOT_SIZE);
+		readFully(index, indexOffset);
+		index.flip();
+		slots = new Entry[capacity];
+		for (int i = 0; i < capacity; i++)
+			slots[i] = decodeSlot(index);
+	}
+
+	/**
+	 * Writes the index and the trailer at the end of the mazes, then sets the header to the new trailer.
+	 * Each step is forced to the disk before the next one, so the header always refers to a complete index.
+	 */
+	private void writeIndex() throws IOException {
+		ByteBuffer index = ByteBuffer.allocate(capacity * SLOT_SIZE + TRAILER_SIZE);
+		for (Entry entry : slots) {
+			int start = index.position();
+			if (null != entry) {
+				index.put((byte) 1);
+				index.put((byte) entry.format.ordinal());
+				index.put((byte) entry.builder.ordinal());
+				index.put((byte) (entry.perfect ? 1 : 0));
+				index.putInt(entry.skill);
+				index.putInt(entry.seed);
+				index.putInt(0);
+				index.putLong(entry.offset);
+				index.putLong(entry.length);
+			}
+			index.position(start + SLOT_SIZE);
+		}
+		index.putLong(end);
+		index.putInt(capacity);
+		index.putInt(count);
+		index.putInt(VERSION);
+		index.putInt(MAGIC);
+		index.flip();
+		writeFully(index, end);
+		channel.force(false);
+		long trailerOffset = end + (long) capacity * SLOT_SIZE;
+		writeFully(ByteBuffer.allocate(8).putLong(trailerOffset).flip(), 8);
+		channel.force(false);
+		indexOffset = end;
+		end = trailerOffset + TRAILER_SIZE;
+		// drops what a failed maze left behind the new trailer
+		channel.truncate(end);
+		modified = false;
+	}
+
+	private void readFully(ByteBuffer buffer, long position) throws IOException {
+		while (buffer.hasRemaining()) {
+			if (channel.read(buffer, position + buffer.position()) < 0)
+				throw new IOException("MazeArchive: unexpected end of " + filename);
+		}
+	}
+
+	private void writeFully(ByteBuffer buffer, long position) throws IOException {
+		while (buffer.hasRemaining())
+			channel.write(buffer, position + buffer.position());
+	}
+}
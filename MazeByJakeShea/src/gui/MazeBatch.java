@@ -0,0 +1,366 @@
+package gui;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import generation.ConcurrentMazeFactory;
+import generation.Maze;
+import generation.Order;
+import generation.Order.Builder;
+
+/**
+ * Generates mazes in a batch without a user interface, e.g. to produce mazes
+ * ahead of time or on a build server.
+ * For each skill level and builder, a number of mazes with consecutive seeds is generated
+ * on all cores with a ConcurrentMazeFactory and written to disk as soon as it is delivered.
+ * Throughput and percentiles of the time it takes to generate a maze are printed at the end.
+ *
+ * This class is a main class of its own and not an option of the MazeApplication,
+ * which is a JFrame, such that no AWT or Swing class is ever loaded.
+ *
+ * Command line arguments:
+ * <pre>
+ * -n count     number of mazes per skill level and builder, default 10
+ * -s skills    skill levels, e.g. 0-9 or 1,3,5, default 0-9
+ * -g builders  builder algorithms, e.g. DFS,Prim, default all
+ * -p           perfect mazes, default mazes with rooms
+ * -e seed      seed of the first maze, default 13
+ * -o output    a directory that receives a file per maze or an archive file ending in .mazes,
+ *              default directory mazes
+ * -f format    binary, xml, or mapped (only for a directory), default binary
+ * -t threads   number of threads, default number of processors
+ * </pre>
+ * A file in a directory is named by the key of its maze, see {@link MazeArchive#getKey}.
+ *
+ * @author Jake Shea
+ */
+public class MazeBatch {
+	private int count = 10;
+	private int[] skills = { 0, 1, 2, 3, 4, 5, 6, 7, 8, 9 };
+	private Builder[] builders = Builder.values();
+	private boolean perfect;
+	private int firstSeed = 13;
+	private String output = "mazes";
+	private String format = "binary";
+	private int threads = Runtime.getRuntime().availableProcessors();
+
+	/**
+	 * An order for a maze of the batch that notes when it is ordered and delivered,
+	 * also used by the RobotSimulator
+	 */
+	static class BatchOrder implements Order {
+		private final int skill;
+		private final Builder builder;
+		private final boolean perfect;
+		private final int seed;
+		private long ordered; // nanoseconds
+		private long delivered;
+
+		BatchOrder(int skill, Builder builder, boolean perfect, int seed) {
+			this.skill = skill;
+			this.builder = builder;
+			this.perfect = perfect;
+			this.seed = seed;
+		}
+		@Override
+		public int getSkillLevel() {
+			return skill;
+		}
+		@Override
+		public Builder getBuilder() {
+			return builder;
+		}
+		@Override
+		public boolean isPerfect() {
+			return perfect;
+		}
+		@Override
+		public int getSeed() {
+			return seed;
+		}
+		@Override
+		public void deliver(Maze mazeConfig) {
+			delivered = System.nanoTime();
+		}
+		@Override
+		public void updateProgress(int percentage) {
+			// nobody to show it to
+		}
+	}
+
+	/**
+	 * Runs a batch as configured by the command line arguments
+	 * @param args see the class comment
+	 */
+	public static void main(String[] args) {
+		// anything that touches AWT by accident must not need a display
+		System.setProperty("java.awt.headless", "true");
+		MazeBatch batch;
+		try {
+			batch = parse(args);
+		}
+		catch (IllegalArgumentException e) {
+			System.out.println("MazeBatch: " + e.getMessage());
+			System.out.println("usage: java gui.MazeBatch [-n count] [-s skills] [-g builders] [-p] [-e seed] "
+					+ "[-o directory|archive" + MazeArchive.EXTENSION + "] [-f binary|xml|mapped] [-t threads]");
+			System.exit(2);
+			return;
+		}
+		try {
+			if (batch.run() < batch.getCount())
+				System.exit(1);
+		}
+		catch (IOException | InterruptedException e) {
+			e.printStackTrace();
+			System.exit(1);
+		}
+	}
+
+	/**
+	 * Creates a batch from command line arguments
+	 * @param args see the class comment
+	 * @return the batch
+	 * @throws IllegalArgumentException if an argument is unknown or has an invalid value
+	 */
+	static MazeBatch parse(String[] args) {
+		MazeBatch batch = new MazeBatch();
+		for (int i = 0; i < args.length; i++) {
+			String arg = args[i];
+			if (arg.length() != 2 || arg.charAt(0) != '-')
+				throw new IllegalArgumentException("unknown argument " + arg);
+			if (arg.charAt(1) == 'p') {
+				batch.perfect = true;
+				continue;
+			}
+			if (i + 1 == args.length)
+				throw new IllegalArgumentException("missing value for " + arg);
+			String value = args[++i];
+			switch (arg.charAt(1)) {
+			case 'n':
+				batch.count = parsePositive(value, arg);
+				break;
+			case 's':
+				batch.skills = parseSkills(value);
+				break;
+			case 'g':
+				batch.builders = parseBuilders(value);
+				break;
+			case 'e':
+				batch.firstSeed = parseInt(value, arg);
+				break;
+			case 'o':
+				batch.output = value;
+				break;
+			case 'f':
+				if (!Arrays.asList("binary", "xml", "mapped").contains(value.toLowerCase()))
+					throw new IllegalArgumentException("unknown format " + value);
+				batch.format = value.toLowerCase();
+				break;
+			case 't':
+				batch.threads = parsePositive(value, arg);
+				break;
+			default:
+				throw new IllegalArgumentException("unknown argument " + arg);
+			}
+		}
+		if (batch.isArchive() && "mapped".equals(batch.format))
+			throw new IllegalArgumentException("an archive holds mazes in binary or xml format only");
+		return batch;
+	}
+
+	/**
+	 * @return the total number of mazes in the batch
+	 */
+	int getCount() {
+		return count * skills.length * builders.length;
+	}
+
+	/**
+	 * Generates and stores all mazes of the batch and prints the results
+	 * @return the number of mazes that were generated and stored
+	 * @throws IOException if the output can not be created
+	 * @throws InterruptedException if the thread is interrupted while waiting for mazes
+	 */
+	int run() throws IOException, InterruptedException {
+		final File directory = isArchive() ? null : new File(output);
+		if (null != directory && !directory.isDirectory() && !directory.mkdirs())
+			throw new IOException("MazeBatch: can not create directory " + output);
+		final BatchOrder[][] orders = new BatchOrder[skills.length * builders.length][count];
+		final AtomicInteger stored = new AtomicInteger();
+		System.out.println("MazeBatch: generating " + getCount() + " mazes on " + threads + " threads into " + output);
+		final long start = System.nanoTime();
+		try (MazeArchive archive = isArchive() ? new MazeArchive(output, true) : null;
+				ConcurrentMazeFactory factory = new ConcurrentMazeFactory(threads, threads)) {
+			// at most one order per thread, so the factory never refuses an order
+			// and an order is not kept waiting in the queue of the factory
+			final Semaphore slots = new Semaphore(threads);
+			for (int s = 0; s < skills.length; s++) {
+				for (int b = 0; b < builders.length; b++) {
+					for (int i = 0; i < count; i++) {
+						BatchOrder order = new BatchOrder(skills[s], builders[b], perfect, firstSeed + i);
+						orders[s * builders.length + b][i] = order;
+						slots.acquire();
+						order.ordered = System.nanoTime();
+						// stored on the thread that built the maze
+						factory.orderAsync(order).whenComplete((maze, e) -> {
+							try {
+								if (null == maze)
+									System.out.println("MazeBatch: no maze for " + getKey(order) + ": " + e);
+								else if (store(order, maze, directory, archive))
+									stored.incrementAndGet();
+							}
+							finally {
+								slots.release();
+							}
+						});
+					}
+				}
+			}
+			// all mazes are delivered and stored once all slots are free again
+			slots.acquire(threads);
+		}
+		final long elapsed = System.nanoTime() - start;
+		printResults(orders, stored.get(), elapsed);
+		return stored.get();
+	}
+
+	///////////////////////// private methods ///////////////////////////////////
+	private boolean isArchive() {
+		return output.endsWith(MazeArchive.EXTENSION);
+	}
+
+	private static String getKey(Order order) {
+		return MazeArchive.getKey(order.getSkillLevel(), order.getBuilder(), order.isPerfect(), order.getSeed());
+	}
+
+	/**
+	 * Stores a maze in a file of its own in the directory or in the archive
+	 * @return true if the maze is stored, false otherwise
+	 */
+	private boolean store(Order order, Maze maze, File directory, MazeArchive archive) {
+		if (null != archive) {
+			try {
+				archive.add(order, maze, "xml".equals(format) ? MazeArchive.Format.XML : MazeArchive.Format.BINARY);
+				return true;
+			}
+			catch (IOException e) {
+				e.printStackTrace();
+				return false;
+			}
+		}
+		final String extension = "xml".equals(format) ? ".xml"
+				: "mapped".equals(format) ? MazeMappedFile.EXTENSION : MazeBinaryWriter.EXTENSION;
+		final File file = new File(directory, getKey(order) + extension);
+		final int skill = order.getSkillLevel();
+		final int[] start = maze.getStartingPosition();
+		// prints a stack trace if the file can not be written
+		MazeFileWriter.store(file.getPath(), maze.getWidth(), maze.getHeight(),
+				order.isPerfect() ? 0 : Constants.SKILL_ROOMS[skill], Constants.SKILL_PARTCT[skill],
+				maze.getRootnode(), maze.getFloorplan(), maze.getMazedists().getAllDistanceValues(), start[0], start[1]);
+		return file.exists();
+	}
+
+	/**
+	 * Prints the throughput of the batch and the percentiles of the time it took
+	 * to generate a maze for each skill level and builder and overall
+	 */
+	private void printResults(BatchOrder[][] orders, int stored, long elapsed) {
+		List<Long> all = new ArrayList<>();
+		System.out.println(String.format("%-16s %8s %10s %10s %10s %10s", "skill builder", "mazes", "p50 ms", "p90 ms", "p99 ms", "max ms"));
+		for (int s = 0; s < skills.length; s++) {
+			for (int b = 0; b < builders.length; b++) {
+				long[] latencies = getLatencies(orders[s * builders.length + b]);
+				for (long latency : latencies)
+					all.add(latency);
+				printLatencies(skills[s] + " " + builders[b], latencies);
+			}
+		}
+		printLatencies("all", all.stream().mapToLong(Long::longValue).toArray());
+		double seconds = elapsed / 1e9;
+		System.out.println(String.format("MazeBatch: %d of %d mazes stored in %.2f s, %.1f mazes/s",
+				stored, getCount(), seconds, stored / seconds));
+	}
+
+	/**
+	 * @return the times between order and delivery of the delivered orders, in nanoseconds
+	 */
+	private static long[] getLatencies(BatchOrder[] orders) {
+		return Arrays.stream(orders).filter(o -> 0 != o.delivered)
+				.mapToLong(o -> o.delivered - o.ordered).toArray();
+	}
+
+	private static void printLatencies(String name, long[] latencies) {
+		Arrays.sort(latencies);
+		System.out.println(String.format("%-16s %8d %10.2f %10.2f %10.2f %10.2f", name, latencies.length,
+				percentile(latencies, 50), percentile(latencies, 90), percentile(latencies, 99), percentile(latencies, 100)));
+	}
+
+	/**
+	 * Gives a percentile by the nearest rank method
+	 * @param sorted is the sorted array of values in nanoseconds
+	 * @param p is the percentile, {@code 0 < p <= 100}
+	 * @return the percentile in milliseconds, 0 for an empty array
+	 */
+	static double percentile(long[] sorted, int p) {
+		if (0 == sorted.length)
+			return 0;
+		int rank = (int) Math.ceil(p / 100.0 * sorted.length);
+		return sorted[Math.max(rank, 1) - 1] / 1e6;
+	}
+
+	static int parseInt(String value, String arg) {
+		try {
+			return Integer.parseInt(value);
+		}
+		catch (NumberFormatException e) {
+			throw new IllegalArgumentException("invalid value " + value + " for " + arg);
+		}
+	}
+
+	static int parsePositive(String value, String arg) {
+		int result = parseInt(value, arg);
+		if (result <= 0)
+			throw new IllegalArgumentException("invalid value " + value + " for " + arg);
+		return result;
+	}
+
+	/**
+	 * Parses skill levels given as a list of levels and ranges, e.g. 0-3,9
+	 */
+	static int[] parseSkills(String value) {
+		List<Integer> result = new ArrayList<>();
+		for (String part : value.split(",")) {
+			int dash = part.indexOf('-', 1);
+			int from = parseInt((dash < 0) ? part : part.substring(0, dash), "-s");
+			int to = (dash < 0) ? from : parseInt(part.substring(dash + 1), "-s");
+			if (from < 0 || to >= Constants.SKILL_X.length || from > to)
+				throw new IllegalArgumentException("invalid skill levels " + part);
+			for (int skill = from; skill <= to; skill++)
+				result.add(skill);
+		}
+		return result.stream().mapToInt(Integer::intValue).toArray();
+	}
+
+	/**
+	 * Parses a list of builders, names are not case sensitive
+	 */
+	static Builder[] parseBuilders(String value) {
+		List<Builder> result = new ArrayList<>();
+		for (String name : value.split(",")) {
+			Builder builder = null;
+			for (Builder b : Builder.values()) {
+				if (b.name().equalsIgnoreCase(name))
+					builder = b;
+			}
+			if (null == builder)
+				throw new IllegalArgumentException("unknown builder " + name);
+			result.add(builder);
+		}
+		return result.toArray(new Builder[0]);
+	}
+}
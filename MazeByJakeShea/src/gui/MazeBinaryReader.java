@@ -0,0 +1,245 @@
+package gui;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+import generation.BSPBranch;
+import generation.BSPLeaf;
+import generation.BSPNode;
+import generation.Floorplan;
+import generation.WallTable;
+
+/**
+ * Reads a maze from a file in the binary format of the MazeBinaryWriter,
+ * see there for the format. The MazeFileReader uses this class
+ * for files that end with {@link MazeBinaryWriter#EXTENSION}.
+ *
+ * @author Jake Shea
+ */
+public class MazeBinaryReader {
+
+	private final ReadableByteChannel channel;
+	private final ByteBuffer buffer = ByteBuffer.allocate(MazeBinaryWriter.BUFFER_SIZE);
+	private final String filename;
+	private final WallTable table = new WallTable(); // walls of all leaves
+
+	// fields of maze configuration object
+	private int width;
+	private int height;
+	private int rooms;
+	private int[][] dists;
+	private int expected_partiters;
+	private Floorplan cells;
+	private int startx;
+	private int starty;
+	private BSPNode root;
+
+	/**
+	 * Constructor reads maze data from the given file.
+	 * @param filename with data of a Maze object in the binary format
+	 * @throws IOException if the file can not be read, is not in the binary format,
+	 * has an unsupported version or is incomplete
+	 */
+	public MazeBinaryReader(String filename) throws IOException {
+		this.filename = filename;
+		try (FileChannel c = FileChannel.open(Paths.get(filename), StandardOpenOption.READ)) {
+			channel = c;
+			buffer.flip(); // buffer starts empty
+			readHeader();
+			cells = readCells();
+			dists = readDistances();
+			root = readBSPNode();
+		}
+	}
+
+	/**
+	 * Constructor reads maze data from the given channel at its current position,
+	 * as for a maze in a MazeArchive. Bytes after the maze may be read ahead
+	 * such that the position of the channel is undefined afterwards.
+	 * @param channel provides the data in the binary format, it stays open
+	 * @param name describes the source of the data for error messages
+	 * @throws IOException if the data can not be read, is not in the binary format,
+	 * has an unsupported version or is incomplete
+	 */
+	MazeBinaryReader(ReadableByteChannel channel, String name) throws IOException {
+		this.filename = name;
+		this.channel = channel;
+		buffer.flip(); // buffer starts empty
+		readHeader();
+		cells = readCells();
+		dists = readDistances();
+		root = readBSPNode();
+	}
+
+	/////////////////// set of straightforward get methods //////////////
+	int getWidth() {
+		return width;
+	}
+	int getHeight() {
+		return height;
+	}
+	int getRooms() {
+		return rooms;
+	}
+	int[][] getDistances() {
+		return dists;
+	}
+	int getExpectedPartiters() {
+		return expected_partiters;
+	}
+	Floorplan getCells() {
+		return cells;
+	}
+	int getStartX() {
+		return startx;
+	}
+	int getStartY() {
+		return starty;
+	}
+	BSPNode getRootNode() {
+		return root;
+	}
+
+	private void readHeader() throws IOException {
+		ensure(8);
+		if (buffer.getInt() != MazeBinaryWriter.MAGIC)
+			throw new IOException("MazeBinaryReader: " + filename + " is not a binary maze file");
+		int version = buffer.getInt();
+		if (version != MazeBinaryWriter.VERSION)
+			throw new IOException("MazeBinaryReader: unsupported version " + version + " of " + filename);
+		ensure(24);
+		width = buffer.getInt();
+		height = buffer.getInt();
+		rooms = buffer.getInt();
+		expected_partiters = buffer.getInt();
+		startx = buffer.getInt();
+		starty = buffer.getInt();
+		if (width <= 0 || height <= 0)
+			throw new IOException("MazeBinaryReader: invalid size " + width + " x " + height + " in " + filename);
+	}
+
+	/**
+	 * Reads wallboard and border bits, then visited and in room flags
+	 */
+	private Floorplan readCells() throws IOException {
+		int[][] cellValue = new int[width][height];
+		for (int x = 0; x < width; x++) {
+			for (int y = 0; y < height; y++) {
+				ensure(1);
+				int b = buffer.get();
+				cellValue[x][y] = (b & Floorplan.CW_ALL) | ((b >> 4) & Floorplan.CW_ALL) << Floorplan.CW_BOUND_SHIFT;
+			}
+		}
+		int flags = 0;
+		int n = 0;
+		for (int x = 0; x < width; x++) {
+			for (int y = 0; y < height; y++) {
+				if ((n & 3) == 0) {
+					ensure(1);
+					flags = buffer.get();
+				}
+				int f = flags >> (2 * (n & 3));
+				if ((f & 1) != 0)
+					cellValue[x][y] |= Floorplan.CW_VISITED;
+				if ((f & 2) != 0)
+					cellValue[x][y] |= Floorplan.CW_IN_ROOM;
+				n++;
+			}
+		}
+		return new Floorplan(cellValue);
+	}
+
+	private int[][] readDistances() throws IOException {
+		int[][] result = new int[width][height];
+		for (int x = 0; x < width; x++) {
+			int previous = 0;
+			for (int y = 0; y < height; y++) {
+				previous += readSignedVarint();
+				result[x][y] = previous;
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Reads a node and its subtrees in preorder
+	 */
+	private BSPNode readBSPNode() throws IOException {
+		int tag = readVarint();
+		if (tag == MazeBinaryWriter.TAG_LEAF) {
+			int n = readVarint();
+			if (n <= 0)
+				throw new IOException("MazeBinaryReader: leaf without walls in " + filename);
+			// walls go to the table, the leaf creates Wall objects when they are needed first
+			int from = table.size();
+			for (int i = 0; i < n; i++) {
+				int x = readVarint();
+				int y = readVarint();
+				int dx = readSignedVarint();
+				int dy = readSignedVarint();
+				int dist = readVarint();
+				ensure(5);
+				int col = buffer.getInt();
+				int flags = buffer.get();
+				table.addWall(x, y, dx, dy, dist, col, (flags & MazeBinaryWriter.WALL_PARTITION) != 0,
+						(flags & MazeBinaryWriter.WALL_SEEN) != 0);
+			}
+			return new BSPLeaf(table, from, table.size());
+		}
+		if (tag != MazeBinaryWriter.TAG_BRANCH)
+			throw new IOException("MazeBinaryReader: unknown node type " + tag + " in " + filename);
+		int x = readSignedVarint();
+		int y = readSignedVarint();
+		int dx = readSignedVarint();
+		int dy = readSignedVarint();
+		// read left branch before right branch
+		BSPNode l = readBSPNode();
+		BSPNode r = readBSPNode();
+		return new BSPBranch(x, y, dx, dy, l, r);
+	}
+
+	/**
+	 * Reads an unsigned varint, see MazeBinaryWriter
+	 * @return the value
+	 */
+	private int readVarint() throws IOException {
+		int result = 0;
+		for (int shift = 0; shift < 35; shift += 7) {
+			ensure(1);
+			int b = buffer.get();
+			result |= (b & 0x7F) << shift;
+			if ((b & 0x80) == 0)
+				return result;
+		}
+		throw new IOException("MazeBinaryReader: malformed varint in " + filename);
+	}
+
+	/**
+	 * Reads a zigzag encoded varint, see MazeBinaryWriter
+	 * @return the value
+	 */
+	private int readSignedVarint() throws IOException {
+		int value = readVarint();
+		return (value >>> 1) ^ -(value & 1);
+	}
+
+	/**
+	 * Makes sure the buffer holds at least the given number of bytes
+	 * @param bytes is the number of bytes, at most the buffer size
+	 * @throws IOException if the file ends before
+	 */
+	private void ensure(int bytes) throws IOException {
+		if (buffer.remaining() >= bytes)
+			return;
+		buffer.compact();
+		while (buffer.position() < bytes) {
+			if (channel.read(buffer) < 0)
+				throw new IOException("MazeBinaryReader: unexpected end of " + filename);
+		}
+		buffer.flip();
+	}
+}
@@ -0,0 +1,238 @@
+package gui;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+import generation.BSPBranch;
+import generation.BSPLeaf;
+import generation.BSPNode;
+import generation.Floorplan;
+import generation.PackedCellStorage;
+import generation.Wall;
+
+/**
+ * Stores a maze in a compact binary format, the counterpart of the XML format
+ * of the MazeFileWriter. The MazeFileWriter and MazeFileReader
+ * use this format for files that end with {@link #EXTENSION}.
+ *
+ * The file starts with a header: magic number, format version, width, height,
+ * number of rooms, expected partition iterations and starting position.
+ * Sections follow in this order:
+ * <ul>
+ * <li>floorplan: one byte per cell with the wallboard bits in the low nibble and
+ * the border bits in the high nibble, then two bits per cell for the
+ * visited and in room flags, four cells to a byte,</li>
+ * <li>distances: column by column as in the XML format, each value as the
+ * difference to the previous value, zigzag and varint encoded,
+ * so most distances take a single byte,</li>
+ * <li>BSP tree: nodes in preorder, a branch with its splitter,
+ * a leaf with its walls.</li>
+ * </ul>
+ * Integers in the header and colors are 4 bytes, big endian,
+ * all other numbers are varints. The file is written through a FileChannel,
+ * the MazeArchive writes the same format into an archive of many mazes.
+ *
+ * @author Jake Shea
+ */
+public class MazeBinaryWriter {
+	/**
+	 * File name extension for the binary format
+	 */
+	public static final String EXTENSION = ".maze";
+	static final int MAGIC = 0x4D415A45; // "MAZE"
+	static final int VERSION = 1;
+	static final int BUFFER_SIZE = 1 << 16;
+	static final int TAG_BRANCH = 0;
+	static final int TAG_LEAF = 1;
+	static final int WALL_PARTITION = 1;
+	static final int WALL_SEEN = 2;
+
+	private final WritableByteChannel channel;
+	private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+
+	private MazeBinaryWriter(WritableByteChannel channel) {
+		this.channel = channel;
+	}
+
+	/**
+	 * Tells if the given file is in the binary format according to its name
+	 * @param filename is the name of the file
+	 * @return true if the name ends with the extension for the binary format
+	 */
+	public static boolean isBinaryFile(String filename) {
+		return filename.endsWith(EXTENSION);
+	}
+
+	/**
+	 * Store maze data in the binary format in the given file.
+	 * Parameters are the same as for {@link MazeFileWriter#store}.
+	 * @param filename is the name of the file, an existing file is overwritten
+	 * @param width is the width of the maze
+	 * @param height is the height of the maze
+	 * @param rooms is the number of rooms
+	 * @param expected_partiters is the expected number of partition iterations
+	 * @param root is the root node of the bsp tree
+	 * @param cells is the floor plan for this maze
+	 * @param dists is the distances to the exit
+	 * @param startX is the x coordinate of the starting position
+	 * @param startY is the y coordinate of the starting position
+	 * @throws IOException if the file can not be written
+	 * @throws IllegalArgumentException if a cell uses bits that the format does not support
+	 */
+	public static void store(String filename, int width, int height, int rooms,
+			int expected_partiters, BSPNode root, Floorplan cells,
+			int[][] dists, int startX, int startY) throws IOException {
+		try (FileChannel channel = FileChannel.open(Paths.get(filename), StandardOpenOption.WRITE,
+				StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING)) {
+			write(channel, width, height, rooms, expected_partiters, root, cells, dists, startX, startY);
+		}
+	}
+
+	/**
+	 * Writes maze data in the binary format to the given channel at its current position.
+	 * Parameters are the same as for {@link #store}, except for the channel.
+	 * @param channel receives the data, it stays open
+	 * @throws IOException if the data can not be written
+	 * @throws IllegalArgumentException if a cell uses bits that the format does not support
+	 */
+	static void write(WritableByteChannel channel, int width, int height, int rooms,
+			int expected_partiters, BSPNode root, Floorplan cells,
+			int[][] dists, int startX, int startY) throws IOException {
+		MazeBinaryWriter writer = new MazeBinaryWriter(channel);
+		writer.writeHeader(width, height, rooms, expected_partiters, startX, startY);
+		writer.writeCells(cells, width, height);
+		writer.writeDistances(dists, width, height);
+		writer.writeBSPNode(root);
+		writer.flush();
+	}
+
+	private void writeHeader(int width, int height, int rooms, int expected_partiters, int startX, int startY) throws IOException {
+		ensure(32);
+		buffer.putInt(MAGIC);
+		buffer.putInt(VERSION);
+		buffer.putInt(width);
+		buffer.putInt(height);
+		buffer.putInt(rooms);
+		buffer.putInt(expected_partiters);
+		buffer.putInt(startX);
+		buffer.putInt(startY);
+	}
+
+	/**
+	 * Writes wallboard and border bits, then visited and in room flags
+	 */
+	private void writeCells(Floorplan cells, int width, int height) throws IOException {
+		for (int x = 0; x < width; x++) {
+			for (int y = 0; y < height; y++) {
+				int value = cells.getValueOfCell(x, y);
+				if ((value & ~PackedCellStorage.SUPPORTED_BITS) != 0)
+					throw new IllegalArgumentException("MazeBinaryWriter: unsupported value " + value + " for cell (" + x + "," + y + ")");
+				ensure(1);
+				buffer.put((byte) ((value & Floorplan.CW_ALL) | ((value >> Floorplan.CW_BOUND_SHIFT) & Floorplan.CW_ALL) << 4));
+			}
+		}
+		int flags = 0;
+		int n = 0;
+		for (int x = 0; x < width; x++) {
+			for (int y = 0; y < height; y++) {
+				int value = cells.getValueOfCell(x, y);
+				int f = (((value & Floorplan.CW_VISITED) != 0) ? 1 : 0) | (((value & Floorplan.CW_IN_ROOM) != 0) ? 2 : 0);
+				flags |= f << (2 * (n & 3));
+				if ((++n & 3) == 0) {
+					ensure(1);
+					buffer.put((byte) flags);
+					flags = 0;
+				}
+			}
+		}
+		if ((n & 3) != 0) {
+			ensure(1);
+			buffer.put((byte) flags);
+		}
+	}
+
+	private void writeDistances(int[][] dists, int width, int height) throws IOException {
+		for (int x = 0; x < width; x++) {
+			int previous = 0;
+			for (int y = 0; y < height; y++) {
+				writeSignedVarint(dists[x][y] - previous);
+				previous = dists[x][y];
+			}
+		}
+	}
+
+	/**
+	 * Writes a node and its subtrees in preorder
+	 */
+	private void writeBSPNode(BSPNode node) throws IOException {
+		if (node.isIsleaf()) {
+			List<Wall> walls = ((BSPLeaf) node).getAllWalls();
+			writeVarint(TAG_LEAF);
+			writeVarint(walls.size());
+			for (Wall wall : walls) {
+				writeVarint(wall.getStartPositionX());
+				writeVarint(wall.getStartPositionY());
+				writeSignedVarint(wall.getExtensionX());
+				writeSignedVarint(wall.getExtensionY());
+				writeVarint(wall.getDistance());
+				ensure(5);
+				buffer.putInt(wall.getColor());
+				buffer.put((byte) ((wall.isPartition() ? WALL_PARTITION : 0) | (wall.isSeen() ? WALL_SEEN : 0)));
+			}
+		}
+		else {
+			BSPBranch branch = (BSPBranch) node;
+			writeVarint(TAG_BRANCH);
+			writeSignedVarint(branch.getX());
+			writeSignedVarint(branch.getY());
+			writeSignedVarint(branch.getDx());
+			writeSignedVarint(branch.getDy());
+			writeBSPNode(branch.getLeftBranch());
+			writeBSPNode(branch.getRightBranch());
+		}
+	}
+
+	/**
+	 * Writes an int as an unsigned varint, 7 bits per byte, lowest bits first,
+	 * the high bit of a byte tells if more bytes follow.
+	 * Negative values take 5 bytes.
+	 * @param value is the value to write
+	 */
+	private void writeVarint(int value) throws IOException {
+		ensure(5);
+		while ((value & ~0x7F) != 0) {
+			buffer.put((byte) ((value & 0x7F) | 0x80));
+			value >>>= 7;
+		}
+		buffer.put((byte) value);
+	}
+
+	/**
+	 * Writes an int as a zigzag encoded varint such that values close to 0 take few bytes
+	 * @param value is the value to write
+	 */
+	private void writeSignedVarint(int value) throws IOException {
+		writeVarint((value << 1) ^ (value >> 31));
+	}
+
+	/**
+	 * Makes room for the given number of bytes in the buffer
+	 * @param bytes is the number of bytes, at most the buffer size
+	 */
+	private void ensure(int bytes) throws IOException {
+		if (buffer.remaining() < bytes)
+			flush();
+	}
+
+	private void flush() throws IOException {
+		buffer.flip();
+		while (buffer.hasRemaining())
+			channel.write(buffer);
+		buffer.clear();
+	}
+}
@@ -0,0 +1,326 @@
+package gui;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import generation.BSPBranch;
+import generation.BSPLeaf;
+import generation.BSPNode;
+import generation.Factory;
+import generation.MappedBSPTree;
+import generation.Maze;
+import generation.MazeContainer;
+import generation.Order;
+import generation.Progress;
+import generation.Wall;
+import generation.WallTable;
+
+/**
+ * A factory that keeps generated mazes and delivers a maze for an order
+ * with the same skill level, builder, perfect flag and seed as an earlier
+ * order without generating it again. Orders for other mazes are passed on
+ * to the given factory, typically a MazeFactory.
+ *
+ * Mazes are kept in memory in least recently used order. Their number is bounded
+ * by an estimate of their memory footprint, see {@link #estimateFootprint(Maze)}.
+ * Optionally, mazes are also stored in a directory in the binary format of the MazeBinaryWriter,
+ * such that they survive eviction from memory and the end of the application.
+ * A maze that is found in memory or on disk is delivered right away,
+ * within the call to {@link #order(Order)}.
+ *
+ * The first person view marks walls of the BSP tree as seen, so each delivery
+ * gets a copy of the BSP tree of the cached maze. Floorplan and distances are not
+ * modified when a maze is played and are shared.
+ *
+ * @author Jake Shea
+ */
+public class MazeCache implements Factory {
+	/**
+	 * Default bound for the estimated footprint of mazes in memory
+	 */
+	public static final long DEFAULT_MAX_BYTES = 64L << 20;
+
+	// estimates for the footprint of a maze, see estimateFootprint
+	static final int MAZE_BYTES = 256;
+	static final int CELL_BYTES = 8; // cell value and distance
+	static final int NODE_BYTES = 48;
+	static final int WALL_BYTES = 56; // Wall object and its reference in the list of a leaf
+
+	private final Factory factory;
+	private final long maxBytes;
+	private final File directory; // disk tier, null if there is none
+	// mazes by key in least recently used order
+	private final LinkedHashMap<String, Maze> mazes = new LinkedHashMap<>(16, 0.75f, true);
+	private final LinkedHashMap<String, Long> footprints = new LinkedHashMap<>();
+	private long bytes;
+
+	private volatile boolean delivered; // tells if the last order was delivered from the cache
+	// metrics
+	private int hits;
+	private int diskHits;
+	private int misses;
+	private int evictions;
+
+	/**
+	 * Constructor for a cache in memory with the default bound for its size
+	 * @param factory generates mazes that are not in the cache
+	 */
+	public MazeCache(Factory factory) {
+		this(factory, DEFAULT_MAX_BYTES, null);
+	}
+
+	/**
+	 * Constructor
+	 * @param factory generates mazes that are not in the cache
+	 * @param maxBytes is the bound for the estimated footprint of mazes in memory
+	 * @param directory keeps mazes on disk, it is created if needed, null for no disk tier
+	 */
+	public MazeCache(Factory factory, long maxBytes, String directory) {
+		this.factory = factory;
+		this.maxBytes = maxBytes;
+		this.directory = (null == directory) ? null : new File(directory);
+		if (null != this.directory && !this.directory.isDirectory() && !this.directory.mkdirs())
+			System.out.println("MazeCache: can not create directory " + directory + ", mazes are kept in memory only");
+	}
+
+	//////////////////////// Factory interface //////////////////////////////////
+	@Override
+	public boolean order(Order order) {
+		String key = MazeArchive.getKey(order.getSkillLevel(), order.getBuilder(), order.isPerfect(), order.getSeed());
+		Maze maze = get(key);
+		if (null != maze) {
+			// same sequence as for a maze from the MazeBuilder
+			order.updateProgress(100);
+			order.deliver(maze);
+			return true;
+		}
+		return factory.order(new CachingOrder(order, key));
+	}
+
+	@Override
+	public void cancel() {
+		if (!delivered)
+			factory.cancel();
+	}
+
+	@Override
+	public void waitTillDelivered() {
+		if (!delivered)
+			factory.waitTillDelivered();
+	}
+
+	/////////////////////// metrics /////////////////////////////////////////////
+	/**
+	 * @return the number of orders delivered from memory
+	 */
+	public synchronized int getHits() {
+		return hits;
+	}
+	/**
+	 * @return the number of orders delivered from disk
+	 */
+	public synchronized int getDiskHits() {
+		return diskHits;
+	}
+	/**
+	 * @return the number of orders passed on to the factory
+	 */
+	public synchronized int getMisses() {
+		return misses;
+	}
+	/**
+	 * @return the number of mazes removed from memory to stay within the bound
+	 */
+	public synchronized int getEvictions() {
+		return evictions;
+	}
+	/**
+	 * @return the number of mazes in memory
+	 */
+	public synchronized int size() {
+		return mazes.size();
+	}
+	/**
+	 * @return the estimated footprint of all mazes in memory
+	 */
+	public synchronized long getBytes() {
+		return bytes;
+	}
+
+	@Override
+	public synchronized String toString() {
+		return "MazeCache: " + hits + " hits, " + diskHits + " disk hits, " + misses + " misses, "
+				+ evictions + " evictions, " + mazes.size() + " mazes, " + (bytes >> 10) + " KB";
+	}
+
+	/**
+	 * Estimates how much memory a maze takes: its cells with their distances,
+	 * the nodes of its BSP tree and the walls in its leaves.
+	 * The estimate does not depend on the storage of the floorplan.
+	 * @param maze is the maze
+	 * @return the estimated number of bytes
+	 */
+	public static long estimateFootprint(Maze maze) {
+		BSPNode root = maze.getRootnode();
+		return MAZE_BYTES + (long) maze.getWidth() * maze.getHeight() * CELL_BYTES
+				+ (long) MappedBSPTree.countNodes(root) * NODE_BYTES
+				+ (long) MappedBSPTree.countWalls(root) * WALL_BYTES;
+	}
+
+	///////////////////////// private methods ///////////////////////////////////
+	/**
+	 * Provides a copy of the maze for the given key from memory or disk, counts a miss otherwise
+	 * @return the maze or null if it is not in the cache
+	 */
+	private synchronized Maze get(String key) {
+		Maze maze = mazes.get(key);
+		if (null != maze) {
+			hits++;
+			delivered = true;
+			return copy(maze);
+		}
+		File file = getFile(key);
+		if (null != file && file.exists()) {
+			maze = new MazeFileReader(file.getPath()).getMazeConfiguration();
+			if (null != maze.getRootnode()) { // reader prints errors and leaves fields unset
+				diskHits++;
+				delivered = true;
+				putInMemory(key, maze);
+				return copy(maze);
+			}
+		}
+		misses++;
+		delivered = false;
+		return null;
+	}
+
+	/**
+	 * Keeps a generated maze in memory and on disk
+	 */
+	private synchronized void put(String key, Order order, Maze maze) {
+		putInMemory(key, maze);
+		File file = getFile(key);
+		if (null == file)
+			return;
+		int skill = order.getSkillLevel();
+		int[] start = maze.getStartingPosition();
+		try {
+			// written to a temporary file first such that a partial file is never read
+			File tmp = new File(directory, key + ".tmp");
+			MazeBinaryWriter.store(tmp.getPath(), maze.getWidth(), maze.getHeight(),
+					order.isPerfect() ? 0 : Constants.SKILL_ROOMS[skill], Constants.SKILL_PARTCT[skill],
+					maze.getRootnode(), maze.getFloorplan(), maze.getMazedists().getAllDistanceValues(), start[0], start[1]);
+			if (!tmp.renameTo(file))
+				throw new IOException("MazeCache: can not rename " + tmp + " to " + file);
+		}
+		catch (IOException | IllegalArgumentException e) { // maze stays in memory
+			e.printStackTrace();
+		}
+	}
+
+	/**
+	 * Adds a maze to memory and evicts least recently used mazes to stay within the bound,
+	 * a maze that is larger than the bound is not kept
+	 */
+	private void putInMemory(String key, Maze maze) {
+		long footprint = estimateFootprint(maze);
+		if (footprint > maxBytes)
+			return;
+		Long old = footprints.put(key, footprint);
+		if (null != old)
+			bytes -= old;
+		mazes.put(key, maze);
+		bytes += footprint;
+		Iterator<Map.Entry<String, Maze>> it = mazes.entrySet().iterator();
+		while (bytes > maxBytes && it.hasNext()) {
+			String eldest = it.next().getKey();
+			it.remove();
+			bytes -= footprints.remove(eldest);
+			evictions++;
+		}
+	}
+
+	private File getFile(String key) {
+		return (null == directory) ? null : new File(directory, key + MazeBinaryWriter.EXTENSION);
+	}
+
+	/**
+	 * Copies the maze with a new BSP tree, floorplan and distances are shared
+	 */
+	private static Maze copy(Maze maze) {
+		int[] start = maze.getStartingPosition();
+		return new MazeContainer(maze.getWidth(), maze.getHeight(), maze.getFloorplan(), maze.getMazedists(),
+				copy(maze.getRootnode(), new WallTable()), start[0], start[1]);
+	}
+
+	/**
+	 * Copies a BSP tree, leaves of the copy create their walls when they are needed first
+	 * @param node is the root of the tree
+	 * @param table receives the walls of all leaves
+	 * @return the root of the copy
+	 */
+	private static BSPNode copy(BSPNode node, WallTable table) {
+		if (node.isIsleaf()) {
+			List<Wall> walls = ((BSPLeaf) node).getAllWalls();
+			int from = table.size();
+			for (Wall wall : walls) {
+				table.addWall(wall.getStartPositionX(), wall.getStartPositionY(), wall.getExtensionX(),
+						wall.getExtensionY(), wall.getDistance(), wall.getColor(), wall.isPartition(), wall.isSeen());
+			}
+			return new BSPLeaf(table, from, table.size());
+		}
+		BSPBranch branch = (BSPBranch) node;
+		BSPNode left = copy(branch.getLeftBranch(), table);
+		BSPNode right = copy(branch.getRightBranch(), table);
+		return new BSPBranch(branch.getX(), branch.getY(), branch.getDx(), branch.getDy(), left, right);
+	}
+
+	/**
+	 * An order that keeps the maze in the cache when it is delivered
+	 * and passes everything on to the original order
+	 */
+	private class CachingOrder implements Order {
+		private final Order order;
+		private final String key;
+
+		CachingOrder(Order order, String key) {
+			this.order = order;
+			this.key = key;
+		}
+
+		@Override
+		public int getSkillLevel() {
+			return order.getSkillLevel();
+		}
+		@Override
+		public Builder getBuilder() {
+			return order.getBuilder();
+		}
+		@Override
+		public boolean isPerfect() {
+			return order.isPerfect();
+		}
+		@Override
+		public int getSeed() {
+			return order.getSeed();
+		}
+		@Override
+		public void deliver(Maze mazeConfig) {
+			// the cached maze is never handed out, so its walls are never marked as seen
+			put(key, order, mazeConfig);
+			order.deliver(copy(mazeConfig));
+		}
+		@Override
+		public void updateProgress(int percentage) {
+			order.updateProgress(percentage);
+		}
+		@Override
+		public Progress getProgress() {
+			return order.getProgress();
+		}
+	}
+}
@@ -13,6 +13,7 @@ import generation.MazeContainer;
 import generation.Wall;
 
 import java.io.File;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -27,6 +28,13 @@ import org.w3c.dom.NodeList;
 /**
  * This class provides functionality to read the content of a Maze object from a file. 
  * File format is XML and produced with MazeFileWriter.
+ * XML files are read in a single pass with the MazeXmlStreamReader,
+ * reading them into a DOM document first is still available for comparison.
+ * Files that end with {@link MazeBinaryWriter#EXTENSION} are read in the binary format
+ * of the MazeBinaryWriter with the help of the MazeBinaryReader.
+ * Files that end with {@link MazeMappedFile#EXTENSION} are mapped into memory,
+ * floorplan, distances and BSP tree are then read-only views on the file.
+ * A reference of the form archive#key loads a single maze from a MazeArchive.
  * The class is a simple wrapper to make all fields of a Maze object accessible 
  * such that with the help of this class it is straightforward
  * to instantiate a MazeConfiguration object.
@@ -40,6 +48,7 @@ public class MazeFileReader {
 	private int height ;
 	private int rooms ;
 	private int[][] dists ;
+	private Distance mappedDists ; // distances for the mapped format, null otherwise
 	private int expected_partiters ;
 	private Floorplan cells ;
 	private int startx ;
@@ -52,7 +61,20 @@ public class MazeFileReader {
 	 * @param filename with data of a Maze object
 	 */
 	public MazeFileReader(String filename) {
-		load(filename) ;
+		this(filename, false) ;
+	}
+
+	/**
+	 * Constructor reads maze data from given file.
+	 * @param filename with data of a Maze object
+	 * @param useDOM tells to read an XML file into a DOM document first
+	 * instead of reading it with the MazeXmlStreamReader
+	 */
+	MazeFileReader(String filename, boolean useDOM) {
+		if (useDOM)
+			loadDOM(filename) ;
+		else
+			load(filename) ;
 	}
 
 	/**
@@ -64,7 +86,7 @@ public class MazeFileReader {
 		mazeConfig.setHeight(getHeight());
 		mazeConfig.setWidth(getWidth());
 		mazeConfig.setFloorplan(getCells());
-		Distance dists = new Distance(getDistances()) ;
+		Distance dists = (null != mappedDists) ? mappedDists : new Distance(getDistances()) ;
 		mazeConfig.setMazedists(dists);
 		mazeConfig.setRootnode(getRootNode());
 		mazeConfig.setStartingPosition(getStartX(), getStartY());
@@ -81,6 +103,8 @@ public class MazeFileReader {
 		return rooms ;
 	}
 	int[][] getDistances() {
+		if (null != mappedDists)
+			return mappedDists.getAllDistanceValues() ;
 		return dists ;
 	}
 	int getExpectedPartiters() {
@@ -104,6 +128,65 @@ public class MazeFileReader {
 	 * @param filename gives the input file
 	 */
 	private void load(String filename)
+	{
+		if (MazeBinaryWriter.isBinaryFile(filename)) {
+			loadBinary(filename);
+			return;
+		}
+		if (MazeMappedFile.isMappedFile(filename)) {
+			loadMapped(filename);
+			return;
+		}
+		if (MazeArchive.isReference(filename)) {
+			loadArchive(filename);
+			return;
+		}
+		try {
+			read(new MazeXmlStreamReader(filename));
+		}
+		catch (IOException e) { // same handling as for the DOM document
+			e.printStackTrace();
+		}
+	}
+
+	/**
+	 * Copies all attributes of maze object from the given reader for the XML format
+	 * @param reader holds the data read from file
+	 */
+	private void read(MazeXmlStreamReader reader) {
+		width = reader.getWidth();
+		height = reader.getHeight();
+		rooms = reader.getRooms();
+		dists = reader.getDistances();
+		expected_partiters = reader.getExpectedPartiters();
+		cells = reader.getCells();
+		startx = reader.getStartX();
+		starty = reader.getStartY();
+		root = reader.getRootNode();
+	}
+
+	/**
+	 * Copies all attributes of maze object from the given reader for the binary format
+	 * @param reader holds the data read from file
+	 */
+	private void read(MazeBinaryReader reader) {
+		width = reader.getWidth();
+		height = reader.getHeight();
+		rooms = reader.getRooms();
+		dists = reader.getDistances();
+		expected_partiters = reader.getExpectedPartiters();
+		cells = reader.getCells();
+		startx = reader.getStartX();
+		starty = reader.getStartY();
+		root = reader.getRootNode();
+	}
+
+	/**
+	 * Reads all attributes of maze object from the given XML file
+	 * by parsing it into a DOM document and looking up elements by name
+	 * @param filename gives the input file
+	 */
+	private void loadDOM(String filename)
 	{
 		try{
 
@@ -145,6 +228,60 @@ public class MazeFileReader {
 
 	}
 
+	/**
+	 * Reads all attributes of maze object from the given file in the binary format
+	 * @param filename gives the input file
+	 */
+	private void loadBinary(String filename) {
+		try {
+			read(new MazeBinaryReader(filename));
+		}
+		catch (IOException e) { // same handling as for the XML format
+			e.printStackTrace();
+		}
+	}
+
+	/**
+	 * Reads all attributes of maze object for the given reference to a maze in an archive
+	 * @param reference is of the form archive#key
+	 */
+	private void loadArchive(String reference) {
+		try (MazeArchive archive = new MazeArchive(MazeArchive.getArchiveName(reference), false)) {
+			MazeArchive.Entry entry = archive.find(MazeArchive.getKey(reference));
+			if (null == entry)
+				throw new IOException("MazeFileReader: no maze for " + reference);
+			if (entry.getFormat() == MazeArchive.Format.BINARY)
+				read(archive.readBinary(entry));
+			else
+				read(archive.readXml(entry));
+		}
+		catch (IOException e) { // same handling as for the XML format
+			e.printStackTrace();
+		}
+	}
+
+	/**
+	 * Maps the given file in the mapped format into memory
+	 * @param filename gives the input file
+	 */
+	private void loadMapped(String filename) {
+		try {
+			MazeMappedFile file = new MazeMappedFile(filename);
+			width = file.getWidth();
+			height = file.getHeight();
+			rooms = file.getRooms();
+			mappedDists = file.getDistance();
+			expected_partiters = file.getExpectedPartiters();
+			cells = file.getCells();
+			startx = file.getStartX();
+			starty = file.getStartY();
+			root = file.getRootNode();
+		}
+		catch (IOException e) { // same handling as for the XML format
+			e.printStackTrace();
+		}
+	}
+
 	// shared index number for nodes in the tree of BSPNodes, used as an additional return value for recursive calls
 	// the sequence of values is increasing, when switching from a left branch to a right branch in a preorder treetraversal 
 	// we need to keep track of the node number 
@@ -401,6 +538,7 @@ public class MazeFileReader {
 
 	}
 	private void compareDistances(int[][] mazedists) {
+		int[][] dists = getDistances() ;
 		int[][] dists2 = mazedists ;
 		for (int i = 0 ; i < width ; i++)
 		{
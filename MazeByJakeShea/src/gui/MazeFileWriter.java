@@ -7,11 +7,19 @@ package gui;
 import generation.BSPNode;
 import generation.Floorplan;
 
+import java.io.BufferedOutputStream;
 import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Paths;
 
 import javax.xml.parsers.DocumentBuilder;
 import javax.xml.parsers.DocumentBuilderFactory;
 import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
 import javax.xml.transform.Transformer;
 import javax.xml.transform.TransformerException;
 import javax.xml.transform.TransformerFactory;
@@ -27,13 +35,19 @@ import org.w3c.dom.Element;
  * not distributed across classes that carry that information, e.g. BSPNode.
  * All methods are static. 
  * The XML format is a straightforward enumeration of elements and not particularly sophisticated. 
+ * Elements are written one by one to a StAX stream, such that memory use does not depend on
+ * the size of the maze. Building a DOM document first is still available for comparison.
+ * Files that end with {@link MazeBinaryWriter#EXTENSION} are written in a compact binary format instead,
+ * files that end with {@link MazeMappedFile#EXTENSION} in a format that can be mapped into memory.
  * 
  *
  */
 public class MazeFileWriter {
 
+	private static final int BUFFER_SIZE = 1 << 16;
+
 	/**
-	 * Write maze content to a file
+	 * Write maze content to a file, the format is selected by the file name extension
 	 * @param filename gives the file name to store the data in
 	 * @param width is the width of the maze
 	 * @param height is the height of the maze
@@ -48,6 +62,51 @@ public class MazeFileWriter {
 	public static void store(String filename, int width, int height, int rooms, 
 			int expected_partiters, BSPNode root, Floorplan cells, 
 			int[][] dists, int startX, int startY)
+	{
+		if (MazeBinaryWriter.isBinaryFile(filename)) {
+			try {
+				MazeBinaryWriter.store(filename, width, height, rooms, expected_partiters, root, cells, dists, startX, startY);
+			} catch (IOException e) {
+				e.printStackTrace();
+			}
+			return;
+		}
+		if (MazeMappedFile.isMappedFile(filename)) {
+			try {
+				MazeMappedFile.store(filename, width, height, rooms, expected_partiters, root, cells, dists, startX, startY);
+			} catch (IOException e) {
+				e.printStackTrace();
+			}
+			return;
+		}
+		try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(Paths.get(filename)), BUFFER_SIZE)) {
+			XMLStreamWriter writer = XMLOutputFactory.newInstance().createXMLStreamWriter(out, "UTF-8");
+			writer.writeStartDocument("UTF-8", "1.0");
+			storeMaze(width, height, rooms, expected_partiters, root, cells, dists, startX, startY, writer);
+			writer.writeEndDocument();
+			writer.close(); // does not close the output stream
+		} catch (XMLStreamException | IOException e) {
+			e.printStackTrace();
+		}
+	}
+
+	/**
+	 * Write maze content to a file in the XML format by building a DOM document first
+	 * and transforming it into the file. Parameters are the same as for {@link #store}.
+	 * @param filename gives the file name to store the data in
+	 * @param width is the width of the maze
+	 * @param height is the height of the maze
+	 * @param rooms is the number of rooms
+	 * @param expected_partiters is the expected number of partition iterations
+	 * @param root is the root node of the bsp tree
+	 * @param cells is the floor plan for this maze
+	 * @param dists is the distances to the exit
+	 * @param startX is the x coordinate of the starting position
+	 * @param startY is the y coordinate of the starting position
+	 */
+	static void storeDOM(String filename, int width, int height, int rooms, 
+			int expected_partiters, BSPNode root, Floorplan cells, 
+			int[][] dists, int startX, int startY)
 	{
 		 try {
 			 	// get a document 
@@ -128,6 +187,89 @@ public class MazeFileWriter {
 		
 	}
 	
+	/**
+	 * Write given objects to the given XML stream, same elements as for
+	 * {@link #storeMaze(int, int, int, int, BSPNode, Floorplan, int[][], int, int, Document)}
+	 * @param width the width of the maze
+	 * @param height the height of the maze
+	 * @param rooms the number of rooms
+	 * @param expected_partiters the expected number of partition iterations
+	 * @param root the root not of the bsp tree
+	 * @param cells the floorplan
+	 * @param dists the distances to the exit position
+	 * @param startX the x coordinate of the starting position
+	 * @param startY the y coordinate of the starting position
+	 * @param writer the stream to write the information to
+	 * @throws XMLStreamException if writing to the stream fails
+	 */
+	static void storeMaze(int width, int height, int rooms,
+			int expected_partiters, BSPNode root, Floorplan cells, int[][] dists,
+			int startX, int startY, XMLStreamWriter writer) throws XMLStreamException {
+		writer.writeStartElement("Maze");
+		
+		// store fields of Maze class
+		MazeFileWriter.writeElement(writer, "sizeX", width) ;
+		MazeFileWriter.writeElement(writer, "sizeY", height) ;
+		MazeFileWriter.writeElement(writer, "roomNum", rooms) ;
+		MazeFileWriter.writeElement(writer, "partiters", expected_partiters) ;
+		// cells
+		int number = 0 ;		
+		for ( int x = 0; x != width; x++) {
+			for ( int y = 0; y != height; y++) {
+				MazeFileWriter.writeElement(writer, "cell_" + number, cells.getValueOfCell(x, y)) ;
+				number++;
+			}
+		}
+		// distances
+		number = 0 ;		
+		for ( int x = 0; x != width; x++) {
+			for ( int y = 0; y != height; y++) {
+				MazeFileWriter.writeElement(writer, "dists_" + number, dists[x][y]) ;
+				number++;
+			}
+		}
+		// start position
+		MazeFileWriter.writeElement(writer, "startX", startX) ;
+		MazeFileWriter.writeElement(writer, "startY", startY) ;
+		// BSPnodes
+		if (null != root)
+		{
+			root.store(writer, 0);
+		}
+		else
+		{
+			System.out.println("MazeBuilderWriter.store: root node of BSP tree is null");
+		}
+		writer.writeEndElement();
+	}
+
+	/**
+	 * Write an element with the given name and the given value as its content to the given stream.
+	 * @param writer stream to write data to
+	 * @param name specifies the XML element to write to
+	 * @param value is the content for the XML element
+	 * @throws XMLStreamException if writing to the stream fails
+	 */
+	public static void writeElement(XMLStreamWriter writer, String name, int value) throws XMLStreamException
+	{
+		writer.writeStartElement(name);
+		writer.writeCharacters(Integer.toString(value));
+		writer.writeEndElement();
+	}
+	/**
+	 * Write an element with the given name and the given value as its content to the given stream.
+	 * @param writer stream to write data to
+	 * @param name specifies the XML element to write to
+	 * @param value is the content for the XML element
+	 * @throws XMLStreamException if writing to the stream fails
+	 */
+	public static void writeElement(XMLStreamWriter writer, String name, boolean value) throws XMLStreamException
+	{
+		writer.writeStartElement(name);
+		writer.writeCharacters(Boolean.toString(value));
+		writer.writeEndElement();
+	}
+
 	/**
 	 * Append an new element to mazeXML that carries the given name has a child node with the given value.
 	 * @param doc document to add data to
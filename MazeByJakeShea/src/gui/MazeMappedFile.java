@@ -0,0 +1,194 @@
+package gui;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+import generation.BSPNode;
+import generation.Distance;
+import generation.Floorplan;
+import generation.MappedBSPTree;
+import generation.MappedCellStorage;
+import generation.MappedDistance;
+
+/**
+ * Stores a maze in a binary format with a fixed layout and opens such a file
+ * by mapping it into memory. The floorplan, the distances and the BSP tree
+ * of an opened file are read-only views on the mapped file, see
+ * MappedCellStorage, MappedDistance and MappedBSPTree, such that opening
+ * a file does not depend on the size of the maze. As the file is mapped
+ * read-only, processes that open the same file share its pages.
+ * The MazeFileWriter and MazeFileReader use this format for files that end with {@link #EXTENSION}.
+ *
+ * The file starts with a header of 16 integers: magic number, format version,
+ * width, height, number of rooms, expected partition iterations, starting position,
+ * number of BSP nodes, number of walls, offsets of the sections for cells, distances,
+ * BSP nodes and walls, and the size of the file.
+ * The sections follow in this order, see the view classes for their layouts.
+ * All integers are 4 bytes, big endian.
+ *
+ * In contrast to the MazeBinaryWriter format, values are not compressed, so files are larger.
+ *
+ * @author Jake Shea
+ */
+public class MazeMappedFile {
+	/**
+	 * File name extension for the mapped format
+	 */
+	public static final String EXTENSION = ".mazemap";
+	static final int MAGIC = 0x4D5A4D50; // "MZMP"
+	static final int VERSION = 1;
+	static final int HEADER_SIZE = 64;
+
+	// fields of maze configuration object
+	private final int width;
+	private final int height;
+	private final int rooms;
+	private final int expected_partiters;
+	private final Floorplan cells;
+	private final Distance dists;
+	private final int startx;
+	private final int starty;
+	private final BSPNode root;
+
+	/**
+	 * Constructor maps the given file into memory and provides views on its content
+	 * @param filename with data of a Maze object in the mapped format
+	 * @throws IOException if the file can not be read, is not in the mapped format,
+	 * has an unsupported version or is incomplete
+	 */
+	public MazeMappedFile(String filename) throws IOException {
+		MappedByteBuffer buffer;
+		try (FileChannel channel = FileChannel.open(Paths.get(filename), StandardOpenOption.READ)) {
+			if (channel.size() < HEADER_SIZE)
+				throw new IOException("MazeMappedFile: " + filename + " is not a mapped maze file");
+			// the mapping stays valid after the channel is closed
+			buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+		}
+		if (buffer.getInt(0) != MAGIC)
+			throw new IOException("MazeMappedFile: " + filename + " is not a mapped maze file");
+		int version = buffer.getInt(4);
+		if (version != VERSION)
+			throw new IOException("MazeMappedFile: unsupported version " + version + " of " + filename);
+		width = buffer.getInt(8);
+		height = buffer.getInt(12);
+		rooms = buffer.getInt(16);
+		expected_partiters = buffer.getInt(20);
+		startx = buffer.getInt(24);
+		starty = buffer.getInt(28);
+		int nodeCount = buffer.getInt(32);
+		int wallCount = buffer.getInt(36);
+		int cellsOffset = buffer.getInt(40);
+		int distsOffset = buffer.getInt(44);
+		int nodesOffset = buffer.getInt(48);
+		int wallsOffset = buffer.getInt(52);
+		int size = buffer.getInt(56);
+		if (width <= 0 || height <= 0)
+			throw new IOException("MazeMappedFile: invalid size " + width + " x " + height + " in " + filename);
+		if (size != buffer.capacity() || nodeCount <= 0
+				|| cellsOffset < HEADER_SIZE
+				|| distsOffset < cellsOffset + MappedCellStorage.getSize(width, height)
+				|| nodesOffset < distsOffset + MappedDistance.getSize(width, height)
+				|| wallsOffset < nodesOffset + (long) nodeCount * MappedBSPTree.NODE_SIZE
+				|| size < wallsOffset + (long) wallCount * MappedBSPTree.WALL_SIZE)
+			throw new IOException("MazeMappedFile: unexpected end of " + filename);
+		cells = new Floorplan(new MappedCellStorage(buffer.position(cellsOffset), width, height));
+		dists = new MappedDistance(buffer.position(distsOffset), width, height);
+		root = MappedBSPTree.getRoot(buffer.duplicate().position(nodesOffset), buffer.duplicate().position(wallsOffset));
+	}
+
+	/**
+	 * Tells if the given file is in the mapped format according to its name
+	 * @param filename is the name of the file
+	 * @return true if the name ends with the extension for the mapped format
+	 */
+	public static boolean isMappedFile(String filename) {
+		return filename.endsWith(EXTENSION);
+	}
+
+	/**
+	 * Store maze data in the mapped format in the given file.
+	 * Parameters are the same as for {@link MazeFileWriter#store}.
+	 * @param filename is the name of the file, an existing file is overwritten
+	 * @param width is the width of the maze
+	 * @param height is the height of the maze
+	 * @param rooms is the number of rooms
+	 * @param expected_partiters is the expected number of partition iterations
+	 * @param root is the root node of the bsp tree
+	 * @param cells is the floor plan for this maze
+	 * @param dists is the distances to the exit
+	 * @param startX is the x coordinate of the starting position
+	 * @param startY is the y coordinate of the starting position
+	 * @throws IOException if the file can not be written
+	 * @throws IllegalArgumentException if a cell uses bits that the format does not support
+	 */
+	public static void store(String filename, int width, int height, int rooms,
+			int expected_partiters, BSPNode root, Floorplan cells,
+			int[][] dists, int startX, int startY) throws IOException {
+		int nodeCount = MappedBSPTree.countNodes(root);
+		int wallCount = MappedBSPTree.countWalls(root);
+		int cellsOffset = HEADER_SIZE;
+		int distsOffset = (cellsOffset + MappedCellStorage.getSize(width, height) + 3) & ~3; // aligned for integers
+		int nodesOffset = distsOffset + MappedDistance.getSize(width, height);
+		int wallsOffset = nodesOffset + nodeCount * MappedBSPTree.NODE_SIZE;
+		int size = wallsOffset + wallCount * MappedBSPTree.WALL_SIZE;
+
+		ByteBuffer buffer = ByteBuffer.allocate(size);
+		buffer.putInt(MAGIC);
+		buffer.putInt(VERSION);
+		buffer.putInt(width);
+		buffer.putInt(height);
+		buffer.putInt(rooms);
+		buffer.putInt(expected_partiters);
+		buffer.putInt(startX);
+		buffer.putInt(startY);
+		buffer.putInt(nodeCount);
+		buffer.putInt(wallCount);
+		buffer.putInt(cellsOffset);
+		buffer.putInt(distsOffset);
+		buffer.putInt(nodesOffset);
+		buffer.putInt(wallsOffset);
+		buffer.putInt(size);
+		MappedCellStorage.write(cells, width, height, buffer.position(cellsOffset));
+		MappedDistance.write(dists, buffer.position(distsOffset));
+		MappedBSPTree.write(root, buffer.position(nodesOffset), buffer.duplicate().position(wallsOffset));
+		buffer.clear();
+		try (FileChannel channel = FileChannel.open(Paths.get(filename), StandardOpenOption.WRITE,
+				StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING)) {
+			while (buffer.hasRemaining())
+				channel.write(buffer);
+		}
+	}
+
+	/////////////////// set of straightforward get methods //////////////
+	int getWidth() {
+		return width;
+	}
+	int getHeight() {
+		return height;
+	}
+	int getRooms() {
+		return rooms;
+	}
+	Distance getDistance() {
+		return dists;
+	}
+	int getExpectedPartiters() {
+		return expected_partiters;
+	}
+	Floorplan getCells() {
+		return cells;
+	}
+	int getStartX() {
+		return startx;
+	}
+	int getStartY() {
+		return starty;
+	}
+	BSPNode getRootNode() {
+		return root;
+	}
+}
@@ -1,50 +1,40 @@
 package gui;
 
-import java.awt.Color;
-import java.awt.Font;
 import java.awt.Graphics;
-import java.awt.Graphics2D;
-import java.awt.Image;
 import java.awt.Panel;
-import java.awt.RenderingHints;
-import java.awt.font.GlyphVector;
-import java.awt.geom.Rectangle2D;
 
 /**
  * Add functionality for double buffering to an AWT Panel class.
  * Used for drawing a maze.
+ * Drawing goes to the image of an ImagePanel, which does not need
+ * the panel to be displayable, the panel shows the image on the screen.
  * 
  * @author Peter Kemper
  *
  */
 public class MazePanel extends Panel implements P5PanelF21 {
 	private static final long serialVersionUID = 2787329533730973905L;
+	/**
+	 * System property that selects the framebuffer rasterizer for walls if set to true,
+	 * see {@link P5RenderingHints#KEY_RASTERIZER}
+	 */
+	public static final String FRAMEBUFFER_PROPERTY = "gui.framebuffer";
 	/* Panel operates a double buffer see
 	 * http://www.codeproject.com/Articles/2136/Double-buffer-in-standard-Java-AWT
 	 * for details
 	 */
-	// bufferImage can only be initialized if the container is displayable,
-	// uses a delayed initialization and relies on client class to call initBufferImage()
-	// before first use
-	private Image bufferImage;  
-	private Graphics2D graphics; // obtained from bufferImage, 
-	// graphics is stored to allow clients to draw on the same graphics object repeatedly
-	// has benefits if color settings should be remembered for subsequent drawing operations
-	
-	// Font object for the compass rose
-	private final Font markerFont;
-	// Track current color
-	private int currentColor;
+	// all drawing goes to the image of the canvas, 
+	// the paint method puts the image on the screen
+	private final ImagePanel canvas;
 	
 	/**
 	 * Constructor. Object is not focusable.
 	 */
 	public MazePanel() {
 		setFocusable(false);
-		bufferImage = null; // bufferImage initialized separately and later
-		graphics = null;	// same for graphics
-		
-		markerFont = Font.decode(("Serif-PLAIN-16"));
+		canvas = new ImagePanel(Constants.VIEW_WIDTH, Constants.VIEW_HEIGHT);
+		if (Boolean.getBoolean(FRAMEBUFFER_PROPERTY))
+			canvas.setRenderingHint(P5RenderingHints.KEY_RASTERIZER, P5RenderingHints.VALUE_RASTERIZER_FRAMEBUFFER);
 	}
 	
 	@Override
@@ -57,7 +47,18 @@ public class MazePanel extends Panel implements P5PanelF21 {
 	 * Warning: do not override getGraphics() or drawing might fail. 
 	 */
 	public void update() {
-		paint(getGraphics());
+		present(getGraphics());
+	}
+	
+	/**
+	 * Paints the buffer image on the given graphics object and
+	 * ends the frame for the FrameMetrics with the time it took.
+	 * @param g is the graphics object to paint on
+	 */
+	private void present(Graphics g) {
+		final long start = System.nanoTime();
+		paint(g);
+		FrameMetrics.getInstance().endFrame(System.nanoTime() - start);
 	}
 	
 	/**
@@ -72,7 +73,7 @@ public class MazePanel extends Panel implements P5PanelF21 {
 			System.out.println("MazePanel.paint: no graphics object, skipping drawImage operation");
 		}
 		else {
-			g.drawImage(bufferImage,0,0,null);	
+			g.drawImage(canvas.getImage(),0,0,null);	
 		}
 	}
 
@@ -86,35 +87,10 @@ public class MazePanel extends Panel implements P5PanelF21 {
 	 * To make the drawing visible on screen, one needs to trigger 
 	 * a call of the paint method, which happens 
 	 * when calling the update method. 
-	 * @return graphics object to draw on, null if impossible to obtain image
+	 * @return graphics object to draw on
 	 */
 	public Graphics getBufferGraphics() {
-		// if necessary instantiate and store a graphics object for later use
-		if (null == graphics) { 
-			if (null == bufferImage) {
-				bufferImage = createImage(Constants.VIEW_WIDTH, Constants.VIEW_HEIGHT);
-				if (null == bufferImage)
-				{
-					System.out.println("Error: creation of buffered image failed, presumedly container not displayable");
-					return null; // still no buffer image, give up
-				}		
-			}
-			graphics = (Graphics2D) bufferImage.getGraphics();
-			if (null == graphics) {
-				System.out.println("Error: creation of graphics for buffered image failed, presumedly container not displayable");
-			}
-			else {
-				// System.out.println("MazePanel: Using Rendering Hint");
-				// For drawing in FirstPersonDrawer, setting rendering hint
-				// became necessary when lines of polygons 
-				// that were not horizontal or vertical looked ragged
-				graphics.setRenderingHint(RenderingHints.KEY_ANTIALIASING,
-						RenderingHints.VALUE_ANTIALIAS_ON);
-				graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION,
-						RenderingHints.VALUE_INTERPOLATION_BILINEAR);
-			}
-		}
-		return graphics;
+		return canvas.getGraphics();
 	}
 
 	///////////////////////////////////////////////////////////////////////////
@@ -126,7 +102,7 @@ public class MazePanel extends Panel implements P5PanelF21 {
 	 */
 	@Override
 	public void commit() {
-		paint(getBufferGraphics());
+		present(getBufferGraphics());
 	}
 
 	/**
@@ -137,10 +113,7 @@ public class MazePanel extends Panel implements P5PanelF21 {
 	 */
 	@Override
 	public boolean isOperational() {
-		if (getBufferGraphics() == null)
-			return false;
-		else
-			return true;
+		return canvas.isOperational();
 	}
 
 	/**
@@ -151,9 +124,7 @@ public class MazePanel extends Panel implements P5PanelF21 {
 	 */
 	@Override
 	public void setColor(int rgb) {
-		Color color = new Color(rgb);
-		currentColor = rgb;
-		graphics.setColor(color);
+		canvas.setColor(rgb);
 	}
 
 	/**
@@ -162,8 +133,7 @@ public class MazePanel extends Panel implements P5PanelF21 {
      */
 	@Override
 	public int getColor() {
-		// TODO Auto-generated method stub
-		return currentColor;
+		return canvas.getColor();
 	}
 
 	/**
@@ -176,11 +146,7 @@ public class MazePanel extends Panel implements P5PanelF21 {
 	 */
 	@Override
 	public void addBackground(float percentToExit) {
-		graphics.setColor(getBackgroundColor(percentToExit, true));
-		graphics.fillRect(0, 0, Constants.VIEW_WIDTH, Constants.VIEW_HEIGHT/2);
-		
-		graphics.setColor(getBackgroundColor(percentToExit, false));
-		graphics.fillRect(0, Constants.VIEW_HEIGHT/2, Constants.VIEW_WIDTH, Constants.VIEW_HEIGHT/2);
+		canvas.addBackground(percentToExit);
 	}
 
 	/**
@@ -195,7 +161,7 @@ public class MazePanel extends Panel implements P5PanelF21 {
      */
 	@Override
 	public void addFilledRectangle(int x, int y, int width, int height) {
-		graphics.fillRect(x, y, width, height);
+		canvas.addFilledRectangle(x, y, width, height);
 	}
 	
 	/**
@@ -213,7 +179,23 @@ public class MazePanel extends Panel implements P5PanelF21 {
      */
 	@Override
 	public void addFilledPolygon(int[] xPoints, int[] yPoints, int nPoints) {
-		graphics.fillPolygon(xPoints, yPoints, nPoints);
+		canvas.addFilledPolygon(xPoints, yPoints, nPoints);
+	}
+
+	/**
+	 * Adds a filled trapezoid with two vertical sides, the shape of a wall
+	 * in the first person view.
+	 * @param xLeft is the x-coordinate of the left side
+	 * @param xRight is the x-coordinate of the right side, {@code xLeft < xRight}
+	 * @param topLeft is the y-coordinate of the top of the left side
+	 * @param bottomLeft is the y-coordinate of the bottom of the left side
+	 * @param topRight is the y-coordinate of the top of the right side
+	 * @param bottomRight is the y-coordinate of the bottom of the right side
+	 */
+	@Override
+	public void addFilledTrapezoid(int xLeft, int xRight, int topLeft, int bottomLeft, 
+			int topRight, int bottomRight) {
+		canvas.addFilledTrapezoid(xLeft, xRight, topLeft, bottomLeft, topRight, bottomRight);
 	}
 
 	/**
@@ -232,7 +214,7 @@ public class MazePanel extends Panel implements P5PanelF21 {
      */
 	@Override
 	public void addPolygon(int[] xPoints, int[] yPoints, int nPoints) {
-		graphics.drawPolygon(xPoints, yPoints, nPoints);
+		canvas.addPolygon(xPoints, yPoints, nPoints);
 	}
 
 	/**
@@ -247,7 +229,7 @@ public class MazePanel extends Panel implements P5PanelF21 {
      */
 	@Override
 	public void addLine(int startX, int startY, int endX, int endY) {
-		graphics.drawLine(startX, startY, endX, endY);
+		canvas.addLine(startX, startY, endX, endY);
 	}
 
 	/**
@@ -263,7 +245,7 @@ public class MazePanel extends Panel implements P5PanelF21 {
      */
 	@Override
 	public void addFilledOval(int x, int y, int width, int height) {
-		graphics.fillOval(x, y, width, height);
+		canvas.addFilledOval(x, y, width, height);
 	}
 
 	/**
@@ -292,7 +274,7 @@ public class MazePanel extends Panel implements P5PanelF21 {
      */
 	@Override
 	public void addArc(int x, int y, int width, int height, int startAngle, int arcAngle) {
-		graphics.drawArc(x, y, width, height, startAngle, arcAngle);
+		canvas.addArc(x, y, width, height, startAngle, arcAngle);
 	}
 
 	/**
@@ -303,14 +285,7 @@ public class MazePanel extends Panel implements P5PanelF21 {
      */
 	@Override
 	public void addMarker(float x, float y, String str) {
-		GlyphVector gv = markerFont.createGlyphVector(graphics.getFontRenderContext(), str);
-        Rectangle2D rect = gv.getVisualBounds();
-        // need to update x, y by half of rectangle width, height
-        // to serve as x, y coordinates for drawing a GlyphVector
-        x -= rect.getWidth() / 2;
-        y += rect.getHeight() / 2;
-        
-        graphics.drawGlyphVector(gv, x, y);
+		canvas.addMarker(x, y, str);
 	}
 
 	/**
@@ -325,166 +300,6 @@ public class MazePanel extends Panel implements P5PanelF21 {
      */
 	@Override
 	public void setRenderingHint(P5RenderingHints hintKey, P5RenderingHints hintValue) {
-		switch(hintKey)
-		{
-			case KEY_RENDERING:
-			{
-				setHintForRendering(hintValue);
-				break;
-			}
-			case KEY_ANTIALIASING:
-			{
-				setHintForAliasing(hintValue);
-				break;
-			}
-			case KEY_INTERPOLATION:
-			{
-				setHintForInterpolation(hintValue);
-				break;
-			}
-			default:
-				break;
-		}
-	}
-
-	///////////////////////////////////////////////////////////////////////////
-	/////////////////////////////PRIVATE METHODS///////////////////////////////
-	///////////////////////////////////////////////////////////////////////////
-	
-	/**
-	 * Determine the background color for the top and bottom
-	 * rectangle as a blend between starting color settings
-	 * of yellowWM and lightGray towards goldWM and greenWM as final
-	 * color settings close to the exit
-	 * @param percentToExit describes how far it is to the exit as a percentage value
-	 * @param top is true for the top rectangle, false for the bottom
-	 * @return the color to use for the background rectangle
-	 */
-	private Color getBackgroundColor(float percentToExit, boolean top)
-	{
-		// Uses wmGreen, wmGold, and wmYellow to blend into the background as originally given by FirstPersonView
-		return top? blend(Color.decode("#FFFF99"), Color.decode("#916f41"), percentToExit) : 
-			blend(Color.lightGray, Color.decode("#115740"), percentToExit);
-	}
-	
-	/**
-	 * Calculates the weighted average of the two given colors.
-	 * The weight for the first color is expected to be between
-	 * 0 and 1. The weight for the other color is then 1-weight0.
-	 * The result is the weighted average of the red, green, and
-	 * blue components of the colors. The resulting alpha value
-	 * for transparency is the max of the alpha values of both colors.
-	 * @param fstColor is the first color
-	 * @param sndColor is the second color
-	 * @param weightFstColor is the weight of fstColor, {@code 0.0 <= weightFstColor <= 1.0}
-	 * @return blend of both colors as weighted average of their rgb values
-	 */
-	private Color blend(Color fstColor, Color sndColor, double weightFstColor) {
-		if (weightFstColor < 0.1)
-			return sndColor;
-		if (weightFstColor > 0.95)
-			return fstColor;
-	    double r = weightFstColor * fstColor.getRed() + (1-weightFstColor) * sndColor.getRed();
-	    double g = weightFstColor * fstColor.getGreen() + (1-weightFstColor) * sndColor.getGreen();
-	    double b = weightFstColor * fstColor.getBlue() + (1-weightFstColor) * sndColor.getBlue();
-	    double a = Math.max(fstColor.getAlpha(), sndColor.getAlpha());
-
-	    return new Color((int) r, (int) g, (int) b, (int) a);
-	}
-	
-	/**
-	 * A private method for setting up the graphic's
-	 * rendering hints.
-	 * 
-	 * @param hint Hint value to be set
-	 */
-	private void setHintForRendering(P5RenderingHints hint)
-	{
-		// Switches through possible values
-		switch(hint)
-		{
-			// Checks each possible value
-			case VALUE_RENDER_QUALITY:
-			{
-				graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
-				break;
-			}
-			case VALUE_ANTIALIAS_ON:
-			{
-				graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_ANTIALIAS_ON);
-				break;
-			}
-			case VALUE_INTERPOLATION_BILINEAR:
-			{
-				graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
-				break;
-			}
-			default:
-				break;
-		}
-	}
-	
-	/**
-	 * A private method for setting up the graphic's
-	 * rendering hints.
-	 * 
-	 * @param hint Hint value to be set
-	 */
-	private void setHintForAliasing(P5RenderingHints hint)
-	{
-		// Switches through possible values
-		switch(hint)
-		{
-			// Checks each possible value
-			case VALUE_RENDER_QUALITY:
-			{
-				graphics.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_RENDER_QUALITY);
-				break;
-			}
-			case VALUE_ANTIALIAS_ON:
-			{
-				graphics.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
-				break;
-			}
-			case VALUE_INTERPOLATION_BILINEAR:
-			{
-				graphics.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
-				break;
-			}
-			default:
-				break;
-		}
-	}
-	
-	/**
-	 * A private method for setting up the graphic's
-	 * rendering hints.
-	 * 
-	 * @param hint Hint value to be set
-	 */
-	private void setHintForInterpolation(P5RenderingHints hint)
-	{
-		// Switches through possible values
-		switch(hint)
-		{
-			// Checks each possible value
-			case VALUE_RENDER_QUALITY:
-			{
-				graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_RENDER_QUALITY);
-				break;
-			}
-			case VALUE_ANTIALIAS_ON:
-			{
-				graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_ANTIALIAS_ON);
-				break;
-			}
-			case VALUE_INTERPOLATION_BILINEAR:
-			{
-				graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
-				break;
-			}
-			default:
-				break;
-		}
+		canvas.setRenderingHint(hintKey, hintValue);
 	}
 }
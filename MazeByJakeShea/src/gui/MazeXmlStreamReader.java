@@ -0,0 +1,379 @@
+package gui;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+import generation.BSPBranch;
+import generation.BSPLeaf;
+import generation.BSPNode;
+import generation.Floorplan;
+import generation.WallTable;
+
+/**
+ * Reads a maze from a file in the XML format of the MazeFileWriter
+ * in a single forward pass with a StAX stream reader.
+ * In contrast to parsing the file into a DOM document and looking up
+ * each element by its name, memory use does not depend on the size of the file
+ * beyond the floorplan, distances and BSP tree that are read.
+ *
+ * Elements are processed in the order of the file:
+ * cells and distances go straight into their matrices as their index is part of the name,
+ * BSP nodes come in preorder such that a node is complete when the next one starts.
+ * Branches wait on a stack for their children, leaves collect the fields of their walls.
+ * Walls of complete leaves go to a WallTable, such that Wall objects are only created
+ * for leaves that the first person view reaches.
+ * Unknown elements are ignored as in the DOM based reading of the MazeFileReader.
+ *
+ * @author Jake Shea
+ */
+public class MazeXmlStreamReader {
+
+	private static final int BUFFER_SIZE = 1 << 16;
+
+	// fields of a wall in its array in NodeRecord.walls, with the mask of fields read so far at MASK
+	private static final int X = 0;
+	private static final int Y = 1;
+	private static final int DX = 2;
+	private static final int DY = 3;
+	private static final int DIST = 4;
+	private static final int COL = 5;
+	private static final int SEEN = 6;
+	private static final int PARTITION = 7;
+	private static final int MASK = 8;
+	private static final int ALL_FIELDS = (1 << MASK) - 1;
+
+	/**
+	 * Fields of a BSP node as far as they have been read
+	 */
+	private static class NodeRecord {
+		final int number;
+		boolean leaf;
+		int x, y, dx, dy;
+		BSPNode left; // first child of a branch, null till complete
+		int numSeg = -1; // number of walls of a leaf, -1 till read
+		final List<int[]> walls = new ArrayList<>();
+
+		NodeRecord(int number) {
+			this.number = number;
+		}
+	}
+
+	private final String filename;
+
+	// fields of maze configuration object
+	private int width = -1;
+	private int height = -1;
+	private int rooms;
+	private int[][] dists;
+	private int expected_partiters;
+	private int[][] cellValue; // cells till the floorplan is complete
+	private Floorplan cells;
+	private int startx;
+	private int starty;
+	private BSPNode root;
+
+	private int cellCount;
+	private int distCount;
+	// branches that wait for their children, innermost branch on top
+	private final ArrayDeque<NodeRecord> branches = new ArrayDeque<>();
+	private final WallTable table = new WallTable(); // walls of all leaves
+	private NodeRecord current; // node whose fields are read, null before the first node
+
+	/**
+	 * Constructor reads maze data from the given file.
+	 * @param filename with data of a Maze object in the XML format of the MazeFileWriter
+	 * @throws IOException if the file can not be read, is not well-formed or lacks data for the maze
+	 */
+	public MazeXmlStreamReader(String filename) throws IOException {
+		this.filename = filename;
+		try (InputStream in = new BufferedInputStream(Files.newInputStream(Paths.get(filename)), BUFFER_SIZE)) {
+			read(in);
+		}
+	}
+
+	/**
+	 * Constructor reads maze data from the given stream, as for a maze in a MazeArchive.
+	 * @param in provides data in the XML format of the MazeFileWriter, it stays open
+	 * @param name describes the source of the data for error messages
+	 * @throws IOException if the data can not be read, is not well-formed or lacks data for the maze
+	 */
+	MazeXmlStreamReader(InputStream in, String name) throws IOException {
+		this.filename = name;
+		read(in);
+	}
+
+	/**
+	 * Reads the given stream with a StAX stream reader that does not resolve external entities
+	 */
+	private void read(InputStream in) throws IOException {
+		XMLInputFactory factory = XMLInputFactory.newInstance();
+		factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+		factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+		try {
+			XMLStreamReader reader = factory.createXMLStreamReader(in);
+			try {
+				read(reader);
+			}
+			finally {
+				reader.close();
+			}
+		}
+		catch (XMLStreamException | NumberFormatException e) {
+			throw new IOException("MazeXmlStreamReader: can not read " + filename, e);
+		}
+	}
+
+	/////////////////// set of straightforward get methods //////////////
+	int getWidth() {
+		return width;
+	}
+	int getHeight() {
+		return height;
+	}
+	int getRooms() {
+		return rooms;
+	}
+	int[][] getDistances() {
+		return dists;
+	}
+	int getExpectedPartiters() {
+		return expected_partiters;
+	}
+	Floorplan getCells() {
+		return cells;
+	}
+	int getStartX() {
+		return startx;
+	}
+	int getStartY() {
+		return starty;
+	}
+	BSPNode getRootNode() {
+		return root;
+	}
+
+	/**
+	 * Reads all elements below the Maze element
+	 */
+	private void read(XMLStreamReader reader) throws XMLStreamException, IOException {
+		while (reader.hasNext()) {
+			if (reader.next() != XMLStreamConstants.START_ELEMENT || "Maze".equals(reader.getLocalName()))
+				continue;
+			String name = reader.getLocalName();
+			// getElementText moves the reader to the end of the element
+			readElement(name, reader.getElementText().trim());
+		}
+		if (null != current)
+			completeNode();
+		if (width <= 0 || height <= 0)
+			throw new IOException("MazeXmlStreamReader: no valid size in " + filename);
+		if (cellCount != width * height || distCount != width * height)
+			throw new IOException("MazeXmlStreamReader: incomplete cells or distances in " + filename);
+		if (null == root || !branches.isEmpty())
+			throw new IOException("MazeXmlStreamReader: incomplete BSP tree in " + filename);
+		cells = new Floorplan(cellValue);
+		cellValue = null;
+	}
+
+	/**
+	 * Processes a single element
+	 * @param name is the name of the element with its indices, e.g. cell_12 or xSeg_3_0
+	 * @param text is the content of the element
+	 */
+	private void readElement(String name, String text) throws IOException {
+		int sep = name.indexOf('_');
+		String key = (sep < 0) ? name : name.substring(0, sep);
+		switch (key) {
+		case "sizeX":
+			width = Integer.parseInt(text);
+			return;
+		case "sizeY":
+			height = Integer.parseInt(text);
+			return;
+		case "roomNum":
+			rooms = Integer.parseInt(text);
+			return;
+		case "partiters":
+			expected_partiters = Integer.parseInt(text);
+			return;
+		case "startX":
+			startx = Integer.parseInt(text);
+			return;
+		case "startY":
+			starty = Integer.parseInt(text);
+			return;
+		case "cell":
+			if (null == cellValue)
+				cellValue = new int[checkWidth()][height];
+			setMatrixValue(cellValue, parseIndex(name, sep), Integer.parseInt(text));
+			cellCount++;
+			return;
+		case "dists":
+			if (null == dists)
+				dists = new int[checkWidth()][height];
+			setMatrixValue(dists, parseIndex(name, sep), Integer.parseInt(text));
+			distCount++;
+			return;
+		default:
+			break;
+		}
+		if (key.endsWith("BSPNode") || key.equals("numSeg"))
+			readNodeElement(key, getNode(name, sep), text);
+		else if (key.endsWith("Seg"))
+			readWallElement(key, name, sep, text);
+		// other elements are ignored
+	}
+
+	/**
+	 * Processes an element with a field of a BSP node
+	 */
+	private void readNodeElement(String key, NodeRecord node, String text) throws IOException {
+		switch (key) {
+		case "isleafBSPNode":
+			node.leaf = Boolean.parseBoolean(text);
+			break;
+		case "xBSPNode":
+			node.x = Integer.parseInt(text);
+			break;
+		case "yBSPNode":
+			node.y = Integer.parseInt(text);
+			break;
+		case "dxBSPNode":
+			node.dx = Integer.parseInt(text);
+			break;
+		case "dyBSPNode":
+			node.dy = Integer.parseInt(text);
+			break;
+		case "numSeg":
+			node.numSeg = Integer.parseInt(text);
+			if (node.numSeg <= 0)
+				throw new IOException("MazeXmlStreamReader: leaf " + node.number + " without walls in " + filename);
+			break;
+		default:
+			// bounds are computed from walls and children as in the MazeFileReader
+			break;
+		}
+	}
+
+	/**
+	 * Processes an element with a field of a wall, name is key_node_wall
+	 */
+	private void readWallElement(String key, String name, int sep, String text) throws IOException {
+		int sep2 = name.indexOf('_', sep + 1);
+		if (sep2 < 0)
+			throw new IOException("MazeXmlStreamReader: no wall index in " + name + " in " + filename);
+		NodeRecord node = getNode(name.substring(0, sep2), sep);
+		int i = parseIndex(name, sep2);
+		if (node.numSeg < 0 || i >= node.numSeg)
+			throw new IOException("MazeXmlStreamReader: unexpected wall " + name + " in " + filename);
+		while (node.walls.size() <= i)
+			node.walls.add(new int[MASK + 1]);
+		int[] wall = node.walls.get(i);
+		int field;
+		switch (key) {
+		case "xSeg": field = X; break;
+		case "ySeg": field = Y; break;
+		case "dxSeg": field = DX; break;
+		case "dySeg": field = DY; break;
+		case "distSeg": field = DIST; break;
+		case "colSeg": field = COL; break;
+		case "seenSeg": field = SEEN; break;
+		case "partitionSeg": field = PARTITION; break;
+		default:
+			return; // unknown field
+		}
+		wall[field] = (field == SEEN || field == PARTITION) ? (Boolean.parseBoolean(text) ? 1 : 0) : Integer.parseInt(text);
+		wall[MASK] |= 1 << field;
+	}
+
+	/**
+	 * Provides the record for the node with the number in the given name.
+	 * Nodes come in preorder, so a new number completes the current node.
+	 * @param name ends with the node number after the separator
+	 * @param sep is the position of the separator in the name
+	 * @return the record for the node
+	 */
+	private NodeRecord getNode(String name, int sep) throws IOException {
+		int number = parseIndex(name, sep);
+		if (null != current && current.number == number)
+			return current;
+		if (null != current) {
+			if (number < current.number)
+				throw new IOException("MazeXmlStreamReader: BSP node " + number + " out of order in " + filename);
+			completeNode();
+		}
+		if (null != root)
+			throw new IOException("MazeXmlStreamReader: BSP node " + number + " after complete tree in " + filename);
+		current = new NodeRecord(number);
+		return current;
+	}
+
+	/**
+	 * Completes the current node, a branch waits on the stack for its children,
+	 * a leaf is added to its parent, which completes the parent if it is the second child.
+	 */
+	private void completeNode() throws IOException {
+		NodeRecord node = current;
+		current = null;
+		if (!node.leaf) {
+			branches.push(node);
+			return;
+		}
+		if (node.numSeg < 0 || node.walls.size() != node.numSeg)
+			throw new IOException("MazeXmlStreamReader: incomplete walls for leaf " + node.number + " in " + filename);
+		// walls go to the table, the leaf creates Wall objects when they are needed first
+		int from = table.size();
+		for (int[] w : node.walls) {
+			if (w[MASK] != ALL_FIELDS)
+				throw new IOException("MazeXmlStreamReader: incomplete wall for leaf " + node.number + " in " + filename);
+			table.addWall(w[X], w[Y], w[DX], w[DY], w[DIST], w[COL], w[PARTITION] != 0, w[SEEN] != 0);
+		}
+		BSPNode subtree = new BSPLeaf(table, from, table.size());
+		// complete all branches whose right subtree is done
+		while (!branches.isEmpty()) {
+			NodeRecord parent = branches.peek();
+			if (null == parent.left) {
+				parent.left = subtree;
+				return;
+			}
+			branches.pop();
+			subtree = new BSPBranch(parent.x, parent.y, parent.dx, parent.dy, parent.left, subtree);
+		}
+		root = subtree;
+	}
+
+	private int checkWidth() throws IOException {
+		if (width <= 0 || height <= 0)
+			throw new IOException("MazeXmlStreamReader: cells before valid size in " + filename);
+		return width;
+	}
+
+	/**
+	 * Sets the value at the given index, the index counts column by column as in the MazeFileWriter
+	 */
+	private void setMatrixValue(int[][] matrix, int index, int value) throws IOException {
+		if (index < 0 || index >= width * height)
+			throw new IOException("MazeXmlStreamReader: index " + index + " out of range in " + filename);
+		matrix[index / height][index % height] = value;
+	}
+
+	/**
+	 * Parses the number after the separator up to the end of the name
+	 */
+	private int parseIndex(String name, int sep) throws IOException {
+		if (sep < 0)
+			throw new IOException("MazeXmlStreamReader: no index in " + name + " in " + filename);
+		return Integer.parseInt(name, sep + 1, name.length(), 10);
+	}
+}
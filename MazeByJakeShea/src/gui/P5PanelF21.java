@@ -2,6 +2,8 @@ package gui;
 
 import java.awt.Color;
 
+import generation.Wall;
+
 /**
  * Provides an adapter for a graphics object for the first person view
  * and the map view to draw on. 
@@ -55,40 +57,8 @@ public interface P5PanelF21 {
      * @return the rgb value for the color of the wall
      */
     public static int getWallColor(int distance, int cc, int extensionX) {
-    	// YOUR CODE IS MISSING HERE
-    	final int d = distance / 4;
-        // mod used to limit the number of colors to 6
-        
-    	// Get the color we want
-        final int part1 = distance & 7;
-        final int add = (extensionX != 0) ? 1 : 0;
-        final int rgbValue = ((part1 + 2 + add) * 70) / 8 + 80;
-        
-        //System.out.println("Initcolor rgb: " + rgbValue);
-        switch (((d >> 3) ^ cc) % 6) {
-        
-        case 0:
-        	Color color = new Color(rgbValue, 20, 20);
-            return(color.getRGB());
-        case 1:
-        	Color color2 = new Color(20, 60, 20);
-        	return color2.getRGB();
-        case 2:
-        	Color color3 = new Color(20, 20, rgbValue);
-        	return color3.getRGB();
-        case 3:
-        	Color color4 = new Color(rgbValue, 60, 20);
-        	return color4.getRGB();
-        case 4:
-        	Color color5 = new Color(20, 60, rgbValue);
-        	return color5.getRGB();
-        case 5:
-        	Color color6 = new Color(rgbValue, 20, rgbValue);
-        	return color6.getRGB();
-        default:
-        	Color colorDefault = new Color(20, 20, 20);
-        	return colorDefault.getRGB();
-        }
+    	// computed in Wall, the builders must not load this interface and its colors
+    	return Wall.computeColor(distance, cc, extensionX);
     };
 	
 	
@@ -163,6 +133,27 @@ public interface P5PanelF21 {
      */
     public void addFilledPolygon(int[] xPoints, int[] yPoints, int nPoints);
     
+    /**
+     * Adds a filled trapezoid with two vertical sides, the shape of a wall
+     * in the first person view. It covers the columns from xLeft to xRight-1,
+     * its top and bottom edges are lines from the left side to the right side.
+     * Same as a filled polygon with points (xLeft,topLeft), (xLeft,bottomLeft),
+     * (xRight,bottomRight), (xRight,topRight), which is what this default
+     * implementation draws. An implementation may fill the columns directly,
+     * see {@link P5RenderingHints#KEY_RASTERIZER}.
+     * @param xLeft is the x-coordinate of the left side
+     * @param xRight is the x-coordinate of the right side, {@code xLeft < xRight}
+     * @param topLeft is the y-coordinate of the top of the left side
+     * @param bottomLeft is the y-coordinate of the bottom of the left side
+     * @param topRight is the y-coordinate of the top of the right side
+     * @param bottomRight is the y-coordinate of the bottom of the right side
+     */
+    public default void addFilledTrapezoid(int xLeft, int xRight, int topLeft, int bottomLeft, 
+    		int topRight, int bottomRight) {
+    	addFilledPolygon(new int[] { xLeft, xLeft, xRight, xRight }, 
+    			new int[] { topLeft, bottomLeft, bottomRight, topRight }, 4);
+    }
+    
     /**
      * Adds a polygon.
      * The polygon is not filled. 
@@ -242,8 +233,13 @@ public interface P5PanelF21 {
 	/**
      * An enumerated type to match 1-1 the awt.RenderingHints used
      * in CompassRose and MazePanel.
+     * In addition, KEY_RASTERIZER selects how filled trapezoids are drawn:
+     * VALUE_RASTERIZER_JAVA2D draws them as polygons with the awt graphics (default),
+     * VALUE_RASTERIZER_FRAMEBUFFER fills their columns directly in the pixels of the image,
+     * without antialiasing, if the panel supports it.
      */
-    enum P5RenderingHints { KEY_RENDERING, VALUE_RENDER_QUALITY, KEY_ANTIALIASING, VALUE_ANTIALIAS_ON, KEY_INTERPOLATION, VALUE_INTERPOLATION_BILINEAR } ;
+    enum P5RenderingHints { KEY_RENDERING, VALUE_RENDER_QUALITY, KEY_ANTIALIASING, VALUE_ANTIALIAS_ON, KEY_INTERPOLATION, VALUE_INTERPOLATION_BILINEAR,
+    	KEY_RASTERIZER, VALUE_RASTERIZER_JAVA2D, VALUE_RASTERIZER_FRAMEBUFFER } ;
     /**
      * Sets the value of a single preference for the rendering algorithms.
      * It internally maps given parameter values into corresponding java.awt.RenderingHints
@@ -1,32 +1,53 @@
 package gui;
 
-import java.util.Vector;
+import java.util.Arrays;
 
 /**
- * Class stores a set of ranges, i.e., intervals. 
- * Its single current user is the FirstPersonDrawer class. 
- * 
- * Note: remove and intersect methods operate on a set of elements, 
+ * Class stores a set of ranges, i.e., intervals.
+ * Its single current user is the FirstPersonDrawer class.
+ *
+ * Note: remove and intersect methods operate on a set of elements,
  * however there is no method to add more than a single element to the set
- * as the set method removes all previous elements from the set. 
+ * as the set method removes all previous elements from the set.
  * This only way to increase the cardinality is to split an existing interval
  * into two by way of the remove method.
- * 
+ *
  * This implies that ranges are disjoint and sorted in increasing order.
  *
+ * The intervals are kept as pairs of bounds in a single int array,
+ * the lower bound of the i-th interval at index 2i and its upper bound at index 2i+1.
+ * The first person view calls the set for every span of wall columns in every frame,
+ * so set, remove and getIntersection with a result buffer do not allocate
+ * unless a split exceeds the capacity of the array.
+ * As the intervals are sorted, the first interval that can overlap with a given
+ * interval is found with a binary search.
+ *
  * This code is refactored code from Maze.java by Paul Falstad, www.falstad.com, Copyright (C) 1998, all rights reserved
  * Paul Falstad granted permission to modify and use code for teaching purposes.
  * Refactored by Peter Kemper
  */
 public class RangeSet {
-	
-	private Vector<Interval> ranges;
-	
+
+	private static final int DEFAULT_CAPACITY = 16;
+
+	private int[] bounds; // lower and upper bound of each interval, sorted in increasing order
+	private int size; // number of intervals
+
 	/**
 	 * Constructor
 	 */
 	public RangeSet() {
-		ranges = new Vector<Interval>();
+		this(DEFAULT_CAPACITY);
+	}
+
+	/**
+	 * Constructor for a set that holds up to the given number of intervals
+	 * without growing, e.g. (width+1)/2 for a set of ranges on [0,width-1]
+	 * as any two intervals are at least one value apart
+	 * @param capacity is the number of intervals, {@code 0 < capacity}
+	 */
+	public RangeSet(int capacity) {
+		bounds = new int[2 * Math.max(1, capacity)];
 	}
 
 	/**
@@ -34,7 +55,7 @@ public class RangeSet {
 	 * @return true if the set is empty, false otherwise
 	 */
 	public boolean isEmpty() {
-		return ranges.isEmpty();
+		return 0 == size;
 	}
 
 	/**
@@ -43,8 +64,9 @@ public class RangeSet {
 	 * @param upperBound maximum value for new element
 	 */
 	public void set(int lowerBound, int upperBound) {
-		ranges.removeAllElements();
-		ranges.addElement(new Interval(lowerBound, upperBound));
+		bounds[0] = lowerBound;
+		bounds[1] = upperBound;
+		size = 1;
 	}
 
 	/**
@@ -62,115 +84,96 @@ public class RangeSet {
 			upperBound = lowerBound;
 			lowerBound = tmp;
 		}
-		// check all elements of the set for an overlap with interval 
-		// [lowerBound, upperBound]
-		// assume that set is sorted in increasing order
-		for (int i = 0; i != ranges.size(); i++) {
-			Interval current = (Interval) ranges.elementAt(i);
-			// case 1: (current.lb <= current.ub) < (lowerBound <= upperBound)
-			// current is below, so check next element as values increase
-			if (current.ub < lowerBound)
-				continue; 
-			// case 2: (lowerBound <= upperBound) < (current.lb <= current.ub)
-			// current is above, stop, no reason to check more as values only increase	
-			if (current.lb > upperBound)
-				return;
-			// cases 3, 4, 5, 6: some overlap
-			if (lowerBound <= current.lb) { 
-				// case 3: (lowerBound <= (current.lb <= current.ub) <= upperBound)
-				// current is inside interval
-				// remove current element as it is completely covered
-				// need to continue as upperBound can overlap with next element in set
-				if (current.ub <= upperBound) { 
-					ranges.removeElementAt(i--); // adjust index i for iterating reduced set
-					continue;
-				}
-				// else: case 4: (lowerBound <= current.lb) <= (upperBound < current.ub)
-				// current overlaps with interval, truncate current, 
-				// there is no need to proceed further as upperBound does not exceed current
-				// truncate intersection,  left over interval is [upperBound+1,current.ub]
-				current.lb = upperBound+1;  
+		// first interval that is not below [lowerBound, upperBound]
+		int i = find(lowerBound);
+		// no interval left or the first one is above, nothing to remove
+		if (i == size || bounds[2*i] > upperBound)
+			return;
+		if (bounds[2*i] < lowerBound) {
+			if (bounds[2*i+1] > upperBound) {
+				// [lowerBound,upperBound] lies inside the current interval,
+				// split it into [current.lb,lowerBound-1] and [upperBound+1,current.ub]
+				if (2 * (size + 1) > bounds.length)
+					bounds = Arrays.copyOf(bounds, 2 * bounds.length);
+				System.arraycopy(bounds, 2*i, bounds, 2*i+2, 2 * (size - i));
+				bounds[2*i+1] = lowerBound-1;
+				bounds[2*i+2] = upperBound+1;
+				size++;
 				return;
 			}
-			// control flow only gets here if previous checks fail, 
-			// so current.lb < lowerBound must hold at this moment
-			// case 5: current.lb <= lowerBound <= current.ub <= upperBound
-			// truncate intersection,  left over interval is [current.lb,lowerBound-1]
-			// need to check next element in set as upperBound may reach into it
-			if (lowerBound <= current.ub && upperBound >= current.ub) { 
-				current.ub = lowerBound-1; 
-				continue;
-			}
-			// case 6: (current.lb <= upperBound) <= (lowerBound <= current.ub)
-			// if all conditions fail, then [lowerBound,upperBound] lies inside 
-			// the current interval
-			// split current interval into two with left over ranges: 
-			// [current.lb,lowerBound-1] and [upperBound+1,current.ub]
-			Interval nrse = new Interval(current.lb, lowerBound-1);
-			ranges.insertElementAt(nrse, i);
-			// Note for correctness: we assume that intervals are ordered,
-			// this is the only code that adds an element to the range set
-			// lower interval goes to position i in vector, 
-			// moves current interval which becomes the higher one 
-			// to position i+1 in vector, which preserves the ordering
-			// for current one, just update the lb to make it the higher one
-			// as method returns, no need to update index i for loop progress
-			current.lb = upperBound+1; 
-			return;
+			// truncate the current interval to [current.lb,lowerBound-1],
+			// upperBound may reach into the next intervals
+			bounds[2*i+1] = lowerBound-1;
+			i++;
+		}
+		// intervals i to j-1 are completely covered by [lowerBound,upperBound]
+		int j = i;
+		while (j < size && bounds[2*j+1] <= upperBound)
+			j++;
+		// truncate an interval that overlaps on the right to [upperBound+1,current.ub]
+		if (j < size && bounds[2*j] <= upperBound)
+			bounds[2*j] = upperBound+1;
+		// remove the covered intervals
+		if (j > i) {
+			System.arraycopy(bounds, 2*j, bounds, 2*i, 2 * (size - j));
+			size -= j - i;
 		}
 	}
 
 	/**
 	 * Computes an intersection of the given interval [lowerBound,upperBound] with the
-	 * intervals in this set. If the given interval intersects with none, the method 
+	 * intervals in this set. If the given interval intersects with none, the method
 	 * returns null. If it intersects with at least one interval, the intersection
 	 * with the first interval in this set that does so is computed and returned.
 	 * For intervals, the given bounds are included. So the given bounds in
 	 * the result are both elements of the intersection.
 	 * @param lowerBound gives the low end of the interval of interest
 	 * @param upperBound gives the high end of the interval of interest
-	 * @return [lb,ub] with lower and upper bound for the intersection, null if there is none 
+	 * @return [lb,ub] with lower and upper bound for the intersection, null if there is none
 	 */
 	public int[] getIntersection(int lowerBound, int upperBound) {
-		// consider interval [lowerBound,upperBound] on x-axis
-		// assume that set is sorted in increasing order
-		// we look for an interval in rset that overlaps with [lowerBound,upperBound]
-		for (int i = 0; i != ranges.size(); i++) {
-			Interval current = (Interval) ranges.elementAt(i);
-			// case 1: (current.lb <= current.ub) < (lowerBound <= upperBound)
-			// current is below, so check next element as values increase			
-			if (current.ub < lowerBound) 
-				continue; 
-			// case 2: (lowerBound <= upperBound) < (current.lb <= current.ub)
-			// current is above, stop, no reason to check more as values only increase	
-			if (current.lb > upperBound) 
-				return null;
-			// at this point: lowerBound <= current.ub and current.lb <= upperBound
-			// so we have some overlap, can be at most [lb,]
-			int[] result = new int[2];
-			// on the low end: the bigger of the lower end of both intervals
-			// on the high end: the smaller of the higher end of both intervals
-			result[0] = (current.lb > lowerBound) ? current.lb : lowerBound;
-			result[1] = (current.ub < upperBound) ? current.ub : upperBound;
-			return result;
-		}
-		return null;
+		int[] result = new int[2];
+		return getIntersection(lowerBound, upperBound, result) ? result : null;
 	}
+
 	/**
-	 * Internal class to hold a pair of two elements to represent an
-	 * interval of values on the x-axis.
+	 * Computes an intersection like {@link #getIntersection(int, int)}
+	 * but stores it in the given array instead of a new one.
+	 * @param lowerBound gives the low end of the interval of interest
+	 * @param upperBound gives the high end of the interval of interest
+	 * @param result receives [lb,ub] with lower and upper bound for the intersection,
+	 * it is left as it is if there is none
+	 * @return true if there is an intersection, false otherwise
 	 */
-	class Interval {
-		public int lb, ub;
+	public boolean getIntersection(int lowerBound, int upperBound, int[] result) {
+		int i = find(lowerBound);
+		// at this point: lowerBound <= current.ub unless there is no such interval,
+		// there is some overlap if current.lb <= upperBound
+		if (i == size || bounds[2*i] > upperBound)
+			return false;
+		// on the low end: the bigger of the lower end of both intervals
+		// on the high end: the smaller of the higher end of both intervals
+		result[0] = Math.max(bounds[2*i], lowerBound);
+		result[1] = Math.min(bounds[2*i+1], upperBound);
+		return true;
+	}
 
-		/**
-		 * Constructor
-		 * @param lowerBound gives the lower bound for the range
-		 * @param upperBound gives the upper bound for the range
-		 */
-		Interval(int lowerBound, int upperBound) {
-			lb = lowerBound;
-			ub = upperBound;
+	/**
+	 * Finds the first interval whose upper bound is not below the given value
+	 * with a binary search
+	 * @param value is the value
+	 * @return the index of the interval, size if there is none
+	 */
+	private int find(int value) {
+		int low = 0;
+		int high = size;
+		while (low < high) {
+			int mid = (low + high) >>> 1;
+			if (bounds[2*mid+1] < value)
+				low = mid + 1;
+			else
+				high = mid;
 		}
+		return low;
 	}
 }
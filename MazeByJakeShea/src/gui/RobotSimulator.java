@@ -0,0 +1,479 @@
+package gui;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import generation.CardinalDirection;
+import generation.ConcurrentMazeFactory;
+import generation.Maze;
+import generation.Order.Builder;
+import gui.Constants.UserInput;
+import gui.Robot.Direction;
+
+/**
+ * Evaluates robot drivers without a user interface.
+ * The robot operates on the maze through a simulation that takes the place of
+ * the controller in the playing state: a move or rotation changes the position
+ * and direction right away, there is no panel to draw on and no pause for an animation.
+ * This makes a single episode, a driver that takes a robot from the start to the exit
+ * of a maze, a matter of microseconds such that thousands of episodes run in parallel
+ * on all cores.
+ *
+ * The failure and repair process of unreliable sensors runs on a simulated clock
+ * instead of a thread: a move or rotation takes the time of its animation on screen,
+ * the sensors fail and get repaired with the same schedule as in
+ * {@link UnreliableRobot#start()}. A sensor changes its state only when the robot
+ * steps forward such that a driver sees the sensor it picked for a step in the same state
+ * until the step is done.
+ *
+ * Energy, path length and the number of failed episodes are printed for each
+ * driver along with the number of robot operations per second.
+ *
+ * Command line arguments:
+ * <pre>
+ * -n count     number of mazes per skill level and builder, default 100
+ * -s skills    skill levels, e.g. 0-3 or 1,3,5, default 0-3
+ * -g builders  builder algorithms, e.g. DFS,Prim, default all
+ * -p           perfect mazes, default mazes with rooms
+ * -e seed      seed of the first maze, default 13
+ * -d drivers   drivers with the reliability of the forward, left, right and backward sensor,
+ *              e.g. Wizard,WallFollower:0000, default Wizard:1111,WallFollower:1111,WallFollower:0000
+ * -t threads   number of threads, default number of processors
+ * </pre>
+ *
+ * @author Jake Shea
+ */
+public class RobotSimulator {
+	// time a move or rotation takes on screen: 4 frames that are 25 ms apart, see StatePlaying
+	static final int OPERATION_TIME = 4 * 25;
+	// calls of a robot to the controller per unit of energy before an episode is stopped,
+	// a robot calls a few times for each operation and each operation takes energy
+	static final int CALLS_PER_ENERGY = 100;
+
+	private int count = 100;
+	private int[] skills = { 0, 1, 2, 3 };
+	private Builder[] builders = Builder.values();
+	private boolean perfect;
+	private int firstSeed = 13;
+	private String[] drivers = { "Wizard:1111", "WallFollower:1111", "WallFollower:0000" };
+	private int threads = Runtime.getRuntime().availableProcessors();
+
+	/**
+	 * The ways an episode can end
+	 */
+	enum Result { EXITED, OUT_OF_ENERGY, CRASHED, FAILED, STUCK }
+
+	/**
+	 * Stops a driver that keeps the robot busy without end, e.g. a driver that
+	 * senses over and over again once the robot has stopped.
+	 * It is an error rather than an exception as drivers and robots catch exceptions
+	 * and carry on.
+	 */
+	static class Stuck extends Error {
+		private static final long serialVersionUID = 1L;
+	}
+
+	/**
+	 * The outcome of a driver on a maze
+	 */
+	static class Episode {
+		Result result;
+		float energy; // energy used to reach the exit, as shown on the final screen
+		int pathLength; // cells traveled to reach the exit, as shown on the final screen
+		int shortest; // shortest walk from the start to the exit
+		long operations; // moves, rotations and jumps of the robot
+	}
+
+	/**
+	 * Takes the place of the controller and its playing state for a robot.
+	 * Keys for moves and rotations update the position and direction on the maze
+	 * the same way StatePlaying does but without drawing and without waiting.
+	 */
+	static class Simulation extends Controller {
+		private final Maze maze;
+		private int px, py; // current position
+		private int dx, dy; // current direction
+		private long clock; // simulated time in milliseconds
+		private long operations;
+		private long calls; // left before the episode is stopped
+		private final List<UnreliableSensor> unreliable = new ArrayList<>();
+
+		/**
+		 * Places the robot at the starting position of the maze facing east
+		 * @param maze is the maze the robot operates on
+		 * @param robot is the robot, its unreliable sensors fail and get repaired on the simulated clock
+		 */
+		Simulation(Maze maze, ReliableRobot robot) {
+			super(false);
+			this.maze = maze;
+			int[] start = maze.getStartingPosition();
+			px = start[0];
+			py = start[1];
+			dx = 1;
+			dy = 0;
+			calls = (long) CALLS_PER_ENERGY * (long) getEnergyMax();
+			// same order of sensors as in UnreliableRobot.start()
+			for (Direction direction : new Direction[] { Direction.LEFT, Direction.FORWARD, Direction.BACKWARD, Direction.RIGHT }) {
+				if (robot.getSensor(direction) instanceof UnreliableSensor)
+					unreliable.add((UnreliableSensor) robot.getSensor(direction));
+			}
+		}
+
+		@Override
+		public boolean keyDown(UserInput key, int value) {
+			call();
+			switch (key) {
+			case UP:
+				walk(1);
+				break;
+			case DOWN:
+				walk(-1);
+				break;
+			case LEFT: // same as adding 90 degrees to the angle in StatePlaying
+				rotate(-dy, dx);
+				break;
+			case RIGHT:
+				rotate(dy, -dx);
+				break;
+			case JUMP:
+				if (maze.isValidPosition(px + dx, py + dy)) {
+					px += dx;
+					py += dy;
+					operations++;
+					updateSensors();
+				}
+				break;
+			default:
+				return false;
+			}
+			return true;
+		}
+
+		private void walk(int dir) {
+			CardinalDirection cd = CardinalDirection.getDirection(dir * dx, dir * dy);
+			if (isOutside() || maze.hasWall(px, py, cd))
+				return;
+			px += dir * dx;
+			py += dir * dy;
+			operations++;
+			clock += OPERATION_TIME;
+			updateSensors();
+		}
+
+		private void rotate(int x, int y) {
+			dx = x;
+			dy = y;
+			operations++;
+			clock += OPERATION_TIME;
+		}
+
+		/**
+		 * Brings the sensors in line with the simulated clock, a sensor is down for
+		 * MEAN_TIME_TO_REPAIR after each MEAN_TIME_BETWEEN_FAILURES of up time
+		 */
+		private void updateSensors() {
+			final long period = UnreliableRobot.MEAN_TIME_BETWEEN_FAILURES + UnreliableRobot.MEAN_TIME_TO_REPAIR;
+			for (int i = 0; i < unreliable.size(); i++) {
+				long t = clock - UnreliableRobot.MEAN_TIME_BETWEEN_FAILURES - i * UnreliableRobot.FAILURE_OFFSET;
+				unreliable.get(i).setFunctional(t < 0 || t % period >= UnreliableRobot.MEAN_TIME_TO_REPAIR);
+			}
+		}
+
+		private void call() {
+			if (--calls < 0)
+				throw new Stuck();
+		}
+
+		/**
+		 * @return true if the robot left the maze
+		 */
+		boolean isOutside() {
+			return !maze.isValidPosition(px, py);
+		}
+
+		@Override
+		public Maze getMazeConfiguration() {
+			return maze;
+		}
+
+		@Override
+		public int[] getCurrentPosition() {
+			call();
+			return new int[] { px, py };
+		}
+
+		@Override
+		public CardinalDirection getCurrentDirection() {
+			return CardinalDirection.getDirection(dx, dy);
+		}
+	}
+
+	/**
+	 * Runs a simulation as configured by the command line arguments
+	 * @param args see the class comment
+	 */
+	public static void main(String[] args) {
+		System.setProperty("java.awt.headless", "true");
+		RobotSimulator simulator;
+		try {
+			simulator = parse(args);
+		}
+		catch (IllegalArgumentException e) {
+			System.out.println("RobotSimulator: " + e.getMessage());
+			System.out.println("usage: java gui.RobotSimulator [-n count] [-s skills] [-g builders] [-p] [-e seed] "
+					+ "[-d driver[:sensors],...] [-t threads]");
+			System.exit(2);
+			return;
+		}
+		try {
+			simulator.run();
+		}
+		catch (InterruptedException | ExecutionException e) {
+			e.printStackTrace();
+			System.exit(1);
+		}
+	}
+
+	/**
+	 * Creates a simulator from command line arguments
+	 * @param args see the class comment
+	 * @return the simulator
+	 * @throws IllegalArgumentException if an argument is unknown or has an invalid value
+	 */
+	static RobotSimulator parse(String[] args) {
+		RobotSimulator simulator = new RobotSimulator();
+		for (int i = 0; i < args.length; i++) {
+			String arg = args[i];
+			if (arg.length() != 2 || arg.charAt(0) != '-')
+				throw new IllegalArgumentException("unknown argument " + arg);
+			if (arg.charAt(1) == 'p') {
+				simulator.perfect = true;
+				continue;
+			}
+			if (i + 1 == args.length)
+				throw new IllegalArgumentException("missing value for " + arg);
+			String value = args[++i];
+			switch (arg.charAt(1)) {
+			case 'n':
+				simulator.count = MazeBatch.parsePositive(value, arg);
+				break;
+			case 's':
+				simulator.skills = MazeBatch.parseSkills(value);
+				break;
+			case 'g':
+				simulator.builders = MazeBatch.parseBuilders(value);
+				break;
+			case 'e':
+				simulator.firstSeed = MazeBatch.parseInt(value, arg);
+				break;
+			case 'd':
+				simulator.drivers = parseDrivers(value);
+				break;
+			case 't':
+				simulator.threads = MazeBatch.parsePositive(value, arg);
+				break;
+			default:
+				throw new IllegalArgumentException("unknown argument " + arg);
+			}
+		}
+		return simulator;
+	}
+
+	/**
+	 * @return the total number of episodes, one per maze and driver
+	 */
+	int getCount() {
+		return count * skills.length * builders.length * drivers.length;
+	}
+
+	/**
+	 * Generates the mazes, runs each driver on each maze and prints the results
+	 * @return the episodes, indexed by maze and driver
+	 * @throws InterruptedException if the thread is interrupted while waiting for episodes
+	 * @throws ExecutionException if an episode fails with an error of the simulation itself
+	 */
+	Episode[][] run() throws InterruptedException, ExecutionException {
+		final int mazes = count * skills.length * builders.length;
+		System.out.println("RobotSimulator: generating " + mazes + " mazes on " + threads + " threads");
+		List<CompletableFuture<Maze>> generated = new ArrayList<>();
+		try (ConcurrentMazeFactory factory = new ConcurrentMazeFactory(threads, mazes)) {
+			for (int skill : skills) {
+				for (Builder builder : builders) {
+					for (int i = 0; i < count; i++)
+						generated.add(factory.orderAsync(new MazeBatch.BatchOrder(skill, builder, perfect, firstSeed + i)));
+				}
+			}
+			CompletableFuture.allOf(generated.toArray(new CompletableFuture<?>[0])).get();
+		}
+
+		System.out.println("RobotSimulator: running " + getCount() + " episodes");
+		final Episode[][] episodes = new Episode[mazes][];
+		final ExecutorService executor = Executors.newFixedThreadPool(threads);
+		final long start = System.nanoTime();
+		try {
+			// a task per maze that runs all drivers on it
+			List<Future<Episode[]>> tasks = new ArrayList<>();
+			for (CompletableFuture<Maze> maze : generated) {
+				final Maze m = maze.get();
+				tasks.add(executor.submit(() -> {
+					Episode[] result = new Episode[drivers.length];
+					for (int d = 0; d < drivers.length; d++)
+						result[d] = simulate(m, drivers[d]);
+					return result;
+				}));
+			}
+			for (int i = 0; i < mazes; i++)
+				episodes[i] = tasks.get(i).get();
+		}
+		finally {
+			executor.shutdownNow();
+		}
+		printResults(episodes, System.nanoTime() - start);
+		return episodes;
+	}
+
+	/**
+	 * Runs a single episode: the driver takes a new robot with full energy from the start
+	 * to the exit of the maze, the same way as StatePlaying does for a driver
+	 * @param maze is the maze
+	 * @param driver is the name of the driver, optionally followed by a colon and the
+	 * reliability of the forward, left, right and backward sensor, e.g. WallFollower:0110
+	 * @return the outcome
+	 */
+	static Episode simulate(Maze maze, String driver) {
+		return simulate(maze, createRobot(driver), createDriver(driver));
+	}
+
+	/**
+	 * Runs a single episode with the given robot and driver
+	 * @param maze is the maze
+	 * @param robot is a new robot
+	 * @param robotDriver is a new driver
+	 * @return the outcome
+	 */
+	static Episode simulate(Maze maze, ReliableRobot robot, RobotDriver robotDriver) {
+		Simulation simulation = new Simulation(maze, robot);
+		robot.setBatteryLevel(simulation.getEnergyMax());
+		simulation.setRobotAndDriver(robot, robotDriver);
+		robot.setController(simulation);
+		robotDriver.setMaze(maze);
+
+		Episode episode = new Episode();
+		int[] start = maze.getStartingPosition();
+		episode.shortest = maze.getDistanceToExit(start[0], start[1]) - 1;
+		try {
+			robotDriver.drive2Exit();
+			if (!robot.hasStopped()) {
+				episode.pathLength = robot.getOdometerReading();
+				episode.energy = robotDriver.getEnergyConsumption();
+				// should be facing the exit by now
+				robot.move(1);
+			}
+		}
+		catch (Exception e) {
+			// the driver gave up or the robot stopped, the result tells which
+		}
+		catch (Stuck e) {
+			episode.result = Result.STUCK;
+		}
+		if (simulation.isOutside())
+			episode.result = Result.EXITED;
+		else {
+			episode.pathLength = robot.getOdometerReading();
+			episode.energy = robotDriver.getEnergyConsumption();
+			// a stuck episode stays stuck, whatever state the robot is in
+			if (null == episode.result)
+				episode.result = (robot.getBatteryLevel() <= 0) ? Result.OUT_OF_ENERGY
+						: robot.hasStopped() ? Result.CRASHED : Result.FAILED;
+		}
+		episode.operations = simulation.operations;
+		return episode;
+	}
+
+	///////////////////////// private methods ///////////////////////////////////
+	/**
+	 * Creates the robot for a driver the same way as the MazeApplication does
+	 */
+	private static ReliableRobot createRobot(String driver) {
+		String sensors = getSensors(driver);
+		if ("1111".equals(sensors)) {
+			// the WallFollower needs an UnreliableRobot, an unreliable backward sensor
+			// does not affect it
+			return isWizard(driver) ? new ReliableRobot() : new UnreliableRobot(1, 1, 1, 0);
+		}
+		return new UnreliableRobot(sensors.charAt(0) - '0', sensors.charAt(1) - '0',
+				sensors.charAt(2) - '0', sensors.charAt(3) - '0');
+	}
+
+	private static RobotDriver createDriver(String driver) {
+		return isWizard(driver) ? new Wizard() : new WallFollower();
+	}
+
+	private static boolean isWizard(String driver) {
+		return "Wizard".equalsIgnoreCase(getName(driver));
+	}
+
+	private static String getName(String driver) {
+		int colon = driver.indexOf(':');
+		return (colon < 0) ? driver : driver.substring(0, colon);
+	}
+
+	private static String getSensors(String driver) {
+		int colon = driver.indexOf(':');
+		return (colon < 0) ? "1111" : driver.substring(colon + 1);
+	}
+
+	/**
+	 * Prints energy, path length and failures for each driver, the path length
+	 * is also given relative to the shortest walk to the exit, which a driver
+	 * that jumps can beat
+	 */
+	private void printResults(Episode[][] episodes, long elapsed) {
+		long operations = 0;
+		System.out.println(String.format("%-18s %8s %8s %9s %8s %8s %8s %10s %10s %10s", "driver", "episodes", "exited",
+				"no energy", "crashed", "failed", "stuck", "energy", "path", "path/walk"));
+		for (int d = 0; d < drivers.length; d++) {
+			int[] results = new int[Result.values().length];
+			double energy = 0, path = 0, ratio = 0;
+			for (Episode[] maze : episodes) {
+				Episode episode = maze[d];
+				results[episode.result.ordinal()]++;
+				operations += episode.operations;
+				if (Result.EXITED == episode.result) {
+					energy += episode.energy;
+					path += episode.pathLength;
+					ratio += (double) episode.pathLength / Math.max(1, episode.shortest);
+				}
+			}
+			int exited = Math.max(1, results[Result.EXITED.ordinal()]);
+			System.out.println(String.format("%-18s %8d %8d %9d %8d %8d %8d %10.1f %10.1f %10.2f", drivers[d], episodes.length,
+					results[Result.EXITED.ordinal()], results[Result.OUT_OF_ENERGY.ordinal()],
+					results[Result.CRASHED.ordinal()], results[Result.FAILED.ordinal()], results[Result.STUCK.ordinal()],
+					energy / exited, path / exited, ratio / exited));
+		}
+		double seconds = elapsed / 1e9;
+		System.out.println(String.format("RobotSimulator: %d episodes in %.2f s, %.0f episodes/s, %.0f operations/s",
+				getCount(), seconds, getCount() / seconds, operations / seconds));
+	}
+
+	/**
+	 * Parses a list of drivers with optional sensor reliabilities, e.g. Wizard,WallFollower:0110,
+	 * names are not case sensitive
+	 */
+	static String[] parseDrivers(String value) {
+		String[] result = value.split(",");
+		for (String driver : result) {
+			String name = getName(driver);
+			if (!"Wizard".equalsIgnoreCase(name) && !"WallFollower".equalsIgnoreCase(name))
+				throw new IllegalArgumentException("unknown driver " + name);
+			if (!getSensors(driver).matches("[01]{4}"))
+				throw new IllegalArgumentException("invalid sensors " + getSensors(driver) + " for " + name);
+		}
+		return result;
+	}
+}
@@ -1,10 +1,13 @@
 package gui;
 
+import javax.swing.Timer;
+
 import generation.Factory;
 import generation.Floorplan;
 import generation.Maze;
 import generation.MazeFactory;
 import generation.Order;
+import generation.Progress;
 import gui.Constants.UserInput;
 
 /**
@@ -24,6 +27,9 @@ import gui.Constants.UserInput;
  * Show the generating screen and the progress during generation,
  * Accept input interrupt maze generation and return to title screen,  
  * Generate a maze with the maze factory.
+ * 
+ * The progress is polled with a timer from a counter that the builder
+ * updates while it works, so the builder thread never waits for the screen.
  *
  * This code is refactored code from Maze.java by 
  * Paul Falstad, www.falstad.com, Copyright (C) 1998, all rights reserved
@@ -45,7 +51,8 @@ public class StateGenerating extends DefaultState implements Order {
     // perfect == true: no loops, i.e. no rooms
     // perfect == false: maze can support rooms
    
-    // The factory is used to calculate a new maze configuration
+    // The factory is used to calculate a new maze configuration,
+    // the cache in front of it delivers a maze that was generated before right away
     // The maze is computed in a separate thread which makes 
     // communication with the factory slightly more complicated.
     // Check the factory interface for details.
@@ -53,7 +60,10 @@ public class StateGenerating extends DefaultState implements Order {
     // The maze configuration produced by the factory
     //private MazeConfiguration mazeConfig; 
 
-    private int percentdone;        // describes progress during generation phase
+    private volatile int percentdone;        // describes progress during generation phase
+    private Progress progress; // counter the builder updates, polled for the progress bar
+    private volatile Timer timer; // polls the progress while the factory works
+    static final int POLL_INTERVAL = 50; // time between polls of the progress, unit is millisecond
 
     boolean started;
     
@@ -63,7 +73,7 @@ public class StateGenerating extends DefaultState implements Order {
      */
     public StateGenerating() {
         filename = null;
-        factory = new MazeFactory() ;
+        factory = new MazeCache(new MazeFactory()) ;
         skillLevel = 0; // default size for maze
         builder = Order.Builder.DFS; // default algorithm
         perfect = false; // default: maze can have rooms
@@ -96,7 +106,8 @@ public class StateGenerating extends DefaultState implements Order {
     }
     /**
      * Loads maze from file and returns a corresponding maze configuration.
-     * @param filename, not null
+     * @param filename, not null, can also refer to a maze in an archive as archive#key,
+     * see MazeArchive
      * @return the maze that has been loaded from the given file
      */
     private Maze loadMazeConfigurationFromFile(String filename) {
@@ -133,6 +144,10 @@ public class StateGenerating extends DefaultState implements Order {
             assert null != factory : "Controller.init: factory must be present";
             // draw the initial screen
             draw();
+            // poll the progress until the maze is delivered
+            progress = new Progress();
+            timer = new Timer(POLL_INTERVAL, e -> poll());
+            timer.start();
             // make maze factory produce a maze 
             // operates with background thread
             // method returns immediately, 
@@ -157,6 +172,7 @@ public class StateGenerating extends DefaultState implements Order {
 
         // user could interrupt generation by pressing esc
         if (key == UserInput.RETURNTOTITLE) {
+            stopPolling();
             factory.cancel();
             control.switchToTitle();
         }
@@ -173,6 +189,7 @@ public class StateGenerating extends DefaultState implements Order {
      */
     @Override
     public void deliver(Maze mazeConfig) {
+        stopPolling();
         // WARNING: DO NOT REMOVE, USED FOR GRADING PROJECT ASSIGNMENT
         if (Floorplan.deepdebugWall)
         {   // for debugging: dump the sequence of all deleted walls to a log file
@@ -201,18 +218,40 @@ public class StateGenerating extends DefaultState implements Order {
     public int getPercentDone() {
         return percentdone;
     }
+    @Override
+    public Progress getProgress() {
+        return progress;
+    }
     /**
      * Allows external increase to percentage in generating mode.
-     * Internal value is only updated if it exceeds the last value and is less or equal 100
+     * Internal value is only updated if it exceeds the last value and is less or equal 100.
+     * The screen is updated by the timer that polls the progress.
      * @param percentage gives the new percentage on a range [0,100]
      */
     @Override
     public void updateProgress(int percentage) {
         if (this.percentdone < percentage && percentage <= 100) {
             this.percentdone = percentage;
-            draw() ;
         }
     }
+    /**
+     * Reads the progress made by the builder and redraws the screen if it changed,
+     * called by the timer
+     */
+    private void poll() {
+        final int before = percentdone;
+        updateProgress(progress.getPercentage());
+        // the timer may fire once more after it is stopped
+        if (percentdone != before && timer.isRunning())
+            draw();
+    }
+    /**
+     * Stops polling the progress, there is nothing to poll without an order in production
+     */
+    private void stopPolling() {
+        if (null != timer)
+            timer.stop();
+    }
     /**
      * Draws the current state of maze generation on the screen
      */
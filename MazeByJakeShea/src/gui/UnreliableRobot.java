@@ -18,6 +18,12 @@ public class UnreliableRobot extends ReliableRobot
 	
 	// Four int fields to set up sensors again after games are made
 	private int leftSense, forwardSense, backwardSense, rightSense; 
+	
+	// Failure and repair process of the unreliable sensors in milliseconds,
+	// the n-th unreliable sensor fails for the first time after MEAN_TIME_BETWEEN_FAILURES + n * FAILURE_OFFSET
+	static final int MEAN_TIME_BETWEEN_FAILURES = 4000;
+	static final int MEAN_TIME_TO_REPAIR = 2000;
+	static final int FAILURE_OFFSET = 1300;
 	// All other necessary fields are to be inherited
 	
 	/**
@@ -161,7 +167,7 @@ public class UnreliableRobot extends ReliableRobot
     		// Sets the robot to its sensor and the sensor to this robot
     		((UnreliableSensor) getSensor(Direction.LEFT)).setRobot(this);
     		((UnreliableSensor) getSensor(Direction.LEFT)).setDirection(Direction.LEFT);
-    		startFailureAndRepairProcess(Direction.LEFT, 4000 + count * 1300, 2000);
+    		startFailureAndRepairProcess(Direction.LEFT, MEAN_TIME_BETWEEN_FAILURES + count * FAILURE_OFFSET, MEAN_TIME_TO_REPAIR);
     		count++;
     	}
     	
@@ -171,7 +177,7 @@ public class UnreliableRobot extends ReliableRobot
     		// Sets the robot to its sensor and the sensor to this robot
     		((UnreliableSensor) getSensor(Direction.FORWARD)).setRobot(this);
     		((UnreliableSensor) getSensor(Direction.FORWARD)).setDirection(Direction.FORWARD);
-    		startFailureAndRepairProcess(Direction.FORWARD, 4000 + count * 1300, 2000);
+    		startFailureAndRepairProcess(Direction.FORWARD, MEAN_TIME_BETWEEN_FAILURES + count * FAILURE_OFFSET, MEAN_TIME_TO_REPAIR);
     		count++;
     	}
     	
@@ -181,7 +187,7 @@ public class UnreliableRobot extends ReliableRobot
     		// Sets the robot to its sensor and the sensor to this robot
     		((UnreliableSensor) getSensor(Direction.BACKWARD)).setRobot(this);
     		((UnreliableSensor) getSensor(Direction.BACKWARD)).setDirection(Direction.BACKWARD);
-    		startFailureAndRepairProcess(Direction.BACKWARD, 4000 + count * 1300, 2000);
+    		startFailureAndRepairProcess(Direction.BACKWARD, MEAN_TIME_BETWEEN_FAILURES + count * FAILURE_OFFSET, MEAN_TIME_TO_REPAIR);
     		count++;
     	}
     	
@@ -191,7 +197,7 @@ public class UnreliableRobot extends ReliableRobot
     		// Sets the robot to its sensor and the sensor to this robot
     		((UnreliableSensor) getSensor(Direction.RIGHT)).setRobot(this);
     		((UnreliableSensor) getSensor(Direction.RIGHT)).setDirection(Direction.RIGHT);
-    		startFailureAndRepairProcess(Direction.RIGHT, 4000 + count * 1300, 2000);
+    		startFailureAndRepairProcess(Direction.RIGHT, MEAN_TIME_BETWEEN_FAILURES + count * FAILURE_OFFSET, MEAN_TIME_TO_REPAIR);
     	}
 	}
 	
@@ -187,7 +187,7 @@ public class UnreliableSensor extends ReliableSensor implements Runnable
 			
 			isFunctioning = true;
 			// Synchronizes uptime for all threads after the first run is done to deal with possible offset
-			uptime = 4000;
+			uptime = UnreliableRobot.MEAN_TIME_BETWEEN_FAILURES;
 		}
 	}
 	
@@ -201,6 +201,17 @@ public class UnreliableSensor extends ReliableSensor implements Runnable
 		return isFunctioning;
 	}
 	
+	/**
+	 * Makes the sensor fail or repairs it without a thread,
+	 * used by the RobotSimulator that runs the failure and repair process on its own clock
+	 * 
+	 * @param functional is true if the sensor is working, false if it fails
+	 */
+	void setFunctional(boolean functional)
+	{
+		isFunctioning = functional;
+	}
+	
 	/**
 	 * Provides access to the sensors direction
 	 * 
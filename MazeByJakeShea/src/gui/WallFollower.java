@@ -80,7 +80,7 @@ public class WallFollower implements RobotDriver
 		countTable = new int[maze.getWidth()][maze.getHeight()];
 		
 		for(int i = 0; i < maze.getWidth(); i++)
-			for(int j = 0; j < maze.getWidth(); j++)
+			for(int j = 0; j < maze.getHeight(); j++)
 			{
 				countTable[i][j]= 0; 
 			}
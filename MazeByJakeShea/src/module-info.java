@@ -1,5 +1,7 @@
 module MazeByJakeShea {
 	requires java.desktop;
+	requires java.management;
+	requires jdk.management;
 	requires junit;
 	requires org.junit.jupiter.api;
 	exports generation;
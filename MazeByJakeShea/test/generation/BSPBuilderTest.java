@@ -0,0 +1,124 @@
+package generation;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+
+/**
+ * Tests the BSPBuilder class, in particular that the parallel
+ * construction of the BSP tree gives the same tree as the sequential one.
+ *
+ * @author Jake Shea
+ *
+ */
+class BSPBuilderTest {
+
+	/**
+	 * Creates a BSPBuilder for a maze with pathways, distances and rooms
+	 * @param skill the skill level
+	 * @param seed the seed
+	 * @param order receives progress updates, may be null
+	 * @return the BSPBuilder
+	 */
+	private static BSPBuilder createBSPBuilder(int skill, int seed, Order order) {
+		StubOrder spec = new StubOrder();
+		spec.setSkill(skill);
+		spec.setSeed(seed);
+		MazeBuilder builder = new MazeBuilder();
+		builder.buildOrder(spec);
+		builder.floorplan.initialize();
+		builder.generateRooms();
+		builder.generate();
+		return new BSPBuilder(order, builder.dists, builder.floorplan, builder.width, builder.height,
+				seed, null);
+	}
+
+	/**
+	 * Checks that two BSP trees have the same structure, splitters and walls
+	 * @param expected the expected tree
+	 * @param actual the actual tree
+	 */
+	private static void assertSameTree(BSPNode expected, BSPNode actual) {
+		assertEquals(expected.isIsleaf(), actual.isIsleaf());
+		assertEquals(expected.getLowerBoundX(), actual.getLowerBoundX());
+		assertEquals(expected.getLowerBoundY(), actual.getLowerBoundY());
+		assertEquals(expected.getUpperBoundX(), actual.getUpperBoundX());
+		assertEquals(expected.getUpperBoundY(), actual.getUpperBoundY());
+		if (expected.isIsleaf()) {
+			assertEquals(((BSPLeaf) expected).getAllWalls(), ((BSPLeaf) actual).getAllWalls());
+		}
+		else {
+			BSPBranch e = (BSPBranch) expected;
+			BSPBranch a = (BSPBranch) actual;
+			assertEquals(e.getX(), a.getX());
+			assertEquals(e.getY(), a.getY());
+			assertEquals(e.getDx(), a.getDx());
+			assertEquals(e.getDy(), a.getDy());
+			assertSameTree(e.getLeftBranch(), a.getLeftBranch());
+			assertSameTree(e.getRightBranch(), a.getRightBranch());
+		}
+	}
+
+	/**
+	 * Test case: parallel and sequential construction
+	 * <p>
+	 * Method under test: generateBSPNodes
+	 * <p>
+	 * It is correct if both trees are the same and
+	 * both count the same number of walls in leaves.
+	 */
+	@Test
+	final void testParallelTreeMatchesSequentialTree() throws InterruptedException {
+		for (int skill : new int[] { 0, 2, 4, 6, 9, 12, 15 }) {
+			BSPBuilder sequential = createBSPBuilder(skill, skill, null);
+			sequential.parallelThreshold = Integer.MAX_VALUE;
+			BSPBuilder parallel = createBSPBuilder(skill, skill, null);
+			// small threshold for many tasks
+			parallel.parallelThreshold = 16;
+
+			assertSameTree(sequential.generateBSPNodes(), parallel.generateBSPNodes());
+			assertEquals(sequential.progress.getWorked(Progress.Phase.BSP), parallel.progress.getWorked(Progress.Phase.BSP));
+		}
+	}
+
+	/**
+	 * Test case: interrupt the thread that waits for the parallel construction
+	 * <p>
+	 * Method under test: generateBSPNodes
+	 * <p>
+	 * It is correct if the thread gets an InterruptedException
+	 * and the construction stops.
+	 */
+	@Test
+	final void testCancellation() throws InterruptedException {
+		CountDownLatch started = new CountDownLatch(1);
+		StubOrder order = new StubOrder() {
+			@Override
+			public void updateProgress(int percentage) {
+				started.countDown();
+			}
+		};
+		BSPBuilder bsp = createBSPBuilder(15, 1, order);
+		boolean[] interrupted = { false };
+		Thread thread = new Thread(() -> {
+			try {
+				bsp.generateBSPNodes();
+			}
+			catch (InterruptedException e) {
+				interrupted[0] = true;
+			}
+		});
+		thread.start();
+		assertTrue(started.await(60, TimeUnit.SECONDS));
+		thread.interrupt();
+		thread.join(10000);
+		assertFalse(thread.isAlive());
+		assertTrue(interrupted[0]);
+	}
+}
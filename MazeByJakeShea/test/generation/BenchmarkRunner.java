@@ -0,0 +1,192 @@
+package generation;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A small harness for benchmarks that run as Java applications,
+ * see GenerationBenchmark and gui.GuiBenchmark.
+ *
+ * An operation is measured in iterations of fixed duration: within an iteration
+ * the operation runs repeatedly until the iteration time is over, at least once.
+ * After some warmup iterations for the JIT compiler, the median over the measured
+ * iterations is reported as operations per second, time per operation
+ * and allocation rate, both in MB per second and in KB per operation.
+ *
+ * Allocation is measured for the thread that runs the benchmark only, memory that
+ * other threads allocate for the operation, e.g. tasks of a fork-join pool, is not included.
+ * If the JVM does not support measuring allocation, it is reported as n/a.
+ *
+ * Peak heap use of a single run of an operation can be measured as well,
+ * see {@link #measurePeakHeap(String, Operation)}.
+ *
+ * @author Jake Shea
+ *
+ */
+public class BenchmarkRunner {
+
+	/**
+	 * An operation to measure, setup that should not be measured
+	 * needs to be done before.
+	 */
+	public interface Operation {
+		/**
+		 * Performs the operation once
+		 * @throws Exception if the operation fails, this ends the benchmark
+		 */
+		void run() throws Exception;
+	}
+
+	/**
+	 * Default number of unmeasured iterations to warm up the JIT compiler
+	 */
+	public static final int DEFAULT_WARMUP = 3;
+	/**
+	 * Default number of measured iterations
+	 */
+	public static final int DEFAULT_ITERATIONS = 5;
+	/**
+	 * Default duration of an iteration in milliseconds
+	 */
+	public static final long DEFAULT_ITERATION_TIME = 200;
+
+	private final int warmup;
+	private final int iterations;
+	private final long iterationTime; // in nanoseconds
+	private final com.sun.management.ThreadMXBean threads; // null if allocation can not be measured
+	private boolean headerPrinted;
+
+	/**
+	 * Constructor with default settings
+	 */
+	public BenchmarkRunner() {
+		this(DEFAULT_WARMUP, DEFAULT_ITERATIONS, DEFAULT_ITERATION_TIME);
+	}
+
+	/**
+	 * Constructor
+	 * @param warmup is the number of unmeasured iterations, {@code 0 <= warmup}
+	 * @param iterations is the number of measured iterations, {@code 0 < iterations}
+	 * @param iterationTime is the duration of an iteration in milliseconds
+	 */
+	public BenchmarkRunner(int warmup, int iterations, long iterationTime) {
+		this.warmup = warmup;
+		this.iterations = iterations;
+		this.iterationTime = iterationTime * 1000000;
+		threads = getAllocationBean();
+	}
+
+	/**
+	 * Creates a runner with the settings given as command line arguments:
+	 * number of measured iterations, iteration time in milliseconds and
+	 * number of warmup iterations, in that order, all optional.
+	 * @param args the command line arguments
+	 * @return the runner
+	 */
+	public static BenchmarkRunner fromArgs(String[] args) {
+		int iterations = (args.length > 0) ? Integer.parseInt(args[0]) : DEFAULT_ITERATIONS;
+		long time = (args.length > 1) ? Long.parseLong(args[1]) : DEFAULT_ITERATION_TIME;
+		int warmup = (args.length > 2) ? Integer.parseInt(args[2]) : DEFAULT_WARMUP;
+		return new BenchmarkRunner(warmup, iterations, time);
+	}
+
+	/**
+	 * Measures the given operation and prints a line with the results.
+	 * @param name describes the operation in the output
+	 * @param operation is the operation to measure
+	 * @return the median number of operations per second
+	 * @throws Exception if the operation fails
+	 */
+	public double measure(String name, Operation operation) throws Exception {
+		if (!headerPrinted) {
+			System.out.println(String.format("%-40s %14s %12s %12s %12s", "benchmark", "ops/s", "ms/op", "alloc MB/s", "alloc KB/op"));
+			headerPrinted = true;
+		}
+		double[] opsPerSecond = new double[iterations];
+		double[] bytesPerOp = new double[iterations];
+		long self = Thread.currentThread().getId();
+		for (int i = -warmup; i < iterations; i++) {
+			long ops = 0;
+			long bytes = (null != threads) ? threads.getThreadAllocatedBytes(self) : 0;
+			long start = System.nanoTime();
+			long duration;
+			do {
+				operation.run();
+				ops++;
+				duration = System.nanoTime() - start;
+			} while (duration < iterationTime);
+			if (i >= 0) {
+				opsPerSecond[i] = ops / (duration / 1e9);
+				if (null != threads)
+					bytesPerOp[i] = (double) (threads.getThreadAllocatedBytes(self) - bytes) / ops;
+			}
+		}
+		Arrays.sort(opsPerSecond);
+		Arrays.sort(bytesPerOp);
+		double ops = opsPerSecond[iterations / 2];
+		double bytes = bytesPerOp[iterations / 2];
+		String alloc = (null != threads)
+				? String.format("%12.1f %12.1f", bytes * ops / 1e6, bytes / 1024)
+				: String.format("%12s %12s", "n/a", "n/a");
+		System.out.println(String.format("%-40s %14.2f %12.3f %s", name, ops, 1000 / ops, alloc));
+		return ops;
+	}
+
+	/**
+	 * Runs the given operation once and prints a line with the peak heap use
+	 * above the heap use after a garbage collection before the operation.
+	 * The peak is the sum of the peaks of all heap memory pools, which may
+	 * be reached at different times, so it is an upper bound.
+	 * @param name describes the operation in the output
+	 * @param operation is the operation to measure
+	 * @return the peak heap use in bytes
+	 * @throws Exception if the operation fails
+	 */
+	public long measurePeakHeap(String name, Operation operation) throws Exception {
+		List<MemoryPoolMXBean> pools = new ArrayList<>();
+		for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+			if (pool.getType() == MemoryType.HEAP && pool.isValid())
+				pools.add(pool);
+		}
+		System.gc();
+		long before = 0;
+		for (MemoryPoolMXBean pool : pools) {
+			before += pool.getUsage().getUsed();
+			pool.resetPeakUsage();
+		}
+		operation.run();
+		long peak = 0;
+		for (MemoryPoolMXBean pool : pools)
+			peak += pool.getPeakUsage().getUsed();
+		peak = Math.max(0, peak - before);
+		System.out.println(String.format("%-40s peak heap %10.1f MB", name, peak / 1e6));
+		return peak;
+	}
+
+	/**
+	 * Prints a line for an operation that can not be measured
+	 * @param name describes the operation in the output
+	 * @param reason tells why the operation is skipped
+	 */
+	public void skip(String name, String reason) {
+		System.out.println(String.format("%-40s skipped: %s", name, reason));
+	}
+
+	/**
+	 * Gets the bean that measures allocation per thread if the JVM supports it
+	 * @return the bean with allocation measurement enabled, null if not supported
+	 */
+	private static com.sun.management.ThreadMXBean getAllocationBean() {
+		if (!(ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean))
+			return null;
+		com.sun.management.ThreadMXBean bean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+		if (!bean.isThreadAllocatedMemorySupported())
+			return null;
+		bean.setThreadAllocatedMemoryEnabled(true);
+		return bean;
+	}
+}
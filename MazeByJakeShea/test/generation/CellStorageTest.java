@@ -0,0 +1,183 @@
+package generation;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.ByteBuffer;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests the FlatCellStorage and PackedCellStorage classes
+ * on their own and as a storage for a Floorplan,
+ * and the read-only MappedCellStorage against them.
+ * Both need to deliver the same values such that a Floorplan
+ * behaves the same regardless of its storage.
+ *
+ * @author Jake Shea
+ *
+ */
+class CellStorageTest {
+
+	private static final int WIDTH = 13;
+	private static final int HEIGHT = 7;
+
+	/**
+	 * Test case: every combination of bits used by the Floorplan
+	 * <p>
+	 * Method under test: get, setBits, clearBits
+	 * <p>
+	 * It is correct if both storages give back what was set and clear it again.
+	 */
+	@Test
+	final void testSetAndClearAllSupportedBits() {
+		CellStorage[] storages = { new FlatCellStorage(WIDTH, HEIGHT), new PackedCellStorage(WIDTH, HEIGHT) };
+		for (CellStorage sut : storages) {
+			for (int value = 0; value <= PackedCellStorage.SUPPORTED_BITS; value++) {
+				// spread values over the grid to hit different positions within a long
+				int x = value % WIDTH;
+				int y = (value / WIDTH) % HEIGHT;
+				sut.setBits(x, y, value);
+				assertEquals(value, sut.get(x, y));
+				sut.clearBits(x, y, value);
+				assertEquals(0, sut.get(x, y));
+			}
+		}
+	}
+
+	/**
+	 * Test case: neighboring cells do not interfere with each other
+	 * <p>
+	 * Method under test: setBits, clearBits
+	 * <p>
+	 * It is correct if only the addressed cell changes.
+	 */
+	@Test
+	final void testCellsAreIndependent() {
+		CellStorage[] storages = { new FlatCellStorage(WIDTH, HEIGHT), new PackedCellStorage(WIDTH, HEIGHT) };
+		for (CellStorage sut : storages) {
+			for (int x = 0; x < WIDTH; x++)
+				for (int y = 0; y < HEIGHT; y++)
+					sut.setBits(x, y, PackedCellStorage.SUPPORTED_BITS);
+			sut.clearBits(3, 4, Floorplan.CW_VISITED | Floorplan.CW_TOP);
+			for (int x = 0; x < WIDTH; x++)
+				for (int y = 0; y < HEIGHT; y++) {
+					int expected = (x == 3 && y == 4) ?
+							PackedCellStorage.SUPPORTED_BITS & ~(Floorplan.CW_VISITED | Floorplan.CW_TOP) :
+							PackedCellStorage.SUPPORTED_BITS;
+					assertEquals(expected, sut.get(x, y));
+				}
+		}
+	}
+
+	/**
+	 * Test case: packed storage can not hold arbitrary values
+	 * <p>
+	 * Method under test: PackedCellStorage.setBits
+	 * <p>
+	 * It is correct if unsupported bits are rejected.
+	 */
+	@Test
+	final void testPackedRejectsUnsupportedBits() {
+		PackedCellStorage sut = new PackedCellStorage(WIDTH, HEIGHT);
+		assertThrows(IllegalArgumentException.class, () -> sut.setBits(0, 0, 1024));
+	}
+
+	/**
+	 * Test case: copies do not share content
+	 * <p>
+	 * Method under test: copy
+	 * <p>
+	 * It is correct if a change to the copy does not show in the original.
+	 */
+	@Test
+	final void testCopy() {
+		CellStorage[] storages = { new FlatCellStorage(WIDTH, HEIGHT), new PackedCellStorage(WIDTH, HEIGHT) };
+		for (CellStorage sut : storages) {
+			sut.setBits(1, 2, Floorplan.CW_IN_ROOM);
+			CellStorage copy = sut.copy();
+			assertEquals(Floorplan.CW_IN_ROOM, copy.get(1, 2));
+			copy.setBits(1, 2, Floorplan.CW_LEFT);
+			assertEquals(Floorplan.CW_IN_ROOM, sut.get(1, 2));
+		}
+	}
+
+	/**
+	 * Test case: a floorplan on a packed storage behaves as one on the default storage
+	 * <p>
+	 * Method under test: Floorplan(CellStorage), initialize, markAreaAsRoom,
+	 * setCellAsVisited, deleteWallboard, setExitPosition, equals
+	 * <p>
+	 * It is correct if both floorplans are equal and agree on wallboards and rooms.
+	 */
+	@Test
+	final void testFloorplanWithPackedStorage() {
+		Floorplan flat = new Floorplan(WIDTH, HEIGHT);
+		Floorplan packed = new Floorplan(new PackedCellStorage(WIDTH, HEIGHT));
+		for (Floorplan floorplan : new Floorplan[] { flat, packed }) {
+			// same seed for same doors in the room
+			SingleRandom.setSeed(7);
+			floorplan.initialize();
+			floorplan.markAreaAsRoom(4, 3, 2, 2, 5, 4);
+			floorplan.setCellAsVisited(8, 1);
+			floorplan.deleteWallboard(new Wallboard(8, 1, CardinalDirection.East));
+			floorplan.deleteWallboard(new Wallboard(10, 5, CardinalDirection.North));
+			floorplan.setExitPosition(0, 3);
+		}
+		assertTrue(flat.equals(packed));
+		assertTrue(packed.equals(flat));
+		for (int x = 0; x < WIDTH; x++)
+			for (int y = 0; y < HEIGHT; y++) {
+				assertEquals(flat.getValueOfCell(x, y), packed.getValueOfCell(x, y));
+				assertEquals(flat.isInRoom(x, y), packed.isInRoom(x, y));
+				assertEquals(flat.isExitPosition(x, y), packed.isExitPosition(x, y));
+				for (CardinalDirection cd : CardinalDirection.values())
+					assertEquals(flat.hasWall(x, y, cd), packed.hasWall(x, y, cd));
+			}
+		packed.setCellAsVisited(0, 0);
+		assertFalse(flat.equals(packed));
+	}
+
+	/**
+	 * Test case: floorplans written to a buffer and read through a mapped storage
+	 * <p>
+	 * Method under test: MappedCellStorage.write, get, setBits, copy
+	 * <p>
+	 * It is correct if the mapped storage delivers every supported value at different positions,
+	 * starts at the position of the buffer and rejects changes.
+	 */
+	@Test
+	final void testMappedStorage() {
+		final int offset = 5;
+		int value = 0;
+		while (value <= PackedCellStorage.SUPPORTED_BITS) {
+			// fill a grid with the next supported values
+			PackedCellStorage packed = new PackedCellStorage(WIDTH, HEIGHT);
+			for (int y = 0; y < HEIGHT; y++)
+				for (int x = 0; x < WIDTH; x++) {
+					while (value <= PackedCellStorage.SUPPORTED_BITS && (value & ~PackedCellStorage.SUPPORTED_BITS) != 0)
+						value++;
+					if (value <= PackedCellStorage.SUPPORTED_BITS)
+						packed.setBits(x, y, value++);
+				}
+			Floorplan floorplan = new Floorplan(packed);
+			ByteBuffer buffer = ByteBuffer.allocate(offset + MappedCellStorage.getSize(WIDTH, HEIGHT));
+			buffer.position(offset);
+			MappedCellStorage.write(floorplan, WIDTH, HEIGHT, buffer);
+			assertEquals(buffer.capacity(), buffer.position());
+
+			MappedCellStorage sut = new MappedCellStorage(buffer.position(offset), WIDTH, HEIGHT);
+			for (int x = 0; x < WIDTH; x++)
+				for (int y = 0; y < HEIGHT; y++)
+					assertEquals(packed.get(x, y), sut.get(x, y));
+			assertTrue(floorplan.equals(new Floorplan(sut)));
+			assertTrue(floorplan.equals(new Floorplan(sut.copy())));
+		}
+		MappedCellStorage sut = new MappedCellStorage(ByteBuffer.allocate(MappedCellStorage.getSize(WIDTH, HEIGHT)), WIDTH, HEIGHT);
+		assertThrows(UnsupportedOperationException.class, () -> sut.setBits(0, 0, Floorplan.CW_TOP));
+		assertThrows(UnsupportedOperationException.class, () -> new Floorplan(sut).setCellAsVisited(1, 1));
+		assertThrows(IllegalArgumentException.class, () -> new MappedCellStorage(ByteBuffer.allocate(10), WIDTH, HEIGHT));
+	}
+}
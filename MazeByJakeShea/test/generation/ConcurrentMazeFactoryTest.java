@@ -0,0 +1,186 @@
+package generation;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+import generation.Order.Builder;
+
+/**
+ * Tests the ConcurrentMazeFactory class.
+ *
+ * @author Jake Shea
+ *
+ */
+class ConcurrentMazeFactoryTest {
+
+	/**
+	 * Creates an order
+	 * @param builder is the algorithm
+	 * @param skill is the skill level
+	 * @param seed is the seed
+	 * @return the order
+	 */
+	private static StubOrder createOrder(Builder builder, int skill, int seed) {
+		StubOrder order = new StubOrder();
+		order.setBuilder(builder);
+		order.setSkill(skill);
+		order.setSeed(seed);
+		return order;
+	}
+
+	/**
+	 * Test case: many orders with a thread pool
+	 * <p>
+	 * Method under test: orderAsync, waitTillDelivered
+	 * <p>
+	 * It is correct if every order is delivered through its deliver
+	 * method and its future, both with the same maze.
+	 */
+	@Test
+	final void testManyOrders() throws Exception {
+		try (ConcurrentMazeFactory factory = new ConcurrentMazeFactory(4, 24)) {
+			List<StubOrder> orders = new ArrayList<>();
+			List<CompletableFuture<Maze>> futures = new ArrayList<>();
+			for (int i = 0; i < 24; i++) {
+				StubOrder order = createOrder(Builder.values()[i % Builder.values().length], i % 3, i);
+				orders.add(order);
+				futures.add(factory.orderAsync(order));
+			}
+			for (int i = 0; i < orders.size(); i++) {
+				Maze maze = futures.get(i).get(60, TimeUnit.SECONDS);
+				assertNotNull(maze);
+				assertSame(maze, orders.get(i).getMaze());
+			}
+			factory.waitTillDelivered();
+			assertEquals(0, factory.getPendingCount());
+		}
+	}
+
+	/**
+	 * Test case: mazes built in parallel are the same as mazes built one at a time
+	 * <p>
+	 * Method under test: orderAsync, MazeBuilder.buildOrder
+	 * <p>
+	 * It is correct if every maze built on a thread pool has the same floorplan,
+	 * starting position and exit as the maze that the MazeFactory builds
+	 * for the same order, which requires builders not to share random numbers.
+	 */
+	@Test
+	final void testParallelBuildsMatchSerialBuilds() throws Exception {
+		final int n = 16;
+		List<Maze> serial = new ArrayList<>();
+		for (int i = 0; i < n; i++) {
+			StubOrder order = createOrder(Builder.values()[i % Builder.values().length], i % 4, 100 + i);
+			MazeFactory factory = new MazeFactory();
+			assertTrue(factory.order(order));
+			factory.waitTillDelivered();
+			serial.add(order.getMaze());
+		}
+		List<CompletableFuture<Maze>> futures = new ArrayList<>();
+		try (ConcurrentMazeFactory factory = new ConcurrentMazeFactory(4, n)) {
+			for (int i = 0; i < n; i++)
+				futures.add(factory.orderAsync(createOrder(Builder.values()[i % Builder.values().length], i % 4, 100 + i)));
+			for (int i = 0; i < n; i++) {
+				Maze expected = serial.get(i);
+				Maze actual = futures.get(i).get(60, TimeUnit.SECONDS);
+				assertEquals(expected.getFloorplan(), actual.getFloorplan());
+				assertArrayEquals(expected.getStartingPosition(), actual.getStartingPosition());
+				assertArrayEquals(expected.getExitPosition(), actual.getExitPosition());
+			}
+		}
+	}
+
+	/**
+	 * Test case: orders beyond the capacity are refused
+	 * <p>
+	 * Method under test: order, orderAsync, cancel(Order)
+	 * <p>
+	 * It is correct if orders are refused while the factory is at capacity,
+	 * cancelling a queued order frees its slot and the cancelled
+	 * order is not built once the executor gets to it.
+	 */
+	@Test
+	final void testBoundedQueue() throws Exception {
+		// executor that only queues tasks, tasks are run later by the test
+		List<Runnable> queue = new ArrayList<>();
+		ConcurrentMazeFactory factory = new ConcurrentMazeFactory(queue::add, 2);
+		StubOrder first = createOrder(Builder.DFS, 0, 1);
+		StubOrder second = createOrder(Builder.Kruskal, 0, 2);
+		StubOrder third = createOrder(Builder.Eller, 0, 3);
+
+		CompletableFuture<Maze> firstFuture = factory.orderAsync(first);
+		assertFalse(factory.order(first)); // same order is pending
+		assertTrue(factory.order(second));
+		assertEquals(2, factory.getPendingCount());
+		CompletableFuture<Maze> refused = factory.orderAsync(third);
+		ExecutionException e = assertThrows(ExecutionException.class, () -> refused.get());
+		assertTrue(e.getCause() instanceof java.util.concurrent.RejectedExecutionException);
+
+		assertTrue(factory.cancel(first));
+		assertFalse(factory.cancel(first));
+		assertTrue(firstFuture.isCancelled());
+		assertEquals(1, factory.getPendingCount());
+		assertTrue(factory.order(third));
+
+		for (Runnable task : queue)
+			task.run();
+		assertNull(first.getMaze());
+		assertNotNull(second.getMaze());
+		assertNotNull(third.getMaze());
+		assertEquals(0, factory.getPendingCount());
+	}
+
+	/**
+	 * Test case: cancel an order while it is built
+	 * <p>
+	 * Method under test: cancel(Order)
+	 * <p>
+	 * It is correct if the order is not delivered, its future is cancelled,
+	 * and the thread is free for the next order afterwards.
+	 */
+	@Test
+	final void testCancelRunningOrder() throws Exception {
+		CountDownLatch building = new CountDownLatch(1);
+		StubOrder slow = new StubOrder() {
+			@Override
+			public void updateProgress(int percentage) {
+				building.countDown();
+				try {
+					Thread.sleep(60000);
+				}
+				catch (InterruptedException e) {
+					// keep signal for the builder
+					Thread.currentThread().interrupt();
+				}
+			}
+		};
+		slow.setBuilder(Builder.DFS);
+		slow.setSkill(3);
+		try (ConcurrentMazeFactory factory = new ConcurrentMazeFactory(1, 4)) {
+			CompletableFuture<Maze> future = factory.orderAsync(slow);
+			assertTrue(building.await(60, TimeUnit.SECONDS));
+			assertTrue(factory.cancel(slow));
+			assertThrows(CancellationException.class, () -> future.get());
+
+			StubOrder next = createOrder(Builder.Prim, 1, 5);
+			assertNotNull(factory.orderAsync(next).get(60, TimeUnit.SECONDS));
+			assertNull(slow.getMaze());
+		}
+	}
+}
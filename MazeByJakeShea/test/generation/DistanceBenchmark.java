@@ -0,0 +1,73 @@
+package generation;
+
+import java.util.Arrays;
+
+import gui.Constants;
+
+/**
+ * Compares the running time of the breadth-first search in
+ * {@link Distance#computeDistances(Floorplan)} with the original fixpoint
+ * iteration in {@link Distance#computeDistancesByFixpointIteration(Floorplan)}
+ * for a maze of each skill level as defined in Constants.SKILL_X and SKILL_Y.
+ *
+ * This is not a unit test, run it as a Java application.
+ * An optional command line argument gives the number of repetitions
+ * per skill level. The median time of those repetitions is reported in milliseconds.
+ *
+ * @author Jake Shea
+ *
+ */
+public class DistanceBenchmark {
+
+	/**
+	 * Default number of measured repetitions per skill level and algorithm
+	 */
+	private static final int DEFAULT_REPETITIONS = 15;
+	/**
+	 * Number of unmeasured repetitions to warm up the JIT compiler
+	 */
+	private static final int WARMUP = 5;
+
+	public static void main(String[] args) {
+		int repetitions = (args.length > 0) ? Integer.parseInt(args[0]) : DEFAULT_REPETITIONS;
+
+		System.out.println("skill   width x height   fixpoint [ms]        bfs [ms]   speedup");
+		for (int skill = 0; skill < Constants.SKILL_X.length; skill++) {
+			int width = Constants.SKILL_X[skill];
+			int height = Constants.SKILL_Y[skill];
+			// mazes with rooms have loops and are the harder case for the fixpoint iteration
+			Floorplan floorplan = DistanceTest.createFloorplan(skill, false, skill);
+
+			double fixpoint = measure(floorplan, width, height, repetitions, false);
+			double bfs = measure(floorplan, width, height, repetitions, true);
+			System.out.println(String.format("%5d   %5d x %-6d   %13.3f   %13.3f   %7.1f",
+					skill, width, height, fixpoint, bfs, fixpoint / bfs));
+		}
+	}
+
+	/**
+	 * Measures the median time to compute distances for the given floorplan.
+	 * @param floorplan the maze layout, read only
+	 * @param width of the maze
+	 * @param height of the maze
+	 * @param repetitions number of measured runs
+	 * @param bfs true for the breadth-first search, false for the fixpoint iteration
+	 * @return the median time in milliseconds
+	 */
+	private static double measure(Floorplan floorplan, int width, int height, int repetitions, boolean bfs) {
+		Distance dists = new Distance(width, height);
+		long[] times = new long[repetitions];
+		for (int i = -WARMUP; i < repetitions; i++) {
+			long start = System.nanoTime();
+			if (bfs)
+				dists.computeDistances(floorplan);
+			else
+				dists.computeDistancesByFixpointIteration(floorplan);
+			long duration = System.nanoTime() - start;
+			if (i >= 0)
+				times[i] = duration;
+		}
+		Arrays.sort(times);
+		return times[repetitions / 2] / 1e6;
+	}
+}
@@ -0,0 +1,119 @@
+package generation;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.junit.jupiter.api.Test;
+
+import gui.Constants;
+
+/**
+ * Tests the breadth-first search in the Distance class against
+ * the original fixpoint iteration that it replaces.
+ * Both need to deliver the very same distance matrix and
+ * exit position for the same floorplan, otherwise mazes
+ * generated for a given seed would change.
+ *
+ * @author Jake Shea
+ *
+ */
+class DistanceTest {
+
+	/**
+	 * Creates a floorplan with pathways for the given parameters
+	 * the same way as the MazeBuilder does it, but stops before
+	 * distances are computed.
+	 * @param skill is the skill level, {@code 0 <= skill <= 15}
+	 * @param perfect is true for a maze without rooms
+	 * @param seed for the random number generator
+	 * @return the floorplan
+	 */
+	static Floorplan createFloorplan(int skill, boolean perfect, int seed) {
+		StubOrder order = new StubOrder();
+		order.setSkill(skill);
+		order.setPerfect(perfect);
+		order.setSeed(seed);
+		order.setBuilder(Order.Builder.DFS);
+
+		MazeBuilder builder = new MazeBuilder();
+		builder.buildOrder(order);
+		builder.floorplan.initialize();
+		builder.generateRooms();
+		builder.generatePathways();
+		return builder.floorplan;
+	}
+
+	/**
+	 * Checks that both algorithms agree on distances and exit position.
+	 * @param floorplan the maze layout
+	 * @param width of the maze
+	 * @param height of the maze
+	 */
+	private void checkSameResult(Floorplan floorplan, int width, int height) {
+		Distance bfs = new Distance(width, height);
+		Distance fixpoint = new Distance(width, height);
+
+		assertArrayEquals(fixpoint.computeDistancesByFixpointIteration(floorplan), bfs.computeDistances(floorplan));
+		for (int x = 0; x < width; x++)
+			assertArrayEquals(fixpoint.getAllDistanceValues()[x], bfs.getAllDistanceValues()[x]);
+		assertArrayEquals(fixpoint.getStartPosition(), bfs.getStartPosition());
+		assertEquals(1, bfs.getMinDistance());
+	}
+
+	/**
+	 * Test case: distances for perfect mazes
+	 * <p>
+	 * Method under test: computeDistances
+	 * <p>
+	 * It is correct if results match the fixpoint iteration for all small skill levels.
+	 */
+	@Test
+	final void testComputeDistancesPerfect() {
+		for (int skill = 0; skill < 8; skill++) {
+			checkSameResult(createFloorplan(skill, true, 13 + skill), Constants.SKILL_X[skill], Constants.SKILL_Y[skill]);
+		}
+	}
+
+	/**
+	 * Test case: distances for mazes with rooms, i.e. with loops
+	 * <p>
+	 * Method under test: computeDistances
+	 * <p>
+	 * It is correct if results match the fixpoint iteration for all small skill levels.
+	 */
+	@Test
+	final void testComputeDistancesWithRooms() {
+		for (int skill = 0; skill < 8; skill++) {
+			checkSameResult(createFloorplan(skill, false, 42 + skill), Constants.SKILL_X[skill], Constants.SKILL_Y[skill]);
+		}
+	}
+
+	/**
+	 * Test case: distances in a maze without any internal wallboards
+	 * <p>
+	 * Method under test: computeDistances
+	 * <p>
+	 * It is correct if each distance is the manhattan distance to the exit plus 1.
+	 */
+	@Test
+	final void testComputeDistancesOpenArea() {
+		int width = 7;
+		int height = 5;
+		Floorplan floorplan = new Floorplan(width, height);
+		floorplan.initialize();
+		// tear down all internal wallboards
+		for (int x = 0; x < width; x++)
+			for (int y = 0; y < height; y++) {
+				if (x < width-1)
+					floorplan.deleteWallboard(new Wallboard(x, y, CardinalDirection.East));
+				if (y < height-1)
+					floorplan.deleteWallboard(new Wallboard(x, y, CardinalDirection.South));
+			}
+
+		Distance sut = new Distance(width, height);
+		int[] exit = sut.computeDistances(floorplan);
+		for (int x = 0; x < width; x++)
+			for (int y = 0; y < height; y++)
+				assertEquals(1 + Math.abs(x - exit[0]) + Math.abs(y - exit[1]), sut.getDistanceValue(x, y));
+	}
+}
@@ -0,0 +1,186 @@
+package generation;
+
+import java.util.Arrays;
+import java.util.Iterator;
+
+/**
+ * Compares memory use and throughput of a 1000 x 1000 Floorplan
+ * for the available cell storages. For reference, it includes
+ * a storage with the int[][] layout the Floorplan used before
+ * storages were introduced.
+ *
+ * Measured operations:
+ * initialize, carving pathways with deleteWallboard and canTearDown,
+ * hasWall for all cells and directions, a distance computation
+ * and iterating over all sequences of wallboards as in the ListOfWallsBuilder.
+ *
+ * This is not a unit test, run it as a Java application.
+ * An optional first command line argument gives the number of repetitions,
+ * the median time is reported in milliseconds. Further arguments
+ * select storages by name (int[][], flat, packed), all by default.
+ * Run each storage in a JVM of its own for numbers that are not
+ * distorted by the JIT compiler seeing several storage classes.
+ *
+ * @author Jake Shea
+ *
+ */
+public class FloorplanBenchmark {
+
+	private static final int SIZE = 1000;
+	private static final int DEFAULT_REPETITIONS = 7;
+	private static final int WARMUP = 3;
+
+	/**
+	 * Storage in the original layout, an int[][] with cells[x][y]
+	 */
+	private static class ArrayCellStorage implements CellStorage {
+		private final int[][] cells;
+		ArrayCellStorage(int w, int h) {
+			cells = new int[w][h];
+		}
+		@Override
+		public int getWidth() {
+			return cells.length;
+		}
+		@Override
+		public int getHeight() {
+			return cells[0].length;
+		}
+		@Override
+		public int get(int x, int y) {
+			return cells[x][y];
+		}
+		@Override
+		public void setBits(int x, int y, int bitmask) {
+			cells[x][y] |= bitmask;
+		}
+		@Override
+		public void clearBits(int x, int y, int bitmask) {
+			cells[x][y] &= ~bitmask;
+		}
+		@Override
+		public CellStorage copy() {
+			throw new UnsupportedOperationException();
+		}
+		@Override
+		public long getMemoryFootprint() {
+			// array of references plus one array with header per column
+			return 16L + 4L * cells.length + cells.length * (16L + 4L * cells[0].length);
+		}
+	}
+
+	private interface StorageFactory {
+		CellStorage create(int w, int h);
+	}
+
+	public static void main(String[] args) {
+		int repetitions = (args.length > 0) ? Integer.parseInt(args[0]) : DEFAULT_REPETITIONS;
+		String[] names = { "int[][]", "flat", "packed" };
+		StorageFactory[] factories = { ArrayCellStorage::new, FlatCellStorage::new, PackedCellStorage::new };
+
+		System.out.println("Floorplan " + SIZE + " x " + SIZE + ", median of " + repetitions + " runs");
+		System.out.println("storage     footprint [MB]   heap [MB]   initialize [ms]   carve [ms]   hasWall [Mops/s]   distance [ms]   sequences [ms]");
+		for (int i = 0; i < names.length; i++) {
+			if (args.length > 1 && !Arrays.asList(args).contains(names[i]))
+				continue;
+			double heap = measureHeap(factories[i]);
+			CellStorage storage = factories[i].create(SIZE, SIZE);
+			Floorplan floorplan = new Floorplan(storage);
+
+			double init = measure(repetitions, () -> floorplan.initialize());
+			double carve = measure(repetitions, () -> { floorplan.initialize(); carve(floorplan); });
+			double hasWall = measure(repetitions, () -> countWalls(floorplan));
+			Distance dists = new Distance(SIZE, SIZE);
+			double distance = measure(repetitions, () -> dists.computeDistances(floorplan));
+			double sequences = measure(repetitions, () -> countSequences(floorplan));
+
+			System.out.println(String.format("%-10s %15.2f %11.2f %17.2f %12.2f %18.1f %15.2f %16.2f",
+					names[i], storage.getMemoryFootprint() / 1e6, heap, init, carve,
+					4.0 * SIZE * SIZE / (hasWall * 1e3), distance, sequences));
+		}
+	}
+
+	/**
+	 * Carves a perfect maze: all rows are open from west to east
+	 * and connected to each other along a single column
+	 * that is chosen per row. Uses canTearDown and setCellAsVisited
+	 * the way the builders do.
+	 * @param floorplan an initialized floorplan
+	 */
+	private static void carve(Floorplan floorplan) {
+		Wallboard wallboard = new Wallboard(0, 0, CardinalDirection.East);
+		for (int y = 0; y < SIZE; y++) {
+			for (int x = 0; x < SIZE; x++) {
+				floorplan.setCellAsVisited(x, y);
+				if (x < SIZE-1) {
+					wallboard.setLocationDirection(x, y, CardinalDirection.East);
+					if (floorplan.canTearDown(wallboard))
+						floorplan.deleteWallboard(wallboard);
+				}
+			}
+			if (y < SIZE-1) {
+				wallboard.setLocationDirection((y * 7919) % SIZE, y, CardinalDirection.South);
+				floorplan.deleteWallboard(wallboard);
+			}
+		}
+	}
+
+	private static int countWalls(Floorplan floorplan) {
+		int count = 0;
+		for (int y = 0; y < SIZE; y++)
+			for (int x = 0; x < SIZE; x++)
+				for (CardinalDirection cd : CardinalDirection.values())
+					if (floorplan.hasWall(x, y, cd))
+						count++;
+		return count;
+	}
+
+	private static int countSequences(Floorplan floorplan) {
+		int count = 0;
+		for (int y = 0; y < SIZE; y++) {
+			for (Iterator<int[]> it = floorplan.iterator(0, y, CardinalDirection.North); it.hasNext(); it.next())
+				count++;
+		}
+		for (int x = 0; x < SIZE; x++) {
+			for (Iterator<int[]> it = floorplan.iterator(x, 0, CardinalDirection.East); it.hasNext(); it.next())
+				count++;
+		}
+		return count;
+	}
+
+	/**
+	 * Measures the median time to perform the given task.
+	 * @param repetitions number of measured runs
+	 * @param task is the operation to measure
+	 * @return the median time in milliseconds
+	 */
+	private static double measure(int repetitions, Runnable task) {
+		long[] times = new long[repetitions];
+		for (int i = -WARMUP; i < repetitions; i++) {
+			long start = System.nanoTime();
+			task.run();
+			long duration = System.nanoTime() - start;
+			if (i >= 0)
+				times[i] = duration;
+		}
+		Arrays.sort(times);
+		return times[repetitions / 2] / 1e6;
+	}
+
+	/**
+	 * Measures the increase of used heap memory when a storage is allocated.
+	 * @param factory creates the storage
+	 * @return the increase in megabytes
+	 */
+	private static double measureHeap(StorageFactory factory) {
+		Runtime runtime = Runtime.getRuntime();
+		System.gc();
+		long before = runtime.totalMemory() - runtime.freeMemory();
+		CellStorage storage = factory.create(SIZE, SIZE);
+		System.gc();
+		long after = runtime.totalMemory() - runtime.freeMemory();
+		// keep storage reachable until after the measurement
+		storage.get(0, 0);
+		return (after - before) / 1e6;
+	}
+}
@@ -0,0 +1,96 @@
+package generation;
+
+import java.util.List;
+
+/**
+ * Measures maze generation per skill level: generation of rooms and pathways
+ * for the MazeBuilder (DFS), MazeBuilderPrim and MazeBuilderBoruvka,
+ * the computation of distances and the construction of the BSP tree.
+ * Each operation works on the same maze, given by skill level and seed,
+ * in each repetition. Builders are created once before they are measured,
+ * as the constructors of MazeBuilderPrim and MazeBuilderBoruvka print to the console
+ * and MazeBuilderBoruvka allocates its table of random numbers, each operation
+ * sets up the builder for the order anew.
+ *
+ * The project has no build manifest to pull in JMH, so the BenchmarkRunner stands in for it.
+ * It warms up and measures in the same JVM as all other benchmarks of the run,
+ * without forks that isolate them from each other and without the dead code
+ * and constant folding safeguards of JMH. Compare numbers of the same run
+ * and the same machine only.
+ *
+ * This is not a unit test, run it as a Java application.
+ * Command line arguments are passed to {@link BenchmarkRunner#fromArgs(String[])},
+ * a fourth argument selects a single skill level.
+ *
+ * @author Jake Shea
+ *
+ */
+public class GenerationBenchmark {
+
+	private static final int[] SKILLS = { 0, 3, 6, 9, 12, 15 };
+	private static final int SEED = 13;
+
+	public static void main(String[] args) throws Exception {
+		BenchmarkRunner runner = BenchmarkRunner.fromArgs(args);
+		int[] skills = (args.length > 3) ? new int[] { Integer.parseInt(args[3]) } : SKILLS;
+		String[] names = { "DFS", "Prim", "Boruvka" };
+		List<MazeBuilder> builders = List.of(new MazeBuilder(), new MazeBuilderPrim(), new MazeBuilderBoruvka());
+
+		for (int skill : skills) {
+			for (int i = 0; i < names.length; i++) {
+				MazeBuilder builder = builders.get(i);
+				runner.measure("generate " + names[i] + " skill " + skill, () -> generate(builder, skill));
+			}
+			// distances and BSP tree for a maze of the MazeBuilder
+			MazeBuilder maze = new MazeBuilder();
+			buildOrder(maze, skill);
+			maze.generate();
+			Distance dists = new Distance(maze.width, maze.height);
+			runner.measure("Distance.computeDistances skill " + skill, () -> dists.computeDistances(maze.floorplan));
+			// the sequential build allocates on the measured thread only
+			runner.measure("BSPBuilder sequential skill " + skill,
+					() -> createBSPBuilder(maze, Integer.MAX_VALUE).generateBSPNodes());
+			runner.measure("BSPBuilder fork-join skill " + skill,
+					() -> createBSPBuilder(maze, BSPBuilder.PARALLEL_THRESHOLD).generateBSPNodes());
+		}
+	}
+
+	/**
+	 * Generates rooms and pathways for a maze
+	 * @param builder is the builder to use, it is set up for the order anew
+	 * @param skill is the skill level
+	 * @return the builder with the maze in its floorplan
+	 */
+	private static MazeBuilder generate(MazeBuilder builder, int skill) {
+		buildOrder(builder, skill);
+		builder.generatePathways();
+		return builder;
+	}
+
+	/**
+	 * Sets up the builder for an order and generates rooms
+	 * @param builder is the builder to use
+	 * @param skill is the skill level
+	 */
+	private static void buildOrder(MazeBuilder builder, int skill) {
+		StubOrder order = new StubOrder();
+		order.setSkill(skill);
+		order.setSeed(SEED);
+		builder.buildOrder(order);
+		builder.floorplan.initialize();
+		builder.generateRooms();
+	}
+
+	/**
+	 * Creates a BSPBuilder for the maze of the given builder
+	 * @param maze is the builder with floorplan and distances
+	 * @param parallelThreshold is the minimum number of walls for parallel computation
+	 * @return the BSPBuilder, without an order such that it does not pass on progress
+	 */
+	private static BSPBuilder createBSPBuilder(MazeBuilder maze, int parallelThreshold) {
+		BSPBuilder bsp = new BSPBuilder(null, maze.dists, maze.floorplan, maze.width, maze.height,
+				SEED, null);
+		bsp.parallelThreshold = parallelThreshold;
+		return bsp;
+	}
+}
@@ -0,0 +1,78 @@
+package generation;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Compares the throughput of generatePathways for the maze builders
+ * on perfect mazes of increasing skill level.
+ * Rooms and the BSP tree are left out such that only the
+ * generation of pathways is measured.
+ *
+ * This is not a unit test, run it as a Java application.
+ * An optional first command line argument gives the number of repetitions,
+ * the median throughput is reported in cells per millisecond.
+ * Further arguments select builders by name (DFS, Prim, Boruvka, Kruskal, Eller),
+ * all by default.
+ *
+ * @author Jake Shea
+ *
+ */
+public class MazeBuilderBenchmark {
+
+	private static final int DEFAULT_REPETITIONS = 7;
+	private static final int WARMUP = 3;
+	private static final int[] SKILLS = { 3, 6, 9, 12, 15 };
+
+	public static void main(String[] args) {
+		int repetitions = (args.length > 0) ? Integer.parseInt(args[0]) : DEFAULT_REPETITIONS;
+		String[] names = { "DFS", "Prim", "Boruvka", "Kruskal", "Eller" };
+		List<Supplier<MazeBuilder>> builders = List.of(
+				MazeBuilder::new, MazeBuilderPrim::new, MazeBuilderBoruvka::new,
+				MazeBuilderKruskal::new, MazeBuilderEller::new);
+
+		StringBuilder header = new StringBuilder("builder  ");
+		for (int skill : SKILLS)
+			header.append(String.format("%14s", "skill " + skill));
+		System.out.println("generatePathways, perfect mazes, median of " + repetitions + " runs [cells/ms]");
+		System.out.println(header);
+		for (int i = 0; i < names.length; i++) {
+			if (args.length > 1 && !Arrays.asList(args).contains(names[i]))
+				continue;
+			StringBuilder line = new StringBuilder(String.format("%-9s", names[i]));
+			for (int skill : SKILLS)
+				line.append(String.format("%14.1f", measure(repetitions, builders.get(i), skill)));
+			System.out.println(line);
+		}
+	}
+
+	/**
+	 * Measures the median throughput of generatePathways.
+	 * Each run uses a new builder and a new seed.
+	 * @param repetitions number of measured runs
+	 * @param builders creates the builder
+	 * @param skill is the skill level
+	 * @return the median throughput in cells per millisecond
+	 */
+	private static double measure(int repetitions, Supplier<MazeBuilder> builders, int skill) {
+		double[] throughputs = new double[repetitions];
+		for (int i = -WARMUP; i < repetitions; i++) {
+			MazeBuilder builder = builders.get();
+			StubOrder order = new StubOrder();
+			order.setSkill(skill);
+			order.setSeed(i + WARMUP);
+			order.setPerfect(true);
+			builder.buildOrder(order);
+			builder.floorplan.initialize();
+
+			long start = System.nanoTime();
+			builder.generatePathways();
+			long duration = System.nanoTime() - start;
+			if (i >= 0)
+				throughputs[i] = builder.width * builder.height / (duration / 1e6);
+		}
+		Arrays.sort(throughputs);
+		return throughputs[repetitions / 2];
+	}
+}
@@ -761,6 +761,52 @@ public class MazeBuilderBoruvkaTest extends MazeFactoryTest
     			(2 * (perfectMaze.getWidth() + perfectMaze.getHeight())) - (perfectMaze.getWidth() * perfectMaze.getHeight() - 1)));
     }
     
+    /**
+     * Test Case: Check if the largest perfect maze is a spanning tree
+     * Routine being tested: generatePathways
+     * 
+     * Skill level 15 was out of reach before components were kept
+     * in a disjoint-set forest. Tests that exactly width*height-1 internal
+     * walls are torn down and that every cell can reach every other cell.
+     */
+    @Test
+    public void testLargePerfectMaze()
+    {
+    	StubOrder order = new StubOrder();
+    	order.setBuilder(Builder.Boruvka);
+    	order.setSkill(15);
+    	order.setSeed(15);
+    	order.setPerfect(true);
+    	
+    	//Only generate pathways, no need for the expensive BSP tree here
+    	MazeBuilderBoruvka builder = new MazeBuilderBoruvka();
+    	builder.buildOrder(order);
+    	builder.floorplan.initialize();
+    	builder.generatePathways();
+    	Floorplan floorplan = builder.floorplan;
+    	int width = builder.width;
+    	int height = builder.height;
+    	
+    	//Count internal walls that were torn down
+    	int deleted = 0;
+    	for(int x = 0; x < width; x++)
+    		for(int y = 0; y < height; y++)
+    		{
+    			if(x < width - 1 && floorplan.hasNoWall(x, y, CardinalDirection.East))
+    				deleted++;
+    			if(y < height - 1 && floorplan.hasNoWall(x, y, CardinalDirection.South))
+    				deleted++;
+    		}
+    	assertEquals(width * height - 1, deleted);
+    	
+    	//All cells are connected if all have a finite distance
+    	Distance dists = new Distance(width, height);
+    	dists.computeDistances(floorplan);
+    	for(int x = 0; x < width; x++)
+    		for(int y = 0; y < height; y++)
+    			assertTrue(dists.getDistanceValue(x, y) < Distance.INFINITY);
+    }
+    
     //New Methods for White Box Testing
     
     /**
@@ -779,7 +825,9 @@ public class MazeBuilderBoruvkaTest extends MazeFactoryTest
     	
     	//Creates a MazeBuilderBoruvka object to use the getEdgeWeight function.
     	MazeBuilderBoruvka builder = new MazeBuilderBoruvka();
-    	builder.random = SingleRandom.getRandom();
+    	//Builders no longer seed the shared SingleRandom, use a seeded generator
+    	//of its own such that the list of random numbers is always the same.
+    	builder.random = new SingleRandom(0);
     	builder.createList();
     	//Loops through each maze
     	for(int mazeNum = 0; mazeNum < 10; mazeNum++)
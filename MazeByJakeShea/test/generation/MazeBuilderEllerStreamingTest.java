@@ -0,0 +1,171 @@
+package generation;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Tests the MazeBuilderEllerStreaming class together with
+ * the FileRowSink and PagedCellStorage classes it writes to and reads from.
+ *
+ * @author Jake Shea
+ *
+ */
+class MazeBuilderEllerStreamingTest {
+
+	@TempDir
+	Path tempDir;
+
+	/**
+	 * Builds a perfect maze with the in-memory MazeBuilderEller
+	 * @param skill the skill level
+	 * @param seed the seed
+	 * @return the builder with a floorplan that has pathways
+	 */
+	private static MazeBuilder buildInMemory(int skill, int seed) {
+		return MazeBuilderKruskalTest.generatePathways(new MazeBuilderEller(), skill, seed, true);
+	}
+
+	/**
+	 * Test case: streamed rows match a maze built in memory
+	 * <p>
+	 * Method under test: generatePathways, rowCompleted
+	 * <p>
+	 * It is correct if every row arrives once and in order and
+	 * has the same wallboards as the maze that MazeBuilderEller
+	 * builds in memory for the same seed.
+	 */
+	@Test
+	final void testStreamMatchesInMemoryMaze() {
+		for (int skill = 0; skill < 10; skill++) {
+			MazeBuilder inMemory = buildInMemory(skill, 13);
+			Floorplan expected = inMemory.floorplan;
+			int[] nextRow = { 0 };
+			MazeBuilderEllerStreaming builder = new MazeBuilderEllerStreaming((y, walls) -> {
+				assertEquals(nextRow[0]++, y);
+				for (int x = 0; x < walls.length; x++)
+					assertEquals(expected.getValueOfCell(x, y) & Floorplan.CW_ALL, walls[x]);
+			});
+			StubOrder order = new StubOrder();
+			order.setSkill(skill);
+			order.setSeed(13);
+			builder.buildOrder(order);
+			builder.run();
+			assertEquals(inMemory.height, nextRow[0]);
+		}
+	}
+
+	/**
+	 * Test case: a tall maze without a floorplan
+	 * <p>
+	 * Method under test: buildOrder(int, int, int), generatePathways
+	 * <p>
+	 * It is correct if the maze is a spanning tree, i.e. exactly
+	 * width*height-1 wallboards are torn down, and no wallboard
+	 * on the outside of the maze is missing.
+	 */
+	@Test
+	final void testTallPerfectMaze() {
+		final int width = 40;
+		final int height = 100000;
+		long[] deleted = { 0 };
+		MazeBuilderEllerStreaming builder = new MazeBuilderEllerStreaming((y, walls) -> {
+			for (int x = 0; x < width; x++) {
+				if (x < width - 1 && (walls[x] & Floorplan.CW_RIGHT) == 0)
+					deleted[0]++;
+				if (y < height - 1 && (walls[x] & Floorplan.CW_BOT) == 0)
+					deleted[0]++;
+			}
+			assertTrue((walls[0] & Floorplan.CW_LEFT) != 0);
+			assertTrue((walls[width-1] & Floorplan.CW_RIGHT) != 0);
+			if (y == 0)
+				for (int x = 0; x < width; x++)
+					assertTrue((walls[x] & Floorplan.CW_TOP) != 0);
+			if (y == height - 1)
+				for (int x = 0; x < width; x++)
+					assertTrue((walls[x] & Floorplan.CW_BOT) != 0);
+		});
+		builder.buildOrder(width, height, 5);
+		builder.run();
+		assertEquals((long) width * height - 1, deleted[0]);
+	}
+
+	/**
+	 * Test case: write rows to file and page them back in
+	 * <p>
+	 * Method under test: FileRowSink, PagedCellStorage, Floorplan(CellStorage)
+	 * <p>
+	 * It is correct if a floorplan on the paged storage agrees with
+	 * the maze built in memory on all wallboards and borders
+	 * while only keeping a few pages in memory.
+	 */
+	@Test
+	final void testFileRoundTrip() throws IOException {
+		final int skill = 9;
+		MazeBuilder inMemory = buildInMemory(skill, 21);
+		Floorplan expected = inMemory.floorplan;
+		Path file = tempDir.resolve("maze.rows");
+		try (FileRowSink sink = new FileRowSink(file, inMemory.width)) {
+			StubOrder order = new StubOrder();
+			order.setSkill(skill);
+			order.setSeed(21);
+			MazeBuilderEllerStreaming builder = new MazeBuilderEllerStreaming(sink);
+			builder.buildOrder(order);
+			builder.run();
+		}
+		try (PagedCellStorage storage = new PagedCellStorage(file, 3, 2)) {
+			Floorplan paged = new Floorplan(storage);
+			assertEquals(inMemory.width, storage.getWidth());
+			assertEquals(inMemory.height, storage.getHeight());
+			Wallboard wallboard = new Wallboard(0, 0, CardinalDirection.East);
+			// read column by column to force pages to be dropped and read again
+			for (int x = 0; x < inMemory.width; x++)
+				for (int y = 0; y < inMemory.height; y++)
+					for (CardinalDirection cd : CardinalDirection.values()) {
+						assertEquals(expected.hasWall(x, y, cd), paged.hasWall(x, y, cd));
+						wallboard.setLocationDirection(x, y, cd);
+						assertEquals(expected.isPartOfBorder(wallboard), paged.isPartOfBorder(wallboard));
+					}
+			assertTrue(storage.getPageCount() <= 2);
+			assertFalse(paged.isInRoom(0, 0));
+			assertThrows(UnsupportedOperationException.class, () -> paged.setCellAsVisited(0, 0));
+		}
+	}
+
+	/**
+	 * Test case: height is written on close
+	 * <p>
+	 * Method under test: FileRowSink.close, PagedCellStorage(Path)
+	 * <p>
+	 * It is correct if the storage sees as many rows as were written
+	 * and rejects a file that is cut short.
+	 */
+	@Test
+	final void testHeaderAndTruncatedFile() throws IOException {
+		Path file = tempDir.resolve("rows");
+		try (FileRowSink sink = new FileRowSink(file, 3)) {
+			byte[] walls = { Floorplan.CW_ALL, Floorplan.CW_TOP, Floorplan.CW_LEFT };
+			for (int y = 0; y < 5; y++)
+				sink.acceptRow(y, walls);
+			assertThrows(IllegalArgumentException.class, () -> sink.acceptRow(7, walls));
+		}
+		assertEquals(FileRowSink.HEADER_SIZE + 5 * 2, Files.size(file));
+		try (PagedCellStorage storage = new PagedCellStorage(file)) {
+			assertEquals(3, storage.getWidth());
+			assertEquals(5, storage.getHeight());
+			assertEquals(Floorplan.CW_TOP, storage.get(1, 2));
+		}
+		byte[] content = Files.readAllBytes(file);
+		Files.write(file, Arrays.copyOf(content, content.length - 1));
+		assertThrows(IOException.class, () -> new PagedCellStorage(file));
+	}
+}
@@ -0,0 +1,73 @@
+package generation;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import generation.Order.Builder;
+
+/**
+ * Tests the MazeBuilderEller class.
+ * Pathways are generated directly on the builder for all skill levels
+ * to keep tests fast, one maze is ordered through the MazeFactory.
+ * Helper methods are shared with MazeBuilderKruskalTest.
+ * 
+ * @author Jake Shea
+ */
+public class MazeBuilderEllerTest
+{
+	/**
+	 * Test Case: Check if a perfect maze is a spanning tree
+	 * Routine being tested: generatePathways
+	 * 
+	 * A spanning tree over width*height cells has width*height-1 edges.
+	 */
+	@Test
+	public void testPerfectMazes()
+	{
+		for(int skill = 0; skill < 16; skill++)
+		{
+			MazeBuilder builder = MazeBuilderKruskalTest.generatePathways(new MazeBuilderEller(), skill, skill, true);
+			assertEquals(builder.width * builder.height - 1, MazeBuilderKruskalTest.countDeletedWallboards(builder));
+			MazeBuilderKruskalTest.assertAllCellsReachable(builder);
+		}
+	}
+	
+	/**
+	 * Test Case: Check if a maze with rooms is connected
+	 * Routine being tested: generatePathways
+	 * 
+	 * Walls of rooms are borders, cells in rooms still need to be reachable.
+	 * Eller's algorithm only sees one row at a time, so no set must get
+	 * trapped in a room.
+	 */
+	@Test
+	public void testMazesWithRooms()
+	{
+		for(int skill = 0; skill < 16; skill++)
+		{
+			for(int seed = 0; seed < 20; seed++)
+				MazeBuilderKruskalTest.assertAllCellsReachable(MazeBuilderKruskalTest.generatePathways(new MazeBuilderEller(), skill, seed, false));
+		}
+	}
+	
+	/**
+	 * Test Case: Check if the factory delivers a maze
+	 * Routine being tested: MazeFactory.order
+	 */
+	@Test
+	public void testOrder()
+	{
+		StubOrder order = new StubOrder();
+		order.setBuilder(Builder.Eller);
+		order.setSkill(3);
+		order.setSeed(3);
+		
+		MazeFactory factory = new MazeFactory();
+		assertTrue(factory.order(order));
+		factory.waitTillDelivered();
+		assertNotNull(order.getMaze());
+	}
+}
@@ -0,0 +1,123 @@
+package generation;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import generation.Order.Builder;
+
+/**
+ * Tests the MazeBuilderKruskal class.
+ * Pathways are generated directly on the builder for all skill levels
+ * to keep tests fast, one maze is ordered through the MazeFactory.
+ * 
+ * @author Jake Shea
+ */
+public class MazeBuilderKruskalTest
+{
+	/**
+	 * Generates pathways with the given builder without computing a BSP tree
+	 * @param builder the builder to use
+	 * @param skill the skill level
+	 * @param seed the seed
+	 * @param perfect true for a maze without rooms
+	 * @return the builder with a floorplan that has pathways
+	 */
+	static MazeBuilder generatePathways(MazeBuilder builder, int skill, int seed, boolean perfect)
+	{
+		StubOrder order = new StubOrder();
+		order.setSkill(skill);
+		order.setSeed(seed);
+		order.setPerfect(perfect);
+		builder.buildOrder(order);
+		builder.floorplan.initialize();
+		builder.generateRooms();
+		builder.generatePathways();
+		return builder;
+	}
+	
+	/**
+	 * Counts internal wallboards that have been torn down
+	 * @param builder with a floorplan that has pathways
+	 * @return the number of missing internal wallboards
+	 */
+	static int countDeletedWallboards(MazeBuilder builder)
+	{
+		int deleted = 0;
+		for(int x = 0; x < builder.width; x++)
+			for(int y = 0; y < builder.height; y++)
+			{
+				if(x < builder.width - 1 && builder.floorplan.hasNoWall(x, y, CardinalDirection.East))
+					deleted++;
+				if(y < builder.height - 1 && builder.floorplan.hasNoWall(x, y, CardinalDirection.South))
+					deleted++;
+			}
+		return deleted;
+	}
+	
+	/**
+	 * Checks that every cell can be reached from every other cell
+	 * @param builder with a floorplan that has pathways
+	 */
+	static void assertAllCellsReachable(MazeBuilder builder)
+	{
+		Distance dists = new Distance(builder.width, builder.height);
+		dists.computeDistances(builder.floorplan);
+		for(int x = 0; x < builder.width; x++)
+			for(int y = 0; y < builder.height; y++)
+				assertTrue(dists.getDistanceValue(x, y) < Distance.INFINITY);
+	}
+	
+	/**
+	 * Test Case: Check if a perfect maze is a spanning tree
+	 * Routine being tested: generatePathways
+	 * 
+	 * A spanning tree over width*height cells has width*height-1 edges.
+	 */
+	@Test
+	public void testPerfectMazes()
+	{
+		for(int skill = 0; skill < 16; skill++)
+		{
+			MazeBuilder builder = generatePathways(new MazeBuilderKruskal(), skill, skill, true);
+			assertEquals(builder.width * builder.height - 1, countDeletedWallboards(builder));
+			assertAllCellsReachable(builder);
+		}
+	}
+	
+	/**
+	 * Test Case: Check if a maze with rooms is connected
+	 * Routine being tested: generatePathways
+	 * 
+	 * Walls of rooms are borders, cells in rooms still need to be reachable.
+	 */
+	@Test
+	public void testMazesWithRooms()
+	{
+		for(int skill = 0; skill < 16; skill++)
+		{
+			for(int seed = 0; seed < 5; seed++)
+				assertAllCellsReachable(generatePathways(new MazeBuilderKruskal(), skill, seed, false));
+		}
+	}
+	
+	/**
+	 * Test Case: Check if the factory delivers a maze
+	 * Routine being tested: MazeFactory.order
+	 */
+	@Test
+	public void testOrder()
+	{
+		StubOrder order = new StubOrder();
+		order.setBuilder(Builder.Kruskal);
+		order.setSkill(3);
+		order.setSeed(3);
+		
+		MazeFactory factory = new MazeFactory();
+		assertTrue(factory.order(order));
+		factory.waitTillDelivered();
+		assertNotNull(order.getMaze());
+	}
+}
@@ -253,14 +253,14 @@ public class MazeFactoryTest
     }
     
     /**
-     * Test Case: Check if something does not get built by the factory.
+     * Test Case: Check if something gets built by the factory.
      * Routine being tested: order
      * 
      * Can test routine by creating an order for a maze, and seeing
      * if something is outputted. Not checking if it is a true maze
-     * yet, only making sure the factory does not build something.
-     * This method checks to make sure that Eller's generation
-     * algorithm wasn't accidentally implemented.
+     * yet, only if the factory builds something.
+     * This method checks if something gets built using Eller
+     * parameters.
      */
     @Test
     public final void testOrderEller()
@@ -280,19 +280,19 @@ public class MazeFactoryTest
     	//Wait until building thread terminates
     	factory.waitTillDelivered();
     	
-    	//Assert that boolean flag is false.
-    	assertFalse(flag);
+    	//Assert that boolean flag is true.
+    	assertTrue(flag);
     }
     
     /**
-     * Test Case: Check if something does not get built by the factory.
+     * Test Case: Check if something gets built by the factory.
      * Routine being tested: order
      * 
      * Can test routine by creating an order for a maze, and seeing
      * if something is outputted. Not checking if it is a true maze
-     * yet, only making sure the factory does not build something.
-     * This method checks to make sure that Kruskal's generation
-     * algorithm wasn't accidentally implemented.
+     * yet, only if the factory builds something.
+     * This method checks if something gets built using Kruskal
+     * parameters.
      */
     @Test
     public final void testOrderKruskal()
@@ -312,8 +312,8 @@ public class MazeFactoryTest
     	//Wait until building thread terminates
     	factory.waitTillDelivered();
     	
-    	//Assert that boolean flag is false.
-    	assertFalse(flag);
+    	//Assert that boolean flag is true.
+    	assertTrue(flag);
     }
     
     /**
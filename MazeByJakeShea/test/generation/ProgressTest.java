@@ -0,0 +1,90 @@
+package generation;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+import generation.Progress.Phase;
+import gui.Constants;
+
+/**
+ * Tests the Progress class and how builders count their work.
+ *
+ * @author Jake Shea
+ *
+ */
+class ProgressTest {
+
+	/**
+	 * Test case: two phases with different weights
+	 * <p>
+	 * Method under test: getPercentage
+	 * <p>
+	 * Correct behavior: each phase contributes its share, a phase with
+	 * more units than expected contributes no more than its share
+	 */
+	@Test
+	final void testPercentage() {
+		Progress progress = new Progress();
+		assertEquals(0, progress.getPercentage());
+		progress.expect(Phase.PATHWAYS, 10, 1);
+		progress.expect(Phase.BSP, 100, 3);
+		progress.worked(Phase.PATHWAYS, 5);
+		assertEquals(12, progress.getPercentage());
+		progress.worked(Phase.PATHWAYS, 50);
+		assertEquals(25, progress.getPercentage());
+		progress.expect(Phase.BSP, 10); // weight stays the same
+		progress.worked(Phase.BSP, 5);
+		assertEquals(62, progress.getPercentage());
+		progress.complete(Phase.BSP);
+		assertEquals(100, progress.getPercentage());
+	}
+
+	/**
+	 * Test case: the client of an order polls the progress
+	 * <p>
+	 * Method under test: MazeBuilder.run
+	 * <p>
+	 * Correct behavior: the builder counts on the counter of the order,
+	 * a perfect maze connects every cell, the counter is at 100 upon delivery
+	 */
+	@Test
+	final void testBuilderCountsWork() {
+		for (Order.Builder algorithm : Order.Builder.values()) {
+			long[] pathways = { 0 };
+			Progress progress = new Progress() {
+				@Override
+				public void complete(Phase phase) {
+					if (Phase.PATHWAYS == phase)
+						pathways[0] = getWorked(phase);
+					super.complete(phase);
+				}
+			};
+			int[] updates = { 0 };
+			StubOrder order = new StubOrder() {
+				@Override
+				public Progress getProgress() {
+					return progress;
+				}
+				@Override
+				public void updateProgress(int percentage) {
+					updates[0]++;
+				}
+			};
+			order.setBuilder(algorithm);
+			order.setSkill(4);
+			order.setPerfect(true);
+			order.setSeed(13);
+			MazeFactory factory = new MazeFactory();
+			assertTrue(factory.order(order));
+			factory.waitTillDelivered();
+			assertEquals(100, progress.getPercentage());
+			int cells = Constants.SKILL_X[4] * Constants.SKILL_Y[4];
+			// one cell per wallboard torn down, Eller counts rows of cells,
+			// Prim tears down an extra wallboard at its starting position
+			assertTrue(cells - 1 <= pathways[0] && pathways[0] <= cells, algorithm.toString());
+			assertTrue(updates[0] > 0);
+		}
+	}
+}
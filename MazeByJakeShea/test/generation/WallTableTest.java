@@ -0,0 +1,161 @@
+package generation;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+import gui.P5PanelF21;
+
+/**
+ * Tests the WallTable class.
+ *
+ * @author Jake Shea
+ *
+ */
+class WallTableTest {
+
+	/**
+	 * Creates a table with a vertical splitter at x=10 in row 0
+	 * and walls on both sides and across it.
+	 * @return the table
+	 */
+	private static WallTable createTable() {
+		WallTable table = new WallTable(2); // small capacity to make the table grow
+		table.add(10, 0, 0, 10, 7, 1);  // 0: splitter
+		table.add(0, 5, 20, 0, 8, 1);   // 1: crosses the splitter
+		table.add(15, 0, 0, 5, 9, 1);   // 2: right
+		table.add(5, 0, 0, 5, 10, 1);   // 3: left
+		table.add(12, 3, -2, 0, 11, 1); // 4: right, ends on the splitter
+		return table;
+	}
+
+	/**
+	 * Checks the position of a wall in the table
+	 */
+	private static void assertWall(WallTable table, int i, int x, int y, int dx, int dy, int dist) {
+		assertEquals(x, table.getStartPositionX(i));
+		assertEquals(y, table.getStartPositionY(i));
+		assertEquals(dx, table.getExtensionX(i));
+		assertEquals(dy, table.getExtensionY(i));
+		assertEquals(dist, table.getDistance(i));
+	}
+
+	/**
+	 * Test case: add walls and create Wall objects from rows
+	 * <p>
+	 * Method under test: add, toWall
+	 * <p>
+	 * It is correct if a row holds the same values as a Wall
+	 * created with the same parameters.
+	 */
+	@Test
+	final void testAddAndToWall() {
+		WallTable table = createTable();
+		assertEquals(5, table.size());
+		Wall expected = new Wall(0, 5, 20, 0, 8, 1);
+		assertEquals(expected, table.toWall(1));
+		assertEquals(P5PanelF21.getWallColor(8, 1, 20), table.getColor(1));
+		assertEquals(20, table.getEndPositionX(1));
+		assertEquals(5, table.getEndPositionY(1));
+	}
+
+	/**
+	 * Test case: add walls as read from a file, with color and flags
+	 * <p>
+	 * Method under test: addWall, toWall, BSPLeaf over rows of the table
+	 * <p>
+	 * It is correct if Wall objects carry the given color and flags
+	 * and a leaf over the rows has the bounds of its walls.
+	 */
+	@Test
+	final void testAddWall() {
+		WallTable table = new WallTable(1);
+		table.addWall(0, 5, 20, 0, 8, 0x123456, true, false);
+		table.addWall(15, 0, 0, 5, 9, 0x654321, false, true);
+		Wall wall = table.toWall(1);
+		assertEquals(0x654321, wall.getColor());
+		assertTrue(wall.isSeen());
+		assertFalse(wall.isPartition());
+		assertTrue(table.toWall(0).isPartition());
+		assertFalse(table.isSeen(0));
+
+		BSPLeaf leaf = new BSPLeaf(table, 0, 2);
+		assertEquals(0, leaf.getLowerBoundX());
+		assertEquals(20, leaf.getUpperBoundX());
+		assertEquals(0, leaf.getLowerBoundY());
+		assertEquals(5, leaf.getUpperBoundY());
+		assertEquals(2, leaf.getAllWalls().size());
+		assertTrue(leaf.getAllWalls().get(1).isSeen());
+	}
+
+	/**
+	 * Test case: grade of a splitter
+	 * <p>
+	 * Method under test: calculateGrade
+	 * <p>
+	 * It is correct if the grade is the difference between walls on
+	 * both sides plus 3 for the wall that crosses the splitter.
+	 */
+	@Test
+	final void testCalculateGrade() {
+		WallTable table = createTable();
+		// right: splitter, 2, 4; left: 3; split: 1
+		assertEquals(Math.abs(1 - 3) + 3, table.calculateGrade(0, 0, 5));
+	}
+
+	/**
+	 * Test case: split walls by a vertical splitter
+	 * <p>
+	 * Method under test: splitWalls
+	 * <p>
+	 * It is correct if left walls stay in place in their order, right walls
+	 * are appended in their order, the crossing wall is cut at the splitter
+	 * and walls on the splitter are marked as partitioned.
+	 */
+	@Test
+	final void testSplitWalls() {
+		WallTable table = createTable();
+		table.setPartition(0, true);
+		int leftTo = table.splitWalls(0, 0, 5);
+		assertEquals(2, leftTo);
+		assertEquals(9, table.size());
+		// left side
+		assertWall(table, 0, 0, 5, 10, 0, 8);
+		assertWall(table, 1, 5, 0, 0, 5, 10);
+		// right side
+		assertWall(table, 5, 10, 0, 0, 10, 7);
+		assertWall(table, 6, 10, 5, 10, 0, 8);
+		assertWall(table, 7, 15, 0, 0, 5, 9);
+		assertWall(table, 8, 12, 3, -2, 0, 11);
+		assertTrue(table.isPartition(5));
+		assertFalse(table.isPartition(6));
+		assertEquals(table.getColor(0), table.getColor(6));
+		assertEquals(1, table.countNonPartitions(0, 1));
+		assertEquals(3, table.countNonPartitions(5, 9));
+	}
+
+	/**
+	 * Test case: copy and release rows
+	 * <p>
+	 * Method under test: addAll, truncate
+	 * <p>
+	 * It is correct if copied rows match the original rows and
+	 * truncate releases rows at the end of the table.
+	 */
+	@Test
+	final void testAddAllAndTruncate() {
+		WallTable table = createTable();
+		WallTable copy = new WallTable(0);
+		copy.add(1, 1, 1, 0, 3, 1);
+		assertEquals(1, copy.addAll(table, 2, 5));
+		assertEquals(4, copy.size());
+		assertEquals(table.toWall(3), copy.toWall(2));
+		copy.truncate(1);
+		assertEquals(1, copy.size());
+		// rows after the end are overwritten by new rows
+		assertEquals(1, copy.add(2, 2, 0, 1, 4, 1));
+		assertWall(copy, 1, 2, 2, 0, 1, 4);
+	}
+}
@@ -0,0 +1,177 @@
+package gui;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.awt.Graphics;
+import java.io.StringWriter;
+import java.lang.management.ManagementFactory;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.junit.jupiter.api.Test;
+
+import generation.Floorplan;
+import gui.FrameMetrics.Timer;
+
+/**
+ * Tests the FrameMetrics. Frames end with a commit, their counters and times
+ * must be available through the management interface and in CSV format.
+ *
+ * @author Jake Shea
+ *
+ */
+class FrameMetricsTest extends DriverTest {
+
+	/**
+	 * Test case: times of draw operations
+	 * <p>
+	 * Method under test: getBucket, record, getPercentileMillis
+	 * <p>
+	 * Correct behavior: a time goes into the smallest bucket with a bound above it,
+	 * percentiles are bucket bounds but never above the longest time
+	 */
+	@Test
+	final void testHistogram() {
+		assertEquals(0, FrameMetrics.getBucket(999));
+		assertEquals(1, FrameMetrics.getBucket(1000));
+		assertEquals(2, FrameMetrics.getBucket(2000));
+		assertEquals(11, FrameMetrics.getBucket(1500000));
+		assertEquals(FrameMetrics.BUCKETS - 1, FrameMetrics.getBucket(Long.MAX_VALUE));
+
+		FrameMetrics metrics = new FrameMetrics();
+		assertEquals(0.0, metrics.getFirstPersonViewP99Millis());
+		for (int i = 0; i < 99; i++)
+			metrics.record(Timer.FIRST_PERSON_VIEW, 1500000);
+		metrics.record(Timer.FIRST_PERSON_VIEW, 3000000);
+		assertEquals(99, metrics.getFirstPersonViewHistogram()[11]);
+		assertEquals(1, metrics.getFirstPersonViewHistogram()[12]);
+		assertEquals(2.048, metrics.getPercentileMillis(Timer.FIRST_PERSON_VIEW, 50));
+		assertEquals(2.048, metrics.getFirstPersonViewP99Millis());
+		assertEquals(3.0, metrics.getPercentileMillis(Timer.FIRST_PERSON_VIEW, 100));
+		assertEquals(0.0, metrics.getMapP99Millis());
+	}
+
+	/**
+	 * Test case: frames with counters and times
+	 * <p>
+	 * Method under test: count, endFrame, writeFrames, writeHistograms, reset
+	 * <p>
+	 * Correct behavior: only commits after a view was drawn end a frame,
+	 * the most recent frames are written oldest first
+	 */
+	@Test
+	final void testFrames() {
+		FrameMetrics metrics = new FrameMetrics();
+		metrics.endFrame(1000); // title screen
+		assertEquals(0, metrics.getFrameCount());
+		metrics.record(Timer.FIRST_PERSON_VIEW, 3000000);
+		metrics.count(10, 4, 20, 2, 8);
+		metrics.record(Timer.MAP, 1000000);
+		metrics.endFrame(500000);
+		assertEquals(1, metrics.getFrameCount());
+		assertEquals(10, metrics.getNodesVisited());
+		assertEquals(4, metrics.getLeavesDrawn());
+		assertEquals(2, metrics.getWallsClipped());
+		assertEquals(8, metrics.getPolygonsEmitted());
+		assertEquals(4.5, metrics.getMaxFrameMillis());
+		assertEquals(2, metrics.getCommitHistogram()[FrameMetrics.getBucket(1000)]
+				+ metrics.getCommitHistogram()[FrameMetrics.getBucket(500000)]);
+
+		for (int frame = 1; frame < FrameMetrics.FRAMES + 5; frame++) {
+			metrics.record(Timer.FIRST_PERSON_VIEW, 1000);
+			metrics.count(frame, 0, 0, 0, 0);
+			metrics.endFrame(0);
+		}
+		StringWriter writer = new StringWriter();
+		metrics.writeFrames(writer);
+		String[] lines = writer.toString().split("\\R");
+		assertEquals(FrameMetrics.FRAMES + 1, lines.length);
+		assertEquals("5,1,0,0,5,0,0,0,0", lines[1]);
+
+		writer = new StringWriter();
+		metrics.writeHistograms(writer);
+		lines = writer.toString().split("\\R");
+		assertEquals(FrameMetrics.BUCKETS + 1, lines.length);
+		assertEquals("1,0,0," + (FrameMetrics.FRAMES + 4), lines[1]); // commits below 1 us
+
+		metrics.reset();
+		assertEquals(0, metrics.getFrameCount());
+		assertEquals(0, metrics.getNodesVisited());
+		assertEquals(0.0, metrics.getMaxFrameMillis());
+	}
+
+	/**
+	 * Test case: frames of the first person view and the map in a maze
+	 * <p>
+	 * Method under test: getInstance and the management interface
+	 * <p>
+	 * Correct behavior: the metrics are registered, the views report counters
+	 * and times for each frame that are visible to a JMX client
+	 */
+	@Test
+	final void testViews() throws Exception {
+		setUp(13, 2);
+		FrameMetrics metrics = FrameMetrics.getInstance();
+		metrics.reset();
+		MazePanel panel = new MazePanel() {
+			private static final long serialVersionUID = 1L;
+			@Override
+			public boolean isOperational() {
+				return true;
+			}
+			@Override
+			public void setColor(int rgb) {
+				// nothing to draw on
+			}
+			@Override
+			public void addBackground(float percentToExit) {
+				// nothing to draw on
+			}
+			@Override
+			public void addFilledPolygon(int[] xPoints, int[] yPoints, int nPoints) {
+				// nothing to draw on
+			}
+			@Override
+			public void addFilledTrapezoid(int xLeft, int xRight, int topLeft, int bottomLeft,
+					int topRight, int bottomRight) {
+				// nothing to draw on
+			}
+			@Override
+			public void addLine(int startX, int startY, int endX, int endY) {
+				// nothing to draw on
+			}
+			@Override
+			public void addFilledOval(int x, int y, int width, int height) {
+				// nothing to draw on
+			}
+			@Override
+			public void paint(Graphics g) {
+				// nothing to paint on
+			}
+		};
+		Floorplan seenCells = new Floorplan(maze.getWidth() + 1, maze.getHeight() + 1);
+		FirstPersonView view = new FirstPersonView(Constants.VIEW_WIDTH, Constants.VIEW_HEIGHT,
+				Constants.MAP_UNIT, Constants.STEP_SIZE, seenCells, maze.getRootnode());
+		Map map = new Map(seenCells, 15, maze);
+		int[] start = maze.getStartingPosition();
+		for (int angle = 0; angle < 360; angle += 90) {
+			view.draw(panel, start[0], start[1], 0, angle, 0.5f);
+			map.draw(panel, start[0], start[1], angle, 0, true, true);
+			panel.update();
+		}
+
+		MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+		ObjectName name = new ObjectName(FrameMetrics.OBJECT_NAME);
+		assertEquals(4L, server.getAttribute(name, "FrameCount"));
+		assertTrue((Integer) server.getAttribute(name, "NodesVisited") > 0);
+		assertTrue((Integer) server.getAttribute(name, "PolygonsEmitted") > 0);
+		long frames = 0;
+		for (long count : (long[]) server.getAttribute(name, "MapHistogram"))
+			frames += count;
+		assertEquals(4, frames);
+		assertTrue((Double) server.getAttribute(name, "FirstPersonViewP99Millis") > 0);
+		metrics.reset();
+	}
+}
@@ -0,0 +1,493 @@
+package gui;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import generation.BenchmarkRunner;
+import generation.Floorplan;
+import generation.Maze;
+import generation.MazeFactory;
+import generation.Order.Builder;
+import generation.StubOrder;
+
+/**
+ * Measures drawing of the first person view, the RangeSet that the
+ * first person view uses to keep track of columns that are drawn already
+ * compared with its former implementation on a Vector, replaying calls
+ * recorded from frames of the first person view,
+ * and storing a maze to file and loading it with the MazeFileWriter and MazeFileReader
+ * in the XML, the binary and the mapped format. For the 300 x 240 maze of the highest
+ * skill level, the XML format is left out as it takes 30 MB on disk.
+ * For XML files, reading with a DOM document and with the StAX reader of the
+ * MazeFileReader are compared in time and peak heap use, including the file
+ * in the test data of the project if the benchmark runs in the project directory.
+ * Writing them with a DOM document and with the StAX writer of the MazeFileWriter
+ * is compared likewise. Loading a single maze from a MazeArchive with many mazes
+ * is compared with loading it from its own file.
+ * Peak heap numbers include garbage that is not collected yet, run with a small
+ * young generation, e.g. -Xmn1m, to get close to the memory that is actually in use.
+ *
+ * Frames of the first person view are drawn into an ImagePanel, which works in a
+ * headless Java runtime, with Java2D and with its framebuffer rasterizer. Frames of the first person view and the map are also drawn
+ * on a panel that ignores the drawing to measure the view transform and the traversal
+ * of the BSP tree on their own.
+ *
+ * This is not a unit test, run it as a Java application.
+ * Command line arguments are passed to {@link BenchmarkRunner#fromArgs(String[])}.
+ *
+ * @author Jake Shea
+ *
+ */
+public class GuiBenchmark {
+
+	private static final int[] SKILLS = { 0, 3, 6 };
+	private static final int LARGE_SKILL = 15;
+	private static final int LARGE_XML_SKILL = 9;
+	private static final int ARCHIVE_SIZE = 20000;
+	private static final String[] ALL_FORMATS = { ".xml", MazeBinaryWriter.EXTENSION, MazeMappedFile.EXTENSION };
+	private static final String[] BINARY_FORMATS = { MazeBinaryWriter.EXTENSION, MazeMappedFile.EXTENSION };
+	private static final int SEED = 13;
+	private static final int ANGLE_STEP = 90 / 4; // as for a rotation in StatePlaying
+	private static final int LARGE_VIEW = 3; // scale of the large view for drawing
+
+	public static void main(String[] args) throws Exception {
+		BenchmarkRunner runner = BenchmarkRunner.fromArgs(args);
+		measureRangeSet(runner);
+		if (new File(MazeXmlStreamReaderTest.INPUT_FILE).exists())
+			measureXmlReaders(runner, MazeXmlStreamReaderTest.INPUT_FILE, "input.xml", true);
+		for (int skill : SKILLS) {
+			Maze maze = createMaze(skill);
+			measureHeadlessDraw(runner, maze, skill);
+			measureDraw(runner, maze, skill);
+			measureFileRoundTrip(runner, maze, skill, ALL_FORMATS);
+		}
+		measureLargeXml(runner);
+		measureArchive(runner, createMaze(0), 0);
+		measureFileRoundTrip(runner, createMaze(LARGE_SKILL), LARGE_SKILL, BINARY_FORMATS);
+		System.exit(0); // AWT threads of the drawing may keep the runtime alive
+	}
+
+	/**
+	 * Creates a maze with the MazeFactory
+	 * @param skill is the skill level
+	 * @return the maze
+	 */
+	private static Maze createMaze(int skill) {
+		StubOrder order = new StubOrder();
+		order.setBuilder(Builder.DFS);
+		order.setSkill(skill);
+		order.setSeed(SEED);
+		MazeFactory factory = new MazeFactory();
+		factory.order(order);
+		factory.waitTillDelivered();
+		return order.getMaze();
+	}
+
+	/**
+	 * Compares the RangeSet with the former VectorRangeSet on frames of
+	 * random intervals and on frames that the first person view draws,
+	 * see {@link #measureRangeSetTrace}
+	 * @param runner measures the operations
+	 */
+	private static void measureRangeSet(BenchmarkRunner runner) throws Exception {
+		final int frames = 64;
+		final int spans = 40;
+		int[][] random = new int[frames][];
+		Random generator = new Random(SEED);
+		for (int f = 0; f < frames; f++) {
+			TraceRecorder trace = new TraceRecorder();
+			trace.set(0, Constants.VIEW_WIDTH - 1);
+			for (int s = 0; s < spans && !trace.isEmpty(); s++) {
+				int lower = generator.nextInt(Constants.VIEW_WIDTH);
+				int upper = Math.min(Constants.VIEW_WIDTH - 1, lower + 1 + generator.nextInt(60));
+				trace.getIntersection(lower, upper, new int[2]);
+				trace.remove(lower, upper);
+			}
+			random[f] = trace.getTrace();
+		}
+		measureRangeSetTrace(runner, "frame of " + spans + " random removes", random);
+		for (int skill : SKILLS)
+			measureRangeSetTrace(runner, "first person view skill " + skill, recordFrames(createMaze(skill)));
+	}
+
+	/**
+	 * Replays traces of calls to a range set, one per frame, on the RangeSet
+	 * and the VectorRangeSet. The VectorRangeSet returns a new array for each intersection
+	 * as the first person view used to get it.
+	 * @param runner measures the operations
+	 * @param label describes the traces in the output
+	 * @param traces are the calls of each frame as recorded by a TraceRecorder
+	 */
+	private static void measureRangeSetTrace(BenchmarkRunner runner, String label, int[][] traces) throws Exception {
+		RangeSet set = new RangeSet((Constants.VIEW_WIDTH + 1) / 2);
+		VectorRangeSet vector = new VectorRangeSet();
+		int[] buffer = new int[2];
+		int calls = 0;
+		for (int[] trace : traces) {
+			// both must come to the same results
+			if (replay(set, trace, buffer) != replay(vector, trace))
+				throw new IllegalStateException("RangeSet and VectorRangeSet differ for " + label);
+			calls += trace.length / 3;
+		}
+		System.out.println("RangeSet " + label + ": " + traces.length + " frames, "
+				+ (calls / traces.length) + " calls per frame");
+		int[] frame = { 0 };
+		runner.measure("RangeSet " + label, () -> replay(set, traces[frame[0]++ % traces.length], buffer));
+		runner.measure("VectorRangeSet " + label, () -> replay(vector, traces[frame[0]++ % traces.length]));
+	}
+
+	/**
+	 * Records the calls to the range set for frames of the first person view
+	 * while it walks the path from the starting position to the exit and
+	 * turns around in each cell. Drawing goes to a panel that ignores it,
+	 * so recording works in a headless Java runtime.
+	 * @param maze is the maze to draw
+	 * @return the calls of each frame
+	 */
+	private static int[][] recordFrames(Maze maze) {
+		Floorplan seenCells = new Floorplan(maze.getWidth() + 1, maze.getHeight() + 1);
+		FirstPersonView view = new FirstPersonView(Constants.VIEW_WIDTH, Constants.VIEW_HEIGHT,
+				Constants.MAP_UNIT, Constants.STEP_SIZE, seenCells, maze.getRootnode());
+		MazePanel panel = createHeadlessPanel();
+		List<int[]> frames = new ArrayList<>();
+		int[] position = maze.getStartingPosition();
+		while (true) {
+			for (int angle = 0; angle < 360; angle += ANGLE_STEP) {
+				TraceRecorder trace = new TraceRecorder();
+				view.setRangeSet(trace);
+				view.draw(panel, position[0], position[1], 0, angle, 0.5f);
+				frames.add(trace.getTrace());
+			}
+			if (1 == maze.getDistanceToExit(position[0], position[1]))
+				break;
+			position = maze.getNeighborCloserToExit(position[0], position[1]);
+		}
+		return frames.toArray(new int[0][]);
+	}
+
+	/**
+	 * Creates a panel that ignores all drawing, such that views draw
+	 * in a headless Java runtime
+	 * @return the panel
+	 */
+	private static MazePanel createHeadlessPanel() {
+		return new MazePanel() {
+			private static final long serialVersionUID = 1L;
+			@Override
+			public boolean isOperational() {
+				return true;
+			}
+			@Override
+			public void setColor(int rgb) {
+				// nothing to draw on
+			}
+			@Override
+			public void addBackground(float percentToExit) {
+				// nothing to draw on
+			}
+			@Override
+			public void addFilledPolygon(int[] xPoints, int[] yPoints, int nPoints) {
+				// nothing to draw on
+			}
+			@Override
+			public void addFilledTrapezoid(int xLeft, int xRight, int topLeft, int bottomLeft,
+					int topRight, int bottomRight) {
+				// nothing to draw on
+			}
+			@Override
+			public void addLine(int startX, int startY, int endX, int endY) {
+				// nothing to draw on
+			}
+			@Override
+			public void addFilledOval(int x, int y, int width, int height) {
+				// nothing to draw on
+			}
+		};
+	}
+
+	/**
+	 * A range set that records the calls made to it as triples of
+	 * the call and its two arguments
+	 */
+	private static class TraceRecorder extends RangeSet {
+		static final int SET = 0, REMOVE = 1, INTERSECTION = 2, IS_EMPTY = 3;
+		private int[] trace = new int[3 * 64];
+		private int length;
+
+		private void record(int call, int a, int b) {
+			if (length + 3 > trace.length)
+				trace = Arrays.copyOf(trace, 2 * trace.length);
+			trace[length++] = call;
+			trace[length++] = a;
+			trace[length++] = b;
+		}
+		int[] getTrace() {
+			return Arrays.copyOf(trace, length);
+		}
+		@Override
+		public void set(int lowerBound, int upperBound) {
+			record(SET, lowerBound, upperBound);
+			super.set(lowerBound, upperBound);
+		}
+		@Override
+		public void remove(int lowerBound, int upperBound) {
+			record(REMOVE, lowerBound, upperBound);
+			super.remove(lowerBound, upperBound);
+		}
+		@Override
+		public boolean getIntersection(int lowerBound, int upperBound, int[] result) {
+			record(INTERSECTION, lowerBound, upperBound);
+			return super.getIntersection(lowerBound, upperBound, result);
+		}
+		@Override
+		public boolean isEmpty() {
+			record(IS_EMPTY, 0, 0);
+			return super.isEmpty();
+		}
+	}
+
+	/**
+	 * Replays a trace on a RangeSet
+	 * @return a checksum of the results
+	 */
+	private static int replay(RangeSet set, int[] trace, int[] buffer) {
+		int checksum = 0;
+		for (int i = 0; i < trace.length; i += 3) {
+			switch (trace[i]) {
+			case TraceRecorder.SET:
+				set.set(trace[i+1], trace[i+2]);
+				break;
+			case TraceRecorder.REMOVE:
+				set.remove(trace[i+1], trace[i+2]);
+				break;
+			case TraceRecorder.INTERSECTION:
+				if (set.getIntersection(trace[i+1], trace[i+2], buffer))
+					checksum = 31 * checksum + buffer[0] + 7 * buffer[1];
+				break;
+			default:
+				checksum += set.isEmpty() ? 1 : 0;
+			}
+		}
+		return checksum;
+	}
+
+	/**
+	 * Replays a trace on a VectorRangeSet
+	 * @return a checksum of the results
+	 */
+	private static int replay(VectorRangeSet set, int[] trace) {
+		int checksum = 0;
+		for (int i = 0; i < trace.length; i += 3) {
+			switch (trace[i]) {
+			case TraceRecorder.SET:
+				set.set(trace[i+1], trace[i+2]);
+				break;
+			case TraceRecorder.REMOVE:
+				set.remove(trace[i+1], trace[i+2]);
+				break;
+			case TraceRecorder.INTERSECTION:
+				int[] intersection = set.getIntersection(trace[i+1], trace[i+2]);
+				if (null != intersection)
+					checksum = 31 * checksum + intersection[0] + 7 * intersection[1];
+				break;
+			default:
+				checksum += set.isEmpty() ? 1 : 0;
+			}
+		}
+		return checksum;
+	}
+
+	/**
+	 * Measures frames of FirstPersonView.draw and Map.draw on a panel that ignores
+	 * the drawing, such that the time is spent on the view transform and the traversal
+	 * of the BSP tree only. The frames walk the path from the starting position to the exit
+	 * and turn around in each cell as in {@link #recordFrames(Maze)}.
+	 * @param runner measures the operations
+	 * @param maze is the maze to draw
+	 * @param skill is the skill level for the output
+	 */
+	private static void measureHeadlessDraw(BenchmarkRunner runner, Maze maze, int skill) throws Exception {
+		MazePanel panel = createHeadlessPanel();
+		Floorplan seenCells = new Floorplan(maze.getWidth() + 1, maze.getHeight() + 1);
+		FirstPersonView view = new FirstPersonView(Constants.VIEW_WIDTH, Constants.VIEW_HEIGHT,
+				Constants.MAP_UNIT, Constants.STEP_SIZE, seenCells, maze.getRootnode());
+		Map map = new Map(seenCells, 15, maze);
+		List<int[]> frames = new ArrayList<>();
+		int[] position = maze.getStartingPosition();
+		while (true) {
+			for (int angle = 0; angle < 360; angle += ANGLE_STEP)
+				frames.add(new int[] { position[0], position[1], angle });
+			if (1 == maze.getDistanceToExit(position[0], position[1]))
+				break;
+			position = maze.getNeighborCloserToExit(position[0], position[1]);
+		}
+		int[] frame = { 0 };
+		runner.measure("FirstPersonView.draw headless skill " + skill, () -> {
+			int[] f = frames.get(frame[0]++ % frames.size());
+			view.draw(panel, f[0], f[1], 0, f[2], 0.5f);
+		});
+		runner.measure("Map.draw headless skill " + skill, () -> {
+			int[] f = frames.get(frame[0]++ % frames.size());
+			map.draw(panel, f[0], f[1], f[2], 0, true, false);
+		});
+	}
+
+	/**
+	 * Measures FirstPersonView.draw at the starting position while turning around,
+	 * drawing goes to an ImagePanel that renders like the MazePanel
+	 * but works in a headless Java runtime. Walls are drawn as polygons with Java2D
+	 * and with the framebuffer rasterizer of the ImagePanel, for the view size of the game
+	 * and for a view that is {@value #LARGE_VIEW} times as wide and high.
+	 * @param runner measures the operation
+	 * @param maze is the maze to draw
+	 * @param skill is the skill level for the output
+	 */
+	private static void measureDraw(BenchmarkRunner runner, Maze maze, int skill) throws Exception {
+		for (int scale : new int[] { 1, LARGE_VIEW }) {
+			final int width = scale * Constants.VIEW_WIDTH;
+			final int height = scale * Constants.VIEW_HEIGHT;
+			for (P5PanelF21.P5RenderingHints rasterizer : new P5PanelF21.P5RenderingHints[] {
+					P5PanelF21.P5RenderingHints.VALUE_RASTERIZER_JAVA2D, P5PanelF21.P5RenderingHints.VALUE_RASTERIZER_FRAMEBUFFER }) {
+				ImagePanel panel = new ImagePanel(width, height);
+				panel.setRenderingHint(P5PanelF21.P5RenderingHints.KEY_RASTERIZER, rasterizer);
+				Floorplan seenCells = new Floorplan(maze.getWidth() + 1, maze.getHeight() + 1);
+				FirstPersonView view = new FirstPersonView(width, height,
+						Constants.MAP_UNIT, Constants.STEP_SIZE, seenCells, maze.getRootnode());
+				int[] start = maze.getStartingPosition();
+				int[] angle = { 0 };
+				String name = rasterizer.name().substring("VALUE_RASTERIZER_".length()).toLowerCase();
+				runner.measure("FirstPersonView.draw " + width + "x" + height + " " + name + " skill " + skill, () -> {
+					view.draw(panel, start[0], start[1], 0, angle[0], 0.5f);
+					angle[0] = (angle[0] + ANGLE_STEP) % 360;
+				});
+			}
+		}
+	}
+
+	/**
+	 * Compares reading an XML file into a DOM document with the MazeXmlStreamReader
+	 * that the MazeFileReader uses, time per load is measured by the MazeFileReader
+	 * measurements already
+	 * @param runner measures the operations
+	 * @param filename is the XML file to read
+	 * @param label describes the file in the output
+	 * @param timeDOM tells to measure time per load for a DOM document,
+	 * which takes about 30 s at skill level 9
+	 */
+	private static void measureXmlReaders(BenchmarkRunner runner, String filename, String label, boolean timeDOM) throws Exception {
+		if (timeDOM)
+			runner.measure("MazeFileReader DOM " + label, () -> new MazeFileReader(filename, true));
+		runner.measurePeakHeap("MazeFileReader DOM " + label, () -> new MazeFileReader(filename, true));
+		runner.measurePeakHeap("MazeFileReader StAX " + label, () -> new MazeFileReader(filename));
+	}
+
+	/**
+	 * Compares writing an XML file from a DOM document with the StAX writer
+	 * that the MazeFileWriter.store uses, time per store is measured by the
+	 * round trip measurements already
+	 * @param runner measures the operations
+	 * @param maze is the maze to store
+	 * @param skill is the skill level for the output
+	 * @param filename is the XML file to write
+	 * @param timeDOM tells to measure time per store for a DOM document
+	 */
+	private static void measureXmlWriters(BenchmarkRunner runner, Maze maze, int skill, String filename, boolean timeDOM) throws Exception {
+		int[] start = maze.getStartingPosition();
+		int[][] dists = maze.getMazedists().getAllDistanceValues();
+		BenchmarkRunner.Operation dom = () -> MazeFileWriter.storeDOM(filename, maze.getWidth(), maze.getHeight(), 0,
+				Constants.SKILL_PARTCT[skill], maze.getRootnode(), maze.getFloorplan(), dists, start[0], start[1]);
+		BenchmarkRunner.Operation stax = () -> MazeFileWriter.store(filename, maze.getWidth(), maze.getHeight(), 0,
+				Constants.SKILL_PARTCT[skill], maze.getRootnode(), maze.getFloorplan(), dists, start[0], start[1]);
+		if (timeDOM)
+			runner.measure("MazeFileWriter DOM skill " + skill, dom);
+		runner.measurePeakHeap("MazeFileWriter DOM skill " + skill, dom);
+		runner.measurePeakHeap("MazeFileWriter StAX skill " + skill, stax);
+	}
+
+	/**
+	 * Measures writing and reading a larger XML file with the MazeFileWriter
+	 * and MazeFileReader and compares them with a DOM document
+	 * @param runner measures the operations
+	 */
+	private static void measureLargeXml(BenchmarkRunner runner) throws Exception {
+		Maze maze = createMaze(LARGE_XML_SKILL);
+		File file = File.createTempFile("maze", ".xml");
+		file.deleteOnExit();
+		String filename = file.getAbsolutePath();
+		int[] start = maze.getStartingPosition();
+		MazeFileWriter.store(filename, maze.getWidth(), maze.getHeight(), 0, Constants.SKILL_PARTCT[LARGE_XML_SKILL],
+				maze.getRootnode(), maze.getFloorplan(), maze.getMazedists().getAllDistanceValues(), start[0], start[1]);
+		runner.measure("MazeFileWriter.store .xml skill " + LARGE_XML_SKILL, () ->
+			MazeFileWriter.store(filename, maze.getWidth(), maze.getHeight(), 0, Constants.SKILL_PARTCT[LARGE_XML_SKILL],
+					maze.getRootnode(), maze.getFloorplan(), maze.getMazedists().getAllDistanceValues(), start[0], start[1]));
+		measureXmlWriters(runner, maze, LARGE_XML_SKILL, filename, true);
+		runner.measure("MazeFileReader .xml skill " + LARGE_XML_SKILL, () -> new MazeFileReader(filename));
+		measureXmlReaders(runner, filename, "skill " + LARGE_XML_SKILL, false);
+		file.delete();
+	}
+
+	/**
+	 * Measures loading a single maze from an archive of {@link #ARCHIVE_SIZE} mazes
+	 * in both formats, to compare with loading it from its own file for the same skill level.
+	 * The archive holds the same maze under different seeds as only lookup and loading are measured.
+	 * @param runner measures the operations
+	 * @param maze is the maze to store
+	 * @param skill is the skill level of the maze
+	 */
+	private static void measureArchive(BenchmarkRunner runner, Maze maze, int skill) throws Exception {
+		File file = File.createTempFile("maze", MazeArchive.EXTENSION);
+		file.deleteOnExit();
+		String filename = file.getAbsolutePath();
+		file.delete(); // archive is created when it is opened
+		StubOrder order = new StubOrder();
+		order.setBuilder(Builder.DFS);
+		order.setSkill(skill);
+		try (MazeArchive archive = new MazeArchive(filename, true)) {
+			for (int seed = 0; seed < ARCHIVE_SIZE; seed++) {
+				order.setSeed(seed);
+				archive.add(order, maze, (seed % 2 == 0) ? MazeArchive.Format.BINARY : MazeArchive.Format.XML);
+			}
+		}
+		for (int seed = 0; seed < 2; seed++) {
+			String reference = MazeArchive.getReference(filename, MazeArchive.getKey(skill, Builder.DFS, false, ARCHIVE_SIZE / 2 + seed));
+			String format = (seed % 2 == 0) ? "binary" : "gzip xml";
+			runner.measure("MazeFileReader archive of " + ARCHIVE_SIZE + " " + format + " skill " + skill,
+					() -> new MazeFileReader(reference));
+		}
+		System.out.println("archive size for " + ARCHIVE_SIZE + " mazes: " + file.length() + " bytes");
+		file.delete();
+	}
+
+	/**
+	 * Measures storing the maze with the MazeFileWriter and loading it with the MazeFileReader
+	 * in the given formats
+	 * @param runner measures the operations
+	 * @param maze is the maze to store
+	 * @param skill is the skill level for the output
+	 * @param extensions select the formats by their file name extension
+	 */
+	private static void measureFileRoundTrip(BenchmarkRunner runner, Maze maze, int skill, String[] extensions) throws Exception {
+		StringBuilder sizes = new StringBuilder("file size skill " + skill + ":");
+		for (String extension : extensions) {
+			File file = File.createTempFile("maze", extension);
+			file.deleteOnExit();
+			String filename = file.getAbsolutePath();
+			int[] start = maze.getStartingPosition();
+			int[][] dists = maze.getMazedists().getAllDistanceValues();
+			runner.measure("MazeFileWriter.store " + extension + " skill " + skill, () ->
+				MazeFileWriter.store(filename, maze.getWidth(), maze.getHeight(), 0, Constants.SKILL_PARTCT[skill],
+						maze.getRootnode(), maze.getFloorplan(), dists, start[0], start[1]));
+			runner.measure("MazeFileReader " + extension + " skill " + skill, () -> new MazeFileReader(filename));
+			if (".xml".equals(extension)) {
+				measureXmlReaders(runner, filename, "skill " + skill, true);
+				measureXmlWriters(runner, maze, skill, filename, true);
+			}
+			sizes.append(" " + extension + " " + file.length() + " bytes");
+			file.delete();
+		}
+		System.out.println(sizes);
+	}
+}
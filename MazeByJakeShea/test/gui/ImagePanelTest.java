@@ -0,0 +1,244 @@
+package gui;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.awt.Color;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import javax.imageio.ImageIO;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import generation.Floorplan;
+import gui.P5PanelF21.P5RenderingHints;
+
+/**
+ * Tests the ImagePanel. The first person view and the map must draw
+ * into its image in a headless Java runtime, the same frame always gives the same image.
+ *
+ * @author Jake Shea
+ *
+ */
+class ImagePanelTest extends DriverTest {
+
+	@TempDir
+	Path dir;
+
+	/**
+	 * Test case: drawing without a display
+	 * <p>
+	 * Method under test: isOperational, addBackground, setColor, addFilledRectangle
+	 * <p>
+	 * Correct behavior: the panel is operational, the background is drawn in the colors
+	 * for the start and close to the exit, shapes in the current color
+	 */
+	@Test
+	final void testDraw() {
+		ImagePanel panel = new ImagePanel(Constants.VIEW_WIDTH, Constants.VIEW_HEIGHT);
+		assertTrue(panel.isOperational());
+		BufferedImage image = panel.getImage();
+		assertEquals(BufferedImage.TYPE_INT_RGB, image.getType());
+
+		panel.addBackground(1.0f);
+		assertEquals(P5PanelF21.yellowWM.getRGB(), image.getRGB(0, 0));
+		assertEquals(Color.lightGray.getRGB(), image.getRGB(0, Constants.VIEW_HEIGHT - 1));
+		panel.addBackground(0.0f);
+		assertEquals(P5PanelF21.goldWM.getRGB(), image.getRGB(Constants.VIEW_WIDTH - 1, 0));
+		assertEquals(P5PanelF21.greenWM.getRGB(), image.getRGB(Constants.VIEW_WIDTH - 1, Constants.VIEW_HEIGHT - 1));
+
+		panel.setColor(P5PanelF21.red.getRGB());
+		assertEquals(P5PanelF21.red.getRGB(), panel.getColor());
+		panel.addFilledRectangle(10, 20, 5, 5);
+		assertEquals(P5PanelF21.red.getRGB(), image.getRGB(12, 22));
+		assertEquals(P5PanelF21.goldWM.getRGB(), image.getRGB(9, 22));
+	}
+
+	/**
+	 * Test case: frames of the first person view and the map in a maze
+	 * <p>
+	 * Method under test: FirstPersonView.draw, Map.draw with an ImagePanel, write
+	 * <p>
+	 * Correct behavior: walls are drawn over the background, the same frame
+	 * gives the same image, the image is written to a PNG file
+	 */
+	@Test
+	final void testViews() throws Exception {
+		int[][] pixels = new int[2][];
+		for (int i = 0; i < 2; i++) {
+			// the first person view marks walls of the maze as seen, start with a new maze
+			setUp(13, 1);
+			int[] start = maze.getStartingPosition();
+			ImagePanel panel = new ImagePanel(Constants.VIEW_WIDTH, Constants.VIEW_HEIGHT);
+			Floorplan seenCells = new Floorplan(maze.getWidth() + 1, maze.getHeight() + 1);
+			FirstPersonView view = new FirstPersonView(Constants.VIEW_WIDTH, Constants.VIEW_HEIGHT,
+					Constants.MAP_UNIT, Constants.STEP_SIZE, seenCells, maze.getRootnode());
+			Map map = new Map(seenCells, 15, maze);
+			view.draw(panel, start[0], start[1], 0, 90, 0.0f);
+			map.draw(panel, start[0], start[1], 90, 0, true, true);
+			panel.commit();
+			pixels[i] = panel.getImage().getRGB(0, 0, Constants.VIEW_WIDTH, Constants.VIEW_HEIGHT, null, 0, Constants.VIEW_WIDTH);
+
+			if (0 == i) {
+				String filename = dir.resolve("frame.png").toString();
+				panel.write(filename);
+				BufferedImage image = ImageIO.read(new File(filename));
+				assertEquals(Constants.VIEW_WIDTH, image.getWidth());
+				assertEquals(panel.getImage().getRGB(Constants.VIEW_WIDTH / 2, Constants.VIEW_HEIGHT / 2),
+						image.getRGB(Constants.VIEW_WIDTH / 2, Constants.VIEW_HEIGHT / 2));
+			}
+		}
+		assertArrayEquals(pixels[0], pixels[1]);
+		int drawn = 0;
+		for (int rgb : pixels[0])
+			if (rgb != P5PanelF21.goldWM.getRGB() && rgb != P5PanelF21.greenWM.getRGB())
+				drawn++;
+		assertTrue(drawn > Constants.VIEW_WIDTH * Constants.VIEW_HEIGHT / 10, "walls cover " + drawn + " pixels");
+	}
+
+	/**
+	 * Test case: random trapezoids with vertical sides, partly outside of the image
+	 * <p>
+	 * Method under test: addFilledTrapezoid with the framebuffer rasterizer
+	 * <p>
+	 * Correct behavior: same pixels as a filled polygon with Java2D without antialiasing,
+	 * except for pixels whose center lies exactly on the top or bottom edge
+	 */
+	@Test
+	final void testFramebuffer() {
+		final int width = 64;
+		final int height = 48;
+		ImagePanel framebuffer = new ImagePanel(width, height);
+		framebuffer.setRenderingHint(P5RenderingHints.KEY_RASTERIZER, P5RenderingHints.VALUE_RASTERIZER_FRAMEBUFFER);
+		ImagePanel java2d = new ImagePanel(width, height);
+		java2d.getGraphics().setRenderingHint(java.awt.RenderingHints.KEY_ANTIALIASING, java.awt.RenderingHints.VALUE_ANTIALIAS_OFF);
+		java2d.getGraphics().setRenderingHint(java.awt.RenderingHints.KEY_STROKE_CONTROL, java.awt.RenderingHints.VALUE_STROKE_PURE);
+		Random random = new Random(13);
+		int differ = 0;
+		for (int i = 0; i < 1000; i++) {
+			int xLeft = random.nextInt(width + 20) - 10;
+			int xRight = xLeft + 1 + random.nextInt(width);
+			int topLeft = random.nextInt(2 * height) - height / 2;
+			int topRight = random.nextInt(2 * height) - height / 2;
+			int bottomLeft = topLeft + random.nextInt(height);
+			int bottomRight = topRight + random.nextInt(height);
+			int rgb = random.nextInt(0x1000000);
+			for (ImagePanel panel : new ImagePanel[] { framebuffer, java2d }) {
+				panel.addBackground(0.0f);
+				panel.setColor(rgb);
+				panel.addFilledTrapezoid(xLeft, xRight, topLeft, bottomLeft, topRight, bottomRight);
+			}
+			for (int y = 0; y < height; y++)
+				for (int x = 0; x < width; x++)
+					if (framebuffer.getImage().getRGB(x, y) != java2d.getImage().getRGB(x, y)
+							&& !isOnEdge(x, y, xLeft, xRight, topLeft, topRight)
+							&& !isOnEdge(x, y, xLeft, xRight, bottomLeft, bottomRight))
+						differ++;
+		}
+		assertEquals(0, differ);
+	}
+
+	/**
+	 * Tells if the center of a pixel lies exactly on an edge from the left to the right side
+	 */
+	private static boolean isOnEdge(int x, int y, int xLeft, int xRight, int yLeft, int yRight) {
+		// y+0.5 == yLeft + (yRight-yLeft)*(x+0.5-xLeft)/(xRight-xLeft)
+		return (2L*y + 1 - 2L*yLeft) * (xRight - xLeft) == (long) (yRight - yLeft) * (2*x + 1 - 2*xLeft);
+	}
+
+	/**
+	 * Draws the first person view of the maze
+	 * @param framebuffer tells to use the framebuffer rasterizer, Java2D otherwise
+	 * @param x is the x coordinate of the cell of the viewer
+	 * @param y is the y coordinate of the cell of the viewer
+	 * @param angle is the viewing angle
+	 * @param trapezoids receives the arguments of each trapezoid that is drawn
+	 * @return the pixels of the frame, row by row
+	 */
+	private int[] drawFirstPersonView(boolean framebuffer, int x, int y, int angle, List<int[]> trapezoids) {
+		ImagePanel panel = new ImagePanel(Constants.VIEW_WIDTH, Constants.VIEW_HEIGHT) {
+			@Override
+			public void addFilledTrapezoid(int xLeft, int xRight, int topLeft, int bottomLeft,
+					int topRight, int bottomRight) {
+				trapezoids.add(new int[] { xLeft, xRight, topLeft, bottomLeft, topRight, bottomRight });
+				super.addFilledTrapezoid(xLeft, xRight, topLeft, bottomLeft, topRight, bottomRight);
+			}
+		};
+		panel.getGraphics().setRenderingHint(java.awt.RenderingHints.KEY_ANTIALIASING, java.awt.RenderingHints.VALUE_ANTIALIAS_OFF);
+		panel.getGraphics().setRenderingHint(java.awt.RenderingHints.KEY_STROKE_CONTROL, java.awt.RenderingHints.VALUE_STROKE_PURE);
+		if (framebuffer)
+			panel.setRenderingHint(P5RenderingHints.KEY_RASTERIZER, P5RenderingHints.VALUE_RASTERIZER_FRAMEBUFFER);
+		// walls that are marked as seen are drawn the same, only the map differs
+		Floorplan seenCells = new Floorplan(maze.getWidth() + 1, maze.getHeight() + 1);
+		FirstPersonView view = new FirstPersonView(Constants.VIEW_WIDTH, Constants.VIEW_HEIGHT,
+				Constants.MAP_UNIT, Constants.STEP_SIZE, seenCells, maze.getRootnode());
+		view.draw(panel, x, y, 0, angle, 0.0f);
+		return panel.getImage().getRGB(0, 0, Constants.VIEW_WIDTH, Constants.VIEW_HEIGHT, null, 0, Constants.VIEW_WIDTH);
+	}
+
+	/**
+	 * Test case: frames of the first person view in a maze, looking in 8 directions
+	 * from the start and from the cells at the western border, where walls are
+	 * partly hidden by walls in front of them
+	 * <p>
+	 * Method under test: FirstPersonView.draw with the framebuffer rasterizer
+	 * <p>
+	 * Correct behavior: same frame as with Java2D without antialiasing and normalization,
+	 * except for pixels whose center lies exactly on the top or bottom edge of a wall.
+	 * The walls cover the whole view from these cells, their columns do not overlap.
+	 * The viewer's eyes are halfway up the walls, so a wall's top and its exclusive bottom
+	 * add up to one more than the height of the view at both sides.
+	 */
+	@Test
+	final void testFramebufferViews() {
+		final int width = Constants.VIEW_WIDTH;
+		final int height = Constants.VIEW_HEIGHT;
+		setUp(13, 1);
+		List<int[]> cells = new ArrayList<>();
+		cells.add(maze.getStartingPosition());
+		for (int y = 0; y < maze.getHeight(); y++)
+			cells.add(new int[] { 0, y });
+		for (int[] cell : cells) {
+			for (int angle = 0; angle < 360; angle += 45) {
+				String frame = "cell (" + cell[0] + "," + cell[1] + "), angle " + angle + ": ";
+				List<int[]> trapezoids = new ArrayList<>();
+				int[] java2d = drawFirstPersonView(false, cell[0], cell[1], angle, new ArrayList<>());
+				int[] framebuffer = drawFirstPersonView(true, cell[0], cell[1], angle, trapezoids);
+				for (int y = 0; y < height; y++) {
+					for (int x = 0; x < width; x++) {
+						if (framebuffer[y*width + x] != java2d[y*width + x])
+							assertTrue(isOnEdge(x, y, trapezoids), frame + "pixel (" + x + "," + y + ") differs");
+					}
+				}
+
+				trapezoids.sort((a, b) -> Integer.compare(a[0], b[0]));
+				int column = 0;
+				for (int[] t : trapezoids) {
+					assertEquals(column, t[0], frame + "wall does not start where the one to its left ends");
+					assertEquals(height + 1, t[2] + t[3], frame + "left side of the wall at column " + t[0]);
+					assertEquals(height + 1, t[4] + t[5], frame + "right side of the wall at column " + t[0]);
+					column = t[1];
+				}
+				assertEquals(width, column, frame + "walls do not reach the right border of the view");
+			}
+		}
+	}
+
+	/**
+	 * Tells if the center of a pixel lies exactly on the top or bottom edge of one of the trapezoids
+	 */
+	private static boolean isOnEdge(int x, int y, List<int[]> trapezoids) {
+		for (int[] t : trapezoids) {
+			if (t[0] <= x && x < t[1] && (isOnEdge(x, y, t[0], t[1], t[2], t[4]) || isOnEdge(x, y, t[0], t[1], t[3], t[5])))
+				return true;
+		}
+		return false;
+	}
+}
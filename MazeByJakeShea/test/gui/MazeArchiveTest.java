@@ -0,0 +1,240 @@
+package gui;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.lang.reflect.Proxy;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import generation.Distance;
+import generation.Floorplan;
+import generation.Maze;
+import generation.MazeFactory;
+import generation.Order.Builder;
+import generation.StubOrder;
+
+/**
+ * Tests the MazeArchive. Mazes must be loaded from an archive
+ * by the MazeFileReader as they were added, in both formats and
+ * after adding more mazes to an existing archive.
+ *
+ * @author Jake Shea
+ *
+ */
+class MazeArchiveTest {
+
+	@TempDir
+	Path dir;
+
+	/**
+	 * Creates a maze with the MazeFactory
+	 * @return the order with the maze
+	 */
+	private static StubOrder createOrder(int skill, Builder builder, boolean perfect, int seed) {
+		StubOrder order = new StubOrder();
+		order.setBuilder(builder);
+		order.setSkill(skill);
+		order.setPerfect(perfect);
+		order.setSeed(seed);
+		MazeFactory factory = new MazeFactory();
+		factory.order(order);
+		factory.waitTillDelivered();
+		return order;
+	}
+
+	/**
+	 * Creates a maze without BSP tree of the size for skill level 15,
+	 * storing it fails after more than a buffer of its cells was written
+	 */
+	private static Maze createFailingMaze() {
+		final int width = Constants.SKILL_X[15];
+		final int height = Constants.SKILL_Y[15];
+		final Floorplan floorplan = new Floorplan(width, height);
+		final Distance dists = new Distance(width, height);
+		return (Maze) Proxy.newProxyInstance(Maze.class.getClassLoader(), new Class<?>[] { Maze.class },
+				(proxy, method, args) -> {
+					switch (method.getName()) {
+					case "getWidth": return width;
+					case "getHeight": return height;
+					case "getFloorplan": return floorplan;
+					case "getMazedists": return dists;
+					case "getStartingPosition": return new int[] { 0, 0 };
+					default: return null;
+					}
+				});
+	}
+
+	private static String getKey(StubOrder order) {
+		return MazeArchive.getKey(order.getSkillLevel(), order.getBuilder(), order.isPerfect(), order.getSeed());
+	}
+
+	/**
+	 * Asserts that the maze of the order is loaded from the archive as it was generated
+	 */
+	private static void assertLoaded(String filename, StubOrder order) {
+		Maze maze = order.getMaze();
+		MazeFileReader reader = new MazeFileReader(MazeArchive.getReference(filename, getKey(order)));
+		assertEquals(maze.getWidth(), reader.getWidth());
+		assertEquals(maze.getHeight(), reader.getHeight());
+		assertEquals(order.isPerfect() ? 0 : Constants.SKILL_ROOMS[order.getSkillLevel()], reader.getRooms());
+		assertEquals(Constants.SKILL_PARTCT[order.getSkillLevel()], reader.getExpectedPartiters());
+		assertArrayEquals(maze.getStartingPosition(), new int[] { reader.getStartX(), reader.getStartY() });
+		assertEquals(maze.getFloorplan(), reader.getCells());
+		assertArrayEquals(maze.getMazedists().getAllDistanceValues(), reader.getDistances());
+		MazeBinaryFileTest.assertSameTree(maze.getRootnode(), reader.getRootNode());
+	}
+
+	/**
+	 * Test case: mazes in both formats, added in two sessions
+	 * <p>
+	 * Method under test: add, MazeFileReader constructor for a reference
+	 * <p>
+	 * Correct behavior: all mazes are found and loaded as they were added,
+	 * including the ones of the first session and the ones that exceed the
+	 * initial size of the index
+	 */
+	@Test
+	final void testAddAndLoad() throws IOException {
+		String filename = dir.resolve("test" + MazeArchive.EXTENSION).toString();
+		StubOrder[] orders = new StubOrder[24];
+		for (int i = 0; i < orders.length; i++)
+			orders[i] = createOrder(i % 4, Builder.values()[i % 3], i % 2 == 0, 13 + i);
+		try (MazeArchive archive = new MazeArchive(filename, true)) {
+			for (int i = 0; i < orders.length / 2; i++)
+				archive.add(orders[i], orders[i].getMaze(), MazeArchive.Format.BINARY);
+		}
+		try (MazeArchive archive = new MazeArchive(filename, true)) {
+			assertEquals(orders.length / 2, archive.size());
+			for (int i = orders.length / 2; i < orders.length; i++)
+				archive.add(orders[i], orders[i].getMaze(), MazeArchive.Format.XML);
+		}
+		try (MazeArchive archive = new MazeArchive(filename, false)) {
+			assertEquals(orders.length, archive.size());
+			for (StubOrder order : orders)
+				assertTrue(archive.contains(getKey(order)));
+			assertFalse(archive.contains(MazeArchive.getKey(0, Builder.Eller, true, 13)));
+		}
+		for (StubOrder order : orders)
+			assertLoaded(filename, order);
+	}
+
+	/**
+	 * Test case: a maze is added again with the same key in another format
+	 * <p>
+	 * Method under test: add
+	 * <p>
+	 * Correct behavior: the archive holds a single maze for the key, the latest one
+	 */
+	@Test
+	final void testReplace() throws IOException {
+		String filename = dir.resolve("replace" + MazeArchive.EXTENSION).toString();
+		StubOrder order = createOrder(1, Builder.DFS, false, 13);
+		try (MazeArchive archive = new MazeArchive(filename, true)) {
+			archive.add(order, order.getMaze(), MazeArchive.Format.BINARY);
+			archive.add(order, order.getMaze(), MazeArchive.Format.XML);
+			assertEquals(1, archive.size());
+		}
+		try (MazeArchive archive = new MazeArchive(filename, false)) {
+			assertEquals(MazeArchive.Format.XML, archive.find(getKey(order)).getFormat());
+		}
+		assertLoaded(filename, order);
+	}
+
+	/**
+	 * Test case: references, malformed keys and files that are not archives
+	 * <p>
+	 * Method under test: isReference, find, constructor
+	 * <p>
+	 * Correct behavior: only names with the archive extension are references,
+	 * IOException for a malformed key and a file that is not an archive,
+	 * no entry for a key that is not in the archive
+	 */
+	@Test
+	final void testInvalid() throws IOException {
+		assertTrue(MazeArchive.isReference("dir/a.mazes#3_DFS_false_13"));
+		assertFalse(MazeArchive.isReference("dir/a#b.xml"));
+		assertEquals("dir/a.mazes", MazeArchive.getArchiveName("dir/a.mazes#3_DFS_false_13"));
+		assertEquals("3_DFS_false_13", MazeArchive.getKey("dir/a.mazes#3_DFS_false_13"));
+
+		String filename = dir.resolve("empty" + MazeArchive.EXTENSION).toString();
+		new MazeArchive(filename, true).close();
+		try (MazeArchive archive = new MazeArchive(filename, false)) {
+			assertEquals(0, archive.size());
+			assertNull(archive.find("3_DFS_false_13"));
+			assertThrows(IOException.class, () -> archive.find("3_DFS_13"));
+			assertThrows(IOException.class, () -> archive.find("3_Unknown_false_13"));
+			assertThrows(IllegalStateException.class,
+					() -> archive.add(new StubOrder(), null, MazeArchive.Format.BINARY));
+		}
+
+		Path other = dir.resolve("other" + MazeArchive.EXTENSION);
+		Files.write(other, new byte[100]);
+		assertThrows(IOException.class, () -> new MazeArchive(other.toString(), false));
+		assertThrows(IOException.class, () -> new MazeArchive(other.toString(), true));
+	}
+
+	/**
+	 * Test case: an existing archive is opened for appending, adding a maze
+	 * fails halfway and the application ends before the archive is closed
+	 * <p>
+	 * Method under test: add, close, constructor
+	 * <p>
+	 * Correct behavior: the file as the application leaves it still has the mazes
+	 * of the first session and more can be added to it, closing the archive after
+	 * the failure keeps the mazes that were added successfully
+	 */
+	@Test
+	final void testRecovery() throws IOException {
+		String filename = dir.resolve("recover" + MazeArchive.EXTENSION).toString();
+		String crashed = dir.resolve("crashed" + MazeArchive.EXTENSION).toString();
+		StubOrder[] orders = {
+				createOrder(1, Builder.DFS, false, 13), createOrder(2, Builder.Prim, true, 14),
+				createOrder(1, Builder.Boruvka, false, 15), createOrder(2, Builder.DFS, true, 16) };
+		try (MazeArchive archive = new MazeArchive(filename, true)) {
+			archive.add(orders[0], orders[0].getMaze(), MazeArchive.Format.BINARY);
+			archive.add(orders[1], orders[1].getMaze(), MazeArchive.Format.XML);
+		}
+		try (MazeArchive archive = new MazeArchive(filename, true)) {
+			archive.add(orders[2], orders[2].getMaze(), MazeArchive.Format.BINARY);
+			long size = Files.size(Paths.get(filename));
+			StubOrder failing = new StubOrder();
+			failing.setBuilder(Builder.DFS);
+			assertThrows(NullPointerException.class, () -> archive.add(failing, createFailingMaze(), MazeArchive.Format.BINARY));
+			assertTrue(Files.size(Paths.get(filename)) > size);
+			// the file as it is if the application ends now
+			Files.copy(Paths.get(filename), Paths.get(crashed));
+		}
+
+		try (MazeArchive archive = new MazeArchive(crashed, false)) {
+			assertEquals(2, archive.size());
+			assertFalse(archive.contains(getKey(orders[2])));
+		}
+		assertLoaded(crashed, orders[0]);
+		assertLoaded(crashed, orders[1]);
+		try (MazeArchive archive = new MazeArchive(filename, false)) {
+			assertEquals(3, archive.size());
+		}
+		for (int i = 0; i < 3; i++)
+			assertLoaded(filename, orders[i]);
+
+		try (MazeArchive archive = new MazeArchive(crashed, true)) {
+			archive.add(orders[3], orders[3].getMaze(), MazeArchive.Format.BINARY);
+		}
+		try (MazeArchive archive = new MazeArchive(crashed, false)) {
+			assertEquals(3, archive.size());
+		}
+		assertLoaded(crashed, orders[0]);
+		assertLoaded(crashed, orders[1]);
+		assertLoaded(crashed, orders[3]);
+	}
+}
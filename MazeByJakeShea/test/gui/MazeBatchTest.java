@@ -0,0 +1,100 @@
+package gui;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import generation.Order.Builder;
+
+/**
+ * Tests the MazeBatch. All mazes of a batch must be stored such that
+ * the MazeFileReader can load them, in a directory or in an archive.
+ *
+ * @author Jake Shea
+ *
+ */
+class MazeBatchTest {
+
+	@TempDir
+	Path dir;
+
+	/**
+	 * Test case: command line arguments
+	 * <p>
+	 * Method under test: parse, parseSkills, parseBuilders, percentile
+	 * <p>
+	 * Correct behavior: ranges and lists are expanded, names are not case sensitive,
+	 * IllegalArgumentException for invalid arguments
+	 */
+	@Test
+	final void testParse() {
+		assertArrayEquals(new int[] { 0, 1, 2, 9 }, MazeBatch.parseSkills("0-2,9"));
+		assertArrayEquals(new Builder[] { Builder.DFS, Builder.Eller }, MazeBatch.parseBuilders("dfs,Eller"));
+		assertEquals(3 * 2 * 2, MazeBatch.parse(new String[] { "-n", "3", "-s", "4-5", "-g", "Prim,Kruskal", "-p" }).getCount());
+		assertEquals(10 * 10 * Builder.values().length, MazeBatch.parse(new String[0]).getCount());
+		assertThrows(IllegalArgumentException.class, () -> MazeBatch.parseSkills("3-16"));
+		assertThrows(IllegalArgumentException.class, () -> MazeBatch.parseBuilders("DFS,Wilson"));
+		assertThrows(IllegalArgumentException.class, () -> MazeBatch.parse(new String[] { "-n", "0" }));
+		assertThrows(IllegalArgumentException.class, () -> MazeBatch.parse(new String[] { "-n" }));
+		assertThrows(IllegalArgumentException.class, () -> MazeBatch.parse(new String[] { "-x", "1" }));
+		assertThrows(IllegalArgumentException.class,
+				() -> MazeBatch.parse(new String[] { "-o", "a" + MazeArchive.EXTENSION, "-f", "mapped" }));
+
+		long[] sorted = { 1000000, 2000000, 3000000, 4000000 };
+		assertEquals(2.0, MazeBatch.percentile(sorted, 50));
+		assertEquals(4.0, MazeBatch.percentile(sorted, 99));
+		assertEquals(0.0, MazeBatch.percentile(new long[0], 50));
+	}
+
+	/**
+	 * Test case: a batch into a directory, in binary and xml format
+	 * <p>
+	 * Method under test: run
+	 * <p>
+	 * Correct behavior: a file for each maze, named by its key, that can be loaded
+	 */
+	@Test
+	final void testDirectory() throws Exception {
+		for (String format : new String[] { "binary", "xml" }) {
+			String output = dir.resolve(format).toString();
+			MazeBatch batch = MazeBatch.parse(new String[] { "-n", "2", "-s", "0-1", "-g", "DFS,Eller", "-t", "2",
+					"-o", output, "-f", format });
+			assertEquals(8, batch.run());
+			String extension = "xml".equals(format) ? ".xml" : MazeBinaryWriter.EXTENSION;
+			assertEquals(8, new File(output).list().length);
+			MazeFileReader reader = new MazeFileReader(
+					new File(output, MazeArchive.getKey(1, Builder.Eller, false, 14) + extension).getPath());
+			assertEquals(Constants.SKILL_X[1], reader.getWidth());
+			assertTrue(null != reader.getRootNode());
+		}
+	}
+
+	/**
+	 * Test case: a batch into an archive
+	 * <p>
+	 * Method under test: run
+	 * <p>
+	 * Correct behavior: the archive holds each maze with its key
+	 */
+	@Test
+	final void testArchive() throws Exception {
+		String output = dir.resolve("batch" + MazeArchive.EXTENSION).toString();
+		MazeBatch batch = MazeBatch.parse(new String[] { "-n", "3", "-s", "2", "-g", "Kruskal,Boruvka", "-p", "-e", "7",
+				"-o", output });
+		assertEquals(6, batch.run());
+		try (MazeArchive archive = new MazeArchive(output, false)) {
+			assertEquals(6, archive.size());
+			for (int seed = 7; seed < 10; seed++) {
+				assertTrue(archive.contains(MazeArchive.getKey(2, Builder.Kruskal, true, seed)));
+				assertTrue(archive.contains(MazeArchive.getKey(2, Builder.Boruvka, true, seed)));
+			}
+		}
+	}
+}
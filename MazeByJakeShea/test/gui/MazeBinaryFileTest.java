@@ -0,0 +1,223 @@
+package gui;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import generation.BSPBranch;
+import generation.BSPLeaf;
+import generation.BSPNode;
+import generation.Distance;
+import generation.Maze;
+import generation.MazeFactory;
+import generation.Order.Builder;
+import generation.StubOrder;
+
+/**
+ * Tests the binary maze file formats of the MazeBinaryWriter and MazeBinaryReader
+ * and of the MazeMappedFile.
+ * A maze that is stored in a binary format and loaded again must be the same
+ * as the maze that is stored and loaded in the XML format.
+ *
+ * @author Jake Shea
+ *
+ */
+class MazeBinaryFileTest {
+
+	private static final int SEED = 13;
+
+	@TempDir
+	Path dir;
+
+	/**
+	 * Creates a maze with the MazeFactory
+	 * @param skill is the skill level
+	 * @param builder is the algorithm to use
+	 * @return the maze
+	 */
+	private Maze createMaze(int skill, Builder builder) {
+		StubOrder order = new StubOrder();
+		order.setBuilder(builder);
+		order.setSkill(skill);
+		order.setSeed(SEED);
+		MazeFactory factory = new MazeFactory();
+		factory.order(order);
+		factory.waitTillDelivered();
+		return order.getMaze();
+	}
+
+	/**
+	 * Stores the maze with the MazeFileWriter in the given file
+	 * @return the name of the file
+	 */
+	private String store(Maze maze, int skill, String name) {
+		String filename = dir.resolve(name).toString();
+		int[] start = maze.getStartingPosition();
+		MazeFileWriter.store(filename, maze.getWidth(), maze.getHeight(), skill, Constants.SKILL_PARTCT[skill],
+				maze.getRootnode(), maze.getFloorplan(), maze.getMazedists().getAllDistanceValues(), start[0], start[1]);
+		return filename;
+	}
+
+	/**
+	 * Test case: a maze stored in the binary format is loaded as the same maze
+	 * as in the XML format.
+	 * <p>
+	 * Method under test: MazeFileWriter.store, MazeFileReader constructor for both formats
+	 * <p>
+	 * Correct behavior: all fields and the BSP tree match, the binary file is
+	 * considerably smaller than the XML file
+	 */
+	@Test
+	final void testBinaryMatchesXml() {
+		Builder[] builders = { Builder.DFS, Builder.Prim };
+		int[] skills = { 0, 2 };
+		for (Builder builder : builders) {
+			for (int skill : skills) {
+				Maze maze = createMaze(skill, builder);
+				String xml = store(maze, skill, "maze" + skill + ".xml");
+				String binary = store(maze, skill, "maze" + skill + MazeBinaryWriter.EXTENSION);
+				MazeFileReader expected = new MazeFileReader(xml);
+				MazeFileReader actual = new MazeFileReader(binary);
+
+				assertEquals(expected.getWidth(), actual.getWidth());
+				assertEquals(expected.getHeight(), actual.getHeight());
+				assertEquals(expected.getRooms(), actual.getRooms());
+				assertEquals(expected.getExpectedPartiters(), actual.getExpectedPartiters());
+				assertEquals(expected.getStartX(), actual.getStartX());
+				assertEquals(expected.getStartY(), actual.getStartY());
+				assertEquals(expected.getCells(), actual.getCells());
+				assertArrayEquals(expected.getDistances(), actual.getDistances());
+				assertSameTree(expected.getRootNode(), actual.getRootNode());
+
+				long xmlSize = new File(xml).length();
+				long binarySize = new File(binary).length();
+				assertTrue(binarySize * 10 < xmlSize, "binary " + binarySize + " bytes, xml " + xmlSize + " bytes");
+			}
+		}
+	}
+
+	/**
+	 * Test case: the reader rejects files that are not in the binary format
+	 * <p>
+	 * Method under test: MazeBinaryReader constructor
+	 * <p>
+	 * Correct behavior: IOException for a wrong magic number, an unsupported version
+	 * and a file that is cut off
+	 */
+	@Test
+	final void testInvalidFiles() throws IOException {
+		String binary = store(createMaze(0, Builder.DFS), 0, "maze" + MazeBinaryWriter.EXTENSION);
+		byte[] content = Files.readAllBytes(Path.of(binary));
+
+		Path wrongMagic = dir.resolve("magic" + MazeBinaryWriter.EXTENSION);
+		byte[] bytes = content.clone();
+		ByteBuffer.wrap(bytes).putInt(0, 0x3C3F786D); // "<?xm"
+		Files.write(wrongMagic, bytes);
+		assertThrows(IOException.class, () -> new MazeBinaryReader(wrongMagic.toString()));
+
+		Path wrongVersion = dir.resolve("version" + MazeBinaryWriter.EXTENSION);
+		bytes = content.clone();
+		ByteBuffer.wrap(bytes).putInt(4, MazeBinaryWriter.VERSION + 1);
+		Files.write(wrongVersion, bytes);
+		assertThrows(IOException.class, () -> new MazeBinaryReader(wrongVersion.toString()));
+
+		Path truncated = dir.resolve("truncated" + MazeBinaryWriter.EXTENSION);
+		Files.write(truncated, Arrays.copyOf(content, content.length / 2));
+		assertThrows(IOException.class, () -> new MazeBinaryReader(truncated.toString()));
+	}
+
+	/**
+	 * Test case: a maze stored in the mapped format is the same maze
+	 * when the file is opened again.
+	 * <p>
+	 * Method under test: MazeFileWriter.store, MazeFileReader constructor and getMazeConfiguration
+	 * for the mapped format
+	 * <p>
+	 * Correct behavior: floorplan, distances, start and exit position and the BSP tree
+	 * match the generated maze, floorplan and distances are read-only
+	 */
+	@Test
+	final void testMappedMatchesMaze() {
+		for (int skill : new int[] { 0, 4 }) {
+			Maze maze = createMaze(skill, Builder.DFS);
+			String mapped = store(maze, skill, "maze" + skill + MazeMappedFile.EXTENSION);
+			MazeFileReader reader = new MazeFileReader(mapped);
+			Maze actual = reader.getMazeConfiguration();
+
+			assertEquals(maze.getWidth(), actual.getWidth());
+			assertEquals(maze.getHeight(), actual.getHeight());
+			assertEquals(skill, reader.getRooms());
+			assertEquals(Constants.SKILL_PARTCT[skill], reader.getExpectedPartiters());
+			assertArrayEquals(maze.getStartingPosition(), actual.getStartingPosition());
+			assertEquals(maze.getFloorplan(), actual.getFloorplan());
+			Distance dists = actual.getMazedists();
+			for (int x = 0; x < maze.getWidth(); x++)
+				for (int y = 0; y < maze.getHeight(); y++)
+					assertEquals(maze.getDistanceToExit(x, y), dists.getDistanceValue(x, y));
+			assertArrayEquals(maze.getMazedists().getAllDistanceValues(), dists.getAllDistanceValues());
+			assertArrayEquals(maze.getMazedists().getExitPosition(), dists.getExitPosition());
+			assertArrayEquals(maze.getMazedists().getStartPosition(), dists.getStartPosition());
+			assertSameTree(maze.getRootnode(), actual.getRootnode());
+
+			assertThrows(UnsupportedOperationException.class, () -> actual.getFloorplan().setCellAsVisited(0, 0));
+			assertThrows(UnsupportedOperationException.class, () -> dists.computeDistances(maze.getFloorplan()));
+		}
+	}
+
+	/**
+	 * Test case: opening a file that is not in the mapped format
+	 * <p>
+	 * Method under test: MazeMappedFile constructor
+	 * <p>
+	 * Correct behavior: IOException for a wrong magic number and a file that is cut off
+	 */
+	@Test
+	final void testInvalidMappedFiles() throws IOException {
+		String mapped = store(createMaze(0, Builder.DFS), 0, "maze" + MazeMappedFile.EXTENSION);
+		byte[] content = Files.readAllBytes(Path.of(mapped));
+
+		Path wrongMagic = dir.resolve("magic" + MazeMappedFile.EXTENSION);
+		byte[] bytes = content.clone();
+		ByteBuffer.wrap(bytes).putInt(0, MazeBinaryWriter.MAGIC);
+		Files.write(wrongMagic, bytes);
+		assertThrows(IOException.class, () -> new MazeMappedFile(wrongMagic.toString()));
+
+		Path truncated = dir.resolve("truncated" + MazeMappedFile.EXTENSION);
+		Files.write(truncated, Arrays.copyOf(content, content.length - 1));
+		assertThrows(IOException.class, () -> new MazeMappedFile(truncated.toString()));
+	}
+
+	/**
+	 * Asserts that both trees have the same structure, splitters and walls
+	 */
+	static void assertSameTree(BSPNode expected, BSPNode actual) {
+		assertEquals(expected.isIsleaf(), actual.isIsleaf());
+		assertEquals(expected.getLowerBoundX(), actual.getLowerBoundX());
+		assertEquals(expected.getUpperBoundX(), actual.getUpperBoundX());
+		assertEquals(expected.getLowerBoundY(), actual.getLowerBoundY());
+		assertEquals(expected.getUpperBoundY(), actual.getUpperBoundY());
+		if (expected.isIsleaf()) {
+			assertEquals(((BSPLeaf) expected).getAllWalls(), ((BSPLeaf) actual).getAllWalls());
+			return;
+		}
+		BSPBranch b = (BSPBranch) expected;
+		BSPBranch b2 = (BSPBranch) actual;
+		assertEquals(b.getX(), b2.getX());
+		assertEquals(b.getY(), b2.getY());
+		assertEquals(b.getDx(), b2.getDx());
+		assertEquals(b.getDy(), b2.getDy());
+		assertSameTree(b.getLeftBranch(), b2.getLeftBranch());
+		assertSameTree(b.getRightBranch(), b2.getRightBranch());
+	}
+}
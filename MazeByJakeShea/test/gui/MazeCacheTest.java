@@ -0,0 +1,164 @@
+package gui;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import generation.BSPBranch;
+import generation.BSPLeaf;
+import generation.BSPNode;
+import generation.Maze;
+import generation.MazeFactory;
+import generation.Order.Builder;
+import generation.StubOrder;
+import generation.Wall;
+
+/**
+ * Tests the MazeCache. Orders for the same maze must be delivered
+ * from the cache right away with a maze that matches the generated one,
+ * without sharing walls between deliveries.
+ *
+ * @author Jake Shea
+ *
+ */
+class MazeCacheTest {
+
+	@TempDir
+	Path dir;
+
+	private static StubOrder createOrder(int skill, int seed) {
+		StubOrder order = new StubOrder();
+		order.setBuilder(Builder.DFS);
+		order.setSkill(skill);
+		order.setSeed(seed);
+		return order;
+	}
+
+	/**
+	 * Orders a maze from the cache and waits for it
+	 */
+	private static Maze order(MazeCache cache, int skill, int seed) {
+		StubOrder order = createOrder(skill, seed);
+		assertTrue(cache.order(order));
+		cache.waitTillDelivered();
+		assertNotNull(order.getMaze());
+		return order.getMaze();
+	}
+
+	private static Wall getFirstWall(BSPNode node) {
+		while (!node.isIsleaf())
+			node = ((BSPBranch) node).getLeftBranch();
+		return ((BSPLeaf) node).getAllWalls().get(0);
+	}
+
+	/**
+	 * Test case: the same order twice
+	 * <p>
+	 * Method under test: order
+	 * <p>
+	 * Correct behavior: the second order is delivered within the call to order,
+	 * the maze matches the first one, walls are not shared
+	 */
+	@Test
+	final void testHit() {
+		MazeCache cache = new MazeCache(new MazeFactory());
+		Maze generated = order(cache, 2, 13);
+		assertEquals(0, cache.getHits());
+		assertEquals(1, cache.getMisses());
+
+		StubOrder order = createOrder(2, 13);
+		assertTrue(cache.order(order));
+		assertNotNull(order.getMaze()); // no need to wait
+		cache.waitTillDelivered();
+		assertEquals(1, cache.getHits());
+		assertEquals(1, cache.getMisses());
+		Maze cached = order.getMaze();
+		assertNotSame(generated, cached);
+		assertEquals(generated.getFloorplan(), cached.getFloorplan());
+		assertEquals(generated.getStartingPosition()[0], cached.getStartingPosition()[0]);
+		assertEquals(generated.getStartingPosition()[1], cached.getStartingPosition()[1]);
+		MazeBinaryFileTest.assertSameTree(generated.getRootnode(), cached.getRootnode());
+		assertNotSame(getFirstWall(generated.getRootnode()), getFirstWall(cached.getRootnode()));
+
+		getFirstWall(generated.getRootnode()).setSeen(true); // as in the first person view
+		getFirstWall(cached.getRootnode()).setSeen(true);
+		assertFalse(getFirstWall(order(cache, 2, 13).getRootnode()).isSeen());
+
+		order(cache, 2, 14);
+		assertEquals(2, cache.getMisses());
+		assertEquals(2, cache.size());
+	}
+
+	/**
+	 * Test case: a bound that fits a single maze
+	 * <p>
+	 * Method under test: order
+	 * <p>
+	 * Correct behavior: the least recently used maze is evicted and generated again
+	 */
+	@Test
+	final void testEviction() {
+		Maze maze = order(new MazeCache(new MazeFactory()), 1, 13);
+		MazeCache cache = new MazeCache(new MazeFactory(), MazeCache.estimateFootprint(maze) * 3 / 2, null);
+		order(cache, 1, 13);
+		order(cache, 1, 14);
+		assertEquals(1, cache.size());
+		assertEquals(1, cache.getEvictions());
+		assertTrue(cache.getBytes() <= MazeCache.estimateFootprint(maze) * 3 / 2);
+		order(cache, 1, 14);
+		assertEquals(1, cache.getHits());
+		order(cache, 1, 13);
+		assertEquals(3, cache.getMisses());
+	}
+
+	/**
+	 * Test case: a second cache on the same directory
+	 * <p>
+	 * Method under test: order
+	 * <p>
+	 * Correct behavior: the maze is loaded from disk and delivered right away,
+	 * it matches the generated maze
+	 */
+	@Test
+	final void testDiskTier() {
+		String directory = dir.resolve("cache").toString();
+		Maze generated = order(new MazeCache(new MazeFactory(), MazeCache.DEFAULT_MAX_BYTES, directory), 3, 13);
+
+		MazeCache cache = new MazeCache(new MazeFactory(), MazeCache.DEFAULT_MAX_BYTES, directory);
+		StubOrder order = createOrder(3, 13);
+		assertTrue(cache.order(order));
+		assertNotNull(order.getMaze());
+		assertEquals(1, cache.getDiskHits());
+		assertEquals(0, cache.getMisses());
+		assertEquals(generated.getFloorplan(), order.getMaze().getFloorplan());
+		MazeBinaryFileTest.assertSameTree(generated.getRootnode(), order.getMaze().getRootnode());
+		// now in memory
+		order(cache, 3, 13);
+		assertEquals(1, cache.getHits());
+		assertFalse(cache.toString().isEmpty());
+	}
+
+	/**
+	 * Test case: a maze that does not fit the bound
+	 * <p>
+	 * Method under test: order
+	 * <p>
+	 * Correct behavior: the maze is delivered but not kept
+	 */
+	@Test
+	final void testTooLarge() {
+		MazeCache cache = new MazeCache(new MazeFactory(), 1, null);
+		order(cache, 0, 13);
+		order(cache, 0, 13);
+		assertEquals(0, cache.size());
+		assertEquals(0, cache.getBytes());
+		assertEquals(2, cache.getMisses());
+	}
+}
@@ -0,0 +1,133 @@
+package gui;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import generation.Maze;
+import generation.MazeFactory;
+import generation.Order.Builder;
+import generation.StubOrder;
+
+/**
+ * Tests the MazeXmlStreamReader. It must read the same maze from an XML file
+ * as the MazeFileReader does with a DOM document.
+ *
+ * @author Jake Shea
+ *
+ */
+class MazeXmlStreamReaderTest {
+
+	/**
+	 * XML file that comes with the project, relative to the project directory
+	 */
+	static final String INPUT_FILE = "test/data/input.xml";
+	private static final int SEED = 13;
+
+	@TempDir
+	Path dir;
+
+	/**
+	 * Creates a maze with the MazeFactory and stores it in the XML format
+	 * @return the name of the file
+	 */
+	private String createMazeFile(int skill, Builder builder) {
+		StubOrder order = new StubOrder();
+		order.setBuilder(builder);
+		order.setSkill(skill);
+		order.setSeed(SEED);
+		MazeFactory factory = new MazeFactory();
+		factory.order(order);
+		factory.waitTillDelivered();
+		Maze maze = order.getMaze();
+		String filename = dir.resolve("maze" + skill + builder + ".xml").toString();
+		int[] start = maze.getStartingPosition();
+		MazeFileWriter.store(filename, maze.getWidth(), maze.getHeight(), skill, Constants.SKILL_PARTCT[skill],
+				maze.getRootnode(), maze.getFloorplan(), maze.getMazedists().getAllDistanceValues(), start[0], start[1]);
+		return filename;
+	}
+
+	/**
+	 * Asserts that the file is read the same with the DOM document and with the stream reader
+	 */
+	private static void assertSameContent(String filename) {
+		MazeFileReader expected = new MazeFileReader(filename, true);
+		MazeFileReader actual = new MazeFileReader(filename);
+		assertEquals(expected.getWidth(), actual.getWidth());
+		assertEquals(expected.getHeight(), actual.getHeight());
+		assertEquals(expected.getRooms(), actual.getRooms());
+		assertEquals(expected.getExpectedPartiters(), actual.getExpectedPartiters());
+		assertEquals(expected.getStartX(), actual.getStartX());
+		assertEquals(expected.getStartY(), actual.getStartY());
+		assertEquals(expected.getCells(), actual.getCells());
+		assertArrayEquals(expected.getDistances(), actual.getDistances());
+		MazeBinaryFileTest.assertSameTree(expected.getRootNode(), actual.getRootNode());
+	}
+
+	/**
+	 * Test case: generated mazes stored by the MazeFileWriter
+	 * <p>
+	 * Method under test: MazeFileReader constructor for XML files
+	 * <p>
+	 * Correct behavior: all fields and the BSP tree match the DOM based reading
+	 */
+	@Test
+	final void testGeneratedMazes() {
+		for (Builder builder : new Builder[] { Builder.DFS, Builder.Prim, Builder.Boruvka }) {
+			for (int skill : new int[] { 0, 1, 3 }) {
+				assertSameContent(createMazeFile(skill, builder));
+			}
+		}
+	}
+
+	/**
+	 * Test case: the XML file that comes with the project
+	 * <p>
+	 * Method under test: MazeFileReader constructor for XML files
+	 * <p>
+	 * Correct behavior: all fields and the BSP tree match the DOM based reading,
+	 * skipped if the test does not run in the project directory
+	 */
+	@Test
+	final void testInputFile() {
+		assumeTrue(Files.exists(Path.of(INPUT_FILE)));
+		assertSameContent(INPUT_FILE);
+		MazeFileReader reader = new MazeFileReader(INPUT_FILE);
+		assertEquals(20, reader.getWidth());
+		assertEquals(15, reader.getHeight());
+	}
+
+	/**
+	 * Test case: files that are not complete
+	 * <p>
+	 * Method under test: MazeXmlStreamReader constructor
+	 * <p>
+	 * Correct behavior: IOException for a file that is cut off, a missing cell
+	 * and a missing wall
+	 */
+	@Test
+	final void testIncompleteFiles() throws IOException {
+		String content = Files.readString(Path.of(createMazeFile(0, Builder.DFS)), StandardCharsets.UTF_8);
+
+		Path truncated = dir.resolve("truncated.xml");
+		Files.writeString(truncated, content.substring(0, content.length() / 2));
+		assertThrows(IOException.class, () -> new MazeXmlStreamReader(truncated.toString()));
+
+		Path noCell = dir.resolve("nocell.xml");
+		Files.writeString(noCell, content.replaceFirst("<cell_3>[0-9]*</cell_3>", ""));
+		assertThrows(IOException.class, () -> new MazeXmlStreamReader(noCell.toString()));
+
+		Path noWall = dir.resolve("nowall.xml");
+		Files.writeString(noWall, content.replaceFirst("<colSeg_[0-9]*_0>-?[0-9]*</colSeg_[0-9]*_0>", ""));
+		assertThrows(IOException.class, () -> new MazeXmlStreamReader(noWall.toString()));
+	}
+}
@@ -0,0 +1,89 @@
+package gui;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import generation.Maze;
+import generation.MazeFactory;
+import generation.Order.Builder;
+import generation.StubOrder;
+
+/**
+ * Tests the streaming MazeFileWriter.store. A file it writes must be
+ * read the same as a file written with a DOM document by MazeFileWriter.storeDOM.
+ *
+ * @author Jake Shea
+ *
+ */
+class MazeXmlStreamWriterTest {
+
+	private static final int SEED = 13;
+
+	@TempDir
+	Path dir;
+
+	/**
+	 * Test case: generated mazes stored with the stream writer and the DOM document
+	 * <p>
+	 * Method under test: MazeFileWriter.store
+	 * <p>
+	 * Correct behavior: both files are read the same, with the DOM document as well as
+	 * with the stream reader
+	 */
+	@Test
+	final void testSameAsDOM() throws IOException {
+		for (Builder builder : new Builder[] { Builder.DFS, Builder.Prim, Builder.Boruvka }) {
+			for (int skill : new int[] { 0, 2 }) {
+				StubOrder order = new StubOrder();
+				order.setBuilder(builder);
+				order.setSkill(skill);
+				order.setSeed(SEED);
+				MazeFactory factory = new MazeFactory();
+				factory.order(order);
+				factory.waitTillDelivered();
+				Maze maze = order.getMaze();
+				int[] start = maze.getStartingPosition();
+				int[][] dists = maze.getMazedists().getAllDistanceValues();
+
+				String streamed = dir.resolve("stream" + skill + builder + ".xml").toString();
+				String dom = dir.resolve("dom" + skill + builder + ".xml").toString();
+				MazeFileWriter.store(streamed, maze.getWidth(), maze.getHeight(), skill, Constants.SKILL_PARTCT[skill],
+						maze.getRootnode(), maze.getFloorplan(), dists, start[0], start[1]);
+				MazeFileWriter.storeDOM(dom, maze.getWidth(), maze.getHeight(), skill, Constants.SKILL_PARTCT[skill],
+						maze.getRootnode(), maze.getFloorplan(), dists, start[0], start[1]);
+
+				assertSameContent(new MazeFileReader(dom, true), new MazeFileReader(streamed, true));
+				assertSameContent(new MazeFileReader(dom), new MazeFileReader(streamed));
+				assertSameContent(new MazeFileReader(streamed, true), new MazeXmlStreamReader(streamed));
+			}
+		}
+	}
+
+	private static void assertSameContent(MazeFileReader expected, MazeFileReader actual) {
+		assertEquals(expected.getWidth(), actual.getWidth());
+		assertEquals(expected.getHeight(), actual.getHeight());
+		assertEquals(expected.getRooms(), actual.getRooms());
+		assertEquals(expected.getExpectedPartiters(), actual.getExpectedPartiters());
+		assertEquals(expected.getStartX(), actual.getStartX());
+		assertEquals(expected.getStartY(), actual.getStartY());
+		assertEquals(expected.getCells(), actual.getCells());
+		assertArrayEquals(expected.getDistances(), actual.getDistances());
+		MazeBinaryFileTest.assertSameTree(expected.getRootNode(), actual.getRootNode());
+	}
+
+	private static void assertSameContent(MazeFileReader expected, MazeXmlStreamReader actual) {
+		assertEquals(expected.getWidth(), actual.getWidth());
+		assertEquals(expected.getHeight(), actual.getHeight());
+		assertEquals(expected.getStartX(), actual.getStartX());
+		assertEquals(expected.getStartY(), actual.getStartY());
+		assertEquals(expected.getCells(), actual.getCells());
+		assertArrayEquals(expected.getDistances(), actual.getDistances());
+		MazeBinaryFileTest.assertSameTree(expected.getRootNode(), actual.getRootNode());
+	}
+}
@@ -1,10 +1,14 @@
 package gui;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.util.Random;
+
 import org.junit.jupiter.api.Test;
 /**
  * The RangeSet class is used to represent a starting interval [lb,ub]
@@ -246,4 +250,33 @@ class RangeSetTest {
 		}
 		assertTrue(sut.isEmpty());
 	}
+	/**
+	 * Test for the array based set against the former Vector based one.
+	 * Scenario: random removals, most of them split an interval, 
+	 * on a set with a capacity of a single interval such that it has to grow.
+	 * Intersections are computed into a buffer and with a new array.
+	 */
+	@Test
+	final void testSameAsVectorRangeSet() {
+		RangeSet sut = new RangeSet(1);
+		VectorRangeSet expected = new VectorRangeSet();
+		Random random = new Random(13);
+		int[] buffer = new int[2];
+		for (int frame = 0; frame < 100; frame++) {
+			sut.set(0, 399);
+			expected.set(0, 399);
+			for (int i = 0; i < 50; i++) {
+				int lb = random.nextInt(420) - 10;
+				int ub = lb + random.nextInt(20) - 2; // sometimes ub < lb
+				int[] intersect = expected.getIntersection(lb, ub);
+				assertArrayEquals(intersect, sut.getIntersection(lb, ub));
+				assertEquals(null != intersect, sut.getIntersection(lb, ub, buffer));
+				if (null != intersect)
+					assertArrayEquals(intersect, buffer);
+				sut.remove(lb, ub);
+				expected.remove(lb, ub);
+				assertEquals(expected.isEmpty(), sut.isEmpty());
+			}
+		}
+	}
 }
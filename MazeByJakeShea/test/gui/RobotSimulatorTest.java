@@ -0,0 +1,169 @@
+package gui;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+import generation.CardinalDirection;
+import gui.Constants.UserInput;
+import gui.Robot.Direction;
+import gui.RobotSimulator.Episode;
+import gui.RobotSimulator.Result;
+import gui.RobotSimulator.Simulation;
+
+/**
+ * Tests the RobotSimulator. A driver in the simulation must take the same path
+ * with the same energy as with the controller in the playing state.
+ *
+ * @author Jake Shea
+ *
+ */
+class RobotSimulatorTest extends DriverTest {
+
+	/**
+	 * Test case: command line arguments
+	 * <p>
+	 * Method under test: parse, parseDrivers
+	 * <p>
+	 * Correct behavior: drivers with and without sensors are accepted,
+	 * IllegalArgumentException for invalid arguments
+	 */
+	@Test
+	final void testParse() {
+		assertArrayEquals(new String[] { "Wizard", "wallfollower:0110" }, RobotSimulator.parseDrivers("Wizard,wallfollower:0110"));
+		assertEquals(2 * 3 * 1 * 2, RobotSimulator.parse(new String[] { "-n", "2", "-s", "0-2", "-g", "DFS", "-d", "Wizard,WallFollower" }).getCount());
+		assertThrows(IllegalArgumentException.class, () -> RobotSimulator.parseDrivers("Wizard,Explorer"));
+		assertThrows(IllegalArgumentException.class, () -> RobotSimulator.parseDrivers("WallFollower:012"));
+		assertThrows(IllegalArgumentException.class, () -> RobotSimulator.parse(new String[] { "-t", "0" }));
+	}
+
+	/**
+	 * Test case: a Wizard and a WallFollower on small mazes
+	 * <p>
+	 * Method under test: simulate
+	 * <p>
+	 * Correct behavior: the robot leaves the maze with the same path length and energy
+	 * as with the controller
+	 */
+	@Test
+	final void testSameAsController() throws Exception {
+		for (int seed : new int[] { 13, 519, 685 }) {
+			setUp(seed, 0);
+			Episode episode = RobotSimulator.simulate(maze, "Wizard");
+			ReliableRobot robot = new ReliableRobot();
+			Wizard wizard = new Wizard();
+			setForTesting(wizard, robot);
+			assertTrue(wizard.drive2Exit());
+			assertEquals(Result.EXITED, episode.result);
+			assertEquals(wizard.getPathLength(), episode.pathLength);
+			assertEquals(wizard.getEnergyConsumption(), episode.energy);
+			assertTrue(episode.operations > episode.pathLength);
+		}
+
+		setUp(519, 0);
+		Episode episode = RobotSimulator.simulate(maze, "WallFollower");
+		UnreliableRobot robot = new UnreliableRobot(1, 1, 1, 0);
+		WallFollower follower = new WallFollower();
+		setForTesting(follower, robot);
+		assertTrue(follower.drive2Exit());
+		assertEquals(Result.EXITED, episode.result);
+		assertEquals(follower.getPathLength(), episode.pathLength);
+		assertEquals(follower.getEnergyConsumption(), episode.energy);
+	}
+
+	/**
+	 * Test case: an unreliable robot on the simulated clock
+	 * <p>
+	 * Method under test: Simulation.keyDown
+	 * <p>
+	 * Correct behavior: sensors fail and get repaired with the schedule of UnreliableRobot.start,
+	 * a sensor changes its state only when the robot changes its position
+	 */
+	@Test
+	final void testFailureAndRepair() {
+		setUp(13, 1);
+		UnreliableRobot robot = new UnreliableRobot(0, 0, 1, 0);
+		Simulation simulation = new Simulation(maze, robot);
+		robot.setController(simulation);
+		// 4 seconds of rotations
+		for (int i = 0; i < UnreliableRobot.MEAN_TIME_BETWEEN_FAILURES / RobotSimulator.OPERATION_TIME; i++)
+			simulation.keyDown(UserInput.LEFT, 0);
+		assertTrue(((UnreliableSensor) robot.getSensor(Direction.LEFT)).getFunctional());
+		jump(simulation);
+		assertFalse(((UnreliableSensor) robot.getSensor(Direction.LEFT)).getFunctional());
+		assertTrue(((UnreliableSensor) robot.getSensor(Direction.FORWARD)).getFunctional());
+		// 2 more seconds
+		for (int i = 0; i < UnreliableRobot.MEAN_TIME_TO_REPAIR / RobotSimulator.OPERATION_TIME; i++)
+			simulation.keyDown(UserInput.LEFT, 0);
+		jump(simulation);
+		assertTrue(((UnreliableSensor) robot.getSensor(Direction.LEFT)).getFunctional());
+		assertFalse(((UnreliableSensor) robot.getSensor(Direction.FORWARD)).getFunctional());
+	}
+
+	/**
+	 * Jumps to a neighbor in the maze, turns as needed
+	 */
+	private static void jump(Simulation simulation) {
+		int[] position = simulation.getCurrentPosition();
+		for (int turns = 0; turns < 4; turns++) {
+			CardinalDirection direction = simulation.getCurrentDirection();
+			int[] ahead = { position[0] + direction.getDX(), position[1] + direction.getDY() };
+			if (simulation.getMazeConfiguration().isValidPosition(ahead[0], ahead[1])) {
+				simulation.keyDown(UserInput.JUMP, 0);
+				assertArrayEquals(ahead, simulation.getCurrentPosition());
+				return;
+			}
+			simulation.keyDown(UserInput.LEFT, 0);
+		}
+	}
+
+	/**
+	 * Test case: a driver that senses without end
+	 * <p>
+	 * Method under test: simulate
+	 * <p>
+	 * Correct behavior: the episode is stopped as stuck
+	 */
+	@Test
+	final void testStuck() {
+		setUp(13, 0);
+		RobotDriver driver = new WallFollower() {
+			private Robot robot;
+			@Override
+			public void setRobot(Robot r) {
+				super.setRobot(r);
+				robot = r;
+			}
+			@Override
+			public boolean drive2Exit() {
+				while (true)
+					robot.distanceToObstacle(Direction.FORWARD);
+			}
+		};
+		Episode episode = RobotSimulator.simulate(maze, new ReliableRobot(), driver);
+		assertEquals(Result.STUCK, episode.result);
+		assertEquals(0, episode.pathLength);
+	}
+
+	/**
+	 * Test case: a batch of episodes
+	 * <p>
+	 * Method under test: run
+	 * <p>
+	 * Correct behavior: an episode for each maze and driver, the Wizard always exits
+	 */
+	@Test
+	final void testRun() throws Exception {
+		RobotSimulator simulator = RobotSimulator.parse(new String[] { "-n", "5", "-s", "0-1", "-d", "Wizard,WallFollower:0000", "-t", "2" });
+		Episode[][] episodes = simulator.run();
+		assertEquals(simulator.getCount(), episodes.length * 2);
+		for (Episode[] maze : episodes) {
+			assertEquals(Result.EXITED, maze[0].result);
+			assertTrue(null != maze[1].result);
+		}
+	}
+}
@@ -0,0 +1,55 @@
+package gui;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests the ViewTransform. The tables must give the same viewing directions
+ * as the computation with Math.cos and Math.sin that the views used before.
+ *
+ * @author Jake Shea
+ *
+ */
+class ViewTransformTest {
+
+	/**
+	 * Test case: viewing directions for all angles
+	 * <p>
+	 * Method under test: getViewDX, getViewDY
+	 * <p>
+	 * Correct behavior: same values as with Math.cos and Math.sin,
+	 * angles outside of [0,359] are taken modulo 360
+	 */
+	@Test
+	final void testViewDirection() {
+		for (int angle = 0; angle < 360; angle++) {
+			assertEquals((int) (Math.cos(angle*Math.PI/180)*(1<<16)), ViewTransform.getViewDX(angle), "angle " + angle);
+			assertEquals((int) (Math.sin(angle*Math.PI/180)*(1<<16)), ViewTransform.getViewDY(angle), "angle " + angle);
+			assertEquals(ViewTransform.getViewDX(angle), ViewTransform.getViewDX(angle - 360));
+			assertEquals(ViewTransform.getViewDY(angle), ViewTransform.getViewDY(angle + 360));
+		}
+		assertEquals(ViewTransform.ONE, ViewTransform.getViewDX(0));
+		assertEquals(ViewTransform.ONE, ViewTransform.getViewDY(90));
+	}
+
+	/**
+	 * Test case: points relative to a viewer that looks east or north
+	 * <p>
+	 * Method under test: toViewX, toViewZ, unscale
+	 * <p>
+	 * Correct behavior: z is the negated distance along the viewing direction,
+	 * x the negated offset to its right, unscale rounds towards negative infinity
+	 */
+	@Test
+	final void testToView() {
+		int east = 0;
+		assertEquals(-100, ViewTransform.toViewZ(ViewTransform.getViewDX(east), ViewTransform.getViewDY(east), 100, 20));
+		assertEquals(20, ViewTransform.toViewX(ViewTransform.getViewDX(east), ViewTransform.getViewDY(east), 100, 20));
+		int north = 90;
+		assertEquals(-20, ViewTransform.toViewZ(ViewTransform.getViewDX(north), ViewTransform.getViewDY(north), 100, 20));
+		assertEquals(-100, ViewTransform.toViewX(ViewTransform.getViewDX(north), ViewTransform.getViewDY(north), 100, 20));
+		assertEquals(-1, ViewTransform.unscale(-1));
+		assertEquals(2, ViewTransform.unscale(2 * ViewTransform.ONE + 1));
+	}
+}